@@ -0,0 +1,296 @@
+package optimizer.domain;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable, compiled representation of a slot allocation problem. The instance is built once per optimization
+ * session and shared by all solvers (Hungarian algorithm, Pareto front estimation, genetic algorithm) and
+ * evaluators, so that the weights of the flights need not be re-indexed by each of them.
+ * <p>
+ * Flights and slots are referred to by their index in the original (session) order. Weights are stored in
+ * row-major order, i.e., the weight of assigning flight f to slot j is stored at {@code f * slotCount + j}.
+ * The weights array of a {@link Flight} is given in the order of the slots sorted by time; the instance
+ * translates this order into the session order of the slots. If both weights are known, they are only stored
+ * interleaved, i.e., the weight and the second weight of cell {@code f * slotCount + j} are stored next to each other
+ * at twice the cell index, so that both objectives are read with a single access.
+ */
+public final class ProblemInstance {
+    /**
+     * Weight of an assignment for which no weight is known, e.g., in privacy-preserving mode.
+     */
+    public static final int MISSING_WEIGHT = Integer.MIN_VALUE;
+
+    private final Flight[] flights;
+    private final Slot[] slots;
+    private final int flightCount;
+    private final int slotCount;
+
+    // time rank of each slot (session order) and session index of each slot (time order)
+    private final int[] slotRank;
+    private final int[] slotsByTime;
+
+    // row-major weight matrices; null if no weights are known for the respective objective or if the weights are
+    // stored interleaved
+    private final int[] weights;
+    private final int[] secondWeights;
+    // (weight, second weight) pairs per cell; null unless both objectives have weights
+    private final int[] interleavedWeights;
+
+    // time rank of the earliest slot at or after each flight's scheduled time
+    private final int[] earliestSlotRank;
+
+    private final Map<Flight, Integer> flightIndex;
+    private final Map<Slot, Integer> slotIndex;
+
+    private ProblemInstance(Flight[] flights, Slot[] slots) {
+        this.flights = flights.clone();
+        this.slots = slots.clone();
+        this.flightCount = flights.length;
+        this.slotCount = slots.length;
+
+        this.slotsByTime = IntStream.range(0, slotCount)
+                .boxed()
+                .sorted(Comparator.comparing(j -> slots[j]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        this.slotRank = new int[slotCount];
+        for(int k = 0; k < slotCount; k++) {
+            slotRank[slotsByTime[k]] = k;
+        }
+
+        int[][] flightWeights = Arrays.stream(flights).map(Flight::getWeights).toArray(int[][]::new);
+        int[][] secondFlightWeights = Arrays.stream(flights)
+                .map(f -> f instanceof FlightMO ? ((FlightMO) f).getSecondWeights() : null)
+                .toArray(int[][]::new);
+
+        if(hasAnyWeights(flightWeights) && hasAnyWeights(secondFlightWeights)) {
+            this.weights = null;
+            this.secondWeights = null;
+            this.interleavedWeights = new int[2 * flightCount * slotCount];
+            compileWeights(flightWeights, interleavedWeights, 2, 0);
+            compileWeights(secondFlightWeights, interleavedWeights, 2, 1);
+        } else {
+            this.weights = compileWeights(flightWeights);
+            this.secondWeights = compileWeights(secondFlightWeights);
+            this.interleavedWeights = null;
+        }
+
+        this.earliestSlotRank = new int[flightCount];
+        for(int f = 0; f < flightCount; f++) {
+            earliestSlotRank[f] = computeEarliestSlotRank(flights[f].getScheduledTime());
+        }
+
+        this.flightIndex = new IdentityHashMap<>(flightCount);
+        for(int f = 0; f < flightCount; f++) {
+            flightIndex.put(flights[f], f);
+        }
+
+        this.slotIndex = new IdentityHashMap<>(slotCount);
+        for(int j = 0; j < slotCount; j++) {
+            slotIndex.put(slots[j], j);
+        }
+    }
+
+    /**
+     * Compiles a problem instance from flights and slots given in session order.
+     * @param flights the flights in the original order
+     * @param slots the slots in the original order
+     * @return the compiled problem instance
+     */
+    public static ProblemInstance of(Flight[] flights, Slot[] slots) {
+        return new ProblemInstance(flights, slots);
+    }
+
+    private static boolean hasAnyWeights(int[][] flightWeights) {
+        return Arrays.stream(flightWeights).anyMatch(w -> w != null);
+    }
+
+    /**
+     * Translates per-flight weights given in slot time order into a row-major matrix in slot session order.
+     * Returns null if none of the flights has weights, e.g., in privacy-preserving mode.
+     */
+    private int[] compileWeights(int[][] flightWeights) {
+        if(!hasAnyWeights(flightWeights)) {
+            return null;
+        }
+
+        int[] matrix = new int[flightCount * slotCount];
+        compileWeights(flightWeights, matrix, 1, 0);
+        return matrix;
+    }
+
+    /**
+     * Translates per-flight weights given in slot time order into the matrix, storing the weight of cell
+     * {@code f * slotCount + j} at {@code stride * (f * slotCount + j) + offset}.
+     */
+    private void compileWeights(int[][] flightWeights, int[] matrix, int stride, int offset) {
+        for(int f = 0; f < flightCount; f++) {
+            int[] w = flightWeights[f];
+            int row = f * slotCount;
+
+            for(int j = 0; j < slotCount; j++) {
+                matrix[stride * (row + j) + offset] = MISSING_WEIGHT;
+            }
+            if(w == null) continue;
+
+            for(int k = 0; k < slotCount && k < w.length; k++) {
+                matrix[stride * (row + slotsByTime[k]) + offset] = w[k];
+            }
+        }
+    }
+
+    private int computeEarliestSlotRank(LocalDateTime scheduledTime) {
+        if(scheduledTime == null) {
+            return 0;
+        }
+
+        // binary search for the first slot (in time order) that is not before the scheduled time
+        int low = 0;
+        int high = slotCount;
+        while(low < high) {
+            int mid = (low + high) >>> 1;
+            if(slots[slotsByTime[mid]].getTime().isBefore(scheduledTime)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public int getFlightCount() {
+        return flightCount;
+    }
+
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    public Flight getFlight(int f) {
+        return flights[f];
+    }
+
+    public Slot getSlot(int j) {
+        return slots[j];
+    }
+
+    public Flight[] getFlights() {
+        return flights.clone();
+    }
+
+    public Slot[] getSlots() {
+        return slots.clone();
+    }
+
+    /**
+     * @return the index of the flight in session order, or -1 if the flight is not part of this instance
+     */
+    public int indexOf(Flight flight) {
+        return flightIndex.getOrDefault(flight, -1);
+    }
+
+    /**
+     * @return the index of the slot in session order, or -1 if the slot is not part of this instance
+     */
+    public int indexOf(Slot slot) {
+        return slotIndex.getOrDefault(slot, -1);
+    }
+
+    /**
+     * @return the position of slot j when the slots are sorted by time
+     */
+    public int getSlotRank(int j) {
+        return slotRank[j];
+    }
+
+    /**
+     * @return the session index of the slot at position k when the slots are sorted by time
+     */
+    public int getSlotByTime(int k) {
+        return slotsByTime[k];
+    }
+
+    public boolean hasWeights() {
+        return weights != null || interleavedWeights != null;
+    }
+
+    public boolean hasSecondWeights() {
+        return secondWeights != null || interleavedWeights != null;
+    }
+
+    /**
+     * @return the weight of assigning flight f to slot j, or {@link #MISSING_WEIGHT} if unknown
+     */
+    public int getWeight(int f, int j) {
+        if(interleavedWeights != null) {
+            return interleavedWeights[(f * slotCount + j) << 1];
+        }
+        return weights == null ? MISSING_WEIGHT : weights[f * slotCount + j];
+    }
+
+    /**
+     * @return the second weight of assigning flight f to slot j, or {@link #MISSING_WEIGHT} if unknown
+     */
+    public int getSecondWeight(int f, int j) {
+        if(interleavedWeights != null) {
+            return interleavedWeights[((f * slotCount + j) << 1) + 1];
+        }
+        return secondWeights == null ? MISSING_WEIGHT : secondWeights[f * slotCount + j];
+    }
+
+    /**
+     * Direct access to the row-major weight matrix for the hot paths; the returned array must not be modified.
+     * @return the weight matrix, or null if no weights are known or if they are stored in the
+     * {@link #interleavedWeightMatrix() interleaved weight matrix}
+     */
+    public int[] weightMatrix() {
+        return weights;
+    }
+
+    /**
+     * Direct access to the row-major second weight matrix for the hot paths; the returned array must not be modified.
+     * @return the second weight matrix, or null if no second weights are known or if they are stored in the
+     * {@link #interleavedWeightMatrix() interleaved weight matrix}
+     */
+    public int[] secondWeightMatrix() {
+        return secondWeights;
+    }
+
+    /**
+     * Direct access to the interleaved weight matrix for the hot paths of two-objective problems: the weight of
+     * assigning flight f to slot j is stored at {@code 2 * (f * slotCount + j)}, the second weight right after it.
+     * The returned array must not be modified.
+     * @return the interleaved weight matrix, or null unless both weights are known
+     */
+    public int[] interleavedWeightMatrix() {
+        return interleavedWeights;
+    }
+
+    /**
+     * @return the time rank of the earliest slot flight f can be assigned to without violating its scheduled time;
+     * equals the slot count if there is no such slot
+     */
+    public int getEarliestSlotRank(int f) {
+        return earliestSlotRank[f];
+    }
+
+    /**
+     * @return true if assigning flight f to slot j does not violate the flight's scheduled time
+     */
+    public boolean isFeasible(int f, int j) {
+        return slotRank[j] >= earliestSlotRank[f];
+    }
+
+    /**
+     * @return true if assigning the flight to the slot does not violate the flight's scheduled time
+     */
+    public boolean isFeasible(Flight flight, Slot slot) {
+        return isFeasible(indexOf(flight), indexOf(slot));
+    }
+}
@@ -1,6 +1,7 @@
 package optimizer.optimization;
 
 import optimizer.domain.Flight;
+import optimizer.domain.ProblemInstance;
 import optimizer.domain.Slot;
 
 import java.util.UUID;
@@ -9,12 +10,25 @@ public abstract class Optimization<R, F extends Flight> {
 
     private F[] flights;
     private Slot[] slots;
+    private ProblemInstance instance;
     private UUID optId;
     protected R result;
 
     public Optimization(F[] flights, Slot[] slots) {
         this.flights = flights;
         this.slots = slots;
+        this.instance = ProblemInstance.of(flights, slots);
+    }
+
+    /**
+     * Creates an optimization that shares an already compiled problem instance, e.g., with another solver
+     * of the same optimization session.
+     */
+    @SuppressWarnings("unchecked")
+    public Optimization(ProblemInstance instance) {
+        this.flights = (F[]) instance.getFlights();
+        this.slots = instance.getSlots();
+        this.instance = instance;
     }
 
     public abstract R run();
@@ -27,6 +41,7 @@ public abstract class Optimization<R, F extends Flight> {
 
     public void setFlights(F[] flights) {
         this.flights = flights;
+        this.instance = ProblemInstance.of(flights, this.slots);
     }
 
     public Slot[] getSlots() {
@@ -35,6 +50,11 @@ public abstract class Optimization<R, F extends Flight> {
 
     public void setSlots(Slot[] slots) {
         this.slots = slots;
+        this.instance = ProblemInstance.of(this.flights, slots);
+    }
+
+    public ProblemInstance getInstance() {
+        return instance;
     }
 
     public UUID getOptId() {
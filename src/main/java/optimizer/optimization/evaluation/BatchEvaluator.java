@@ -1,26 +1,36 @@
 package optimizer.optimization.evaluation;
 
 import optimizer.optimization.FitnessMethod;
+import optimizer.optimization.jenetics.FitnessCache;
 import optimizer.optimization.jenetics.FitnessEvolutionStep;
 import optimizer.optimization.jenetics.JeneticsOptimization;
+import optimizer.optimization.jenetics.PermutationFingerprint;
 import optimizer.optimization.jenetics.SlotAllocationProblem;
 import io.jenetics.EnumGene;
 import io.jenetics.Genotype;
 import io.jenetics.Phenotype;
 import io.jenetics.engine.Evaluator;
+import io.jenetics.util.ISeq;
 import io.jenetics.util.Seq;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
-
-import static java.util.stream.Collectors.toMap;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 public abstract class BatchEvaluator<T extends Comparable<? super T>, V,
         O extends JeneticsOptimization,
-        P extends SlotAllocationProblem> implements Evaluator<EnumGene<Integer>, T> {
+        P extends SlotAllocationProblem<T, ?>> implements Evaluator<EnumGene<Integer>, T> {
 
     private static final Logger logger = LogManager.getLogger();
 
@@ -37,9 +47,17 @@ public abstract class BatchEvaluator<T extends Comparable<? super T>, V,
     protected long noRemainingDuplicates;
     protected long noGenerationsDuplicatesNotEliminated;
     protected long noGenerationsEvaluated;
+    /**
+     * Number of individuals not sent to the Privacy Engine, as they are copies of another individual of the population.
+     */
+    protected long noDuplicatesNotSent;
 
     protected final O optimization;
     protected final P problem;
+    /**
+     * Index of the island of an island model whose population is evaluated; 0 for a single engine.
+     */
+    protected int island;
 
     /**
      * Devaluation statistics
@@ -61,6 +79,26 @@ public abstract class BatchEvaluator<T extends Comparable<? super T>, V,
      */
     protected final boolean useActualFitnessValues;
 
+    /**
+     * If true, the actual fitness values are computed in parallel.
+     */
+    protected final boolean isParallelEvaluation;
+    /**
+     * Dedicated pool for parallel evaluation; null if the common fork/join pool is used.
+     */
+    private final ForkJoinPool evaluationPool;
+
+    /**
+     * Encodes populations for the Privacy Engine into a reusable buffer.
+     */
+    private final PopulationEncoder encoder;
+
+    /**
+     * Invalid assignments of the genotypes of the last population evaluated by {@link #evaluateActualFitness(List)},
+     * counted in the same pass as the fitness; keyed by identity.
+     */
+    private Map<Genotype<EnumGene<Integer>>, Integer> precomputedInvalidAssignments = Collections.emptyMap();
+
     public BatchEvaluator(P problem, O optimization) {
         this.problem = problem;
         this.optimization = optimization;
@@ -79,6 +117,188 @@ public abstract class BatchEvaluator<T extends Comparable<? super T>, V,
         this.useActualFitnessValues = Boolean.parseBoolean(System.getenv("USE_ACTUAL_FITNESS"))
                 || this.optimization.getFitnessMethod() == FitnessMethod.ACTUAL_VALUES;
         logger.info("Using actual fitness values: {}.", useActualFitnessValues);
+
+        this.encoder = new PopulationEncoder(problem.getInstance());
+
+        this.isParallelEvaluation = optimization.getConfiguration().isParallelEvaluation();
+        int evaluationThreads = optimization.getConfiguration().getEvaluationThreads();
+        this.evaluationPool = isParallelEvaluation && evaluationThreads > 0 ? new ForkJoinPool(evaluationThreads) : null;
+        logger.info("Parallel evaluation: {}; evaluation threads: {}.", isParallelEvaluation,
+                evaluationPool != null ? evaluationThreads : ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Determines the distinct genotypes of the population, which are sent to the Privacy Engine instead of the
+     * population.
+     * @param population the population to be evaluated by the Privacy Engine
+     * @return the distinct genotypes and the mapping back onto the population
+     */
+    protected DistinctPopulation<T> distinctPopulation(Seq<Phenotype<EnumGene<Integer>, T>> population) {
+        DistinctPopulation<T> distinctPopulation = DistinctPopulation.of(population);
+        this.noDuplicatesNotSent += distinctPopulation.duplicates();
+        logger.debug("Sending " + distinctPopulation.size() + " distinct of " + population.size() + " individuals to the Privacy Engine.");
+        return distinctPopulation;
+    }
+
+    /**
+     * Computes the actual fitness values of the population using the Privacy Engine. Only the distinct genotypes
+     * whose fitness is not in the clear fitness cache of the optimization are sent to the Privacy Engine.
+     * @param population the population
+     * @return the actual fitness value of each individual of the population
+     * @throws IllegalStateException if the Privacy Engine did not return a fitness value for each individual sent
+     */
+    public Integer[] computeActualFitnessValues(Seq<Phenotype<EnumGene<Integer>, T>> population) {
+        DistinctPopulation<T> distinctPopulation = distinctPopulation(population);
+        Seq<Phenotype<EnumGene<Integer>, T>> distinct = distinctPopulation.distinct();
+        FitnessCache clearFitnessCache = this.optimization.getClearFitnessCache();
+        int flightCount = this.problem.getInstance().getFlightCount();
+
+        Integer[] fitnessValues = new Integer[distinct.size()];
+        long[] fingerprints = new long[distinct.size()];
+        int[] missing = new int[distinct.size()];
+        int missingCount = 0;
+        for(int d = 0; d < distinct.size(); d++) {
+            fingerprints[d] = PermutationFingerprint.of(distinct.get(d).genotype().chromosome(), flightCount);
+            int[] cached = clearFitnessCache.get(fingerprints[d]);
+            if(cached != null) {
+                fitnessValues[d] = cached[0];
+            } else {
+                missing[missingCount++] = d;
+            }
+        }
+
+        logger.debug("Actual fitness of " + (distinct.size() - missingCount) + " of " + distinct.size() + " distinct genotypes found in cache.");
+        if(missingCount > 0) {
+            Seq<Phenotype<EnumGene<Integer>, T>> uncached = missingCount == distinct.size() ? distinct :
+                    ISeq.of(Arrays.stream(missing, 0, missingCount).mapToObj(distinct::get).toList());
+            int[][] input = this.convertPopulationToArray(uncached);
+
+            Integer[] computed =
+                    this.optimization.getPrivacyEngineService().computeActualFitnessValues(this.optimization, input);
+            validateActualFitnessValues(computed, missingCount);
+
+            for(int k = 0; k < missingCount; k++) {
+                fitnessValues[missing[k]] = computed[k];
+                clearFitnessCache.put(fingerprints[missing[k]], new int[] { computed[k] });
+            }
+        }
+
+        return distinctPopulation.expandValues(fitnessValues);
+    }
+
+    /**
+     * Checks that the Privacy Engine returned a fitness value for each individual sent, before any of them is cached.
+     * @param computed the fitness values returned by the Privacy Engine
+     * @param expected the number of individuals sent
+     * @throws IllegalStateException if the number of values differs or a value is missing
+     */
+    private static void validateActualFitnessValues(Integer[] computed, int expected) {
+        if(computed == null || computed.length != expected) {
+            throw new IllegalStateException("Privacy Engine returned " + (computed == null ? "no" : computed.length)
+                    + " fitness values for " + expected + " individuals.");
+        }
+
+        for(int k = 0; k < expected; k++) {
+            if(computed[k] == null) {
+                throw new IllegalStateException("Privacy Engine returned no fitness value for individual " + k
+                        + " of " + expected + ".");
+            }
+        }
+    }
+
+    /**
+     * Determines the individuals of the population with distinct assignments, compared by their fingerprints instead
+     * of hashing the genotypes.
+     * @param population the population
+     * @return the first individual of each distinct assignment, in the order of the population
+     */
+    protected List<Phenotype<EnumGene<Integer>, T>> distinctAssignments(List<Phenotype<EnumGene<Integer>, T>> population) {
+        int flightCount = this.problem.getInstance().getFlightCount();
+        Set<Long> fingerprints = new HashSet<>(2 * population.size());
+        List<Phenotype<EnumGene<Integer>, T>> distinct = new ArrayList<>(population.size());
+
+        for(Phenotype<EnumGene<Integer>, T> phenotype : population) {
+            if(fingerprints.add(PermutationFingerprint.of(phenotype.genotype().chromosome(), flightCount))) {
+                distinct.add(phenotype);
+            }
+        }
+
+        return distinct;
+    }
+
+    /**
+     * @return the number of invalid assignments of the genotype, counted during the evaluation of its fitness if
+     * possible
+     */
+    protected int countInvalidAssignments(Genotype<EnumGene<Integer>> genotype) {
+        Integer invalidAssignments = precomputedInvalidAssignments.get(genotype);
+        return invalidAssignments != null ? invalidAssignments : this.problem.countInvalidAssignments(genotype);
+    }
+
+    /**
+     * Computes the actual fitness values of the phenotypes using the batch fitness function of the problem. In
+     * parallel mode, the population is split into one chunk per thread and each chunk is scored as a batch. The
+     * returned list has the same order as the input list regardless of the parallelism, so that any subsequent
+     * ranking is deterministic. The invalid assignments of each phenotype are counted in the same pass for the
+     * subsequent devaluation.
+     * @param phenotypes the phenotypes to evaluate
+     * @return the phenotypes with their actual fitness values, in input order
+     */
+    @SuppressWarnings("unchecked")
+    protected List<Phenotype<EnumGene<Integer>, T>> evaluateActualFitness(List<Phenotype<EnumGene<Integer>, T>> phenotypes) {
+        Phenotype<EnumGene<Integer>, T>[] evaluated = new Phenotype[phenotypes.size()];
+        int[] invalidAssignments = new int[phenotypes.size()];
+        int parallelism = evaluationPool != null ? evaluationPool.getParallelism() : ForkJoinPool.getCommonPoolParallelism();
+        int chunks = isParallelEvaluation ? Math.max(1, Math.min(parallelism, phenotypes.size())) : 1;
+        int chunkSize = (phenotypes.size() + chunks - 1) / chunks;
+
+        IntConsumer evaluate = c -> {
+            int from = c * chunkSize;
+            int to = Math.min(from + chunkSize, phenotypes.size());
+            if(from >= to) return;
+
+            List<T> fitness = problem.fitness(phenotypes.subList(from, to).stream().map(Phenotype::genotype).toList());
+            for(int i = from; i < to; i++) {
+                evaluated[i] = phenotypes.get(i).withFitness(fitness.get(i - from));
+                invalidAssignments[i] = problem.countInvalidAssignments(evaluated[i].genotype());
+            }
+        };
+
+        if(chunks < 2) {
+            evaluate.accept(0);
+        } else if(evaluationPool != null) {
+            // a parallel stream started from within a pool's task runs in that pool
+            evaluationPool.submit(() -> IntStream.range(0, chunks).parallel().forEach(evaluate)).join();
+        } else {
+            IntStream.range(0, chunks).parallel().forEach(evaluate);
+        }
+
+        Map<Genotype<EnumGene<Integer>>, Integer> precomputed = new IdentityHashMap<>(2 * evaluated.length);
+        for(int i = 0; i < evaluated.length; i++) {
+            precomputed.put(evaluated[i].genotype(), invalidAssignments[i]);
+        }
+        this.precomputedInvalidAssignments = precomputed;
+
+        return Arrays.asList(evaluated);
+    }
+
+    /**
+     * Convert the population from the Jenetics native representation to the array format required by the
+     * Privacy Engine.
+     * @param population the population in Jenetics representation
+     * @return the population in array format required by Privacy Engine
+     */
+    public int[][] convertPopulationToArray(Seq<Phenotype<EnumGene<Integer>, T>> population) {
+        return encoder.encode(population);
+    }
+
+    /**
+     * Releases the resources held by the evaluator; to be called when the optimization run has finished.
+     */
+    public void shutdown() {
+        if(evaluationPool != null) {
+            evaluationPool.shutdown();
+        }
     }
 
     /**
@@ -99,33 +319,42 @@ public abstract class BatchEvaluator<T extends Comparable<? super T>, V,
     protected abstract PopulationEvaluation<T> evaluatePopulation(Seq<Phenotype<EnumGene<Integer>, T>> population, FitnessEvolutionStep<V> fitnessEvolutionStep);
 
 
+    /**
+     * Counts the duplicates of the population by the fingerprints of the assignments, see
+     * {@link optimizer.optimization.jenetics.UniquePopulationIndex}.
+     * @return true if the population contains duplicates and is encountered for the first time, in which case it is
+     * returned unevaluated, so that the duplicates are repaired before the population is evaluated
+     */
     protected boolean deduplicate( Seq<Phenotype<EnumGene<Integer>, T>> population, Long generation) {
         if(generation != latestUnevaluatedGeneration || trackDuplicates){
             logger.debug("Checking for duplicates.");
-            final Map<Genotype<EnumGene<Integer>>, Phenotype<EnumGene<Integer>, T>> elements =
-                    population.stream()
-                            .collect(toMap(
-                                    Phenotype::genotype,
-                                    Function.identity(),
-                                    (a, b) -> a));
-
-            if(elements.size() < population.size() && generation != latestUnevaluatedGeneration){
+            int duplicates = this.optimization.getUniquePopulationIndex(island).countDuplicates(population);
+
+            if(duplicates > 0 && generation != latestUnevaluatedGeneration){
                 logger.debug("Generation " + generation + " contains duplicates and is encountered for the first time.");
                 logger.debug("Returning unevaluated population with dummy fitness-values.");
                 this.noGenerationsUnevaluated++;
-                this.noInitialDuplicates = noInitialDuplicates + population.size() - elements.size();
+                this.noInitialDuplicates = noInitialDuplicates + duplicates;
 
                 latestUnevaluatedGeneration = generation;
                 return true;
             }
-            this.noRemainingDuplicates = noRemainingDuplicates + population.size() - elements.size();
-            if(elements.size() < population.size()) this.noGenerationsDuplicatesNotEliminated++;
+            this.noRemainingDuplicates = noRemainingDuplicates + duplicates;
+            if(duplicates > 0) this.noGenerationsDuplicatesNotEliminated++;
             return false;
         }
         return false;
     }
 
 
+    public int getIsland() {
+        return island;
+    }
+
+    public void setIsland(int island) {
+        this.island = island;
+    }
+
     public void printLogs(){
         logger.info("--------------- Statistics Batch Evaluator --------------------");
         logger.info("Deduplication: " + this.isDeduplicate + ".");
@@ -135,6 +364,9 @@ public abstract class BatchEvaluator<T extends Comparable<? super T>, V,
         logger.info("Number of populations that have been rejected because of duplicates: " + this.noGenerationsUnevaluated);
         logger.info("Number of initial duplicates encountered: " + this.noInitialDuplicates);
         logger.info("Number of remaining duplicates after deduplication: " + this.noRemainingDuplicates);
+        logger.info("Number of duplicates repaired by perturbation: " + this.optimization.getUniquePopulationIndex(island).getRepairedDuplicates());
+        logger.info("Number of duplicates not sent to the Privacy Engine: " + this.noDuplicatesNotSent);
+        logger.info("Number of actual fitness values taken from the cache instead of the Privacy Engine: " + this.optimization.getClearFitnessCache().getHits());
         logger.info("Number of phenotypes checked for validness: " + this.noPhenotypes);
         logger.info("Number of invalid phenotypes found: " + this.noInvalidPhenotypes);
         logger.info("Number of invalid assignments: " + this.noInvalidAssignments);
@@ -146,7 +378,17 @@ public abstract class BatchEvaluator<T extends Comparable<? super T>, V,
      */
     static class PopulationEvaluation<T extends Comparable<? super T>>{
         protected List<Phenotype<EnumGene<Integer>, T>> evaluatedPopulation;
-        protected Map<Phenotype<EnumGene<Integer>, T>, T> fitnessQuantilesPopulation;
+        /**
+         * The fitness-range quantile of each candidate of the evaluated population, by the first and the second
+         * objective.
+         */
+        protected int[] fitnessQuantiles;
+        protected int[] fitnessQuantilesTwo;
+        /**
+         * The candidates of the evaluated population that exceed the threshold of the ABOVE_* fitness methods, by
+         * their index in the evaluated population.
+         */
+        protected BitSet selected;
         protected Genotype<EnumGene<Integer>> bestGenotype;
         protected Genotype<EnumGene<Integer>> bestGenotypeTwo;
         protected double maxFitness;
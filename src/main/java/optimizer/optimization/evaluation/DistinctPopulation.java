@@ -0,0 +1,165 @@
+package optimizer.optimization.evaluation;
+
+import io.jenetics.EnumGene;
+import io.jenetics.Genotype;
+import io.jenetics.Phenotype;
+import io.jenetics.util.ISeq;
+import io.jenetics.util.Seq;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The distinct genotypes of a population, so that only one copy of each genotype is sent to the Privacy Engine, and
+ * the mapping back onto the full population. Distinct genotypes are numbered in the order of their first occurrence;
+ * all copies of a genotype receive the response for its first occurrence, and where the response is an order, the
+ * copies directly follow each other in the order of the population.
+ */
+public final class DistinctPopulation<T extends Comparable<? super T>> {
+    private final Seq<Phenotype<EnumGene<Integer>, T>> population;
+    private final Seq<Phenotype<EnumGene<Integer>, T>> distinct;
+    /**
+     * For each individual of the population, the number of its genotype among the distinct genotypes.
+     */
+    private final int[] distinctIndex;
+    /**
+     * The indices of the individuals of the population grouped by genotype: the copies of the d-th distinct genotype
+     * are {@code copies[copiesStart[d]]} to {@code copies[copiesStart[d + 1] - 1]}.
+     */
+    private final int[] copiesStart;
+    private final int[] copies;
+
+    private DistinctPopulation(Seq<Phenotype<EnumGene<Integer>, T>> population) {
+        this.population = population;
+        this.distinctIndex = new int[population.size()];
+
+        Map<Genotype<EnumGene<Integer>>, Integer> numbers = new HashMap<>(2 * population.size());
+        int[] firstOccurrences = new int[population.size()];
+        int distinctCount = 0;
+        for(int i = 0; i < population.size(); i++) {
+            Integer number = numbers.putIfAbsent(population.get(i).genotype(), distinctCount);
+            if(number == null) {
+                firstOccurrences[distinctCount] = i;
+                number = distinctCount++;
+            }
+            distinctIndex[i] = number;
+        }
+
+        this.copiesStart = new int[distinctCount + 1];
+        for(int number : distinctIndex) {
+            copiesStart[number + 1]++;
+        }
+        for(int d = 0; d < distinctCount; d++) {
+            copiesStart[d + 1] += copiesStart[d];
+        }
+        this.copies = new int[population.size()];
+        int[] next = copiesStart.clone();
+        for(int i = 0; i < population.size(); i++) {
+            copies[next[distinctIndex[i]]++] = i;
+        }
+
+        if(distinctCount == population.size()) {
+            this.distinct = population;
+        } else {
+            Phenotype<EnumGene<Integer>, T>[] representatives = newArray(distinctCount);
+            for(int d = 0; d < distinctCount; d++) {
+                representatives[d] = population.get(firstOccurrences[d]);
+            }
+            this.distinct = ISeq.of(representatives);
+        }
+    }
+
+    public static <T extends Comparable<? super T>> DistinctPopulation<T> of(Seq<Phenotype<EnumGene<Integer>, T>> population) {
+        return new DistinctPopulation<>(population);
+    }
+
+    /**
+     * @return the first occurrence of each distinct genotype, in the order of the population
+     */
+    public Seq<Phenotype<EnumGene<Integer>, T>> distinct() {
+        return distinct;
+    }
+
+    public int size() {
+        return distinct.size();
+    }
+
+    /**
+     * @return the number of individuals that are copies of an earlier individual of the population
+     */
+    public int duplicates() {
+        return population.size() - distinct.size();
+    }
+
+    /**
+     * @param distinctIndex the number of a distinct genotype
+     * @return the index in the population of the first occurrence of the genotype
+     */
+    public int representative(int distinctIndex) {
+        return copies[copiesStart[distinctIndex]];
+    }
+
+    /**
+     * Maps indices of distinct genotypes, e.g., an order or a classification, to the indices of all their copies in
+     * the population. The copies of a genotype directly follow each other.
+     * @param distinctIndices indices of distinct genotypes
+     * @return the indices of the individuals of the population
+     */
+    public int[] expandIndices(int[] distinctIndices) {
+        if(distinct == population) {
+            return distinctIndices;
+        }
+
+        int length = 0;
+        for(int d : distinctIndices) {
+            length += copiesStart[d + 1] - copiesStart[d];
+        }
+
+        int[] indices = new int[length];
+        int i = 0;
+        for(int d : distinctIndices) {
+            for(int c = copiesStart[d]; c < copiesStart[d + 1]; c++) {
+                indices[i++] = copies[c];
+            }
+        }
+
+        return indices;
+    }
+
+    /**
+     * Maps values per distinct genotype, e.g., fitness values, to values per individual of the population.
+     * @param distinctValues the value of each distinct genotype
+     * @return the value of each individual of the population
+     */
+    public int[] expandValues(int[] distinctValues) {
+        if(distinct == population) {
+            return distinctValues;
+        }
+
+        int[] values = new int[population.size()];
+        for(int i = 0; i < values.length; i++) {
+            values[i] = distinctValues[distinctIndex[i]];
+        }
+        return values;
+    }
+
+    /**
+     * @see #expandValues(int[])
+     */
+    public Integer[] expandValues(Integer[] distinctValues) {
+        if(distinct == population) {
+            return distinctValues;
+        }
+
+        Integer[] values = new Integer[population.size()];
+        for(int i = 0; i < values.length; i++) {
+            values[i] = distinctValues[distinctIndex[i]];
+        }
+        return values;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Comparable<? super T>> Phenotype<EnumGene<Integer>, T>[] newArray(int length) {
+        return (Phenotype<EnumGene<Integer>, T>[]) new Phenotype[length];
+    }
+}
@@ -1,6 +1,7 @@
 package optimizer.optimization.evaluation;
 
 import optimizer.optimization.OptimizationMode;
+import optimizer.optimization.fitnessEstimation.FitnessEstimator;
 import optimizer.optimization.jenetics.FitnessEvolutionStep;
 import optimizer.optimization.jenetics.jeneticsMO.MOJeneticsOptimization;
 import optimizer.optimization.jenetics.jeneticsMO.MOSlotAllocationProblem;
@@ -11,11 +12,9 @@ import io.jenetics.util.Seq;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.Comparator;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 public class MLAEvaluator extends MOBatchEvaluator {
 
@@ -36,32 +35,45 @@ public class MLAEvaluator extends MOBatchEvaluator {
     @Override
     protected List<Phenotype<EnumGene<Integer>, Vec<int[]>>> estimatePopulation(Seq<Phenotype<EnumGene<Integer>, Vec<int[]>>> population, FitnessEvolutionStep<double[]> fitnessEvolutionStep, PopulationEvaluation<Vec<int[]>> evaluation) {
 
-        List<Phenotype<EnumGene<Integer>, Vec<int[]>>> estimatedPopulation = new LinkedList<>();
+        List<Phenotype<EnumGene<Integer>, Vec<int[]>>> estimatedPopulation = new ArrayList<>(population.size());
 
         if(this.optimization.getFitnessEstimator() != null) {
             final int quantiles = this.optimization.getFitnessPrecision();
 
             logger.debug("Actual maximum fitness of the population: " + evaluation.maxFitness);
 
-            List<Phenotype<EnumGene<Integer>, Vec<int[]>>> sortedPopulation = evaluation.evaluatedPopulation.stream()
-                    .sorted(Comparator.comparingInt(p -> p.fitness().data()[0])).toList();
+            List<Phenotype<EnumGene<Integer>, Vec<int[]>>> evaluatedPopulation = evaluation.evaluatedPopulation;
+            int size = evaluatedPopulation.size();
+            int[] fitnessOne = new int[size];
+            int[] fitnessTwo = new int[size];
+            for(int i = 0; i < size; i++) {
+                fitnessOne[i] = evaluatedPopulation.get(i).fitness().data()[0];
+                fitnessTwo[i] = evaluatedPopulation.get(i).fitness().data()[1];
+            }
+
+            int[] ascendingOrder = PopulationRanking.orderAscending(fitnessOne);
 
-            double[] estimatedFitnessValues =
-                    this.optimization.getFitnessEstimator().estimateFitnessDistribution(
-                            population.size(), sortedPopulation.get(population.size()-1).fitness().data()[0]);
+            FitnessEstimator estimator = this.optimization.getFitnessEstimator();
+            double maxFitness = fitnessOne[ascendingOrder[population.size()-1]];
 
-            Map<Integer, List<Phenotype<EnumGene<Integer>, Vec<int[]>>>> assignedQuantiles = evaluation.evaluatedPopulation.stream()
-                    .collect(Collectors.groupingBy(
-                            p -> (sortedPopulation.indexOf(p) * quantiles) / sortedPopulation.size()
-                    ));
+            // quantile of each candidate according to its rank in the population sorted by the first objective
+            int[] ranks = PopulationRanking.ranks(Arrays.stream(ascendingOrder).mapToObj(evaluatedPopulation::get).toList());
+            int[] assignedQuantiles = new int[size];
+            for(int k = 0; k < size; k++) {
+                assignedQuantiles[ascendingOrder[k]] = (ranks[k] * quantiles) / size;
+            }
 
-            List<Phenotype<EnumGene<Integer>, Vec<int[]>>> reorderedPhenotypes = assignedQuantiles.entrySet()
-                    .stream().peek(e -> e.setValue(e.getValue().stream()
-                            .sorted((p1, p2) -> p2.fitness().data()[1] - p1.fitness().data()[1])
-                            .toList()))
-                    .sorted((e1, e2) -> e2.getKey().compareTo(e1.getKey()))
-                    .flatMap(e -> e.getValue().stream())
-                    .toList();
+            // descending quantiles, within a quantile descending by the second objective: two stable primitive
+            // sorts, the second by quantile of the candidates ordered by the second objective
+            int[] bySecondObjective = PopulationRanking.orderDescending(fitnessTwo);
+            int[] quantileKeys = new int[size];
+            for(int k = 0; k < size; k++) {
+                quantileKeys[k] = assignedQuantiles[bySecondObjective[k]];
+            }
+            List<Phenotype<EnumGene<Integer>, Vec<int[]>>> reorderedPhenotypes =
+                    Arrays.stream(PopulationRanking.orderDescending(quantileKeys))
+                            .mapToObj(k -> evaluatedPopulation.get(bySecondObjective[k]))
+                            .toList();
 
             // TODO set the maximum fitness values properly
             this.optimization.getStatistics().setMaximumFitness(reorderedPhenotypes.get(0).fitness().data()[0]);
@@ -69,7 +81,7 @@ public class MLAEvaluator extends MOBatchEvaluator {
 
                 for(int i = 0; i < population.size(); i++) {
                 estimatedPopulation.add(reorderedPhenotypes.get(i)
-                        .withFitness(Vec.of((int)Math.round(estimatedFitnessValues[i]))));
+                        .withFitness(Vec.of((int)Math.round(estimator.estimateFitness(i, population.size(), maxFitness)))));
             }
         } else {
             logger.debug("No estimator specified. Using exact fitness (if available).");
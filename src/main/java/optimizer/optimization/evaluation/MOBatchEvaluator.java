@@ -17,7 +17,6 @@ import org.apache.logging.log4j.Logger;
 
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 
 public abstract class MOBatchEvaluator extends BatchEvaluator<Vec<int[]>, double[], MOJeneticsOptimization, MOSlotAllocationProblem> {
@@ -69,13 +68,15 @@ public abstract class MOBatchEvaluator extends BatchEvaluator<Vec<int[]>, double
         FitnessEvolutionStep<double[]> fitnessEvolutionStep = null;
         List<Phenotype<EnumGene<Integer>, Vec<int[]>>> estimatedPopulation = null;
 
-        logger.debug("Number of distinct solutions in population: " + population.stream().distinct().count());
+        if(logger.isDebugEnabled()) {
+            logger.debug("Number of distinct solutions in population: " + population.stream().distinct().count());
+        }
 
-        if(this.optimization.isTraceFitnessEvolution()) {
+        // the step is only created for generations sampled by the trace, and appended once it is complete
+        if(this.optimization.isTraceFitnessEvolution() &&
+                generation.map(this.optimization.getStatistics().getFitnessEvolution()::isSampled).orElse(true)) {
             fitnessEvolutionStep = new FitnessEvolutionStep<>();
-
-            logger.debug("Adding fitness evolution to statistics");
-            this.optimization.getStatistics().getFitnessEvolution().add(fitnessEvolutionStep);
+            fitnessEvolutionStep.setIsland(island);
 
             if(generation.isPresent()) {
                 fitnessEvolutionStep.setGeneration(generation.get().intValue());
@@ -89,81 +90,110 @@ public abstract class MOBatchEvaluator extends BatchEvaluator<Vec<int[]>, double
         setFitnessEstimationStep(estimatedPopulation, fitnessEvolutionStep, evaluation.evaluatedPopulation);
 
         logger.debug("Devaluing invalid solutions.");
-        estimatedPopulation = estimatedPopulation.stream().map(p -> {
-            Map<? extends Flight, Slot> phenotypeMap = this.problem.decode(p.genotype()); // decode phenotype
+        List<Phenotype<EnumGene<Integer>, Vec<int[]>>> devaluedPopulation = new ArrayList<>(estimatedPopulation.size());
+        for(Phenotype<EnumGene<Integer>, Vec<int[]>> phenotype : estimatedPopulation) {
             this.noPhenotypes++;
-            long invalidAssignments = // determine how many invalid assignments the phenotype has
-                    phenotypeMap.entrySet().stream().filter(e ->
-                            e.getKey().getScheduledTime() != null &&
-                                    e.getKey().getScheduledTime().isAfter(e.getValue().getTime())).count();
-
-            Phenotype<EnumGene<Integer>, Vec<int[]>> phenotype = p;
+            // determine how many invalid assignments the phenotype has
+            int invalidAssignments = countInvalidAssignments(phenotype.genotype());
 
             // if there are violations of the constraint, devalue the individual accordingly
             if(invalidAssignments > 0) {
                 this.noInvalidPhenotypes++;
                 this.noInvalidAssignments += invalidAssignments;
-                phenotype = p.withFitness(Vec.of(
-                        (int) invalidAssignments * DEVALUATOR, (int) invalidAssignments *DEVALUATOR
+                phenotype = phenotype.withFitness(Vec.of(
+                        invalidAssignments * DEVALUATOR, invalidAssignments * DEVALUATOR
                 ));
             }
 
-            return phenotype;
-        }).collect(Collectors.toList());
+            devaluedPopulation.add(phenotype);
+        }
+        estimatedPopulation = devaluedPopulation;
+
+        if(fitnessEvolutionStep != null) {
+            logger.debug("Adding fitness evolution to statistics");
+            this.optimization.getStatistics().getFitnessEvolution().append(fitnessEvolutionStep);
+        }
 
         logger.debug("Finished evaluation");
 
         logger.debug("Update statistics.");
         int[][] paretoFrontStats = getParetoFrontStats(evaluation.evaluatedPopulation);
         this.optimization.getStatistics().setFitnessFunctionInvocations(problem.getFitnessFunctionApplications());
+        this.optimization.getStatistics().setFitnessCacheHits(problem.getFitnessCache().getHits());
+        this.optimization.getStatistics().setFitnessCacheMisses(problem.getFitnessCache().getMisses());
         this.optimization.getStatistics().setParetoFront(paretoFrontStats);
 
         return ISeq.of(estimatedPopulation);
     }
 
     private int[][] getParetoFrontStats(List<Phenotype<EnumGene<Integer>, Vec<int[]>>> evaluation) {
-        List<int[]> paretoFront = new LinkedList<>();
-        for (Phenotype<EnumGene<Integer>, Vec<int[]>> solution: evaluation) {
-            boolean dominated = false;
-            for(Phenotype<EnumGene<Integer>, Vec<int[]>> other: evaluation) {
-                if(other.fitness().data()[0] > solution.fitness().data()[0] && other.fitness().data()[1] > solution.fitness().data()[1]) {
-                    dominated = true;
-                }
+        return nonDominated(evaluation, true);
+    }
+
+    /**
+     * Determines the distinct fitness vectors of the population that are not dominated by the fitness vector of
+     * another individual, with a single sort by the first objective and a sweep over the sorted vectors.
+     * @param population the population
+     * @param strictly if true, a vector is only dominated by vectors that are better in both objectives; otherwise, it
+     *                 is dominated by vectors that are better in one objective and not worse in the other
+     * @return the non-dominated fitness vectors, in the order of their first occurrence in the population
+     */
+    static int[][] nonDominated(List<Phenotype<EnumGene<Integer>, Vec<int[]>>> population, boolean strictly) {
+        int size = population.size();
+        int[] first = new int[size];
+        int[] second = new int[size];
+        int i = 0;
+        for(Phenotype<EnumGene<Integer>, Vec<int[]>> phenotype : population) {
+            first[i] = phenotype.fitness().data()[0];
+            second[i] = phenotype.fitness().data()[1];
+            i++;
+        }
+
+        // descending by the first objective; each group of equal first objectives is compared to the best second
+        // objective of all vectors with a better first objective and, unless strictly, to the best of the group
+        int[] order = PopulationRanking.orderDescending(first);
+        boolean[] dominated = new boolean[size];
+        int bestBefore = Integer.MIN_VALUE;
+        boolean anyBefore = false;
+        for(int start = 0, end; start < size; start = end) {
+            int bestOfGroup = Integer.MIN_VALUE;
+            for(end = start; end < size && first[order[end]] == first[order[start]]; end++) {
+                bestOfGroup = Math.max(bestOfGroup, second[order[end]]);
+            }
+
+            for(int k = start; k < end; k++) {
+                int value = second[order[k]];
+                dominated[order[k]] = strictly ?
+                        anyBefore && bestBefore > value :
+                        (anyBefore && bestBefore >= value) || bestOfGroup > value;
             }
-            if(!dominated) {
-                paretoFront.add(new int[]{solution.fitness().data()[0], solution.fitness().data()[1]});
+
+            bestBefore = anyBefore ? Math.max(bestBefore, bestOfGroup) : bestOfGroup;
+            anyBefore = true;
+        }
+
+        Set<Long> seen = new HashSet<>();
+        List<int[]> front = new ArrayList<>();
+        for(int k = 0; k < size; k++) {
+            if(!dominated[k] && seen.add(((long) first[k] << 32) | (second[k] & 0xFFFFFFFFL))) {
+                front.add(new int[] { first[k], second[k] });
             }
         }
-        return paretoFront.stream()
-                .map(Arrays::toString)
-                .distinct()
-                .map(str -> Arrays.stream(str.substring(1, str.length() - 1).split(", "))
-                        .mapToInt(Integer::parseInt)
-                        .toArray())
-                .toArray(int[][]::new);
+
+        return front.toArray(int[][]::new);
+    }
+
+    private static double[][] toDouble(int[][] vectors) {
+        double[][] values = new double[vectors.length][];
+        for(int i = 0; i < vectors.length; i++) {
+            values[i] = new double[] { vectors[i][0], vectors[i][1] };
+        }
+        return values;
     }
 
     @Override
     protected abstract PopulationEvaluation<Vec<int[]>> evaluatePopulation(Seq<Phenotype<EnumGene<Integer>, Vec<int[]>>> population, FitnessEvolutionStep<double[]> fitnessEvolutionStep);
 
-    /**
-     * Convert the population from the Jenetics native representation to the array format required by the
-     * Privacy Engine.
-     * @param population the population in Jenetics representation
-     * @return the population in array format required by Privacy Engine
-     */
-    public Integer[][] convertPopulationToArray(Seq<Phenotype<EnumGene<Integer>, Vec<int[]>>> population) {
-        return population.asList().stream()
-                .map(phenotype -> this.problem.decode(phenotype.genotype()))
-                .map(map ->{
-                            // 1. Get the slots ordered ascending by time
-                            // 2. Replace the flights in the flight sequence by the index of their assigned slot
-                            var orderedSlots = map.entrySet().stream().sorted(Map.Entry.comparingByValue()).map(Map.Entry::getValue).toList();
-                            return this.problem.getFlights().stream().map(flight -> orderedSlots.indexOf(map.get(flight))).toArray(Integer[]::new);
-                        }
-                ).toArray(Integer[][]::new);
-    }
-
     /**
      * Takes the unevaluated population and returns the ordererd candidates and the maximum fitness
      * @param population the unevaluated population
@@ -179,36 +209,38 @@ public abstract class MOBatchEvaluator extends BatchEvaluator<Vec<int[]>, double
             logger.debug("Running in privacy-preserving mode: Evaluate the population using the Privacy Engine.");
 
             logger.debug("Convert population to format required by Privacy Engine.");
-            Integer[][] input = this.convertPopulationToArray(population);
+            DistinctPopulation<Vec<int[]>> distinctPopulation = distinctPopulation(population);
+            int[][] input = this.convertPopulationToArray(distinctPopulation.distinct());
 
-            // TODO: generation needs to be ordered twice for the different fitness values for now same call twice
             logger.debug("Invoke the Privacy Engine service to evaluate population.");
             PopulationOrderDTO orderFirstAttribute =
                     this.optimization.getPrivacyEngineService().computePopulationOrder(this.optimization, input);
 
-            int[] firstOrder = orderFirstAttribute.getOrder();
-
-            if(secondObfuscated) {
-                PopulationOrderDTO orderSecondAttribute =
-                        this.optimization.getPrivacyEngineService().computePopulationOrder(this.optimization, input);
-
-                int[] secondOrder = orderSecondAttribute.getOrder();
-
-                evaluatedPopulation = IntStream.range(0, firstOrder.length)
-                        .mapToObj(i -> population.get(i).withFitness(Vec.of(firstOrder[i], secondOrder[i])))
-                        .collect(Collectors.toList());
-            } else {
-                evaluatedPopulation = IntStream.range(0, firstOrder.length)
-                        .mapToObj(i -> population.get(i).withFitness(Vec.of(firstOrder[i], population.get(i).fitness().data()[0])))
-                        .collect(Collectors.toList());
+            // the values of the distinct genotypes are assigned to all their copies
+            int[] firstOrder = distinctPopulation.expandValues(orderFirstAttribute.getOrder());
+
+            // TODO: generation needs to be ordered twice for the different fitness values; the Privacy Engine
+            //  provides a single order for now, which is used for a second obfuscated objective, too
+            int[] secondOrder = secondObfuscated ? firstOrder : null;
+
+            // the fitness vectors and the best individual of each objective are determined in a single pass
+            evaluatedPopulation = new ArrayList<>(firstOrder.length);
+            firstBest = null;
+            secondBest = null;
+            for(int i = 0; i < firstOrder.length; i++) {
+                Phenotype<EnumGene<Integer>, Vec<int[]>> phenotype = population.get(i);
+                int second = secondOrder != null ? secondOrder[i] : phenotype.fitness().data()[0];
+                phenotype = phenotype.withFitness(Vec.of(firstOrder[i], second));
+                evaluatedPopulation.add(phenotype);
+
+                if(firstBest == null || firstOrder[i] > firstBest.fitness().data()[0]) {
+                    firstBest = phenotype;
+                }
+                if(secondBest == null || second > secondBest.fitness().data()[1]) {
+                    secondBest = phenotype;
+                }
             }
 
-            firstBest = evaluatedPopulation.stream()
-                    .max(Comparator.comparingInt(p -> p.fitness().data()[0])).get();
-
-            secondBest = evaluatedPopulation.stream()
-                    .max(Comparator.comparingInt(p -> p.fitness().data()[1])).get();
-
             logger.debug("Convert the population order received from the Privacy Engine to the format required by Jenetics.");
 
             logger.debug("Maximum fitness in generation according to Privacy Engine is " + firstBest.fitness().data()[0] + ".");
@@ -216,17 +248,19 @@ public abstract class MOBatchEvaluator extends BatchEvaluator<Vec<int[]>, double
         } else {
             logger.debug("Running in non-privacy-preserving mode: Evaluate the population using the submitted weights.");
             long start = System.currentTimeMillis();
-            evaluatedPopulation =
-                    population.stream()
-                            .map(phenotype -> phenotype.withFitness(problem.fitness(phenotype.genotype())))
-                            .sorted((p1, p2) -> Integer.compare(p2.fitness().data()[0], p1.fitness().data()[0]))
-                            .toList();
+            List<Phenotype<EnumGene<Integer>, Vec<int[]>>> actualPopulation = evaluateActualFitness(population.asList());
 
-            firstBest = evaluatedPopulation.stream()
-                    .max(Comparator.comparingInt(p -> p.fitness().data()[0])).get();
+            // descending by the first objective with a single primitive sort
+            int[] fitness = new int[actualPopulation.size()];
+            for(int i = 0; i < fitness.length; i++) {
+                fitness[i] = actualPopulation.get(i).fitness().data()[0];
+            }
+            evaluatedPopulation = Arrays.stream(PopulationRanking.orderDescending(fitness))
+                    .mapToObj(actualPopulation::get)
+                    .toList();
 
-            secondBest = evaluatedPopulation.stream()
-                    .max(Comparator.comparingInt(p -> p.fitness().data()[1])).get();
+            firstBest = evaluatedPopulation.get(0);
+            secondBest = bestBySecondObjective(evaluatedPopulation);
 
             logger.debug("Actual minimum fitness of the population: " + evaluatedPopulation.get(evaluatedPopulation.size() - 1).fitness());
 
@@ -242,26 +276,25 @@ public abstract class MOBatchEvaluator extends BatchEvaluator<Vec<int[]>, double
         return evaluation;
     }
 
+    /**
+     * @return the first individual of the population with the best second objective
+     */
+    private static Phenotype<EnumGene<Integer>, Vec<int[]>> bestBySecondObjective(List<Phenotype<EnumGene<Integer>, Vec<int[]>>> population) {
+        Phenotype<EnumGene<Integer>, Vec<int[]>> best = null;
+        for(Phenotype<EnumGene<Integer>, Vec<int[]>> phenotype : population) {
+            if(best == null || phenotype.fitness().data()[1] > best.fitness().data()[1]) {
+                best = phenotype;
+            }
+        }
+        return best;
+    }
+
     protected void setFitnessEstimationStep(List<Phenotype<EnumGene<Integer>, Vec<int[]>>> estimatedPopulation,
                                             FitnessEvolutionStep<double[]> fitnessEvolutionStep,
                                             List<Phenotype<EnumGene<Integer>, Vec<int[]>>> evaluatedPopulation){
         // only include the Pareto front in the fitness step
         if(fitnessEvolutionStep != null) {
-            fitnessEvolutionStep.setEstimatedPopulation(
-                    estimatedPopulation.stream()
-                            .map(phenotype -> {
-                                double[] fitness = new double[2];
-                                fitness[0] = phenotype.fitness().data()[0];
-                                fitness[1] = phenotype.fitness().data()[1];
-                                return fitness;
-                            }) // Convert to strings for distinct comparison
-                            .map(Arrays::toString)
-                            .distinct()
-                            .map(s -> Arrays.stream(s.substring(1, s.length() - 1).split(", "))
-                                    .mapToDouble(Double::parseDouble)
-                                    .toArray())
-                            .filter(p -> isDominated(p, estimatedPopulation)).toArray(double[][]::new)
-            );
+            fitnessEvolutionStep.setEstimatedPopulation(toDouble(nonDominated(estimatedPopulation, false)));
 
             setEvolutionStep(fitnessEvolutionStep, evaluatedPopulation);
             logger.debug("Size of estimated population: " + fitnessEvolutionStep.getEstimatedPopulation().length);
@@ -270,33 +303,7 @@ public abstract class MOBatchEvaluator extends BatchEvaluator<Vec<int[]>, double
 
     protected void setEvolutionStep(FitnessEvolutionStep<double[]> fitnessEvolutionStep,
                                       List<Phenotype<EnumGene<Integer>, Vec<int[]>>> evaluatedPopulation) {
-        fitnessEvolutionStep.setEvaluatedPopulation(
-                evaluatedPopulation.stream()
-                        .map(p -> p.fitness().data())
-                        .map(f -> {
-                            double[] newValues = new double[2];
-                            newValues[0] = f[0];
-                            newValues[1] = f[1];
-                            return newValues;
-                        })
-                        .map(Arrays::toString)
-                        .distinct()
-                        .map(s -> Arrays.stream(s.substring(1, s.length() - 1).split(", "))
-                                .mapToDouble(Double::parseDouble)
-                                .toArray())
-                        .filter(p -> isDominated(p, evaluatedPopulation)).toArray(double[][]::new)
-        );
-    }
-
-    private static boolean isDominated(double[] p, List<Phenotype<EnumGene<Integer>, Vec<int[]>>> population) {
-        boolean dominated = false;
-        for(Phenotype<EnumGene<Integer>, Vec<int[]>> gen : population) {
-            if((gen.fitness().data()[0] > p[0] && gen.fitness().data()[1] >= p[1])
-                    || (gen.fitness().data()[0] >= p[0] && gen.fitness().data()[1] > p[1])){
-                dominated = true;
-            }
-        }
-        return !dominated;
+        fitnessEvolutionStep.setEvaluatedPopulation(toDouble(nonDominated(evaluatedPopulation, false)));
     }
 
     public void setSecondObfuscated(boolean secondObfuscated) {
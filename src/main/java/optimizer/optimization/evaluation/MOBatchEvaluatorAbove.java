@@ -13,11 +13,11 @@ import io.jenetics.util.Seq;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
 
 public abstract class MOBatchEvaluatorAbove extends MOBatchEvaluator{
 
@@ -29,8 +29,8 @@ public abstract class MOBatchEvaluatorAbove extends MOBatchEvaluator{
     }
 
     /**
-     * Estimates the population by assigning the maximum fitness to each evaluated phenotype.
-     * All phenotypes that are not evaluated are assigned the minimum fitness.
+     * Estimates the population by assigning the maximum fitness to each selected phenotype.
+     * The selected phenotypes are repeated in place of the phenotypes that are not selected.
      *
      * @param population the unevaluated population
      * @param fitnessEvolutionStep the evolution step of this generation
@@ -40,88 +40,76 @@ public abstract class MOBatchEvaluatorAbove extends MOBatchEvaluator{
     @Override
     protected List<Phenotype<EnumGene<Integer>, Vec<int[]>>> estimatePopulation(Seq<Phenotype<EnumGene<Integer>, Vec<int[]>>> population, FitnessEvolutionStep<double[]> fitnessEvolutionStep, PopulationEvaluation<Vec<int[]>> evaluation) {
 
+        List<Phenotype<EnumGene<Integer>, Vec<int[]>>> evaluatedPopulation = evaluation.evaluatedPopulation;
+        BitSet selected = evaluation.selected;
+
         logger.debug("Actual maximum fitness of the population: " + evaluation.maxFitness);
-        int secondMax = evaluation.evaluatedPopulation.stream()
-                        .map(p -> p.fitness().data()[1]).min(Integer::compareTo).get();
+        int secondMax = Integer.MAX_VALUE;
+        for(int i = selected.nextSetBit(0); i >= 0; i = selected.nextSetBit(i + 1)) {
+            secondMax = Math.min(secondMax, evaluatedPopulation.get(i).fitness().data()[1]);
+        }
         logger.debug("Actual maximum fitness of the population: " + secondMax);
 
-        List<Phenotype<EnumGene<Integer>, Vec<int[]>>> estimatedPopulation = null;
-
-        List<Genotype<EnumGene<Integer>>> evaluatedGenotypes =
-                evaluation.evaluatedPopulation.stream().map(Phenotype::genotype).toList();
+        // Increase the fitness of the best genotype(s) in the population if possible to improve selection process
+        boolean raiseBest = evaluation.bestGenotype != null &&
+                evaluation.maxFitness < this.optimization.getStatistics().getTheoreticalMaxFitness();
+        boolean raiseBestTwo = secondObfuscated && evaluation.bestGenotype != null &&
+                secondMax < this.optimization.getStatistics().getTheoreticalMaxFitnessTwo();
 
         if(secondObfuscated) {
             logger.debug("Assign each solution returned by the Privacy Engine the maximum fitness: {} and \t {}", evaluation.maxFitness, secondMax);
-            // Add all evaluated individuals to the estimated population with the max fitness
-            estimatedPopulation = population.stream()
-                    .filter(phenotype -> evaluatedGenotypes.contains(phenotype.genotype()))
-                    .map(phenotype -> phenotype.withFitness(Vec.of((int) evaluation.maxFitness, secondMax)))
-                    .collect(Collectors.toList());
-
-            // Increase the fitness of the best genotype in the population if possible to improve selection process
-            if(evaluation.bestGenotype != null && evaluation.maxFitness < this.optimization.getStatistics().getTheoreticalMaxFitness()){
-                logger.debug("Assigning higher fitness value to best genotype(s).");
-                estimatedPopulation = estimatedPopulation.stream()
-                        .map(phenotype -> phenotype.genotype().equals(evaluation.bestGenotype) ?
-                                phenotype.withFitness(Vec.of((int) evaluation.maxFitness + 1, secondMax)) : phenotype)
-                        .collect(Collectors.toList());
-            }
-
-            if(evaluation.bestGenotype != null && secondMax < this.optimization.getStatistics().getTheoreticalMaxFitnessTwo()){
-                logger.debug("Assigning higher fitness value to best genotype(s).");
-                estimatedPopulation = estimatedPopulation.stream()
-                        .map(phenotype -> phenotype.genotype().equals(evaluation.bestGenotypeTwo) ?
-                                phenotype.withFitness(Vec.of((int) evaluation.maxFitness, secondMax+1)) : phenotype)
-                        .collect(Collectors.toList());
-            }
         } else {
             logger.debug("Assign each solution returned by the Privacy Engine the maximum fitness for the first optimization target: {}", evaluation.maxFitness);
-            // Add all evaluated individuals to the estimated population with the max fitness
-            try{
-                estimatedPopulation = evaluation.evaluatedPopulation.stream()
-                                .map(p -> p.withFitness(Vec.of((int) evaluation.maxFitness, p.fitness().data()[1])))
-                                .collect(Collectors.toList());
-            } catch (Exception e) {
-                e.getStackTrace();
+        }
+
+        // a single pass over the selected individuals assigns the max fitness, and keeps the first individual with
+        // the best second objective
+        List<Phenotype<EnumGene<Integer>, Vec<int[]>>> selectedPopulation = new ArrayList<>(selected.cardinality());
+        Phenotype<EnumGene<Integer>, Vec<int[]>> bestSecond = null;
+        for(int i = selected.nextSetBit(0); i >= 0; i = selected.nextSetBit(i + 1)) {
+            Phenotype<EnumGene<Integer>, Vec<int[]>> phenotype = evaluatedPopulation.get(i);
+            int fitnessOne = (int) evaluation.maxFitness;
+            int fitnessTwo = secondObfuscated ? secondMax : phenotype.fitness().data()[1];
+
+            if(raiseBest && phenotype.genotype().equals(evaluation.bestGenotype)) {
+                fitnessOne = (int) evaluation.maxFitness + 1;
+            }
+            if(raiseBestTwo && phenotype.genotype().equals(evaluation.bestGenotypeTwo)) {
+                fitnessOne = (int) evaluation.maxFitness;
+                fitnessTwo = secondMax + 1;
             }
 
+            phenotype = phenotype.withFitness(Vec.of(fitnessOne, fitnessTwo));
+            selectedPopulation.add(phenotype);
 
-            // Increase the fitness of the best genotype in the population if possible to improve selection process
-            if(evaluation.bestGenotype != null && evaluation.maxFitness < this.optimization.getStatistics().getTheoreticalMaxFitness()){
-                logger.debug("Assigning higher fitness value to best genotype(s).");
-                estimatedPopulation = estimatedPopulation.stream()
-                        .map(phenotype -> phenotype.genotype().equals(evaluation.bestGenotype) ?
-                                phenotype.withFitness(Vec.of((int) evaluation.maxFitness + 1, phenotype.fitness().data()[1])) : phenotype)
-                        .collect(Collectors.toList());
+            if(bestSecond == null || fitnessTwo > bestSecond.fitness().data()[1]) {
+                bestSecond = phenotype;
             }
         }
 
-
-
-        Optional<Genotype<EnumGene<Integer>>> bestGenotypeSecond = estimatedPopulation.stream()
-                .sorted((p1, p2) -> Integer.compare(p2.fitness().data()[1], p1.fitness().data()[1]))
-                .map(Phenotype::genotype)
-                .findFirst();
-
-
-        if(bestGenotypeSecond.isPresent() && secondMax < this.optimization.getStatistics().getTheoreticalMaxFitnessTwo()){
+        BitSet raised = new BitSet();
+        boolean raiseBestSecond = bestSecond != null &&
+                secondMax < this.optimization.getStatistics().getTheoreticalMaxFitnessTwo();
+        if(raiseBestSecond) {
             logger.debug("Assigning higher fitness value to best genotype(s).");
-            estimatedPopulation = estimatedPopulation.stream()
-                    .map(phenotype -> phenotype.genotype().equals(bestGenotypeSecond.get()) ?
-                            phenotype.withFitness(Vec.of((int) evaluation.maxFitness, secondMax + 1)) : phenotype)
-                    .collect(Collectors.toList());
         }
-
-        // Add estimated individuals to the collection until the size of the estimated population equals the size of the population (Jenetics requirement)
-        while(estimatedPopulation.size() < population.size()){
-            estimatedPopulation.addAll(estimatedPopulation);
+        for(int i = 0; i < selectedPopulation.size(); i++) {
+            Phenotype<EnumGene<Integer>, Vec<int[]>> phenotype = selectedPopulation.get(i);
+            if(raiseBestSecond && phenotype.genotype().equals(bestSecond.genotype())) {
+                selectedPopulation.set(i, phenotype.withFitness(Vec.of((int) evaluation.maxFitness, secondMax + 1)));
+            } else if(phenotype.fitness().data()[0] > (int) evaluation.maxFitness) {
+                raised.set(i);
+            }
         }
 
-        estimatedPopulation = estimatedPopulation
-                .stream()
-                .limit(population.size())
-                .sorted((p1, p2) -> Integer.compare(p2.fitness().data()[0], p1.fitness().data()[0]))
-                .collect(Collectors.toList());
+        // Repeat the selected individuals until the size of the estimated population equals the size of the population
+        // (Jenetics requirement), the individuals with a raised first objective first
+        List<Phenotype<EnumGene<Integer>, Vec<int[]>>> estimatedPopulation = new ArrayList<>(population.size());
+        if(!selectedPopulation.isEmpty()) {
+            for(int i : PopulationRanking.repeatRaisedFirst(raised, selectedPopulation.size(), population.size())) {
+                estimatedPopulation.add(selectedPopulation.get(i));
+            }
+        }
 
         logger.debug("Assigned estimated fitness values.");
         return  estimatedPopulation;
@@ -140,7 +128,7 @@ public abstract class MOBatchEvaluatorAbove extends MOBatchEvaluator{
     }
 
     /**
-     * Takes the unevaluated population and returns all individuals exceeding a defined threshold
+     * Takes the unevaluated population and selects all individuals exceeding a defined threshold
      * @param population the unevaluated population
      * @param fitnessEvolutionStep the evolution step of this generation
      * @return the evaluated population
@@ -156,19 +144,15 @@ public abstract class MOBatchEvaluatorAbove extends MOBatchEvaluator{
             logger.debug("Running in privacy-preserving mode: Evaluate the population using the Privacy Engine.");
 
             logger.debug("Convert population to format required by Privacy Engine.");
-            Integer[][] input = this.convertPopulationToArray(population);
+            DistinctPopulation<Vec<int[]>> distinctPopulation = distinctPopulation(population);
+            int[][] input = this.convertPopulationToArray(distinctPopulation.distinct());
 
             logger.debug("Invoke the Privacy Engine service to get phenotypes exceeding threshold.");
             // TODO: distinguish ABOVE from TOP
+            // a second obfuscated objective would send the same request again, so its result is not requested separately
             AboveIndividualsDTO individualsAboveFirst =
                     this.optimization.getPrivacyEngineService().computeIndividualsAbove(this.optimization, input);
 
-            if(secondObfuscated) {
-                // TODO: for now same call
-                AboveIndividualsDTO individualsAboveSecond =
-                        this.optimization.getPrivacyEngineService().computeIndividualsAbove(this.optimization, input);
-            }
-
 
 
             // convert between Privacy Engine's return format and format required by Optimizer
@@ -185,10 +169,11 @@ public abstract class MOBatchEvaluatorAbove extends MOBatchEvaluator{
                 logger.debug("Increased max fitness to {}{}",  maxFitness, ".");
             }
 
-            evaluatedPopulation = Arrays.stream(individualsAboveFirst.getIndices())
-                    .map(population::get)
-                    .map(phenotype -> phenotype.withFitness(problem.fitness(phenotype.genotype())))
-                    .toList();
+            // all copies of a genotype above the threshold are above the threshold
+            evaluatedPopulation = evaluateActualFitness(Arrays.stream(distinctPopulation.expandIndices(
+                            Arrays.stream(individualsAboveFirst.getIndices()).mapToInt(Integer::intValue).toArray()))
+                    .mapToObj(population::get)
+                    .toList());
 
             firstBest = evaluatedPopulation.stream()
                     .max(Comparator.comparingInt(p -> p.fitness().data()[0])).get();
@@ -196,8 +181,12 @@ public abstract class MOBatchEvaluatorAbove extends MOBatchEvaluator{
             secondBest = evaluatedPopulation.stream()
                     .max(Comparator.comparingInt(p -> p.fitness().data()[1])).get();
 
+            BitSet selected = new BitSet(evaluatedPopulation.size());
+            selected.set(0, evaluatedPopulation.size());
+
             evaluation = new PopulationEvaluation<>();
             evaluation.evaluatedPopulation = evaluatedPopulation;
+            evaluation.selected = selected;
             evaluation.bestGenotype = firstBest.genotype();
             evaluation.bestGenotypeTwo = secondBest.genotype();
             evaluation.maxFitness = maxFitness;
@@ -205,17 +194,16 @@ public abstract class MOBatchEvaluatorAbove extends MOBatchEvaluator{
         }else{
             evaluation = evaluatePopulationOrder(population, fitnessEvolutionStep);
             double[] thresholds = getThreshold(evaluation);
-            if(secondObfuscated) {
-                evaluation.evaluatedPopulation = evaluation.evaluatedPopulation.stream()
-                        .filter(phenotype -> phenotype.fitness().data()[0] >= thresholds[0] ||
-                                phenotype.fitness().data()[1] >= thresholds[1]).toList();
-            } else {
-                evaluation.evaluatedPopulation = evaluation.evaluatedPopulation.stream()
-                        .filter(phenotype -> phenotype.fitness().data()[0] >= thresholds[0])
-                        .map(phenotype -> phenotype.withFitness(problem.fitness(phenotype.genotype())))
-                        .toList();
-            }
 
+            // the evaluated population already carries the actual fitness values
+            BitSet selected = new BitSet(evaluation.evaluatedPopulation.size());
+            for(int i = 0; i < evaluation.evaluatedPopulation.size(); i++) {
+                int[] fitness = evaluation.evaluatedPopulation.get(i).fitness().data();
+                if(fitness[0] >= thresholds[0] || (secondObfuscated && fitness[1] >= thresholds[1])) {
+                    selected.set(i);
+                }
+            }
+            evaluation.selected = selected;
         }
 
         return evaluation;
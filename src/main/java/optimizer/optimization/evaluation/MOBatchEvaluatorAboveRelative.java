@@ -4,10 +4,6 @@ import optimizer.optimization.jenetics.jeneticsMO.MOJeneticsOptimization;
 import optimizer.optimization.jenetics.jeneticsMO.MOSlotAllocationProblem;
 import io.jenetics.ext.moea.Vec;
 
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
-
 public class MOBatchEvaluatorAboveRelative extends MOBatchEvaluatorAbove{
     public MOBatchEvaluatorAboveRelative(MOSlotAllocationProblem problem, MOJeneticsOptimization optimization) {
         super(problem, optimization);
@@ -15,18 +11,15 @@ public class MOBatchEvaluatorAboveRelative extends MOBatchEvaluatorAbove{
 
     @Override
     protected double[] getThreshold(PopulationEvaluation<Vec<int[]>> evaluation) {
-        List<Double> valuesFirst = evaluation.evaluatedPopulation.stream()
-                .map(p->(double)p.fitness().data()[0])
-                .sorted(Comparator.reverseOrder())
-                .toList();
-        List<Double> valuesSecond = evaluation.evaluatedPopulation.stream()
-                .map(p->(double)p.fitness().data()[1])
-                .sorted(Comparator.reverseOrder())
-                .toList();
+        int[] valuesFirst = new int[evaluation.evaluatedPopulation.size()];
+        int[] valuesSecond = new int[evaluation.evaluatedPopulation.size()];
+        for(int i = 0; i < valuesFirst.length; i++) {
+            valuesFirst[i] = evaluation.evaluatedPopulation.get(i).fitness().data()[0];
+            valuesSecond[i] = evaluation.evaluatedPopulation.get(i).fitness().data()[1];
+        }
         double percentile = (100 - this.optimization.getFitnessPrecision());
-        valuesFirst = new ArrayList<>(valuesFirst);
-        valuesSecond = new ArrayList<>(valuesSecond);
-        int index = (int) Math.ceil((percentile / 100) * valuesFirst.size());
-        return new double[]{valuesFirst.get(index), valuesSecond.get(index)};
+        // the index counts from the highest value; the values are selected instead of sorted
+        int index = valuesFirst.length - 1 - (int) Math.ceil((percentile / 100) * valuesFirst.length);
+        return new double[]{PopulationRanking.select(valuesFirst, index), PopulationRanking.select(valuesSecond, index)};
     }
 }
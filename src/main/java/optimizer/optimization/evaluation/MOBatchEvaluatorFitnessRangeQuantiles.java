@@ -2,6 +2,7 @@ package optimizer.optimization.evaluation;
 
 import com.optimization.data.privacyEngine.dto.FitnessQuantilesDTO;
 import optimizer.optimization.OptimizationMode;
+import optimizer.optimization.fitnessEstimation.FitnessEstimator;
 import optimizer.optimization.jenetics.FitnessEvolutionStep;
 import optimizer.optimization.jenetics.jeneticsMO.MOJeneticsOptimization;
 import optimizer.optimization.jenetics.jeneticsMO.MOSlotAllocationProblem;
@@ -13,7 +14,6 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class MOBatchEvaluatorFitnessRangeQuantiles extends MOBatchEvaluator{
 
@@ -26,7 +26,6 @@ public class MOBatchEvaluatorFitnessRangeQuantiles extends MOBatchEvaluator{
     @Override
     protected List<Phenotype<EnumGene<Integer>, Vec<int[]>>> estimatePopulation(Seq<Phenotype<EnumGene<Integer>, Vec<int[]>>> population, FitnessEvolutionStep<double[]> fitnessEvolutionStep, PopulationEvaluation<Vec<int[]>> evaluation) {
         List<Phenotype<EnumGene<Integer>, Vec<int[]>>> estimatedPopulation = null;
-        List<Phenotype<EnumGene<Integer>, Vec<int[]>>> estimatedPopulationStream;
 
         logger.debug("Actual maximum fitness of the population: " + evaluation.maxFitness);
 
@@ -43,44 +42,28 @@ public class MOBatchEvaluatorFitnessRangeQuantiles extends MOBatchEvaluator{
 
             // for this we probably need a change of the Privacy Engine interface when running in privacy-preserving mode
             logger.debug("Getting estimated fitness value from estimator: " + this.optimization.getFitnessEstimator().getClass());
-            double[] estimatedFitnessValues =
-                    this.optimization.getFitnessEstimator().estimateFitnessDistribution(estimatedPopulationSize, evaluation.maxFitness, minFitness);
+            FitnessEstimator estimator = this.optimization.getFitnessEstimator();
 
             logger.debug("Assign the estimated fitness of the phenotype's fitness quantile");
-            final Map<Phenotype<EnumGene<Integer>, Vec<int[]>>, Vec<int[]>> finalFitnessQuantilesPopulation = evaluation.fitnessQuantilesPopulation;
-
-            if(secondObfuscated) {
-                double[] estimatedFitnessValuesTwo =
-                        this.optimization.getFitnessEstimator().estimateFitnessDistribution(estimatedPopulationSize, evaluation.maxFitnessTwo, minFitnessTwo);
-                estimatedPopulationStream = finalFitnessQuantilesPopulation.entrySet().stream()
-                        .map(e -> {
-                            int fitnessOne = (int) estimatedFitnessValues[e.getValue().data()[0]];
-                            int fitnessTwo = (int) estimatedFitnessValuesTwo[e.getValue().data()[1]];
-                            return e.getKey().withFitness(Vec.of(fitnessOne, fitnessTwo));
-                        }).toList();
-            } else {
-                estimatedPopulationStream = finalFitnessQuantilesPopulation.entrySet().stream()
-                        .map(e -> {
-                            int fitnessOne = (int) estimatedFitnessValues[e.getValue().data()[0]];
-                            int fitnessTwo = e.getKey().fitness().data()[1];
-                            return e.getKey().withFitness(Vec.of(fitnessOne, fitnessTwo));
-                        }).toList();
+            // the estimated first objective decreases with its quantile, so ordering the candidates by quantile
+            // orders them by descending estimated first objective
+            List<Phenotype<EnumGene<Integer>, Vec<int[]>>> evaluatedPopulation = evaluation.evaluatedPopulation;
+            int[] quantilesOne = evaluation.fitnessQuantiles;
+            int[] quantilesTwo = secondObfuscated ? evaluation.fitnessQuantilesTwo : null;
+
+            estimatedPopulation = new ArrayList<>(quantilesOne.length);
+            for(int i : PopulationRanking.orderByQuantile(quantilesOne)) {
+                Phenotype<EnumGene<Integer>, Vec<int[]>> phenotype = evaluatedPopulation.get(i);
+                int fitnessOne = (int) estimator.estimateFitness(quantilesOne[i],
+                        estimatedPopulationSize, evaluation.maxFitness, minFitness);
+                int fitnessTwo = quantilesTwo != null ?
+                        (int) estimator.estimateFitness(quantilesTwo[i], estimatedPopulationSize, evaluation.maxFitnessTwo, minFitnessTwo) :
+                        phenotype.fitness().data()[1];
+                estimatedPopulation.add(phenotype.withFitness(Vec.of(fitnessOne, fitnessTwo)));
             }
 
             logger.debug("Assigned the fitness quantiles");
 
-            // Fill up the population stream if it contains to few elements
-            int i = 0;
-            while(estimatedPopulationStream.size() < evaluation.evaluatedPopulation.size()) {
-                estimatedPopulationStream = new ArrayList<>(estimatedPopulationStream);
-                estimatedPopulationStream.add(estimatedPopulationStream.get(i));
-                i++;
-            }
-
-            estimatedPopulation = estimatedPopulationStream.stream()
-                    .sorted((p1, p2) -> Integer.compare(p2.fitness().data()[0], p1.fitness().data()[0]))
-                    .toList();
-
             logger.debug("Assigned estimated fitness values.");
         } else {
             logger.debug("No estimator specified. Using exact fitness (if available).");
@@ -100,7 +83,8 @@ public class MOBatchEvaluatorFitnessRangeQuantiles extends MOBatchEvaluator{
 
     protected PopulationEvaluation<Vec<int[]>> evaluatePopulationFitnessQuantiles(Seq<Phenotype<EnumGene<Integer>, Vec<int[]>>> population){
         final List<Phenotype<EnumGene<Integer>, Vec<int[]>>> evaluatedPopulation;
-        Map<Phenotype<EnumGene<Integer>, Vec<int[]>>, Vec<int[]>> fitnessQuantilesPopulation = new HashMap<>(750);
+        int[] quantilesOne = null;
+        int[] quantilesTwo = null;
         Phenotype<EnumGene<Integer>, Vec<int[]>> firstBest;
         Phenotype<EnumGene<Integer>, Vec<int[]>> secondBest;
 
@@ -109,7 +93,7 @@ public class MOBatchEvaluatorFitnessRangeQuantiles extends MOBatchEvaluator{
             logger.debug("Running in privacy-preserving mode: Evaluate the population using the Privacy Engine.");
 
             logger.debug("Convert population to format required by Privacy Engine.");
-            Integer[][] input = this.convertPopulationToArray(population);
+            int[][] input = this.convertPopulationToArray(population);
 
             logger.debug("Invoke the Privacy Engine service to get fitness quantiles of population.");
             FitnessQuantilesDTO fitnessQuantiles =
@@ -122,51 +106,34 @@ public class MOBatchEvaluatorFitnessRangeQuantiles extends MOBatchEvaluator{
             secondBest = population.get(0);
 
         } else {
-            evaluatedPopulation =
-                    population.stream()
-                            .map(phenotype -> phenotype.withFitness(problem.fitness(phenotype.genotype())))
-                            .sorted((p1, p2) -> Integer.compare(p2.fitness().data()[0], p1.fitness().data()[0]))
-                            .toList();
-
-            firstBest = evaluatedPopulation.stream().max(Comparator.comparingInt(p -> p.fitness().data()[0])).get();
-
-            double firstMin = evaluatedPopulation.stream().map(p -> p.fitness().data()[0]).min(Comparator.comparingInt(p -> p)).get();
+            List<Phenotype<EnumGene<Integer>, Vec<int[]>>> actualPopulation = evaluateActualFitness(population.asList());
 
-            double firstDifference = firstBest.fitness().data()[0] - firstMin;
-
-            double firstWindowLength = (firstDifference / this.optimization.getFitnessPrecision()) + 0.01;
-
-            logger.debug("first Diff: " + firstDifference + ", first windowLength: " + firstWindowLength);
+            int[] fitnessOne = new int[actualPopulation.size()];
+            for(int i = 0; i < fitnessOne.length; i++) {
+                fitnessOne[i] = actualPopulation.get(i).fitness().data()[0];
+            }
 
-            Map<Integer, List<Phenotype<EnumGene<Integer>, Vec<int[]>>>> quantilePopulationsOne = evaluatedPopulation.stream()
-                    .collect(Collectors.groupingBy(phenotype -> (int) ((firstBest.fitness().data()[0] - (double) phenotype.fitness().data()[0]) / firstWindowLength)));
+            // descending by the first objective with a single primitive sort
+            int[] order = PopulationRanking.orderDescending(fitnessOne);
+            evaluatedPopulation = Arrays.stream(order).mapToObj(actualPopulation::get).toList();
 
-            logger.debug("Map phenotype to quantile");
+            firstBest = evaluatedPopulation.get(0);
 
-            for(Map.Entry<Integer, List<Phenotype<EnumGene<Integer>, Vec<int[]>>>> e : quantilePopulationsOne.entrySet()) {
-                for(Phenotype<EnumGene<Integer>, Vec<int[]>> p : e.getValue()) {
-                    fitnessQuantilesPopulation.put(p, Vec.of(e.getKey()));
+            int[] fitnessTwo = new int[evaluatedPopulation.size()];
+            secondBest = evaluatedPopulation.get(0);
+            for(int i = 0; i < fitnessTwo.length; i++) {
+                fitnessOne[i] = evaluatedPopulation.get(i).fitness().data()[0];
+                fitnessTwo[i] = evaluatedPopulation.get(i).fitness().data()[1];
+                if(fitnessTwo[i] > secondBest.fitness().data()[1]) {
+                    secondBest = evaluatedPopulation.get(i);
                 }
             }
 
-            secondBest = evaluatedPopulation.stream()
-                    .max(Comparator.comparingInt(p -> p.fitness().data()[1])).get();
+            logger.debug("Map phenotype to quantile");
+            quantilesOne = PopulationRanking.fitnessRangeQuantiles(fitnessOne, this.optimization.getFitnessPrecision());
 
             if(secondObfuscated) {
-                double secondMin = evaluatedPopulation.stream()
-                        .map(p -> p.fitness().data()[1])
-                        .min(Integer::compareTo).get();
-                double secondDifference = secondBest.fitness().data()[1] - secondMin;
-                double secondWindowLength = (secondDifference / this.optimization.getFitnessPrecision()) + 0.01;
-                logger.debug("second Diff: " + secondDifference + ", second windowLength: " + secondWindowLength);
-                Map<Integer, List<Phenotype<EnumGene<Integer>, Vec<int[]>>>> quantilePopulationsTwo = evaluatedPopulation.stream()
-                        .collect(Collectors.groupingBy(phenotype -> (int) ((secondBest.fitness().data()[1] - (double) phenotype.fitness().data()[1]) / secondWindowLength)));
-                for(Map.Entry<Integer, List<Phenotype<EnumGene<Integer>, Vec<int[]>>>> entry : quantilePopulationsTwo.entrySet()) {
-                    for(Phenotype<EnumGene<Integer>, Vec<int[]>> p : entry.getValue()) {
-                        Vec<int[]> data = Vec.of(fitnessQuantilesPopulation.get(p).data()[0],entry.getKey());
-                        fitnessQuantilesPopulation.put(p, data);
-                    }
-                }
+                quantilesTwo = PopulationRanking.fitnessRangeQuantiles(fitnessTwo, this.optimization.getFitnessPrecision());
             }
 
             logger.debug("Mapped phenotypes to quantile");
@@ -174,7 +141,8 @@ public class MOBatchEvaluatorFitnessRangeQuantiles extends MOBatchEvaluator{
 
         PopulationEvaluation<Vec<int[]>> evaluation = new PopulationEvaluation<>();
         evaluation.evaluatedPopulation = evaluatedPopulation;
-        evaluation.fitnessQuantilesPopulation = fitnessQuantilesPopulation;
+        evaluation.fitnessQuantiles = quantilesOne;
+        evaluation.fitnessQuantilesTwo = quantilesTwo;
         evaluation.bestGenotype = firstBest.genotype();
         evaluation.bestGenotypeTwo = secondBest.genotype();
         evaluation.maxFitness = firstBest.fitness().data()[0];
@@ -1,6 +1,7 @@
 package optimizer.optimization.evaluation;
 
 import optimizer.optimization.OptimizationMode;
+import optimizer.optimization.fitnessEstimation.FitnessEstimator;
 import optimizer.optimization.jenetics.FitnessEvolutionStep;
 import optimizer.optimization.jenetics.jeneticsMO.MOJeneticsOptimization;
 import optimizer.optimization.jenetics.jeneticsMO.MOSlotAllocationProblem;
@@ -11,8 +12,9 @@ import io.jenetics.util.Seq;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class MOBatchEvaluatorOrder extends MOBatchEvaluator{
 
@@ -46,44 +48,45 @@ public class MOBatchEvaluatorOrder extends MOBatchEvaluator{
             int estimatedPopulationSize = getEstimatedPopulationSize(population);
 
             logger.debug("Getting estimated fitness value from estimator: " + this.optimization.getFitnessEstimator().getClass());
-            double[] estimatedFitnessValuesOne =
-                    this.optimization.getFitnessEstimator().estimateFitnessDistribution(estimatedPopulationSize, evaluation.maxFitness);
+            FitnessEstimator estimator = this.optimization.getFitnessEstimator();
 
 
             logger.debug("Assign each solution in the population an estimated fitness value.");
             final int finalEstimatedPopulationSize = estimatedPopulationSize;
 
+            List<Phenotype<EnumGene<Integer>, Vec<int[]>>> evaluatedPopulation = evaluation.evaluatedPopulation;
+            int[] ranksOne = PopulationRanking.ranks(evaluatedPopulation);
+            int[] ranksTwo = null;
+
             if(secondObfuscated){
-                double[] estimatedFitnessValuesTwo =
-                        this.optimization.getFitnessEstimator().estimateFitnessDistribution(estimatedPopulationSize, evaluation.maxFitnessTwo);
-
-                List<Phenotype<EnumGene<Integer>, Vec<int[]>>> evaluationSortedBySecond = evaluation.evaluatedPopulation.stream()
-                        .sorted((p1, p2) -> Integer.compare(p2.fitness().data()[1], p1.fitness().data()[1]))
-                        .toList();
-                estimatedPopulationStream = evaluation.evaluatedPopulation.stream()
-                        .map(phenotype -> {
-                            int positionOne = (int)((double) (evaluation.evaluatedPopulation.indexOf(phenotype)) / (double) (population.size()) * finalEstimatedPopulationSize);
-                            int positionTwo = (int)((double) (evaluationSortedBySecond.indexOf(phenotype)) / (double) (population.size()) * finalEstimatedPopulationSize);
-                            Vec<int[]> fitness = Vec.of(
-                                    (int) estimatedFitnessValuesOne[positionOne],
-                                    (int) estimatedFitnessValuesTwo[positionTwo]
-                            );
-                            return phenotype.withFitness(fitness);
-                        }).collect(Collectors.toList());
-            } else {
-                estimatedPopulationStream = evaluation.evaluatedPopulation.stream()
-                        .map(phenotype -> {
-                            int positionOne = (int)((double) (evaluation.evaluatedPopulation.indexOf(phenotype)) / (double) (population.size()) * finalEstimatedPopulationSize);
-                            Vec<int[]> fitness = Vec.of(
-                                    (int) estimatedFitnessValuesOne[positionOne],
-                                    phenotype.fitness().data()[1]
-                            );
-                            return phenotype.withFitness(fitness);
-                        }).collect(Collectors.toList());
+                // rank of each candidate in the population sorted by the second objective
+                int[] orderBySecond = PopulationRanking.orderDescending(
+                        evaluatedPopulation.stream().mapToInt(p -> p.fitness().data()[1]).toArray());
+                int[] ranksBySecond = PopulationRanking.ranks(
+                        Arrays.stream(orderBySecond).mapToObj(evaluatedPopulation::get).toList());
+                ranksTwo = new int[orderBySecond.length];
+                for(int k = 0; k < orderBySecond.length; k++) {
+                    ranksTwo[orderBySecond[k]] = ranksBySecond[k];
+                }
+            }
+
+            estimatedPopulationStream = new ArrayList<>(ranksOne.length);
+            int[] estimatedFitnessOne = new int[ranksOne.length];
+            for(int i = 0; i < ranksOne.length; i++) {
+                Phenotype<EnumGene<Integer>, Vec<int[]>> phenotype = evaluatedPopulation.get(i);
+                estimatedFitnessOne[i] = (int) estimator.estimateFitness(
+                        PopulationRanking.scale(ranksOne[i], population.size(), finalEstimatedPopulationSize),
+                        finalEstimatedPopulationSize, evaluation.maxFitness);
+                int fitnessTwo = ranksTwo != null ?
+                        (int) estimator.estimateFitness(
+                                PopulationRanking.scale(ranksTwo[i], population.size(), finalEstimatedPopulationSize),
+                                finalEstimatedPopulationSize, evaluation.maxFitnessTwo) :
+                        phenotype.fitness().data()[1];
+                estimatedPopulationStream.add(phenotype.withFitness(Vec.of(estimatedFitnessOne[i], fitnessTwo)));
             }
 
-            estimatedPopulation = estimatedPopulationStream.stream()
-                    .sorted((p1, p2) -> Integer.compare(p2.fitness().data()[0], p1.fitness().data()[0]))
+            estimatedPopulation = Arrays.stream(PopulationRanking.orderDescending(estimatedFitnessOne))
+                    .mapToObj(estimatedPopulationStream::get)
                     .toList();
 
             logger.debug("Assigned estimated fitness values.");
@@ -0,0 +1,70 @@
+package optimizer.optimization.evaluation;
+
+import optimizer.domain.ProblemInstance;
+import io.jenetics.Chromosome;
+import io.jenetics.EnumGene;
+import io.jenetics.Phenotype;
+import io.jenetics.util.Seq;
+
+/**
+ * Encodes populations into the format required by the Privacy Engine: for each individual, the flights (in session
+ * order) are replaced by the index of their assigned slot among the assigned slots ordered ascending by time.
+ * <p>
+ * The indices are read directly from the allele indices of the genotypes and the time ranks of the slots, i.e.,
+ * without decoding the individuals. Each call allocates its own result and scratch arrays, so an encoder can be
+ * shared between threads, e.g., by evaluators of concurrently evolving islands.
+ */
+public class PopulationEncoder {
+    private final ProblemInstance instance;
+
+    public PopulationEncoder(ProblemInstance instance) {
+        this.instance = instance;
+    }
+
+    /**
+     * Encodes the population.
+     * @param population the population to encode
+     * @return one row per individual holding the index of the assigned slot of each flight
+     */
+    public int[][] encode(Seq<? extends Phenotype<EnumGene<Integer>, ?>> population) {
+        int flightCount = instance.getFlightCount();
+        int slotCount = instance.getSlotCount();
+        int[][] encoded = new int[population.size()][flightCount];
+
+        // per slot time rank: the individual it was last assigned in (plus one), and its index among the assigned slots
+        int[] assignedStamp = flightCount < slotCount ? new int[slotCount] : null;
+        int[] assignedIndex = flightCount < slotCount ? new int[slotCount] : null;
+
+        for(int i = 0; i < population.size(); i++) {
+            encode(population.get(i).genotype().chromosome(), encoded[i], i + 1, assignedStamp, assignedIndex);
+        }
+
+        return encoded;
+    }
+
+    private void encode(Chromosome<EnumGene<Integer>> chromosome, int[] row, int stamp, int[] assignedStamp, int[] assignedIndex) {
+        int flightCount = instance.getFlightCount();
+        int slotCount = instance.getSlotCount();
+
+        for(int f = 0; f < flightCount; f++) {
+            row[f] = instance.getSlotRank(chromosome.get(f).alleleIndex());
+        }
+
+        // with unassigned slots, the time ranks of the assigned slots have gaps that must be closed
+        if(flightCount < slotCount) {
+            for(int f = 0; f < flightCount; f++) {
+                assignedStamp[row[f]] = stamp;
+            }
+
+            for(int k = 0, index = 0; k < slotCount; k++) {
+                if(assignedStamp[k] == stamp) {
+                    assignedIndex[k] = index++;
+                }
+            }
+
+            for(int f = 0; f < flightCount; f++) {
+                row[f] = assignedIndex[row[f]];
+            }
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package optimizer.optimization.evaluation;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ranking utilities shared by the order-based evaluators. The ranks are computed once per population, so that
+ * the estimated fitness values can be assigned by index instead of searching each candidate in the ordered
+ * population.
+ */
+final class PopulationRanking {
+
+    private PopulationRanking() { }
+
+    /**
+     * Computes the position of each element in the ordered list, where equal elements (duplicates) share the
+     * position of their first occurrence. This is the position {@link List#indexOf(Object)} would return, but
+     * computed for all elements in expected linear time.
+     * @param ordered the ordered elements
+     * @return the rank of the i-th element of the list
+     */
+    static <T> int[] ranks(List<T> ordered) {
+        int[] ranks = new int[ordered.size()];
+        Map<T, Integer> firstOccurrence = new HashMap<>(2 * ordered.size());
+
+        int i = 0;
+        for(T element : ordered) {
+            Integer first = firstOccurrence.putIfAbsent(element, i);
+            ranks[i] = first != null ? first : i;
+            i++;
+        }
+
+        return ranks;
+    }
+
+    /**
+     * Sorts the indices of the keys by descending key with a single primitive sort. Indices with equal keys keep
+     * their relative order, as with a stable sort of the elements.
+     * @param keys the sort keys
+     * @return the indices ordered by descending key
+     */
+    static int[] orderDescending(int[] keys) {
+        long[] packed = new long[keys.length];
+
+        // negated key in the upper bits, index in the lower 31 bits; sorting ascending orders by descending key,
+        // then by ascending index
+        for(int i = 0; i < keys.length; i++) {
+            packed[i] = (-(long) keys[i] << 31) | i;
+        }
+        Arrays.sort(packed);
+
+        int[] order = new int[keys.length];
+        for(int i = 0; i < keys.length; i++) {
+            order[i] = (int) (packed[i] & Integer.MAX_VALUE);
+        }
+
+        return order;
+    }
+
+    /**
+     * Sorts the indices of the keys by ascending key, keeping the relative order of indices with equal keys.
+     * @param keys the sort keys
+     * @return the indices ordered by ascending key
+     */
+    static int[] orderAscending(int[] keys) {
+        long[] packed = new long[keys.length];
+
+        for(int i = 0; i < keys.length; i++) {
+            packed[i] = ((long) keys[i] << 31) | i;
+        }
+        Arrays.sort(packed);
+
+        int[] order = new int[keys.length];
+        for(int i = 0; i < keys.length; i++) {
+            order[i] = (int) (packed[i] & Integer.MAX_VALUE);
+        }
+
+        return order;
+    }
+
+    /**
+     * Maps a rank in a population to the corresponding position in a population of another (estimated) size.
+     */
+    static int scale(int rank, int populationSize, int estimatedPopulationSize) {
+        return (int) ((double) rank / (double) populationSize * estimatedPopulationSize);
+    }
+
+    /**
+     * Assigns each fitness value to a fitness-range quantile, i.e., to one of precision equally wide windows between
+     * the maximal and the minimal fitness, numbered from the window of the maximal fitness.
+     * @param fitness the fitness values
+     * @param precision the number of quantiles
+     * @return the quantile of the i-th fitness value
+     */
+    static int[] fitnessRangeQuantiles(int[] fitness, int precision) {
+        int max = Integer.MIN_VALUE;
+        int min = Integer.MAX_VALUE;
+        for(int value : fitness) {
+            max = Math.max(max, value);
+            min = Math.min(min, value);
+        }
+
+        double windowLength = ((max - (double) min) / precision) + 0.01;
+
+        int[] quantiles = new int[fitness.length];
+        for(int i = 0; i < fitness.length; i++) {
+            quantiles[i] = (int) ((max - (double) fitness[i]) / windowLength);
+        }
+
+        return quantiles;
+    }
+
+    /**
+     * Sorts the indices by ascending quantile with a counting sort over the histogram of the quantiles. Indices in
+     * the same quantile keep their relative order.
+     * @param quantiles the quantile of each index, not negative
+     * @return the indices ordered by ascending quantile
+     */
+    static int[] orderByQuantile(int[] quantiles) {
+        int maxQuantile = 0;
+        for(int quantile : quantiles) {
+            maxQuantile = Math.max(maxQuantile, quantile);
+        }
+
+        // start of each quantile in the order
+        int[] starts = new int[maxQuantile + 2];
+        for(int quantile : quantiles) {
+            starts[quantile + 1]++;
+        }
+        for(int q = 0; q <= maxQuantile; q++) {
+            starts[q + 1] += starts[q];
+        }
+
+        int[] order = new int[quantiles.length];
+        for(int i = 0; i < quantiles.length; i++) {
+            order[starts[quantiles[i]]++] = i;
+        }
+
+        return order;
+    }
+
+    /**
+     * Selects the k-th smallest value with a quickselect in expected linear time, i.e., the value at index k after
+     * sorting the values ascending, without sorting them.
+     * @param values the values; reordered by the selection
+     * @param k the index of the value in ascending order
+     * @return the k-th smallest value
+     */
+    static int select(int[] values, int k) {
+        int from = 0;
+        int to = values.length - 1;
+
+        while(from < to) {
+            // median of the first, middle and last value as pivot, partitioned in three ways so that runs of equal
+            // fitness values do not degrade the selection
+            int middle = (from + to) >>> 1;
+            int pivot = Math.max(Math.min(values[from], values[middle]),
+                    Math.min(Math.max(values[from], values[middle]), values[to]));
+
+            int less = from;
+            int greater = to;
+            int i = from;
+            while(i <= greater) {
+                if(values[i] < pivot) {
+                    swap(values, less++, i++);
+                } else if(values[i] > pivot) {
+                    swap(values, i, greater--);
+                } else {
+                    i++;
+                }
+            }
+
+            if(k < less) {
+                to = less - 1;
+            } else if(k > greater) {
+                from = greater + 1;
+            } else {
+                return pivot;
+            }
+        }
+
+        return values[k];
+    }
+
+    private static void swap(int[] values, int i, int j) {
+        int value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+    }
+
+    /**
+     * Repeats the indices {@code 0} to {@code count - 1} cyclically until there are size entries, with the entries of
+     * the raised indices first. This is the order of a stable sort of the repeated entries by a fitness value that is
+     * higher for the raised indices than for all others.
+     * @param raised the raised indices
+     * @param count the number of indices; positive
+     * @param size the number of entries
+     * @return the repeated indices
+     */
+    static int[] repeatRaisedFirst(BitSet raised, int count, int size) {
+        int[] entries = new int[size];
+        int next = 0;
+
+        if(!raised.isEmpty()) {
+            for(int i = 0; i < size; i++) {
+                if(raised.get(i % count)) {
+                    entries[next++] = i % count;
+                }
+            }
+        }
+        for(int i = 0; next < size; i++) {
+            if(!raised.get(i % count)) {
+                entries[next++] = i % count;
+            }
+        }
+
+        return entries;
+    }
+}
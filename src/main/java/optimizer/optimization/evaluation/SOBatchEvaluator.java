@@ -1,10 +1,9 @@
 package optimizer.optimization.evaluation;
 
 import com.optimization.data.privacyEngine.dto.PopulationOrderDTO;
-import optimizer.domain.Flight;
-import optimizer.domain.Slot;
 import optimizer.optimization.OptimizationMode;
 import optimizer.optimization.jenetics.FitnessEvolutionStep;
+import optimizer.optimization.jenetics.jeneticsSO.ResultSnapshot;
 import optimizer.optimization.jenetics.jeneticsSO.SOJeneticsOptimization;
 import optimizer.optimization.jenetics.jeneticsSO.SOSlotAllocationProblem;
 import io.jenetics.EnumGene;
@@ -16,7 +15,6 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.*;
-import java.util.Map.Entry;
 import java.util.stream.Collectors;
 
 /**
@@ -69,13 +67,14 @@ public abstract class SOBatchEvaluator extends BatchEvaluator<Integer, Double, S
 
         FitnessEvolutionStep<Double> fitnessEvolutionStep = null;
 
-        logger.debug("Number of distinct solutions in population: " + population.stream().distinct().count());
-        if(this.optimization.isTraceFitnessEvolution()) {
+        if(logger.isDebugEnabled()) {
+            logger.debug("Number of distinct solutions in population: " + population.stream().distinct().count());
+        }
+        // the step is only created for generations sampled by the trace, and appended once it is complete
+        if(this.optimization.isTraceFitnessEvolution() &&
+                generation.map(this.optimization.getStatistics().getFitnessEvolution()::isSampled).orElse(true)) {
             fitnessEvolutionStep = new FitnessEvolutionStep<>();
-
-            logger.debug("Adding fitness evolution to statistics");
-            this.optimization.getStatistics().getFitnessEvolution().add(fitnessEvolutionStep);
-
+            fitnessEvolutionStep.setIsland(island);
 
             if(generation.isPresent()) {
                 fitnessEvolutionStep.setGeneration(generation.get().intValue());
@@ -88,50 +87,58 @@ public abstract class SOBatchEvaluator extends BatchEvaluator<Integer, Double, S
 
         estimatedPopulation = estimatePopulation(population, fitnessEvolutionStep, evaluation);
 
-        if(fitnessEvolutionStep != null) {
-            fitnessEvolutionStep.setEstimatedPopulation(
-                    estimatedPopulation.stream()
-                            .map(phenotype -> (double) phenotype.fitness())
-                            .toArray(Double[]::new)
-            );
-            logger.debug("Size of estimated population: " + fitnessEvolutionStep.getEstimatedPopulation().length);
-        }
-
+        // a single pass over the estimated population traces the estimated fitness and devalues invalid solutions
         logger.debug("Devaluing invalid solutions.");
-        estimatedPopulation = estimatedPopulation.stream().map(p -> {
-            Map<Flight, Slot> phenotypeMap = this.problem.decode(p.genotype()); // decode phenotype
-            this.noPhenotypes++;
-            long invalidAssignments = // determine how many invalid assignments the phenotype has
-                    phenotypeMap.entrySet().stream().filter(e ->
-                            e.getKey().getScheduledTime() != null &&
-                                    e.getKey().getScheduledTime().isAfter(e.getValue().getTime())).count();
+        Double[] estimatedFitness = fitnessEvolutionStep != null ? new Double[estimatedPopulation.size()] : null;
+        List<Phenotype<EnumGene<Integer>, Integer>> devaluedPopulation = new ArrayList<>(estimatedPopulation.size());
+        for(Phenotype<EnumGene<Integer>, Integer> phenotype : estimatedPopulation) {
+            if(estimatedFitness != null) {
+                estimatedFitness[devaluedPopulation.size()] = (double) phenotype.fitness();
+            }
 
-            Phenotype<EnumGene<Integer>, Integer> phenotype = p;
+            this.noPhenotypes++;
+            // determine how many invalid assignments the phenotype has
+            int invalidAssignments = countInvalidAssignments(phenotype.genotype());
 
             // if there are violations of the constraint, devalue the individual accordingly
             if(invalidAssignments > 0) {
                 this.noInvalidPhenotypes++;
                 this.noInvalidAssignments += invalidAssignments;
-                phenotype = p.withFitness((int) invalidAssignments * DEVALUATOR);
+                phenotype = phenotype.withFitness(invalidAssignments * DEVALUATOR);
             }
 
-            return phenotype;
-        }).collect(Collectors.toList());
+            devaluedPopulation.add(phenotype);
+        }
+        estimatedPopulation = devaluedPopulation;
 
-        if(evaluation.maxFitness >= this.optimization.getStatistics().getMaximumFitness() && estimatedPopulation != null) {
-            logger.debug("Best fitness of current generation better than current best fitness. Attaching intermediate result to the optimization run.");
-            this.optimization.setResults(
-                    estimatedPopulation.stream().distinct().map(phenotype -> this.problem.decode(phenotype.genotype())).toList()
-            );
+        if(estimatedFitness != null) {
+            fitnessEvolutionStep.setEstimatedPopulation(estimatedFitness);
+            logger.debug("Size of estimated population: " + estimatedFitness.length);
+        }
+
+        // the islands of an island model evaluate concurrently; the best results of all islands are kept
+        synchronized(this.optimization.getStatistics()) {
+            if(evaluation.maxFitness >= this.optimization.getStatistics().getMaximumFitness()) {
+                logger.debug("Best fitness of current generation better than current best fitness. Attaching intermediate result to the optimization run.");
+                // only the genotypes are kept; they are decoded when the results are requested
+                this.optimization.setResults(ResultSnapshot.of(distinctAssignments(estimatedPopulation)));
 
-            // set the optimization's maximum fitness to this generation's maximum fitness
-            this.optimization.getStatistics().setMaximumFitness((int) evaluation.maxFitness);
+                // set the optimization's maximum fitness to this generation's maximum fitness
+                this.optimization.getStatistics().setMaximumFitness((int) evaluation.maxFitness);
+            }
+        }
+
+        if(fitnessEvolutionStep != null) {
+            logger.debug("Adding fitness evolution to statistics");
+            this.optimization.getStatistics().getFitnessEvolution().append(fitnessEvolutionStep);
         }
 
         logger.debug("Finished evaluation");
 
         logger.debug("Update statistics.");
         this.optimization.getStatistics().setFitnessFunctionInvocations(problem.getFitnessFunctionApplications());
+        this.optimization.getStatistics().setFitnessCacheHits(problem.getFitnessCache().getHits());
+        this.optimization.getStatistics().setFitnessCacheMisses(problem.getFitnessCache().getMisses());
         this.optimization.getStatistics().setResultFitness(this.optimization.getStatistics().getMaximumFitness());
 
         return ISeq.of(estimatedPopulation);
@@ -152,13 +159,15 @@ public abstract class SOBatchEvaluator extends BatchEvaluator<Integer, Double, S
             logger.debug("Running in privacy-preserving mode: Evaluate the population using the Privacy Engine.");
 
             logger.debug("Convert population to format required by Privacy Engine.");
-            Integer[][] input = this.convertPopulationToArray(population);
+            DistinctPopulation<Integer> distinctPopulation = distinctPopulation(population);
+            int[][] input = this.convertPopulationToArray(distinctPopulation.distinct());
 
             logger.debug("Invoke the Privacy Engine service to evaluate population.");
             PopulationOrderDTO populationOrder =
                     this.optimization.getPrivacyEngineService().computePopulationOrder(this.optimization, input);
 
-            int[] order = populationOrder.getOrder();
+            // copies of a genotype follow their first occurrence in the order
+            int[] order = distinctPopulation.expandIndices(populationOrder.getOrder());
 
             logger.debug("Convert the population order received from the Privacy Engine to the format required by Jenetics.");
 
@@ -181,36 +190,20 @@ public abstract class SOBatchEvaluator extends BatchEvaluator<Integer, Double, S
         return evaluation;
     }
 
-    /**
-     * Convert the population from the Jenetics native representation to the array format required by the
-     * Privacy Engine.
-     * @param population the population in Jenetics representation
-     * @return the population in array format required by Privacy Engine
-     */
-    public Integer[][] convertPopulationToArray(Seq<Phenotype<EnumGene<Integer>, Integer>> population) {
-        return population.asList().stream()
-                  .map(phenotype -> this.problem.decode(phenotype.genotype()))
-                  .map(map ->{
-                              // 1. Get the slots ordered ascending by time
-                              // 2. Replace the flights in the flight sequence by the index of their assigned slot
-                              var orderedSlots = map.entrySet().stream().sorted(Entry.comparingByValue()).map(Entry::getValue).toList();
-                              return this.problem.getFlights().stream().map(flight -> orderedSlots.indexOf(map.get(flight))).toArray(Integer[]::new);
-                          }
-                  ).toArray(Integer[][]::new);
-    }
-
     protected List<Phenotype<EnumGene<Integer>, Integer>>evaluatePopulationOrderNonPrivacy(Seq<Phenotype<EnumGene<Integer>, Integer>> population, FitnessEvolutionStep<Double> fitnessEvolutionStep) {
         List<Phenotype<EnumGene<Integer>, Integer>> evaluatedPopulation;
         logger.debug("Running in non-privacy-preserving mode: Evaluate the population using the submitted weights.");
-        evaluatedPopulation =
-                population.stream()
-                        .map(phenotype -> phenotype.withFitness(problem.fitness(phenotype.genotype())))
-                        .sorted(Comparator.comparingInt(Phenotype::fitness))
-                        .sorted(Comparator.reverseOrder())
-                        .toList();
+        List<Phenotype<EnumGene<Integer>, Integer>> actualPopulation = evaluateActualFitness(population.asList());
+
+        // descending by fitness with a single primitive sort, individuals with equal fitness in population order
+        int[] fitness = new int[actualPopulation.size()];
+        for(int i = 0; i < fitness.length; i++) {
+            fitness[i] = actualPopulation.get(i).fitness();
+        }
+        int[] order = PopulationRanking.orderDescending(fitness);
+        evaluatedPopulation = Arrays.stream(order).mapToObj(actualPopulation::get).toList();
 
         double maxFitness = evaluatedPopulation.get(0).fitness();
-        Genotype<EnumGene<Integer>> bestGenotype = evaluatedPopulation.get(0).genotype();
 
         setImprovement(maxFitness, population, evaluatedPopulation);
 
@@ -218,7 +211,7 @@ public abstract class SOBatchEvaluator extends BatchEvaluator<Integer, Double, S
 
         if(fitnessEvolutionStep != null) {
             fitnessEvolutionStep.setEvaluatedPopulation(
-                    evaluatedPopulation.stream().map(phenotype -> (double) phenotype.fitness()).toArray(Double[]::new)
+                    Arrays.stream(order).mapToObj(i -> (double) fitness[i]).toArray(Double[]::new)
             );
             logger.debug("Tracing fitness evolution. Size of evaluated population: " + fitnessEvolutionStep.getEvaluatedPopulation().length);
         }
@@ -12,10 +12,10 @@ import io.jenetics.util.Seq;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Comparator;
+import java.util.BitSet;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Abstract super class for fitness-methods that estimate a population based on a threshold
@@ -32,8 +32,8 @@ public abstract class SOBatchEvaluatorAbove extends SOBatchEvaluator {
     }
 
     /**
-     * Estimates the population by assigning the maximum fitness to each evaluated phenotype.
-     * All phenotypes that are not evaluated are assigned the minimum fitness.
+     * Estimates the population by assigning the maximum fitness to each selected phenotype.
+     * The selected phenotypes are repeated in place of the phenotypes that are not selected.
      *
      * @param population the unevaluated population
      * @param fitnessEvolutionStep the evolution step of this generation
@@ -45,38 +45,36 @@ public abstract class SOBatchEvaluatorAbove extends SOBatchEvaluator {
 
         logger.debug("Actual maximum fitness of the population: " + evaluation.maxFitness);
 
-        List<Phenotype<EnumGene<Integer>, Integer>> estimatedPopulation;
-
-        List<Genotype<EnumGene<Integer>>> evaluatedGenotypes =
-                evaluation.evaluatedPopulation.stream().map(Phenotype::genotype).toList();
+        List<Phenotype<EnumGene<Integer>, Integer>> evaluatedPopulation = evaluation.evaluatedPopulation;
+        BitSet selected = evaluation.selected;
+        boolean raiseBest = evaluation.bestGenotype != null &&
+                evaluation.maxFitness < this.optimization.getStatistics().getTheoreticalMaxFitness();
 
         logger.debug("Assign each solution returned by the Privacy Engine the maximum fitness: " + evaluation.maxFitness);
-        // Add all evaluated individuals to the estimated population with the max fitness
-        estimatedPopulation = population.stream()
-                .filter(phenotype -> evaluatedGenotypes.contains(phenotype.genotype()))
-                .map(phenotype -> phenotype.withFitness((int)evaluation.maxFitness))
-                .collect(Collectors.toList());
-
-        // Increase the fitness of the best genotype in the population if possible to improve selection process
-        if(evaluation.bestGenotype != null && evaluation.maxFitness < this.optimization.getStatistics().getTheoreticalMaxFitness()){
-            logger.debug("Assigning higher fitness value to best genotype(s).");
-            estimatedPopulation = estimatedPopulation.stream()
-                    .map(phenotype -> phenotype.genotype().equals(evaluation.bestGenotype) ? phenotype.withFitness( (int) evaluation.maxFitness + 1) : phenotype)
-                    .collect(Collectors.toList());
+        // the selected individuals with the max fitness; the fitness of the best genotype in the population is
+        // increased if possible to improve selection process
+        List<Phenotype<EnumGene<Integer>, Integer>> selectedPopulation = new ArrayList<>(selected.cardinality());
+        BitSet raised = new BitSet();
+        for(int i = selected.nextSetBit(0); i >= 0; i = selected.nextSetBit(i + 1)) {
+            Phenotype<EnumGene<Integer>, Integer> phenotype = evaluatedPopulation.get(i);
+            if(raiseBest && phenotype.genotype().equals(evaluation.bestGenotype)) {
+                raised.set(selectedPopulation.size());
+                phenotype = phenotype.withFitness((int) evaluation.maxFitness + 1);
+            } else {
+                phenotype = phenotype.withFitness((int) evaluation.maxFitness);
+            }
+            selectedPopulation.add(phenotype);
         }
 
-        // Add estimated individuals to the collection until the size of the estimated population equals the size of the population (Jenetics requirement)
-        while(estimatedPopulation.size() < population.size()){
-            estimatedPopulation.addAll(estimatedPopulation);
+        // Repeat the selected individuals until the size of the estimated population equals the size of the population
+        // (Jenetics requirement), the best genotype(s) first
+        List<Phenotype<EnumGene<Integer>, Integer>> estimatedPopulation = new ArrayList<>(population.size());
+        if(!selectedPopulation.isEmpty()) {
+            for(int i : PopulationRanking.repeatRaisedFirst(raised, selectedPopulation.size(), population.size())) {
+                estimatedPopulation.add(selectedPopulation.get(i));
+            }
         }
 
-        estimatedPopulation = estimatedPopulation
-                .stream()
-                .limit(population.size())
-                .sorted(Comparator.comparingInt(Phenotype::fitness))
-                .sorted(Comparator.reverseOrder())
-                .collect(Collectors.toList());
-
         logger.debug("Assigned estimated fitness values.");
         return  estimatedPopulation;
     }
@@ -94,13 +92,12 @@ public abstract class SOBatchEvaluatorAbove extends SOBatchEvaluator {
     }
 
     /**
-     * Takes the unevaluated population and returns all individuals exceeding a defined threshold
+     * Takes the unevaluated population and selects all individuals exceeding a defined threshold
      * @param population the unevaluated population
      * @param fitnessEvolutionStep the evolution step of this generation
      * @return the evaluated population
      */
     protected PopulationEvaluation<Integer> evaluatePopulationAbove(Seq<Phenotype<EnumGene<Integer>, Integer>> population, FitnessEvolutionStep fitnessEvolutionStep){
-        final List<Phenotype<EnumGene<Integer>, Integer>> evaluatedPopulation;
         Genotype<EnumGene<Integer>> bestGenotype = null;
         PopulationEvaluation<Integer> evaluation = null;
         double maxFitness;
@@ -109,7 +106,8 @@ public abstract class SOBatchEvaluatorAbove extends SOBatchEvaluator {
             logger.debug("Running in privacy-preserving mode: Evaluate the population using the Privacy Engine.");
 
             logger.debug("Convert population to format required by Privacy Engine.");
-            Integer[][] input = this.convertPopulationToArray(population);
+            DistinctPopulation<Integer> distinctPopulation = distinctPopulation(population);
+            int[][] input = this.convertPopulationToArray(distinctPopulation.distinct());
 
             logger.debug("Invoke the Privacy Engine service to get phenotypes exceeding threshold.");
             // TODO: distinguish ABOVE from TOP
@@ -123,7 +121,7 @@ public abstract class SOBatchEvaluatorAbove extends SOBatchEvaluator {
             logger.debug("Has max fitness improved: {}",  (individualsAbove.getBest() != null ? individualsAbove.getBest() : "NULL") + ".");
 
 
-            bestGenotype = population.get(individualsAbove.getHighest()).genotype();
+            bestGenotype = population.get(distinctPopulation.representative(individualsAbove.getHighest())).genotype();
             maxFitness = population.size();
 
             if(Boolean.TRUE.equals(individualsAbove.getBest())){
@@ -132,18 +130,29 @@ public abstract class SOBatchEvaluatorAbove extends SOBatchEvaluator {
                 logger.debug("Increased max fitness to {}{}",  maxFitness, ".");
             }
 
-            evaluatedPopulation = Arrays.stream(individualsAbove.getIndices())
-                    .map(population::get)
-                    .toList();
+            // all copies of a genotype above the threshold are above the threshold
+            BitSet selected = new BitSet(population.size());
+            for(int i : distinctPopulation.expandIndices(
+                    Arrays.stream(individualsAbove.getIndices()).mapToInt(Integer::intValue).toArray())) {
+                selected.set(i);
+            }
 
-            evaluation = new PopulationEvaluation();
-            evaluation.evaluatedPopulation = evaluatedPopulation;
+            evaluation = new PopulationEvaluation<>();
+            evaluation.evaluatedPopulation = population.asList();
+            evaluation.selected = selected;
             evaluation.bestGenotype = bestGenotype;
             evaluation.maxFitness = maxFitness;
         }else{
             evaluation = evaluatePopulationOrder(population, fitnessEvolutionStep);
             double threshold = getThreshold(evaluation);
-            evaluation.evaluatedPopulation = evaluation.evaluatedPopulation.stream().filter(phenotype -> phenotype.fitness() >= threshold).toList();
+
+            BitSet selected = new BitSet(evaluation.evaluatedPopulation.size());
+            for(int i = 0; i < evaluation.evaluatedPopulation.size(); i++) {
+                if(evaluation.evaluatedPopulation.get(i).fitness() >= threshold) {
+                    selected.set(i);
+                }
+            }
+            evaluation.selected = selected;
         }
 
         return evaluation;
@@ -3,10 +3,6 @@ package optimizer.optimization.evaluation;
 import optimizer.optimization.jenetics.jeneticsSO.SOJeneticsOptimization;
 import optimizer.optimization.jenetics.jeneticsSO.SOSlotAllocationProblem;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-
 /**
  * BatchEvaluator for the fitness-method ABOVE_RELATIVE_THRESHOLD
  */
@@ -26,19 +22,22 @@ public class SOBatchEvaluatorAboveRelative extends SOBatchEvaluatorAbove {
      */
     @Override
     protected double getThreshold(PopulationEvaluation<Integer> evaluation) {
-        return percentile(evaluation.evaluatedPopulation.stream().map(ph -> (double) ph.fitness()).toList(), (100 - this.optimization.getFitnessPrecision()));
+        int[] values = new int[evaluation.evaluatedPopulation.size()];
+        for(int i = 0; i < values.length; i++) {
+            values[i] = evaluation.evaluatedPopulation.get(i).fitness();
+        }
+        return percentile(values, (100 - this.optimization.getFitnessPrecision()));
     }
 
     /**
-     * Utility method that calculates a percentile
-     * @param values the values
+     * Utility method that calculates a percentile by selecting the value at the percentile's index, without sorting
+     * all values
+     * @param values the values; reordered by the selection
      * @param percentile the desired percentile
      * @return the percentile
      */
-    protected static double percentile(List<Double> values, double percentile) {
-        values = new ArrayList<>(values);
-        Collections.sort(values);
-        int index = (int) Math.ceil((percentile / 100) * values.size());
-        return values.get(index);
+    protected static double percentile(int[] values, double percentile) {
+        int index = (int) Math.ceil((percentile / 100) * values.length);
+        return PopulationRanking.select(values, index);
     }
 }
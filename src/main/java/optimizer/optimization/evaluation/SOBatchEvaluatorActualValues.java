@@ -53,11 +53,8 @@ public class SOBatchEvaluatorActualValues extends SOBatchEvaluator {
         if(this.optimization.getMode() == OptimizationMode.PRIVACY_PRESERVING) {
             logger.debug("Running in privacy-preserving mode: Evaluate the population using the Privacy Engine.");
 
-            logger.debug("Convert population to format required by Privacy Engine.");
-            Integer[][] input = this.convertPopulationToArray(population);
-
             logger.debug("Invoke the Privacy Engine service to evaluate population.");
-            Integer[] fitnessValues = this.optimization.getPrivacyEngineService().computeActualFitnessValues(optimization, input);
+            Integer[] fitnessValues = computeActualFitnessValues(population);
 
             logger.debug("Convert the evaluated population received from the Privacy Engine to the format required by Jenetics.");
             evaluatedPopulation = IntStream
@@ -2,6 +2,7 @@ package optimizer.optimization.evaluation;
 
 import com.optimization.data.privacyEngine.dto.FitnessQuantilesDTO;
 import optimizer.optimization.OptimizationMode;
+import optimizer.optimization.fitnessEstimation.FitnessEstimator;
 import optimizer.optimization.jenetics.FitnessEvolutionStep;
 import optimizer.optimization.jenetics.jeneticsSO.SOJeneticsOptimization;
 import optimizer.optimization.jenetics.jeneticsSO.SOSlotAllocationProblem;
@@ -13,7 +14,6 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * BatchEvaluator for the fitness-method FITNESS_RANGE_QUANTILES
@@ -32,7 +32,6 @@ public class SOBatchEvaluatorFitnessRangeQuantiles extends SOBatchEvaluator {
     @Override
     protected List<Phenotype<EnumGene<Integer>, Integer>> estimatePopulation(Seq<Phenotype<EnumGene<Integer>, Integer>> population, FitnessEvolutionStep<Double> fitnessEvolutionStep, PopulationEvaluation<Integer> evaluation) {
         List<Phenotype<EnumGene<Integer>, Integer>> estimatedPopulation = null;
-        List<Phenotype<EnumGene<Integer>, Integer>> estimatedPopulationStream;
 
         logger.debug("Actual maximum fitness of the population: " + evaluation.maxFitness);
 
@@ -46,30 +45,33 @@ public class SOBatchEvaluatorFitnessRangeQuantiles extends SOBatchEvaluator {
 
             // for this we probably need a change of the Privacy Engine interface when running in privacy-preserving mode
             logger.debug("Getting estimated fitness value from estimator: " + this.optimization.getFitnessEstimator().getClass());
-            double[] estimatedFitnessValues =
-                    this.optimization.getFitnessEstimator().estimateFitnessDistribution(estimatedPopulationSize, evaluation.maxFitness, minFitness);
+            FitnessEstimator estimator = this.optimization.getFitnessEstimator();
 
             logger.debug("Assign the estimated fitness of the phenotype's fitness quantile");
-            final Map<Phenotype<EnumGene<Integer>, Integer>, Integer> finalFitnessQuantilesPopulation = evaluation.fitnessQuantilesPopulation;
-            estimatedPopulationStream = evaluation.evaluatedPopulation.stream()
-                    .map(phenotype -> {
-                                int fitness = (int) estimatedFitnessValues[finalFitnessQuantilesPopulation.get(phenotype)];
-                                return phenotype.withFitness(fitness);
-                            }
-                    ).collect(Collectors.toList());
+            // the estimated fitness decreases with the quantile, so ordering the candidates by quantile orders them
+            // by descending estimated fitness
+            List<Phenotype<EnumGene<Integer>, Integer>> evaluatedPopulation = evaluation.evaluatedPopulation;
+            int[] quantiles = evaluation.fitnessQuantiles;
+            boolean raiseBest = !useActualFitnessValues && evaluation.maxFitness < this.optimization.getStatistics().getTheoreticalMaxFitness();
+
+            List<Phenotype<EnumGene<Integer>, Integer>> best = new ArrayList<>();
+            estimatedPopulation = new ArrayList<>(quantiles.length);
+            for(int i : PopulationRanking.orderByQuantile(quantiles)) {
+                Phenotype<EnumGene<Integer>, Integer> phenotype = evaluatedPopulation.get(i);
+
+                if(raiseBest && phenotype.genotype().equals(evaluation.bestGenotype)) {
+                    best.add(phenotype.withFitness((int) evaluation.maxFitness + 1));
+                } else {
+                    int fitness = (int) estimator.estimateFitness(quantiles[i], estimatedPopulationSize, evaluation.maxFitness, minFitness);
+                    estimatedPopulation.add(phenotype.withFitness(fitness));
+                }
+            }
             logger.debug("Assigned the fitness quantiles");
 
-            estimatedPopulation = estimatedPopulationStream.stream()
-                    .sorted(Comparator.comparingInt(Phenotype::fitness))
-                    .sorted(Comparator.reverseOrder())
-                    .toList();
-
-            if(!useActualFitnessValues && evaluation.maxFitness < this.optimization.getStatistics().getTheoreticalMaxFitness()){
-                estimatedPopulation = estimatedPopulation.stream()
-                        .map(phenotype -> phenotype.genotype().equals(evaluation.bestGenotype) ? phenotype.withFitness( (int) evaluation.maxFitness + 1) : phenotype)
-                        .sorted(Comparator.comparingInt(Phenotype::fitness))
-                        .sorted(Comparator.reverseOrder())
-                        .collect(Collectors.toList());
+            // the copies of the best genotype are raised above the maximum fitness and lead the population
+            if(!best.isEmpty()) {
+                best.addAll(estimatedPopulation);
+                estimatedPopulation = best;
             }
 
             logger.debug("Assigned estimated fitness values.");
@@ -98,7 +100,7 @@ public class SOBatchEvaluatorFitnessRangeQuantiles extends SOBatchEvaluator {
      */
     protected PopulationEvaluation<Integer> evaluatePopulationFitnessQuantiles(Seq<Phenotype<EnumGene<Integer>, Integer>> population, FitnessEvolutionStep<Double> fitnessEvolutionStep){
         final List<Phenotype<EnumGene<Integer>, Integer>> evaluatedPopulation;
-        Map<Phenotype<EnumGene<Integer>, Integer>, Integer> fitnessQuantilesPopulation = null;
+        int[] quantiles = null;
         Genotype<EnumGene<Integer>> bestGenotype = null;
         double maxFitness;
 
@@ -106,7 +108,7 @@ public class SOBatchEvaluatorFitnessRangeQuantiles extends SOBatchEvaluator {
             logger.debug("Running in privacy-preserving mode: Evaluate the population using the Privacy Engine.");
 
             logger.debug("Convert population to format required by Privacy Engine.");
-            Integer[][] input = this.convertPopulationToArray(population);
+            int[][] input = this.convertPopulationToArray(population);
 
             logger.debug("Invoke the Privacy Engine service to get fitness quantiles of population.");
             FitnessQuantilesDTO fitnessQuantiles =
@@ -122,34 +124,20 @@ public class SOBatchEvaluatorFitnessRangeQuantiles extends SOBatchEvaluator {
             maxFitness = evaluatedPopulation.get(0).fitness();
             bestGenotype = evaluatedPopulation.get(0).genotype();
 
-            double actualMinFitness = evaluatedPopulation.get(evaluatedPopulation.size()-1).fitness();
-
-            double difference = evaluatedPopulation.get(0).fitness() - actualMinFitness;
-
-            double windowLength = (difference / this.optimization.getFitnessPrecision()) + 0.01;
-
-            logger.debug("Diff: " + difference + ", windowLength: " + windowLength);
-
-            Map<Integer, List<Phenotype<EnumGene<Integer>, Integer>>> quantilePopulations = evaluatedPopulation.stream()
-                    .collect(Collectors.groupingBy(phenotype -> (int) ((evaluatedPopulation.get(0).fitness() - (double) phenotype.fitness()) / windowLength)));
+            int[] fitness = new int[evaluatedPopulation.size()];
+            for(int i = 0; i < fitness.length; i++) {
+                fitness[i] = evaluatedPopulation.get(i).fitness();
+            }
 
             logger.debug("Map phenotype to quantile");
-            fitnessQuantilesPopulation = new HashMap<>();
-
-            for(int quantile : quantilePopulations.keySet()) {
-                List<Phenotype<EnumGene<Integer>, Integer>> quantilePopulation = quantilePopulations.get(quantile);
-
-                for(Phenotype<EnumGene<Integer>, Integer> phenotype : quantilePopulation) {
-                    fitnessQuantilesPopulation.put(phenotype, quantile);
-                }
-            }
+            quantiles = PopulationRanking.fitnessRangeQuantiles(fitness, this.optimization.getFitnessPrecision());
 
             logger.debug("Mapped phenotypes to quantile");
         }
 
         PopulationEvaluation evaluation = new PopulationEvaluation();
         evaluation.evaluatedPopulation = evaluatedPopulation;
-        evaluation.fitnessQuantilesPopulation = fitnessQuantilesPopulation;
+        evaluation.fitnessQuantiles = quantiles;
         evaluation.bestGenotype = bestGenotype;
         evaluation.maxFitness = maxFitness;
         return evaluation;
@@ -1,6 +1,7 @@
 package optimizer.optimization.evaluation;
 
 import optimizer.optimization.OptimizationMode;
+import optimizer.optimization.fitnessEstimation.FitnessEstimator;
 import optimizer.optimization.jenetics.FitnessEvolutionStep;
 import optimizer.optimization.jenetics.jeneticsSO.SOJeneticsOptimization;
 import optimizer.optimization.jenetics.jeneticsSO.SOSlotAllocationProblem;
@@ -10,9 +11,9 @@ import io.jenetics.util.Seq;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * BatchEvaluator for the fitness-method ORDER
@@ -48,21 +49,22 @@ public class SOBatchEvaluatorOrder extends SOBatchEvaluator {
             int estimatedPopulationSize = getEstimatedPopulationSize(population);
 
             logger.debug("Getting estimated fitness value from estimator: " + this.optimization.getFitnessEstimator().getClass());
-            double[] estimatedFitnessValues =
-                    this.optimization.getFitnessEstimator().estimateFitnessDistribution(estimatedPopulationSize, evaluation.maxFitness);
+            FitnessEstimator estimator = this.optimization.getFitnessEstimator();
 
             logger.debug("Assign each solution in the population an estimated fitness value.");
             final int finalEstimatedPopulationSize = estimatedPopulationSize;
 
             // get the fitness value at the candidate's position
-            estimatedPopulationStream = evaluation.evaluatedPopulation.stream()
-                    .map(phenotype -> phenotype.withFitness((int) estimatedFitnessValues[
-                            (int)((double) (evaluation.evaluatedPopulation.indexOf(phenotype)) / (double) (population.size()) * finalEstimatedPopulationSize)
-                            ])).collect(Collectors.toList());
+            int[] ranks = PopulationRanking.ranks(evaluation.evaluatedPopulation);
+            estimatedPopulationStream = new ArrayList<>(ranks.length);
+            for(int i = 0; i < ranks.length; i++) {
+                estimatedPopulationStream.add(evaluation.evaluatedPopulation.get(i).withFitness((int) estimator.estimateFitness(
+                        PopulationRanking.scale(ranks[i], population.size(), finalEstimatedPopulationSize),
+                        finalEstimatedPopulationSize, evaluation.maxFitness)));
+            }
 
             estimatedPopulation = estimatedPopulationStream.stream()
-                    .sorted(Comparator.comparingInt(Phenotype::fitness))
-                    .sorted(Comparator.reverseOrder())
+                    .sorted(Comparator.comparingInt(Phenotype<EnumGene<Integer>, Integer>::fitness).reversed())
                     .toList();
 
             logger.debug("Assigned estimated fitness values.");
@@ -1,9 +1,73 @@
 package optimizer.optimization.fitnessEstimation;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estimates the fitness of a solution from its rank in the population. Each estimator is an affine rescaling of a
+ * normalized shape between the minimum and the maximum fitness; the shape only depends on the population size, so it
+ * is computed once per population size and cached, and only the rescaling is done per generation.
+ */
 public abstract class FitnessEstimator {
+    /**
+     * Maximal number of cached population sizes; the cache is cleared once exceeded.
+     */
+    private static final int MAX_CACHED_SHAPES = 64;
+
+    private final Map<Integer, double[]> shapes = new ConcurrentHashMap<>();
+
+    /**
+     * @param rank the rank of the solution, 0 being the best one
+     * @param populationSize the size of the population
+     * @return the normalized estimated fitness of the solution, 1 being the maximum and 0 the minimum fitness
+     */
+    protected abstract double shape(int rank, int populationSize);
+
+    /**
+     * @param rank the rank of the solution, 0 being the best one
+     * @param populationSize the size of the population
+     * @param maxFitness the fitness of the best solution
+     * @param minFitness the fitness of the worst solution
+     * @return the estimated fitness of the solution
+     */
+    public double estimateFitness(int rank, int populationSize, double maxFitness, double minFitness) {
+        return minFitness + (maxFitness - minFitness) * shapes(populationSize)[rank];
+    }
+
+    public double estimateFitness(int rank, int populationSize, double maxFitness) {
+        return estimateFitness(rank, populationSize, maxFitness, 0);
+    }
+
     public double[] estimateFitnessDistribution(int populationSize, double maxFitness) {
         return estimateFitnessDistribution(populationSize, maxFitness, 0);
     }
 
-    public abstract double[] estimateFitnessDistribution(int populationSize, double maxFitness, double minFitness);
+    /**
+     * @return the estimated fitness of each rank in the population
+     */
+    public double[] estimateFitnessDistribution(int populationSize, double maxFitness, double minFitness) {
+        double[] fitnessValues = new double[populationSize];
+
+        for(int i = 0; i < populationSize; i++) {
+            fitnessValues[i] = estimateFitness(i, populationSize, maxFitness, minFitness);
+        }
+
+        return fitnessValues;
+    }
+
+    private double[] shapes(int populationSize) {
+        double[] shape = shapes.get(populationSize);
+        if(shape == null) {
+            shape = new double[populationSize];
+            for(int i = 0; i < populationSize; i++) {
+                shape[i] = shape(i, populationSize);
+            }
+
+            if(shapes.size() >= MAX_CACHED_SHAPES) {
+                shapes.clear();
+            }
+            shapes.put(populationSize, shape);
+        }
+        return shape;
+    }
 }
@@ -1,18 +1,12 @@
 package optimizer.optimization.fitnessEstimation;
 
 public class LinearFitnessEstimator extends FitnessEstimator {
+    /**
+     * f(i) = maxFitness - i * (maxFitness - minFitness) / populationSize
+     */
     @Override
-    public double[] estimateFitnessDistribution(int populationSize, double maxFitness, double minFitness) {
-        double distance = maxFitness - minFitness;
-        double delta = distance / populationSize;
-
-        double[] fitnessValues = new double[populationSize];
-
-        for(int i = 0; i < populationSize; i++) {
-            fitnessValues[i] = maxFitness - (i * delta);
-        }
-
-        return fitnessValues;
+    protected double shape(int rank, int populationSize) {
+        return 1.0 - (double) rank / populationSize;
     }
 
     public static void main(String[] args) {
@@ -1,34 +1,20 @@
 package optimizer.optimization.fitnessEstimation;
 
-import java.util.stream.IntStream;
-
 public class LogarithmicFitnessEstimator extends FitnessEstimator {
 
-    @Override
     /**
      * Use the logarithmic function f(i) = a * ln(b * i) to determine the fitness value of a solution at position i in
-     * the population.
+     * the population, in reverse order. With a = (maxFitness - minFitness) / ln(populationSize) and
+     * ln(b) = minFitness / a, so that f(1) = minFitness and f(populationSize) = maxFitness, this is
+     * f(i) = minFitness + (maxFitness - minFitness) * ln(i) / ln(populationSize). A single solution gets the maximum
+     * fitness.
      */
-    public double[] estimateFitnessDistribution(int populationSize, double maxFitness, double minFitness) {
-        // f(i) = a * ln(b * i)
-
-        //	a = (minFitness - maxFitness) / (ln(1/populationSize))
-        //	b = e^c
-        //	c = (0 - (minFitness * ln(populationSize))/(minFitness - maxFitness)
-
-        double a = (minFitness - maxFitness) / (Math.log((double) (1 / (double) populationSize)));
-        double c = (0 - (minFitness * Math.log(populationSize))) / (minFitness - maxFitness);
-        double b = Math.pow(Math.E, c); //e^c
-
-        double[] fitnessValues = new double[populationSize];
-
-        for(int i = 0; i < populationSize; i++) {
-            fitnessValues[i] = a * Math.log(b * (i + 1));
+    @Override
+    protected double shape(int rank, int populationSize) {
+        if(populationSize < 2) {
+            return 1.0;
         }
-
-        return IntStream.range(1, fitnessValues.length + 1)
-                        .mapToDouble(i -> fitnessValues[fitnessValues.length - i])
-                        .toArray();
+        return Math.log(populationSize - rank) / Math.log(populationSize);
     }
 
     public static void main(String[] args) {
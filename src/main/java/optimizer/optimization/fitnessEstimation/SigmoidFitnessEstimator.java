@@ -1,30 +1,17 @@
 package optimizer.optimization.fitnessEstimation;
 
-import java.util.stream.IntStream;
-
 public class SigmoidFitnessEstimator extends FitnessEstimator {
     /**
-     * f(i) = ((1/0,948683298) * (x/sqrt(1+x^2)) * (difference/2)) + minFitness + (difference/2)
-     * @param populationSize
-     * @param maxFitness
-     * @param minFitness
-     * @return
+     * f(i) = ((1/0,948683298) * (x/sqrt(1+x^2)) * (difference/2)) + minFitness + (difference/2), with
+     * x = i * 6 / populationSize - 3 for the position i in the population, in reverse order
+     * @param rank the rank of the solution
+     * @param populationSize the size of the population
+     * @return the normalized fitness
      */
     @Override
-    public double[] estimateFitnessDistribution(int populationSize, double maxFitness, double minFitness) {
-        double difference = maxFitness - minFitness;
-
-        double[] fitnessValues = new double[populationSize];
-
-        for(int i = 0; i < populationSize; i++) {
-            double x = ((i + 1.0) * (6.0 / populationSize)) - 3.0;
-            fitnessValues[i] = ((1.0 / 0.948683298) * (x / Math.sqrt(1 + x * x)) * (difference / 2.0)) + minFitness + (difference / 2.0);
-        }
-
-
-        return IntStream.range(1, fitnessValues.length + 1)
-                        .mapToDouble(i -> fitnessValues[fitnessValues.length - i])
-                        .toArray();
+    protected double shape(int rank, int populationSize) {
+        double x = ((populationSize - rank) * (6.0 / populationSize)) - 3.0;
+        return ((1.0 / 0.948683298) * (x / Math.sqrt(1 + x * x)) + 1.0) / 2.0;
     }
 
     public static void main(String[] args) {
@@ -1,6 +1,7 @@
 package optimizer.optimization.hungarian;
 
 import optimizer.domain.Flight;
+import optimizer.domain.ProblemInstance;
 import optimizer.domain.Slot;
 
 import java.util.HashMap;
@@ -21,6 +22,10 @@ public class HungarianOptimization extends Optimization<Map<Flight, Slot>, Fligh
         super(flights, slots);
     }
 
+	public HungarianOptimization(ProblemInstance instance) {
+		super(instance);
+	}
+
 	// TODO: check if the weight map must somehow be adapted bcs of the TTAs
     @Override
     public Map<Flight, Slot> run() {
@@ -33,7 +38,7 @@ public class HungarianOptimization extends Optimization<Map<Flight, Slot>, Fligh
     	// slots are with index i (so some slots can be unassigned)
     	// flights are with index j
     	//  -> at [i][j] is the weight to assign flight j to slot i
-    	double[][] costMatrix = computeCostMatrix(flights, slots);
+    	double[][] costMatrix = computeCostMatrix(this.getInstance());
 
     	printCostMatrix(costMatrix);
     	costMatrix = adjustCostMatrix(costMatrix);
@@ -49,7 +54,7 @@ public class HungarianOptimization extends Optimization<Map<Flight, Slot>, Fligh
     	Map<Flight, Slot> resultMap = new HashMap<>();
     	for (int i = 0; i < result.length; i++) {
     		resultMap.put(flights[result[i]], slots[i]);
-    		sumOfWeights += getWeight(flights[result[i]], slots[i]);
+    		sumOfWeights += getWeight(result[i], i);
     	}
     	logger.info("Finished optimization using Hungarian algorithm for " + this.getOptId() + " with a fitness value of " + sumOfWeights);
 
@@ -68,18 +73,14 @@ public class HungarianOptimization extends Optimization<Map<Flight, Slot>, Fligh
 		return optimalFitness;
 	}
 
-	protected double[][] computeCostMatrix(Flight[] flights, Slot[] slots) {
-		double[][] costMatrix = new double[slots.length][flights.length];
-		for (int i = 0; i < slots.length; i++) {
-			for (int j = 0; j < flights.length; j++) {
-				if(i == 0) flights[j].computeWeightMap(slots);
-
-				if(DEVALUE_SOBT_CONSTRAINT &&
-						flights[j].getScheduledTime() != null &&
-						slots[i].getTime().isBefore(flights[j].getScheduledTime())){
+	protected double[][] computeCostMatrix(ProblemInstance instance) {
+		double[][] costMatrix = new double[instance.getSlotCount()][instance.getFlightCount()];
+		for (int i = 0; i < instance.getSlotCount(); i++) {
+			for (int j = 0; j < instance.getFlightCount(); j++) {
+				if(DEVALUE_SOBT_CONSTRAINT && !instance.isFeasible(j, i)){
 					costMatrix[i][j] = DEVALUATION;
 				}else{
-					costMatrix[i][j] = flights[j].getWeight(slots[i]);
+					costMatrix[i][j] = instance.getWeight(j, i);
 				}
 			}
 		}
@@ -153,17 +154,16 @@ public class HungarianOptimization extends Optimization<Map<Flight, Slot>, Fligh
 		logger.debug(out);
 	}
 
-	protected int getWeight(Flight flight, Slot slot){
+	protected int getWeight(int flight, int slot){
+		ProblemInstance instance = this.getInstance();
 		int weight = 0;
-		if(DEVALUE_SOBT_CONSTRAINT &&
-				flight.getScheduledTime() != null &&
-				slot.getTime().isBefore(flight.getScheduledTime())){
+		if(DEVALUE_SOBT_CONSTRAINT && !instance.isFeasible(flight, slot)){
 			weight = DEVALUATION;
 		}else{
-			weight = flight.getWeight(slot);
+			weight = instance.getWeight(flight, slot);
 		}
-		logger.debug("Slot " + slot.getTime().toString() + ": " + flight.getFlightId()
-				+ " | weight: " + flight.getWeight(slot));
+		logger.debug("Slot " + instance.getSlot(slot).getTime().toString() + ": " + instance.getFlight(flight).getFlightId()
+				+ " | weight: " + instance.getWeight(flight, slot));
 		return weight;
 	}
 }
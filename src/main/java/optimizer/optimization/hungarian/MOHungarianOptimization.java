@@ -1,7 +1,7 @@
 package optimizer.optimization.hungarian;
 
 import optimizer.domain.Flight;
-import optimizer.domain.FlightMO;
+import optimizer.domain.ProblemInstance;
 import optimizer.domain.Slot;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -13,20 +13,19 @@ public class MOHungarianOptimization extends HungarianOptimization {
         super(flights, slots);
     }
 
-    @Override
-    protected double[][] computeCostMatrix(Flight[] flights, Slot[] slots) {
-        double[][] costMatrix = new double[slots.length][flights.length];
-        for (int i = 0; i < slots.length; i++) {
-            for (int j = 0; j < flights.length; j++) {
-                FlightMO flight = (FlightMO) flights[j];
-                if(i == 0) flight.computeSecondWeightMap(slots);
+    public MOHungarianOptimization(ProblemInstance instance) {
+        super(instance);
+    }
 
-                if(DEVALUE_SOBT_CONSTRAINT &&
-                        flight.getScheduledTime() != null &&
-                        slots[i].getTime().isBefore(flight.getScheduledTime())){
+    @Override
+    protected double[][] computeCostMatrix(ProblemInstance instance) {
+        double[][] costMatrix = new double[instance.getSlotCount()][instance.getFlightCount()];
+        for (int i = 0; i < instance.getSlotCount(); i++) {
+            for (int j = 0; j < instance.getFlightCount(); j++) {
+                if(DEVALUE_SOBT_CONSTRAINT && !instance.isFeasible(j, i)){
                     costMatrix[i][j] = DEVALUATION;
                 }else{
-                    costMatrix[i][j] = flight.getScondWeight(slots[i]);
+                    costMatrix[i][j] = instance.getSecondWeight(j, i);
                 }
             }
         }
@@ -34,18 +33,16 @@ public class MOHungarianOptimization extends HungarianOptimization {
     }
 
     @Override
-    protected int getWeight(Flight flight, Slot slot) {
-        FlightMO castedFlight = (FlightMO) flight;
+    protected int getWeight(int flight, int slot) {
+        ProblemInstance instance = this.getInstance();
         int weight;
-        if(DEVALUE_SOBT_CONSTRAINT &&
-                castedFlight.getScheduledTime() != null &&
-                slot.getTime().isBefore(castedFlight.getScheduledTime())){
+        if(DEVALUE_SOBT_CONSTRAINT && !instance.isFeasible(flight, slot)){
             weight = DEVALUATION;
         }else{
-            weight = castedFlight.getScondWeight(slot);
+            weight = instance.getSecondWeight(flight, slot);
         }
-        logger.debug("Slot " + slot.getTime().toString() + ": " + castedFlight.getFlightId()
-                + " | weight: " + castedFlight.getWeight(slot));
+        logger.debug("Slot " + instance.getSlot(slot).getTime().toString() + ": " + instance.getFlight(flight).getFlightId()
+                + " | weight: " + instance.getWeight(flight, slot));
         return weight;
     }
 }
@@ -1,8 +1,6 @@
 package optimizer.optimization.hungarian;
 
-import optimizer.domain.Flight;
-import optimizer.domain.FlightMO;
-import optimizer.domain.Slot;
+import optimizer.domain.ProblemInstance;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -13,13 +11,10 @@ public class ParetoFrontEstimator {
     private static final Logger logger = LogManager.getLogger();
 
     private final int PARETO_FRONT_GRANULARITY = 100;
-    final private FlightMO[] flights;
-    final private Slot[] slots;
+    final private ProblemInstance instance;
 
-    public ParetoFrontEstimator(FlightMO[] flights, Slot[] slots) {
-        this.slots = slots;
-        this.flights = flights;
-        for(Flight flight: this.flights) flight.computeWeightMap(this.slots);
+    public ParetoFrontEstimator(ProblemInstance instance) {
+        this.instance = instance;
     }
 
     public double[][] calculateParetoFront() {
@@ -38,8 +33,8 @@ public class ParetoFrontEstimator {
             int firstValue = 0;
             int secondValue = 0;
             for(int j = 0; j < result.length; j++) {
-                firstValue += flights[result[j]].getWeight(slots[j]);
-                secondValue += flights[result[j]].getScondWeight(slots[j]);
+                firstValue += instance.getWeight(result[j], j);
+                secondValue += instance.getSecondWeight(result[j], j);
             }
             // set the point
             pointsOnFront[i][0] = firstValue;
@@ -65,11 +60,11 @@ public class ParetoFrontEstimator {
     }
 
     private double[][] getWeightMap(double composition) {
-        double[][] costMatrix = new double[slots.length][flights.length];
-        for (int i = 0; i < slots.length; i++) {
-            for (int j = 0; j < flights.length; j++) {
-                costMatrix[i][j] = flights[j].getWeight(slots[i]) * composition +
-                                    flights[j].getScondWeight(slots[i]) * (1-composition);
+        double[][] costMatrix = new double[instance.getSlotCount()][instance.getFlightCount()];
+        for (int i = 0; i < instance.getSlotCount(); i++) {
+            for (int j = 0; j < instance.getFlightCount(); j++) {
+                costMatrix[i][j] = instance.getWeight(j, i) * composition +
+                                    instance.getSecondWeight(j, i) * (1-composition);
             }
         }
         return costMatrix;
@@ -0,0 +1,76 @@
+package optimizer.optimization.jenetics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of the actual fitness (the weight sum of each objective) of slot assignments, keyed by their
+ * {@link PermutationFingerprint}. When the capacity is exceeded, the least recently used entry is evicted. A
+ * capacity of zero or less disables the cache.
+ */
+public class FitnessCache {
+    public static final int DEFAULT_CAPACITY = 10000;
+
+    private final int capacity;
+    private final Map<Long, int[]> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public FitnessCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(capacity > 0 ? Math.min(capacity, 1 << 16) : 0, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, int[]> eldest) {
+                return size() > FitnessCache.this.capacity;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return capacity > 0;
+    }
+
+    /**
+     * Looks up the fitness of an assignment and counts a hit or a miss.
+     * @param fingerprint the fingerprint of the assignment
+     * @return the cached fitness, or null if the assignment is not cached
+     */
+    public int[] get(long fingerprint) {
+        int[] score = null;
+
+        if(isEnabled()) {
+            synchronized (entries) {
+                score = entries.get(fingerprint);
+            }
+        }
+
+        if(score != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+
+        return score;
+    }
+
+    public void put(long fingerprint, int[] score) {
+        if(isEnabled()) {
+            synchronized (entries) {
+                entries.put(fingerprint, score);
+            }
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
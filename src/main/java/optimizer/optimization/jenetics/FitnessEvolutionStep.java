@@ -3,6 +3,10 @@ package optimizer.optimization.jenetics;
 public class FitnessEvolutionStep<FitnessStep> {
 
     private int generation;
+    /**
+     * The island of an island model whose population is traced; 0 for a single engine.
+     */
+    private int island;
 
     private FitnessStep[] evaluatedPopulation = null;
     private FitnessStep[] estimatedPopulation = null;
@@ -15,6 +19,14 @@ public class FitnessEvolutionStep<FitnessStep> {
         this.generation = generation;
     }
 
+    public int getIsland() {
+        return island;
+    }
+
+    public void setIsland(int island) {
+        this.island = island;
+    }
+
     public FitnessStep[] getEvaluatedPopulation() {
         return evaluatedPopulation;
     }
@@ -0,0 +1,481 @@
+package optimizer.optimization.jenetics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Columnar store of the fitness evolution of an optimization run. The fitness values of all traced generations are
+ * kept in a single growable primitive array, and the generation, the island and the bounds of the estimated and the
+ * evaluated population of each traced generation in parallel int arrays, instead of one object with boxed arrays per
+ * generation. The islands of an island model each append a step per traced generation.
+ * <p>
+ * The trace can be downsampled: only every k-th generation is traced, and for each traced generation either the
+ * fitness values of the whole population or only their summary, i.e., the minimum, the quartiles and the maximum of
+ * each objective, are stored. The number of stored fitness values is capped; once a step would exceed the cap, the
+ * interval is doubled and the steps of the generations no longer sampled are dropped, so that a long run keeps an
+ * evenly spaced trace within bounded memory. Steps are appended by the optimization run while the statistics are read
+ * concurrently; readers see all steps appended before they started.
+ */
+public final class FitnessEvolutionTrace {
+    /**
+     * What is stored for each traced generation.
+     */
+    public enum Sampling {
+        /**
+         * The fitness values of the whole population.
+         */
+        POPULATION,
+        /**
+         * The minimum, the quartiles and the maximum of each objective, as five fitness vectors.
+         */
+        SUMMARY
+    }
+
+    private static final double[] SUMMARY_QUANTILES = { 0.0, 0.25, 0.5, 0.75, 1.0 };
+
+    private static final int MAX_VALUES = Integer.MAX_VALUE - 8;
+
+    /**
+     * The default cap of the stored fitness values, i.e., 32 MiB.
+     */
+    public static final int DEFAULT_MAX_VALUES = 1 << 22;
+
+    /**
+     * The current interval; doubled whenever the cap is reached.
+     */
+    private volatile int interval;
+    private final int configuredInterval;
+    private final Sampling sampling;
+    private final int maxValues;
+
+    /**
+     * The number of objectives; determined by the first appended fitness value.
+     */
+    private int dimension;
+
+    private int size;
+    private int[] generations = new int[64];
+    private int[] islands = new int[64];
+    /**
+     * Start of the estimated and the evaluated population of each step in {@link #values}, or -1 if not traced; the
+     * evaluated population of step i ends at the start of step i + 1, i.e., at {@code ends[i]}.
+     */
+    private int[] estimatedStarts = new int[64];
+    private int[] evaluatedStarts = new int[64];
+    private int[] ends = new int[64];
+
+    private int length;
+    private double[] values = new double[1024];
+
+    private boolean truncated;
+
+    /**
+     * @param interval trace every interval-th generation, starting with the first one; every generation if one or less
+     * @param sampling what is stored for each traced generation
+     */
+    public FitnessEvolutionTrace(int interval, Sampling sampling) {
+        this(interval, sampling, DEFAULT_MAX_VALUES);
+    }
+
+    /**
+     * @param interval trace every interval-th generation, starting with the first one; every generation if one or less
+     * @param sampling what is stored for each traced generation
+     * @param maxValues the maximal number of stored fitness values (objectives of fitness vectors count separately);
+     *                  {@link #DEFAULT_MAX_VALUES} if zero or less
+     */
+    public FitnessEvolutionTrace(int interval, Sampling sampling, int maxValues) {
+        this.interval = Math.max(1, interval);
+        this.configuredInterval = this.interval;
+        this.sampling = sampling;
+        this.maxValues = maxValues > 0 ? Math.min(maxValues, MAX_VALUES) : DEFAULT_MAX_VALUES;
+    }
+
+    /**
+     * @return a trace of the summary of every generation, capped at the default number of values
+     */
+    public static FitnessEvolutionTrace ofEveryGeneration() {
+        return new FitnessEvolutionTrace(1, Sampling.SUMMARY);
+    }
+
+    /**
+     * @param generation the generation, starting with one
+     * @return true if the generation is to be traced
+     */
+    public boolean isSampled(long generation) {
+        return (generation - 1) % interval == 0;
+    }
+
+    /**
+     * @return the current interval between traced generations, i.e., the configured one doubled once per downsampling
+     */
+    public int getInterval() {
+        return interval;
+    }
+
+    /**
+     * Appends the fitness values of the step, either single fitness values or fitness vectors. If the step would
+     * exceed the cap, the trace is downsampled first; a step of a generation that is no longer sampled is dropped.
+     * Steps are only dropped altogether once downsampling cannot make room, e.g., for steps without a generation.
+     * @param step the fitness evolution step of a generation
+     */
+    public synchronized void append(FitnessEvolutionStep<?> step) {
+        if(truncated || !isRetained(step.getGeneration())) {
+            return;
+        }
+
+        double[] estimated = flatten(step.getEstimatedPopulation());
+        double[] evaluated = flatten(step.getEvaluatedPopulation());
+        long stepLength = (estimated != null ? estimated.length : 0) + (evaluated != null ? evaluated.length : 0);
+
+        while(length + stepLength > maxValues) {
+            if(!downsample()) {
+                truncated = true;
+                return;
+            }
+            if(!isRetained(step.getGeneration())) {
+                return;
+            }
+        }
+
+        int estimatedStart = appendColumn(estimated);
+        int evaluatedStart = appendColumn(evaluated);
+
+        if(size == generations.length) {
+            int capacity = 2 * size;
+            generations = Arrays.copyOf(generations, capacity);
+            islands = Arrays.copyOf(islands, capacity);
+            estimatedStarts = Arrays.copyOf(estimatedStarts, capacity);
+            evaluatedStarts = Arrays.copyOf(evaluatedStarts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+        }
+
+        generations[size] = step.getGeneration();
+        islands[size] = step.getIsland();
+        estimatedStarts[size] = estimatedStart;
+        evaluatedStarts[size] = evaluatedStart;
+        ends[size] = length;
+        size++;
+    }
+
+    /**
+     * @return true if a step of the generation is kept at the current interval; steps without a generation are kept
+     */
+    private boolean isRetained(int generation) {
+        return generation < 1 || isSampled(generation);
+    }
+
+    /**
+     * Doubles the interval and drops the steps of the generations no longer sampled. The retained steps are copied to
+     * new arrays, as readers may still iterate over the old ones.
+     * @return false if no step can be dropped by doubling the interval, i.e., no step of a generation after the first
+     * one is stored, or the interval cannot be doubled
+     */
+    private boolean downsample() {
+        boolean droppable = false;
+        for(int i = 0; i < size && !droppable; i++) {
+            droppable = generations[i] > 1;
+        }
+        if(!droppable || interval > Integer.MAX_VALUE / 2) {
+            return false;
+        }
+
+        interval = 2 * interval;
+
+        int[] retainedGenerations = new int[generations.length];
+        int[] retainedIslands = new int[islands.length];
+        int[] retainedEstimatedStarts = new int[estimatedStarts.length];
+        int[] retainedEvaluatedStarts = new int[evaluatedStarts.length];
+        int[] retainedEnds = new int[ends.length];
+        double[] retainedValues = new double[values.length];
+        int retained = 0;
+        int retainedLength = 0;
+
+        for(int i = 0; i < size; i++) {
+            if(!isRetained(generations[i])) {
+                continue;
+            }
+
+            int start = estimatedStarts[i] >= 0 ? estimatedStarts[i] : evaluatedStarts[i] >= 0 ? evaluatedStarts[i] : ends[i];
+            int shift = start - retainedLength;
+            System.arraycopy(values, start, retainedValues, retainedLength, ends[i] - start);
+            retainedLength += ends[i] - start;
+
+            retainedGenerations[retained] = generations[i];
+            retainedIslands[retained] = islands[i];
+            retainedEstimatedStarts[retained] = estimatedStarts[i] >= 0 ? estimatedStarts[i] - shift : -1;
+            retainedEvaluatedStarts[retained] = evaluatedStarts[i] >= 0 ? evaluatedStarts[i] - shift : -1;
+            retainedEnds[retained] = retainedLength;
+            retained++;
+        }
+
+        generations = retainedGenerations;
+        islands = retainedIslands;
+        estimatedStarts = retainedEstimatedStarts;
+        evaluatedStarts = retainedEvaluatedStarts;
+        ends = retainedEnds;
+        values = retainedValues;
+        size = retained;
+        length = retainedLength;
+        return true;
+    }
+
+    /**
+     * @return the fitness values of the column as one array of fitness vectors, summarized if configured, or null if
+     * there is no column
+     */
+    private double[] flatten(Object[] column) {
+        if(column == null) {
+            return null;
+        }
+
+        int individuals = column.length;
+        if(dimension == 0 && individuals > 0) {
+            dimension = column[0] instanceof double[] vector ? vector.length : 1;
+        }
+
+        double[] flat = new double[individuals * dimension];
+        for(int i = 0; i < individuals; i++) {
+            if(column[i] instanceof double[] vector) {
+                System.arraycopy(vector, 0, flat, i * dimension, dimension);
+            } else {
+                flat[i * dimension] = ((Number) column[i]).doubleValue();
+            }
+        }
+
+        if(sampling == Sampling.SUMMARY && individuals > 0) {
+            flat = summarize(flat, individuals);
+        }
+        return flat;
+    }
+
+    /**
+     * @return the start of the appended column, or -1 if there is no column; the caller ensures the cap is kept
+     */
+    private int appendColumn(double[] flat) {
+        if(flat == null) {
+            return -1;
+        }
+
+        if(length + flat.length > values.length) {
+            values = Arrays.copyOf(values, (int) Math.min(maxValues, Math.max(2L * values.length, length + flat.length)));
+        }
+
+        int start = length;
+        System.arraycopy(flat, 0, values, start, flat.length);
+        length += flat.length;
+        return start;
+    }
+
+    /**
+     * @return the summary quantiles of each objective, as one vector per quantile
+     */
+    private double[] summarize(double[] flat, int individuals) {
+        double[] summary = new double[SUMMARY_QUANTILES.length * dimension];
+        double[] objective = new double[individuals];
+
+        for(int d = 0; d < dimension; d++) {
+            for(int i = 0; i < individuals; i++) {
+                objective[i] = flat[i * dimension + d];
+            }
+            Arrays.sort(objective);
+
+            for(int q = 0; q < SUMMARY_QUANTILES.length; q++) {
+                summary[q * dimension + d] = objective[(int) Math.round(SUMMARY_QUANTILES[q] * (individuals - 1))];
+            }
+        }
+
+        return summary;
+    }
+
+    /**
+     * @return the number of traced generations
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of objectives, or zero if no fitness value has been traced yet
+     */
+    public synchronized int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * @return true if steps have been dropped because the cap was reached and downsampling could not make room
+     */
+    public synchronized boolean isTruncated() {
+        return truncated;
+    }
+
+    public synchronized void clear() {
+        size = 0;
+        length = 0;
+        truncated = false;
+        interval = configuredInterval;
+        // new arrays, as readers may still iterate over the old ones
+        generations = new int[64];
+        islands = new int[64];
+        estimatedStarts = new int[64];
+        evaluatedStarts = new int[64];
+        ends = new int[64];
+        values = new double[1024];
+    }
+
+    /**
+     * Visits the steps appended so far in the order of their generations, the steps of the same generation in the
+     * order of their islands. Appending further steps during the visit does not affect the visited steps.
+     * @param consumer the consumer of the steps
+     */
+    public <E extends Exception> void forEach(StepConsumer<E> consumer) throws E {
+        int size;
+        int[] generations, islands, estimatedStarts, evaluatedStarts, ends;
+        double[] values;
+        int dimension;
+
+        synchronized(this) {
+            size = this.size;
+            generations = this.generations;
+            islands = this.islands;
+            estimatedStarts = this.estimatedStarts;
+            evaluatedStarts = this.evaluatedStarts;
+            ends = this.ends;
+            values = this.values;
+            dimension = Math.max(1, this.dimension);
+        }
+
+        for(int i : order(generations, islands, size)) {
+            int estimatedEnd = evaluatedStarts[i] >= 0 ? evaluatedStarts[i] : ends[i];
+            consumer.accept(generations[i], islands[i],
+                    estimatedStarts[i] >= 0 ? new Column(values, estimatedStarts[i], estimatedEnd, dimension) : null,
+                    evaluatedStarts[i] >= 0 ? new Column(values, evaluatedStarts[i], ends[i], dimension) : null);
+        }
+    }
+
+    /**
+     * @return the indices of the steps ordered by generation and island; the steps of a single engine, and of the
+     * islands as long as they do not overtake each other, are appended in this order already
+     */
+    private static int[] order(int[] generations, int[] islands, int size) {
+        int[] order = new int[size];
+        boolean sorted = true;
+        for(int i = 0; i < size; i++) {
+            order[i] = i;
+            if(i > 0 && (generations[i - 1] > generations[i] ||
+                    generations[i - 1] == generations[i] && islands[i - 1] > islands[i])) {
+                sorted = false;
+            }
+        }
+        if(sorted) {
+            return order;
+        }
+
+        return Arrays.stream(order).boxed()
+                .sorted(Comparator.<Integer>comparingInt(i -> generations[i]).thenComparingInt(i -> islands[i]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Streams the trace as CSV with one line per traced fitness vector: the generation, the island, the population
+     * (estimated or evaluated), the index of the vector within the population, and one column per objective.
+     * @param writer the writer; not closed
+     */
+    public void writeCsv(Writer writer) throws IOException {
+        int dimension = Math.max(1, getDimension());
+
+        writer.write("generation,island,population,index");
+        for(int d = 1; d <= dimension; d++) {
+            writer.write(",fitness" + d);
+        }
+        writer.write('\n');
+
+        this.<IOException>forEach((generation, island, estimated, evaluated) -> {
+            writeCsv(writer, generation, island, "estimated", estimated);
+            writeCsv(writer, generation, island, "evaluated", evaluated);
+        });
+        writer.flush();
+    }
+
+    private static void writeCsv(Writer writer, int generation, int island, String population, Column column) throws IOException {
+        if(column == null) {
+            return;
+        }
+
+        StringBuilder line = new StringBuilder();
+        for(int i = 0; i < column.size(); i++) {
+            line.setLength(0);
+            line.append(generation).append(',').append(island).append(',').append(population).append(',').append(i);
+            for(int d = 0; d < column.dimension(); d++) {
+                line.append(',').append(column.get(i, d));
+            }
+            line.append('\n');
+            writer.append(line);
+        }
+    }
+
+    @FunctionalInterface
+    public interface StepConsumer<E extends Exception> {
+        /**
+         * @param generation the generation
+         * @param island the island of an island model; 0 for a single engine
+         * @param estimated the estimated population, or null if not traced
+         * @param evaluated the evaluated population, or null if not traced
+         */
+        void accept(int generation, int island, Column estimated, Column evaluated) throws E;
+    }
+
+    /**
+     * View of the fitness vectors of one population of a step, without copying.
+     */
+    public static final class Column {
+        private final double[] values;
+        private final int start;
+        private final int end;
+        private final int dimension;
+
+        private Column(double[] values, int start, int end, int dimension) {
+            this.values = values;
+            this.start = start;
+            this.end = end;
+            this.dimension = dimension;
+        }
+
+        /**
+         * @return the number of fitness vectors
+         */
+        public int size() {
+            return (end - start) / dimension;
+        }
+
+        public int dimension() {
+            return dimension;
+        }
+
+        /**
+         * @return the d-th objective of the i-th fitness vector
+         */
+        public double get(int i, int d) {
+            return values[start + i * dimension + d];
+        }
+
+        public Double[] toBoxedArray() {
+            Double[] array = new Double[size()];
+            for(int i = 0; i < array.length; i++) {
+                array[i] = get(i, 0);
+            }
+            return array;
+        }
+
+        public double[][] toVectors() {
+            double[][] vectors = new double[size()][];
+            for(int i = 0; i < vectors.length; i++) {
+                int from = start + i * dimension;
+                vectors[i] = Arrays.copyOfRange(values, from, from + dimension);
+            }
+            return vectors;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package optimizer.optimization.jenetics;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Scores a batch of slot assignments against row-major weight matrices, i.e., sums
+ * {@code matrix[f * slotCount + permutation[f]]} over all flights f of each permutation. Sums overflow like
+ * regular int arithmetic, so all implementations return identical results.
+ */
+public interface FitnessKernel {
+
+    /**
+     * Sums the weights of each permutation.
+     * @param matrix the row-major weight matrix
+     * @param permutations the permutations to score; only the first count entries are read
+     * @param count the number of permutations to score
+     * @param sums array of at least count entries receiving the weight sums
+     */
+    void sum(int[] matrix, int[][] permutations, int count, int[] sums);
+
+    /**
+     * Sums the weights of each permutation for two objectives in a single pass over the permutations, reading
+     * both weights of an assignment from adjacent entries of an interleaved matrix.
+     * @param interleavedMatrix the interleaved weight matrix, see {@link optimizer.domain.ProblemInstance#interleavedWeightMatrix()}
+     * @param permutations the permutations to score; only the first count entries are read
+     * @param count the number of permutations to score
+     * @param sums array of at least count entries receiving the weight sums of the first objective
+     * @param secondSums array of at least count entries receiving the weight sums of the second objective
+     */
+    void sumInterleaved(int[] interleavedMatrix, int[][] permutations, int count, int[] sums, int[] secondSums);
+
+    /**
+     * Returns the vectorized kernel if it has been built ({@code mvn -Pvector}) and the jdk.incubator.vector module
+     * has been added to the JVM ({@code --add-modules jdk.incubator.vector}), and the scalar kernel otherwise.
+     * @param flightCount the number of flights, i.e., the number of positions of each permutation to score
+     * @param slotCount the number of slots, i.e., the row length of the weight matrices
+     * @return the fitness kernel
+     */
+    static FitnessKernel of(int flightCount, int slotCount) {
+        if(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                // only part of the build with the vector profile, hence loaded reflectively
+                return (FitnessKernel) Class.forName(FitnessKernel.class.getPackageName() + ".VectorFitnessKernel")
+                        .getDeclaredConstructor(int.class, int.class)
+                        .newInstance(flightCount, slotCount);
+            } catch (ClassNotFoundException e) {
+                Logger logger = LogManager.getLogger();
+                logger.debug("Vector fitness kernel not built, using scalar fitness kernel");
+            } catch (ReflectiveOperationException | LinkageError e) {
+                Logger logger = LogManager.getLogger();
+                logger.warn("Vector API not usable, falling back to scalar fitness kernel: " + e);
+            }
+        }
+
+        return new ScalarFitnessKernel(flightCount, slotCount);
+    }
+}
@@ -0,0 +1,291 @@
+package optimizer.optimization.jenetics;
+
+import io.jenetics.EnumGene;
+import io.jenetics.Genotype;
+import io.jenetics.Phenotype;
+import io.jenetics.Selector;
+import io.jenetics.engine.EvolutionInterceptor;
+import io.jenetics.engine.EvolutionResult;
+import io.jenetics.util.ISeq;
+import io.jenetics.util.MSeq;
+import io.jenetics.util.RandomRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+import java.util.random.RandomGenerator;
+
+/**
+ * Island model of a genetic algorithm: several engines, the islands, each evolve their own population on their own
+ * thread with their own random generator, and periodically send copies of their best individuals to other islands
+ * along a migration topology.
+ * <p>
+ * Migration is asynchronous: every migration interval, an island sends its emigrants to the mailboxes of its target
+ * islands, replacing emigrants that have not been received yet, and takes the immigrants waiting in its own mailbox.
+ * The immigrants replace the worst individuals of the island's population, at most half of it; as repaired
+ * duplicates, they are not evaluated, so the island's engine evaluates them right after the interceptor, in the same
+ * generation.
+ * @param <C> the fitness type
+ */
+public final class IslandModel<C extends Comparable<? super C>> {
+    private static final Logger logger = LogManager.getLogger();
+
+    /**
+     * The islands an island sends its emigrants to.
+     */
+    public enum Topology {
+        /**
+         * To the next island, the last island to the first one.
+         */
+        RING,
+        /**
+         * To another island drawn at random at each migration.
+         */
+        RANDOM,
+        /**
+         * To all other islands.
+         */
+        FULL;
+
+        int[] targets(int island, int islands, RandomGenerator random) {
+            return switch(this) {
+                case RING -> new int[] { (island + 1) % islands };
+                case RANDOM -> {
+                    int target = random.nextInt(islands - 1);
+                    yield new int[] { target >= island ? target + 1 : target };
+                }
+                case FULL -> {
+                    int[] targets = new int[islands - 1];
+                    for(int i = 0, target = 0; target < islands; target++) {
+                        if(target != island) targets[i++] = target;
+                    }
+                    yield targets;
+                }
+            };
+        }
+    }
+
+    public static final int DEFAULT_MIGRATION_INTERVAL = 10;
+    public static final int DEFAULT_MIGRANTS = 2;
+
+    private final int islands;
+    private final Topology topology;
+    private final int migrationInterval;
+    private final int migrants;
+    /**
+     * Ranks the individuals of a population, both to choose the emigrants and the individuals kept when immigrants
+     * arrive; must not rely on a total order of the fitness values for multiple objectives.
+     */
+    private final Selector<EnumGene<Integer>, C> ranking;
+
+    /**
+     * The mailbox of each island: the latest emigrants of each source island not yet received, by source island.
+     */
+    private final List<AtomicReferenceArray<ISeq<Genotype<EnumGene<Integer>>>>> mailboxes;
+
+    private final AtomicInteger migrations = new AtomicInteger();
+    private final AtomicInteger immigrants = new AtomicInteger();
+
+    private volatile Thread coordinator;
+    /**
+     * Set once an island has failed, so that the other islands stop evolving.
+     */
+    private volatile boolean failed;
+
+    /**
+     * @param islands the number of islands; at least two
+     * @param topology the migration topology
+     * @param migrationInterval generations between two migrations of an island; the default if zero or less
+     * @param migrants individuals sent by an island per migration; the default if zero or less
+     * @param ranking the selector ranking the individuals of a population by fitness
+     */
+    public IslandModel(int islands, Topology topology, int migrationInterval, int migrants, Selector<EnumGene<Integer>, C> ranking) {
+        if(islands < 2) {
+            throw new IllegalArgumentException("An island model requires at least two islands: " + islands);
+        }
+
+        this.islands = islands;
+        this.topology = topology != null ? topology : Topology.RING;
+        this.migrationInterval = migrationInterval > 0 ? migrationInterval : DEFAULT_MIGRATION_INTERVAL;
+        this.migrants = migrants > 0 ? migrants : DEFAULT_MIGRANTS;
+        this.ranking = ranking;
+
+        this.mailboxes = new ArrayList<>(islands);
+        for(int i = 0; i < islands; i++) {
+            mailboxes.add(new AtomicReferenceArray<>(islands));
+        }
+    }
+
+    public int getIslands() {
+        return islands;
+    }
+
+    public Topology getTopology() {
+        return topology;
+    }
+
+    /**
+     * @return the number of migrations of all islands so far
+     */
+    public int getMigrations() {
+        return migrations.get();
+    }
+
+    /**
+     * @return the number of immigrants received by all islands so far
+     */
+    public int getImmigrants() {
+        return immigrants.get();
+    }
+
+    /**
+     * Runs one task per island on its own thread, each with its own random generator split from a common one, and
+     * waits for all of them. The islands stop evolving once the calling thread is interrupted or an island has
+     * failed, see {@link #isRunning()}; as with a single engine, the interrupt status of the calling thread is kept.
+     * If an island fails, its exception is thrown once all islands have stopped.
+     * @param island evolves the island with the given index and returns its result
+     * @return the results of the islands, by index
+     */
+    public <R> List<R> evolve(IntFunction<? extends R> island) {
+        this.coordinator = Thread.currentThread();
+        SplittableRandom random = new SplittableRandom();
+
+        ExecutorService executor = Executors.newFixedThreadPool(islands);
+        try {
+            List<CompletableFuture<R>> pending = new ArrayList<>(islands);
+            for(int i = 0; i < islands; i++) {
+                int index = i;
+                SplittableRandom islandRandom = random.split();
+                pending.add(CompletableFuture.<R>supplyAsync(
+                        () -> RandomRegistry.with(islandRandom, r -> island.apply(index)), executor)
+                        .whenComplete((result, e) -> {
+                            if(e != null) failed = true;
+                        }));
+            }
+
+            // all islands are waited for, so that none of them is still running when an exception is thrown
+            CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+
+            List<R> results = new ArrayList<>(islands);
+            for(CompletableFuture<R> result : pending) {
+                results.add(result.join());
+            }
+
+            logger.info("Islands finished after {} migrations with {} immigrants.", migrations.get(), immigrants.get());
+            return results;
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return false once the thread running the islands has been interrupted or an island has failed; to be used as
+     * termination condition of the evolution stream of each island
+     */
+    public boolean isRunning() {
+        Thread thread = coordinator;
+        return !failed && (thread == null || !thread.isInterrupted());
+    }
+
+    /**
+     * @param island the index of the island
+     * @return an interceptor migrating individuals after every migration interval of the island's generations
+     */
+    public EvolutionInterceptor<EnumGene<Integer>, C> interceptor(int island) {
+        return EvolutionInterceptor.ofAfter(result -> migrate(island, result));
+    }
+
+    /**
+     * Sends the best individuals of the population to the target islands and replaces the worst individuals by the
+     * immigrants waiting in the island's mailbox.
+     * @param island the index of the island
+     * @param result the result of the island's latest generation
+     * @return the result with the immigrants in its population
+     */
+    EvolutionResult<EnumGene<Integer>, C> migrate(int island, EvolutionResult<EnumGene<Integer>, C> result) {
+        if(result.generation() % migrationInterval != 0) {
+            return result;
+        }
+
+        ISeq<Phenotype<EnumGene<Integer>, C>> population = result.population();
+        migrations.incrementAndGet();
+
+        ISeq<Genotype<EnumGene<Integer>>> emigrants = ranking
+                .select(population, Math.min(migrants, population.size()), result.optimize())
+                .map(Phenotype::genotype);
+        for(int target : topology.targets(island, islands, RandomRegistry.random())) {
+            mailboxes.get(target).set(island, emigrants);
+        }
+
+        AtomicReferenceArray<ISeq<Genotype<EnumGene<Integer>>>> mailbox = mailboxes.get(island);
+        List<Genotype<EnumGene<Integer>>> arrived = new ArrayList<>();
+        for(int source = 0; source < islands; source++) {
+            ISeq<Genotype<EnumGene<Integer>>> genotypes = mailbox.getAndSet(source, null);
+            if(genotypes != null) {
+                genotypes.forEach(arrived::add);
+            }
+        }
+
+        int count = Math.min(arrived.size(), population.size() / 2);
+        if(count == 0) {
+            return result;
+        }
+        immigrants.addAndGet(count);
+
+        MSeq<Phenotype<EnumGene<Integer>, C>> migrated = MSeq.ofLength(population.size());
+        ISeq<Phenotype<EnumGene<Integer>, C>> survivors = ranking.select(population, population.size() - count, result.optimize());
+        for(int i = 0; i < survivors.size(); i++) {
+            migrated.set(i, survivors.get(i));
+        }
+        for(int i = 0; i < count; i++) {
+            migrated.set(survivors.size() + i, Phenotype.of(arrived.get(i), result.generation()));
+        }
+
+        logger.debug("Island {} received {} immigrants in generation {}.", island, count, result.generation());
+
+        return EvolutionResult.of(result.optimize(), migrated.toISeq(), result.generation(), result.totalGenerations(),
+                result.durations(), result.killCount(), result.invalidCount(), result.alterCount());
+    }
+
+    /**
+     * Merges the final results of the islands into one result, whose population consists of the populations of all
+     * islands; the generation is the latest generation of any island, the counts are summed up.
+     * @param results the results of the islands
+     * @return the merged result
+     */
+    public static <C extends Comparable<? super C>> EvolutionResult<EnumGene<Integer>, C> merge(List<EvolutionResult<EnumGene<Integer>, C>> results) {
+        List<Phenotype<EnumGene<Integer>, C>> population = new ArrayList<>();
+        long generation = 0;
+        long totalGenerations = 0;
+        int killCount = 0;
+        int invalidCount = 0;
+        int alterCount = 0;
+
+        for(EvolutionResult<EnumGene<Integer>, C> result : results) {
+            population.addAll(result.population().asList());
+            generation = Math.max(generation, result.generation());
+            totalGenerations += result.totalGenerations();
+            killCount += result.killCount();
+            invalidCount += result.invalidCount();
+            alterCount += result.alterCount();
+        }
+
+        EvolutionResult<EnumGene<Integer>, C> first = results.get(0);
+        return EvolutionResult.of(first.optimize(), ISeq.of(population), generation, totalGenerations,
+                first.durations(), killCount, invalidCount, alterCount);
+    }
+}
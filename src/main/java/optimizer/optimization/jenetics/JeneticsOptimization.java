@@ -5,20 +5,29 @@ import optimizer.domain.Flight;
 import optimizer.domain.Slot;
 import optimizer.optimization.*;
 import optimizer.optimization.fitnessEstimation.FitnessEstimator;
+import optimizer.service.PopulationWireFormat;
 import optimizer.service.PrivacyEngineService;
 import io.jenetics.*;
 import io.jenetics.engine.Engine;
+import io.jenetics.engine.EvolutionInterceptor;
 import io.jenetics.engine.EvolutionResult;
+import io.jenetics.engine.EvolutionStream;
 import io.jenetics.util.ISeq;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
@@ -34,12 +43,27 @@ public abstract class JeneticsOptimization<R,
     private OptimizationStatus status = OptimizationStatus.CREATED;
     private String privacyEngineEndpoint = null;
     private PrivacyEngineService privacyEngineService;
+    /**
+     * Actual fitness values computed by the Privacy Engine, keyed by the fingerprint of the assignment, so that each
+     * assignment is sent to the Privacy Engine for its actual fitness at most once per session (up to eviction).
+     */
+    private FitnessCache clearFitnessCache = new FitnessCache(FitnessCache.DEFAULT_CAPACITY);
+    /**
+     * Fingerprints of the current population of each island, used to count and repair duplicates; created on first
+     * use. A single engine is island 0.
+     */
+    private final Map<Integer, UniquePopulationIndex> uniquePopulationIndices = new HashMap<>();
     private FitnessMethod fitnessMethod = null;
     private int fitnessPrecision = Integer.MIN_VALUE; // TODO: only maybe only for SOO
     private boolean traceFitnessEvolution = false;
     private String[] initialFlightSequence = null;
     private Integer[][] convertedResults = null;
     private boolean secondObfuscated = false;
+    /**
+     * Evaluates the populations of the islands while their next generations are bred if the evaluation is pipelined;
+     * created on first use, with one thread per island.
+     */
+    private ExecutorService pipelineExecutor = null;
 
     protected C configuration = null;
     protected S statistics;
@@ -94,6 +118,47 @@ public abstract class JeneticsOptimization<R,
         this.privacyEngineService = privacyEngineService;
     }
 
+    public FitnessCache getClearFitnessCache() {
+        return clearFitnessCache;
+    }
+
+    public void setClearFitnessCache(FitnessCache clearFitnessCache) {
+        this.clearFitnessCache = clearFitnessCache;
+    }
+
+    /**
+     * @return an empty fitness evolution trace, downsampled as configured
+     */
+    protected FitnessEvolutionTrace newFitnessEvolutionTrace() {
+        if(this.getConfiguration() == null) {
+            return FitnessEvolutionTrace.ofEveryGeneration();
+        }
+        return new FitnessEvolutionTrace(this.getConfiguration().getFitnessEvolutionInterval(),
+                this.getConfiguration().getFitnessEvolutionSampling(), this.getConfiguration().getFitnessEvolutionMaxValues());
+    }
+
+    public UniquePopulationIndex getUniquePopulationIndex() {
+        return getUniquePopulationIndex(0);
+    }
+
+    /**
+     * @param island the index of the island
+     * @return the uniqueness index of the island's population; each island has its own, as the fingerprints kept
+     * across generations are those of a single population
+     */
+    public synchronized UniquePopulationIndex getUniquePopulationIndex(int island) {
+        return uniquePopulationIndices.computeIfAbsent(island,
+                i -> new UniquePopulationIndex(this.getInstance(), this.getConfiguration().getDeduplicateMaxRetries()));
+    }
+
+    /**
+     * Replaces the uniqueness indices of all islands by the given index of island 0.
+     */
+    public synchronized void setUniquePopulationIndex(UniquePopulationIndex uniquePopulationIndex) {
+        this.uniquePopulationIndices.clear();
+        this.uniquePopulationIndices.put(0, uniquePopulationIndex);
+    }
+
     public FitnessMethod getFitnessMethod() {
         return fitnessMethod;
     }
@@ -155,6 +220,7 @@ public abstract class JeneticsOptimization<R,
         defaultConfiguration.setOffspringSelector("TOURNAMENT_SELECTOR");
         defaultConfiguration.setTerminationConditions(terminationConditionParameters);
         defaultConfiguration.setDeduplicate(false);
+        defaultConfiguration.setFitnessCacheSize(FitnessCache.DEFAULT_CAPACITY);
 
         return defaultConfiguration;
     }
@@ -166,6 +232,11 @@ public abstract class JeneticsOptimization<R,
     }
 
     public void newConfiguration(Map<String, Object> parameters) throws InvalidOptimizationParameterTypeException {
+        // replace the configuration if no error was thrown
+        this.configuration = parseConfiguration(parameters);
+    }
+
+    private C parseConfiguration(Map<String, Object> parameters) throws InvalidOptimizationParameterTypeException {
         C newConfiguration = createNewConfig();
 
         Object maximalPhenotypeAge = parameters.get("maximalPhenotypeAge");
@@ -183,6 +254,19 @@ public abstract class JeneticsOptimization<R,
         Object deduplicate = parameters.get("deduplicate");
         Object deduplicateMaxRetries = parameters.get("deduplicateMaxRetries");
         Object secondObfuscated = parameters.get("secondObfuscated");
+        Object parallelEvaluation = parameters.get("parallelEvaluation");
+        Object evaluationThreads = parameters.get("evaluationThreads");
+        Object pipelinedEvaluation = parameters.get("pipelinedEvaluation");
+        Object fitnessCacheSize = parameters.get("fitnessCacheSize");
+        Object privacyEngineWireFormat = parameters.get("privacyEngineWireFormat");
+        Object fitnessEvolutionInterval = parameters.get("fitnessEvolutionInterval");
+        Object fitnessEvolutionSampling = parameters.get("fitnessEvolutionSampling");
+        Object fitnessEvolutionMaxValues = parameters.get("fitnessEvolutionMaxValues");
+        Object islands = parameters.get("islands");
+        Object migrationTopology = parameters.get("migrationTopology");
+        Object migrationInterval = parameters.get("migrationInterval");
+        Object migrants = parameters.get("migrants");
+        Object islandOperators = parameters.get("islandOperators");
 
         // set the parameters
         try {
@@ -310,58 +394,259 @@ public abstract class JeneticsOptimization<R,
             throw new InvalidOptimizationParameterTypeException("secondObfuscated", Boolean.class);
         }
 
+        try {
+            if(parallelEvaluation != null) {
+                newConfiguration.setParallelEvaluation((boolean) parallelEvaluation);
+            }
+        } catch (Exception e) {
+            throw new InvalidOptimizationParameterTypeException("parallelEvaluation", Boolean.class);
+        }
 
-        // replace the configuration if no error was thrown
-        this.configuration = newConfiguration;
+        try {
+            if(evaluationThreads != null) {
+                newConfiguration.setEvaluationThreads((int) evaluationThreads);
+            }
+        } catch (Exception e) {
+            throw new InvalidOptimizationParameterTypeException("evaluationThreads", Integer.class);
+        }
+
+        try {
+            if(pipelinedEvaluation != null) {
+                newConfiguration.setPipelinedEvaluation((boolean) pipelinedEvaluation);
+            }
+        } catch (Exception e) {
+            throw new InvalidOptimizationParameterTypeException("pipelinedEvaluation", Boolean.class);
+        }
+
+        try {
+            if(fitnessCacheSize != null) {
+                newConfiguration.setFitnessCacheSize((int) fitnessCacheSize);
+            }
+        } catch (Exception e) {
+            throw new InvalidOptimizationParameterTypeException("fitnessCacheSize", Integer.class);
+        }
+
+        try {
+            if(privacyEngineWireFormat != null) {
+                newConfiguration.setPrivacyEngineWireFormat(PopulationWireFormat.valueOf((String) privacyEngineWireFormat).name());
+            }
+        } catch (Exception e) {
+            throw new InvalidOptimizationParameterTypeException("privacyEngineWireFormat", PopulationWireFormat.class);
+        }
+
+        try {
+            if(fitnessEvolutionInterval != null) {
+                newConfiguration.setFitnessEvolutionInterval((int) fitnessEvolutionInterval);
+            }
+        } catch (Exception e) {
+            throw new InvalidOptimizationParameterTypeException("fitnessEvolutionInterval", Integer.class);
+        }
+
+        try {
+            if(fitnessEvolutionSampling != null) {
+                newConfiguration.setFitnessEvolutionSampling(FitnessEvolutionTrace.Sampling.valueOf((String) fitnessEvolutionSampling).name());
+            }
+        } catch (Exception e) {
+            throw new InvalidOptimizationParameterTypeException("fitnessEvolutionSampling", FitnessEvolutionTrace.Sampling.class);
+        }
+
+        try {
+            if(fitnessEvolutionMaxValues != null) {
+                newConfiguration.setFitnessEvolutionMaxValues((int) fitnessEvolutionMaxValues);
+            }
+        } catch (Exception e) {
+            throw new InvalidOptimizationParameterTypeException("fitnessEvolutionMaxValues", Integer.class);
+        }
+
+        try {
+            if(islands != null) {
+                newConfiguration.setIslands((int) islands);
+            }
+        } catch (Exception e) {
+            throw new InvalidOptimizationParameterTypeException("islands", Integer.class);
+        }
+
+        try {
+            if(migrationTopology != null) {
+                newConfiguration.setMigrationTopology(IslandModel.Topology.valueOf((String) migrationTopology).name());
+            }
+        } catch (Exception e) {
+            throw new InvalidOptimizationParameterTypeException("migrationTopology", IslandModel.Topology.class);
+        }
+
+        try {
+            if(migrationInterval != null) {
+                newConfiguration.setMigrationInterval((int) migrationInterval);
+            }
+        } catch (Exception e) {
+            throw new InvalidOptimizationParameterTypeException("migrationInterval", Integer.class);
+        }
+
+        try {
+            if(migrants != null) {
+                newConfiguration.setMigrants((int) migrants);
+            }
+        } catch (Exception e) {
+            throw new InvalidOptimizationParameterTypeException("migrants", Integer.class);
+        }
+
+        try {
+            if(islandOperators != null) {
+                // the parameters of each island are checked like the parameters of the optimization
+                List<Map<String,Object>> islandParameters = new ArrayList<>();
+                for(Object operators : (List<?>) islandOperators) {
+                    @SuppressWarnings("unchecked")
+                    Map<String,Object> operatorsMap = (Map<String,Object>) operators;
+                    JeneticsOptimizationConfiguration<?> operatorsConfiguration = parseConfiguration(operatorsMap);
+                    islandParameters.add(operatorsConfiguration.parameters);
+                }
+                ((JeneticsOptimizationConfiguration<?>) newConfiguration).setIslandOperators(islandParameters);
+            }
+        } catch (InvalidOptimizationParameterTypeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new InvalidOptimizationParameterTypeException("islandOperators", List.class);
+        }
+
+        return newConfiguration;
+    }
+
+    /**
+     * @param island the index of the island
+     * @return the configuration of the optimization with the parameters overridden for the island
+     */
+    protected C islandConfiguration(int island) {
+        C islandConfiguration = createNewConfig();
+        // typed views of the raw configurations
+        JeneticsOptimizationConfiguration<?> configuration = this.getConfiguration();
+        Map<String,Object> parameters = ((JeneticsOptimizationConfiguration<?>) islandConfiguration).parameters;
+        parameters.putAll(configuration.parameters);
+
+        List<Map<String,Object>> islandOperators = configuration.getIslandOperators();
+        if(islandOperators != null && !islandOperators.isEmpty()) {
+            parameters.putAll(islandOperators.get(island % islandOperators.size()));
+        }
+        return islandConfiguration;
+    }
+
+    /**
+     * @param engine the engine of the optimization or of an island
+     * @param initialPopulation the initial genotypes
+     * @return the evolution stream of the engine, pipelined if configured and the optimization is privacy-preserving
+     */
+    protected <T extends Comparable<? super T>> EvolutionStream<EnumGene<Integer>, T> evolutionStream(
+            Engine<EnumGene<Integer>, T> engine, ISeq<Genotype<EnumGene<Integer>>> initialPopulation) {
+        if(this.getConfiguration() == null || !this.getConfiguration().isPipelinedEvaluation()) {
+            return engine.stream(initialPopulation);
+        }
+        if(this.getMode() != OptimizationMode.PRIVACY_PRESERVING) {
+            // the local evaluation scores incrementally against the mutations of the current generation
+            logger.info("Pipelined evaluation is only used for privacy-preserving optimizations, not in mode " + this.getMode() + ".");
+            return engine.stream(initialPopulation);
+        }
+        return PipelinedEvolution.stream(engine, pipelineExecutor(), initialPopulation);
+    }
+
+    /**
+     * @return the executor shared by the pipelined evolutions of the islands; each island has at most one evaluation
+     * pending, hence one thread per island suffices
+     */
+    private synchronized ExecutorService pipelineExecutor() {
+        if(pipelineExecutor == null) {
+            int threads = Math.max(1, this.getConfiguration().getIslands());
+            pipelineExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(threads), runnable -> {
+                        Thread thread = new Thread(runnable, "pipelined-evaluation");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+        return pipelineExecutor;
+    }
+
+    /**
+     * Stops the threads evaluating pipelined generations, if any; called when the optimization has finished.
+     */
+    protected synchronized void shutdownPipelineExecutor() {
+        if(pipelineExecutor != null) {
+            pipelineExecutor.shutdownNow();
+            pipelineExecutor = null;
+        }
+    }
+
+    /**
+     * @param ranking the selector ranking the individuals of a population, used to choose emigrants and the
+     *                individuals replaced by immigrants
+     * @return the island model as configured, or null if a single engine is to be run
+     */
+    protected <T extends Comparable<? super T>> IslandModel<T> newIslandModel(Selector<EnumGene<Integer>, T> ranking) {
+        if(this.getConfiguration() == null || this.getConfiguration().getIslands() < 2) {
+            return null;
+        }
+        return new IslandModel<>(this.getConfiguration().getIslands(), this.getConfiguration().getMigrationTopology(),
+                this.getConfiguration().getMigrationInterval(), this.getConfiguration().getMigrants(), ranking);
     }
 
     protected InternConfig configurationWithoutMissingValues() {
+        return configurationWithoutMissingValues(this.getConfiguration());
+    }
+
+    /**
+     * @param configuration the configuration, e.g., of an island; the default configuration if null
+     * @return the configuration with the missing values taken from the default configuration
+     */
+    protected InternConfig configurationWithoutMissingValues(C configuration) {
         InternConfig internConfig = new InternConfig();
-        if(this.getConfiguration() != null) {
-            internConfig.populationSize = this.getConfiguration().getPopulationSize();
+        if(configuration != null) {
+            internConfig.populationSize = configuration.getPopulationSize();
             if (internConfig.populationSize < 0) {
                 internConfig.populationSize = this.getDefaultConfiguration().getPopulationSize();
             }
 
-            internConfig.mutator = this.getConfiguration().getMutator();
+            internConfig.mutator = configuration.getMutator();
             if (internConfig.mutator == null) {
                 internConfig.mutator = this.getDefaultConfiguration().getMutator();
             }
 
-            internConfig.crossover = this.getConfiguration().getCrossover();
+            internConfig.crossover = configuration.getCrossover();
             if (internConfig.crossover == null) {
                 internConfig.crossover = this.getDefaultConfiguration().getCrossover();
             }
 
-            internConfig.offspringSelector = this.getConfiguration().getOffspringSelector();
+            internConfig.offspringSelector = configuration.getOffspringSelector();
             if (internConfig.offspringSelector == null) {
                 internConfig.offspringSelector = this.getDefaultConfiguration().getOffspringSelector();
             }
 
-            internConfig.survivorsSelector = this.getConfiguration().getSurvivorsSelector();
+            internConfig.survivorsSelector = configuration.getSurvivorsSelector();
             if (internConfig.survivorsSelector == null) {
                 internConfig.survivorsSelector = this.getDefaultConfiguration().getSurvivorsSelector();
             }
 
-            internConfig.maximalPhenotypeAge = this.getConfiguration().getMaximalPhenotypeAge();
+            internConfig.maximalPhenotypeAge = configuration.getMaximalPhenotypeAge();
             if (internConfig.maximalPhenotypeAge < 0) {
                 internConfig.maximalPhenotypeAge = this.getDefaultConfiguration().getMaximalPhenotypeAge();
             }
 
-            internConfig.offspringFraction = this.getConfiguration().getOffspringFraction();
+            internConfig.offspringFraction = configuration.getOffspringFraction();
             if (internConfig.offspringFraction < 0) {
                 internConfig.offspringFraction = this.getDefaultConfiguration().getOffspringFraction();
             }
 
-            internConfig.initialPopulation = this.getConfiguration().getInitialPopulation(this.problem, internConfig.populationSize);
+            internConfig.initialPopulation = configuration.getInitialPopulation(this.problem, internConfig.populationSize);
             if(internConfig.initialPopulation == null) {
                 internConfig.initialPopulation = this.getDefaultConfiguration().getInitialPopulation(this.problem, internConfig.populationSize);
             }
 
-            internConfig.terminationConditions = this.getConfiguration().getTerminationConditions();
+            internConfig.terminationConditions = configuration.getTerminationConditions();
             if(internConfig.terminationConditions == null) {
                 internConfig.terminationConditions = this.getDefaultConfiguration().getTerminationConditions();
             }
+
+            internConfig.fitnessCacheSize = configuration.getFitnessCacheSize();
+            if(internConfig.fitnessCacheSize < 0) {
+                internConfig.fitnessCacheSize = this.getDefaultConfiguration().getFitnessCacheSize();
+            }
         } else {
             internConfig.populationSize = this.getDefaultConfiguration().getPopulationSize();
             internConfig.mutator = this.getDefaultConfiguration().getMutator();
@@ -372,6 +657,7 @@ public abstract class JeneticsOptimization<R,
             internConfig.offspringFraction = this.getDefaultConfiguration().getOffspringFraction();
             internConfig.initialPopulation = this.getDefaultConfiguration().getInitialPopulation(this.problem, internConfig.populationSize);
             internConfig.terminationConditions = this.getDefaultConfiguration().getTerminationConditions();
+            internConfig.fitnessCacheSize = this.getDefaultConfiguration().getFitnessCacheSize();
         }
 
         return internConfig;
@@ -397,6 +683,7 @@ public abstract class JeneticsOptimization<R,
         public double offspringFraction;
         public ISeq<Genotype<EnumGene<Integer>>> initialPopulation;
         public Predicate<? super EvolutionResult<EnumGene<Integer>, T>>[] terminationConditions;
+        public int fitnessCacheSize;
 
     }
 
@@ -419,18 +706,31 @@ public abstract class JeneticsOptimization<R,
         return new OptimizationResultDTO(optId, optimizedFlightSequence, slots);
     }
 
+    /**
+     * If deduplication is configured, repairs duplicates in the population of each generation by perturbing them,
+     * see {@link UniquePopulationIndex}.
+     */
     protected Engine.Builder deduplicate(Engine.Builder builder) {
         if(this.getConfiguration().isDeduplicate()){
-            int maxRetries = this.getConfiguration().getDeduplicateMaxRetries();
-
-            if (maxRetries > 0) {
-                logger.debug("The engine should deduplicate the population; maxRetries: " + maxRetries);
-                return builder.interceptor(EvolutionResult.toUniquePopulation(maxRetries));
-            } else {
-                logger.debug("The engine should deduplicate the population");
-                return builder.interceptor(EvolutionResult.toUniquePopulation());
-            }
+            UniquePopulationIndex index = this.getUniquePopulationIndex();
+            logger.debug("The engine should deduplicate the population; maxRetries: " + this.getConfiguration().getDeduplicateMaxRetries());
+            return builder.interceptor(index.interceptor());
         }
         return builder;
     }
+
+    /**
+     * Intercepts each generation of an island with the migration of the island model, followed by the repair of
+     * duplicates if deduplication is configured, so that duplicates introduced by immigrants are repaired as well.
+     */
+    protected <T extends Comparable<? super T>> Engine.Builder<EnumGene<Integer>, T> deduplicate(Engine.Builder<EnumGene<Integer>, T> builder,
+                                                                                                 int island,
+                                                                                                 EvolutionInterceptor<EnumGene<Integer>, T> migration) {
+        if(this.getConfiguration().isDeduplicate()){
+            UniquePopulationIndex index = this.getUniquePopulationIndex(island);
+            logger.debug("The engine should deduplicate the population; maxRetries: " + this.getConfiguration().getDeduplicateMaxRetries());
+            return builder.interceptor(EvolutionInterceptor.ofAfter(result -> index.unique(migration.after(result))));
+        }
+        return builder.interceptor(migration);
+    }
 }
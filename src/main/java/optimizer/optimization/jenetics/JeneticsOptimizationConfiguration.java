@@ -1,6 +1,7 @@
 package optimizer.optimization.jenetics;
 
 import optimizer.domain.Flight;
+import optimizer.service.PopulationWireFormat;
 import io.jenetics.*;
 import io.jenetics.engine.EvolutionResult;
 import io.jenetics.util.ISeq;
@@ -149,6 +150,124 @@ public abstract class JeneticsOptimizationConfiguration<T extends Comparable<? s
         return this.getIntegerParameter("deduplicateMaxRetries");
     }
 
+    /**
+     * If true, the batch evaluators score the population in parallel in non-privacy-preserving mode.
+     */
+    public boolean isParallelEvaluation() {
+        return this.getBooleanParameter("parallelEvaluation");
+    }
+
+    /**
+     * Returns the number of threads of the dedicated evaluation pool, or Integer.MIN_VALUE if the parameter is
+     * not set, in which case the common fork/join pool is used for parallel evaluation.
+     * @return the number of evaluation threads
+     */
+    public int getEvaluationThreads() {
+        return this.getIntegerParameter("evaluationThreads");
+    }
+
+    /**
+     * If true and the optimization is privacy-preserving, the offspring of the next generation are bred while the
+     * Privacy Engine evaluates the current generation, see {@link PipelinedEvolution}. The offspring are then selected
+     * from the population of the previous generation. Ignored in the other modes.
+     */
+    public boolean isPipelinedEvaluation() {
+        return this.getBooleanParameter("pipelinedEvaluation");
+    }
+
+    /**
+     * Returns the maximal number of scores kept in the fitness cache, or Integer.MIN_VALUE if the parameter is not
+     * set, in which case {@link FitnessCache#DEFAULT_CAPACITY} is used. A size of 0 disables the cache. The same size
+     * applies to the cache of actual fitness values computed by the Privacy Engine.
+     * @return the size of the fitness cache
+     */
+    public int getFitnessCacheSize() {
+        return this.getIntegerParameter("fitnessCacheSize");
+    }
+
+    /**
+     * Returns the format in which populations are sent to the Privacy Engine; JSON if the parameter is not set.
+     * @return the wire format
+     */
+    public PopulationWireFormat getPrivacyEngineWireFormat() {
+        String wireFormat = this.getStringParameter("privacyEngineWireFormat");
+        return wireFormat != null ? PopulationWireFormat.valueOf(wireFormat) : PopulationWireFormat.JSON;
+    }
+
+    /**
+     * Returns the interval between traced generations, or Integer.MIN_VALUE if the parameter is not set, in which
+     * case every generation is traced.
+     * @return the interval between traced generations
+     */
+    public int getFitnessEvolutionInterval() {
+        return this.getIntegerParameter("fitnessEvolutionInterval");
+    }
+
+    /**
+     * Returns what is traced for each traced generation; the summary of the population if the parameter is not set.
+     * @return the sampling of the fitness evolution trace
+     */
+    public FitnessEvolutionTrace.Sampling getFitnessEvolutionSampling() {
+        String sampling = this.getStringParameter("fitnessEvolutionSampling");
+        return sampling != null ? FitnessEvolutionTrace.Sampling.valueOf(sampling) : FitnessEvolutionTrace.Sampling.SUMMARY;
+    }
+
+    /**
+     * Returns the maximal number of fitness values kept by the fitness evolution trace, or Integer.MIN_VALUE if the
+     * parameter is not set, in which case {@link FitnessEvolutionTrace#DEFAULT_MAX_VALUES} is used. Once the cap is
+     * reached, the interval between traced generations is doubled.
+     * @return the maximal number of traced fitness values
+     */
+    public int getFitnessEvolutionMaxValues() {
+        return this.getIntegerParameter("fitnessEvolutionMaxValues");
+    }
+
+    /**
+     * Returns the number of islands, or Integer.MIN_VALUE if the parameter is not set; a single engine is run unless
+     * there are at least two islands.
+     * @return the number of islands
+     */
+    public int getIslands() {
+        return this.getIntegerParameter("islands");
+    }
+
+    /**
+     * Returns the topology along which the islands send their emigrants; a ring if the parameter is not set.
+     * @return the migration topology
+     */
+    public IslandModel.Topology getMigrationTopology() {
+        String topology = this.getStringParameter("migrationTopology");
+        return topology != null ? IslandModel.Topology.valueOf(topology) : IslandModel.Topology.RING;
+    }
+
+    /**
+     * Returns the number of generations between two migrations of an island, or Integer.MIN_VALUE if the parameter
+     * is not set, in which case {@link IslandModel#DEFAULT_MIGRATION_INTERVAL} is used.
+     * @return the migration interval
+     */
+    public int getMigrationInterval() {
+        return this.getIntegerParameter("migrationInterval");
+    }
+
+    /**
+     * Returns the number of individuals an island sends per migration, or Integer.MIN_VALUE if the parameter is not
+     * set, in which case {@link IslandModel#DEFAULT_MIGRANTS} is used.
+     * @return the number of migrants
+     */
+    public int getMigrants() {
+        return this.getIntegerParameter("migrants");
+    }
+
+    /**
+     * Returns the parameters overriding the configuration for individual islands, e.g., other operators, or null if
+     * the parameter is not set. Island i uses the overrides at index i modulo their number.
+     * @return the parameters of the islands
+     */
+    @SuppressWarnings("unchecked")
+    public List<Map<String,Object>> getIslandOperators() {
+        return (List<Map<String,Object>>) this.getParameter("islandOperators");
+    }
+
     public boolean isSecondObfuscated() {
         return this.getBooleanParameter("secondObfuscated");
     }
@@ -201,10 +320,62 @@ public abstract class JeneticsOptimizationConfiguration<T extends Comparable<? s
         this.setParameter("deduplicateMaxRetries", maxRetries);
     }
 
+    public void setParallelEvaluation(boolean parallelEvaluation) {
+        this.setParameter("parallelEvaluation", parallelEvaluation);
+    }
+
+    public void setEvaluationThreads(int evaluationThreads) {
+        this.setParameter("evaluationThreads", evaluationThreads);
+    }
+
+    public void setPipelinedEvaluation(boolean pipelinedEvaluation) {
+        this.setParameter("pipelinedEvaluation", pipelinedEvaluation);
+    }
+
+    public void setFitnessCacheSize(int fitnessCacheSize) {
+        this.setParameter("fitnessCacheSize", fitnessCacheSize);
+    }
+
+    public void setPrivacyEngineWireFormat(String privacyEngineWireFormat) {
+        this.setParameter("privacyEngineWireFormat", privacyEngineWireFormat);
+    }
+
+    public void setFitnessEvolutionInterval(int fitnessEvolutionInterval) {
+        this.setParameter("fitnessEvolutionInterval", fitnessEvolutionInterval);
+    }
+
+    public void setFitnessEvolutionSampling(String fitnessEvolutionSampling) {
+        this.setParameter("fitnessEvolutionSampling", fitnessEvolutionSampling);
+    }
+
+    public void setFitnessEvolutionMaxValues(int fitnessEvolutionMaxValues) {
+        this.setParameter("fitnessEvolutionMaxValues", fitnessEvolutionMaxValues);
+    }
+
     public void setSecondObfuscated(boolean secondObfuscated) {
         this.setParameter("secondObfuscated", secondObfuscated);
     }
 
+    public void setIslands(int islands) {
+        this.setParameter("islands", islands);
+    }
+
+    public void setMigrationTopology(String migrationTopology) {
+        this.setParameter("migrationTopology", migrationTopology);
+    }
+
+    public void setMigrationInterval(int migrationInterval) {
+        this.setParameter("migrationInterval", migrationInterval);
+    }
+
+    public void setMigrants(int migrants) {
+        this.setParameter("migrants", migrants);
+    }
+
+    public void setIslandOperators(List<Map<String,Object>> islandOperators) {
+        this.setParameter("islandOperators", islandOperators);
+    }
+
     public abstract Selector<EnumGene<Integer>, T> getOffspringSelector();
 
     public abstract Selector<EnumGene<Integer>, T> getSurvivorsSelector();
@@ -2,7 +2,6 @@ package optimizer.optimization.jenetics;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.List;
 
 public abstract class JeneticsOptimizationStatistics<FitnessValue> {
 
@@ -10,6 +9,8 @@ public abstract class JeneticsOptimizationStatistics<FitnessValue> {
     private double resultFitness = Integer.MIN_VALUE;
     private int iterations = Integer.MIN_VALUE;
     private int fitnessFunctionInvocations = Integer.MIN_VALUE;
+    private long fitnessCacheHits = 0;
+    private long fitnessCacheMisses = 0;
     private int maximumFitness = Integer.MIN_VALUE;
     private int theoreticalMaxFitness  = Integer.MIN_VALUE;
 
@@ -18,7 +19,7 @@ public abstract class JeneticsOptimizationStatistics<FitnessValue> {
     private LocalDateTime timeAborted;
     private LocalDateTime timeFinished;
 
-    private List<FitnessEvolutionStep<FitnessValue>> fitnessEvolution = null;
+    private FitnessEvolutionTrace fitnessEvolution = null;
 
     public double getInitialFitness() {
         return initialFitness;
@@ -94,11 +95,27 @@ public abstract class JeneticsOptimizationStatistics<FitnessValue> {
         this.fitnessFunctionInvocations = fitnessFunctionInvocations;
     }
 
-    public List<FitnessEvolutionStep<FitnessValue>> getFitnessEvolution() {
+    public long getFitnessCacheHits() {
+        return fitnessCacheHits;
+    }
+
+    public void setFitnessCacheHits(long fitnessCacheHits) {
+        this.fitnessCacheHits = fitnessCacheHits;
+    }
+
+    public long getFitnessCacheMisses() {
+        return fitnessCacheMisses;
+    }
+
+    public void setFitnessCacheMisses(long fitnessCacheMisses) {
+        this.fitnessCacheMisses = fitnessCacheMisses;
+    }
+
+    public FitnessEvolutionTrace getFitnessEvolution() {
         return fitnessEvolution;
     }
 
-    public void setFitnessEvolution(List<FitnessEvolutionStep<FitnessValue>> fitnessEvolution) {
+    public void setFitnessEvolution(FitnessEvolutionTrace fitnessEvolution) {
         this.fitnessEvolution = fitnessEvolution;
     }
 
@@ -0,0 +1,40 @@
+package optimizer.optimization.jenetics;
+
+import io.jenetics.Chromosome;
+import io.jenetics.MutatorResult;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The positions changed by a {@link PositionReportingMutator}, by identity of the created chromosome. The positions
+ * are taken by the {@link MutationTracker} right after the alteration.
+ */
+public final class MutatedPositions {
+    private final Map<Chromosome<?>, int[]> positions = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    /**
+     * @param result the result of mutating a chromosome
+     * @param positions the positions changed by the mutation
+     * @return the result
+     */
+    public <T extends Chromosome<?>> MutatorResult<T> record(MutatorResult<T> result, int[] positions) {
+        this.positions.put(result.result(), positions);
+        return result;
+    }
+
+    /**
+     * @return the positions changed by the mutation that created the chromosome, or null if none were recorded
+     */
+    public int[] take(Chromosome<?> chromosome) {
+        return positions.remove(chromosome);
+    }
+
+    /**
+     * Forgets the positions of chromosomes that have not been taken, e.g., as the mutator was not tracked.
+     */
+    public void clear() {
+        positions.clear();
+    }
+}
@@ -0,0 +1,62 @@
+package optimizer.optimization.jenetics;
+
+import io.jenetics.Alterer;
+import io.jenetics.AltererResult;
+import io.jenetics.EnumGene;
+import io.jenetics.Genotype;
+import io.jenetics.Phenotype;
+import io.jenetics.util.ISeq;
+import io.jenetics.util.Seq;
+
+/**
+ * Alterer that delegates to a mutator and registers each mutated genotype together with its parent at the slot
+ * allocation problem, which allows the problem to score the mutated genotype incrementally. Mutators alter the
+ * individuals in place, i.e., the i-th individual of the result is the (possibly mutated) i-th individual of the
+ * input population. A {@link PositionReportingMutator} reports the positions it changed; for other alterers, the
+ * problem compares the genotype with its parent.
+ * @param <C> the fitness type
+ */
+public class MutationTracker<C extends Comparable<? super C>> implements Alterer<EnumGene<Integer>, C> {
+    private final Alterer<EnumGene<Integer>, C> mutator;
+    private final SlotAllocationProblem<C, ?> problem;
+
+    public MutationTracker(Alterer<EnumGene<Integer>, C> mutator, SlotAllocationProblem<C, ?> problem) {
+        this.mutator = mutator;
+        this.problem = problem;
+    }
+
+    @Override
+    public AltererResult<EnumGene<Integer>, C> alter(Seq<Phenotype<EnumGene<Integer>, C>> population, long generation) {
+        problem.nextGeneration();
+
+        AltererResult<EnumGene<Integer>, C> result = mutator.alter(population, generation);
+        PositionReportingMutator reporting = mutator instanceof PositionReportingMutator m ? m : null;
+        ISeq<Phenotype<EnumGene<Integer>, C>> mutated = result.population();
+
+        if(mutated.size() == population.size()) {
+            for(int i = 0; i < population.size(); i++) {
+                Genotype<EnumGene<Integer>> parent = population.get(i).genotype();
+                Genotype<EnumGene<Integer>> child = mutated.get(i).genotype();
+
+                if(parent != child) {
+                    int[] positions = reporting != null ? reporting.takeMutatedPositions(child.chromosome()) : null;
+                    if(positions != null) {
+                        problem.registerMutation(parent, child, positions);
+                    } else {
+                        problem.registerMutation(parent, child);
+                    }
+                }
+            }
+        }
+        if(reporting != null) {
+            reporting.clearMutatedPositions();
+        }
+
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return mutator.toString();
+    }
+}
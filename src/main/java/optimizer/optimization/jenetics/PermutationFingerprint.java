@@ -0,0 +1,54 @@
+package optimizer.optimization.jenetics;
+
+import io.jenetics.Chromosome;
+import io.jenetics.EnumGene;
+
+/**
+ * 64-bit Zobrist fingerprints of slot assignments. The fingerprint of an assignment is the XOR of a pseudo-random
+ * key for each (position, allele) pair, where the keys are derived from the pair by a mixing function instead of
+ * a lookup table. Only the first {@code length} positions, i.e., the positions holding flights, are considered.
+ * As XOR is its own inverse, the fingerprint can be updated in constant time for each changed position.
+ */
+public final class PermutationFingerprint {
+
+    private PermutationFingerprint() { }
+
+    /**
+     * @return the key of the given allele at the given position
+     */
+    public static long key(int position, int allele) {
+        long z = (((long) position << 32) | (allele & 0xFFFFFFFFL)) + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @return the fingerprint of the first length positions of the chromosome
+     */
+    public static long of(Chromosome<EnumGene<Integer>> chromosome, int length) {
+        long fingerprint = 0;
+        for(int i = 0; i < length; i++) {
+            fingerprint ^= key(i, chromosome.get(i).alleleIndex());
+        }
+        return fingerprint;
+    }
+
+    /**
+     * @return the fingerprint of the first length positions of the permutation
+     */
+    public static long of(int[] permutation, int length) {
+        long fingerprint = 0;
+        for(int i = 0; i < length; i++) {
+            fingerprint ^= key(i, permutation[i]);
+        }
+        return fingerprint;
+    }
+
+    /**
+     * @return the fingerprint after replacing the old allele at the given position by the new allele
+     */
+    public static long update(long fingerprint, int position, int oldAllele, int newAllele) {
+        return fingerprint ^ key(position, oldAllele) ^ key(position, newAllele);
+    }
+}
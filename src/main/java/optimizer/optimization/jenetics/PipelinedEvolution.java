@@ -0,0 +1,216 @@
+package optimizer.optimization.jenetics;
+
+import io.jenetics.AltererResult;
+import io.jenetics.EnumGene;
+import io.jenetics.Genotype;
+import io.jenetics.Phenotype;
+import io.jenetics.engine.Engine;
+import io.jenetics.engine.Evolution;
+import io.jenetics.engine.EvolutionDurations;
+import io.jenetics.engine.EvolutionResult;
+import io.jenetics.engine.EvolutionStart;
+import io.jenetics.engine.EvolutionStream;
+import io.jenetics.util.ISeq;
+import io.jenetics.util.MSeq;
+import io.jenetics.util.Seq;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+
+/**
+ * Evolution of an engine that breeds the next generation while the current generation is evaluated, for evaluations
+ * that wait for the Privacy Engine. The population of generation N is evaluated on the executor; meanwhile, the
+ * offspring of generation N + 1 are selected and altered on the calling thread from the latest evaluated population,
+ * i.e., that of generation N - 1 ("speculative breeding"). Once the evaluation of generation N has arrived, the
+ * survivors of generation N + 1 are selected from it and joined with the speculatively bred offspring. The offspring
+ * selection thus lags one generation behind the survivors selection, which hides the breeding behind the round trip.
+ * <p>
+ * Otherwise, a generation proceeds as in {@link Engine#evolve(EvolutionStart)}: the interceptor of the engine is
+ * applied before and after the generation, individuals violating the constraint or exceeding the maximal age are
+ * replaced, and individuals left unevaluated by the interceptor, e.g., repaired duplicates or immigrants, are
+ * evaluated before the result is returned. An instance evolves a single population, one generation at a time.
+ * @param <C> the fitness type
+ */
+public final class PipelinedEvolution<C extends Comparable<? super C>> implements Evolution<EnumGene<Integer>, C> {
+    private static final Logger logger = LogManager.getLogger();
+
+    private final Engine<EnumGene<Integer>, C> engine;
+    private final Executor executor;
+
+    /**
+     * Offspring bred for the next generation while the current generation was evaluated; null if none are pending.
+     */
+    private Offspring<C> pending;
+
+    private long speculativeGenerations;
+
+    /**
+     * @param engine the engine providing the evaluator, operators and interceptor
+     * @param executor evaluates the populations; must not run the evaluation on the calling thread
+     */
+    public PipelinedEvolution(Engine<EnumGene<Integer>, C> engine, Executor executor) {
+        this.engine = engine;
+        this.executor = executor;
+    }
+
+    /**
+     * @param engine the engine providing the evaluator, operators and interceptor
+     * @param executor evaluates the populations
+     * @param initialPopulation the initial genotypes, filled up with new genotypes to the population size of the
+     *                          engine, as with {@link Engine#stream(Iterable)}
+     * @return a stream of the pipelined evolution of the engine
+     */
+    public static <C extends Comparable<? super C>> EvolutionStream<EnumGene<Integer>, C> stream(
+            Engine<EnumGene<Integer>, C> engine, Executor executor, ISeq<Genotype<EnumGene<Integer>>> initialPopulation) {
+        return EvolutionStream.ofEvolution(() -> start(engine, initialPopulation), new PipelinedEvolution<>(engine, executor));
+    }
+
+    static <C extends Comparable<? super C>> EvolutionStart<EnumGene<Integer>, C> start(
+            Engine<EnumGene<Integer>, C> engine, ISeq<Genotype<EnumGene<Integer>>> initialPopulation) {
+        ISeq<Phenotype<EnumGene<Integer>, C>> population = Stream.concat(initialPopulation.stream(), engine.genotypeFactory().instances())
+                .limit(engine.populationSize())
+                .map(genotype -> Phenotype.<EnumGene<Integer>, C>of(genotype, 1))
+                .collect(ISeq.toISeq());
+        return EvolutionStart.of(population, 1);
+    }
+
+    /**
+     * @return the number of generations whose offspring were bred while the previous generation was evaluated
+     */
+    public long getSpeculativeGenerations() {
+        return speculativeGenerations;
+    }
+
+    @Override
+    public EvolutionResult<EnumGene<Integer>, C> evolve(EvolutionStart<EnumGene<Integer>, C> start) {
+        long evolveStart = System.nanoTime();
+        Duration evaluation = Duration.ZERO;
+
+        EvolutionStart<EnumGene<Integer>, C> intercepted = engine.interceptor().before(start);
+        long generation = intercepted.generation();
+
+        ISeq<Phenotype<EnumGene<Integer>, C>> population = intercepted.population();
+        if(!population.forAll(Phenotype::isEvaluated)) {
+            long evaluationStart = System.nanoTime();
+            population = engine.eval(population);
+            evaluation = evaluation.plusNanos(System.nanoTime() - evaluationStart);
+        }
+
+        // the offspring bred while the previous generation was evaluated; bred now if there are none
+        boolean speculative = pending != null && pending.generation == generation;
+        Offspring<C> offspring = speculative ? pending : breed(population, generation);
+        if(speculative) {
+            speculativeGenerations++;
+        }
+        pending = null;
+
+        long survivorsSelectionStart = System.nanoTime();
+        ISeq<Phenotype<EnumGene<Integer>, C>> survivors = engine.survivorsSize() > 0 ?
+                engine.survivorsSelector().select(population, engine.survivorsSize(), engine.optimize()) :
+                ISeq.empty();
+        Duration survivorsSelection = Duration.ofNanos(System.nanoTime() - survivorsSelectionStart);
+
+        long survivorsFilterStart = System.nanoTime();
+        Filtered<C> filteredSurvivors = filter(survivors, generation);
+        Duration survivorsFilter = Duration.ofNanos(System.nanoTime() - survivorsFilterStart);
+
+        long offspringFilterStart = System.nanoTime();
+        Filtered<C> filteredOffspring = filter(offspring.population, generation);
+        Duration offspringFilter = Duration.ofNanos(System.nanoTime() - offspringFilterStart);
+
+        ISeq<Phenotype<EnumGene<Integer>, C>> next = filteredSurvivors.population.append(filteredOffspring.population);
+
+        long evaluationStart = System.nanoTime();
+        CompletableFuture<ISeq<Phenotype<EnumGene<Integer>, C>>> evaluated = CompletableFuture.supplyAsync(() -> engine.eval(next), executor);
+
+        // the evaluated population is the latest one available to select the parents of the next generation from
+        pending = breed(population, generation + 1);
+
+        ISeq<Phenotype<EnumGene<Integer>, C>> evaluatedPopulation = join(evaluated);
+        evaluation = evaluation.plusNanos(System.nanoTime() - evaluationStart);
+
+        EvolutionResult<EnumGene<Integer>, C> result = engine.interceptor().after(EvolutionResult.of(engine.optimize(), evaluatedPopulation,
+                generation, EvolutionDurations.ZERO, filteredSurvivors.killCount + filteredOffspring.killCount,
+                filteredSurvivors.invalidCount + filteredOffspring.invalidCount, offspring.alterations));
+
+        ISeq<Phenotype<EnumGene<Integer>, C>> resultPopulation = result.population();
+        if(!resultPopulation.forAll(Phenotype::isEvaluated)) {
+            long reevaluationStart = System.nanoTime();
+            resultPopulation = engine.eval(resultPopulation);
+            evaluation = evaluation.plusNanos(System.nanoTime() - reevaluationStart);
+        }
+
+        EvolutionDurations durations = new EvolutionDurations(offspring.selection, survivorsSelection, offspring.alter,
+                offspringFilter, survivorsFilter, evaluation, Duration.ofNanos(System.nanoTime() - evolveStart));
+
+        logger.debug("Generation {} evolved with offspring bred {}.", generation,
+                speculative ? "during the previous evaluation" : "before its evaluation");
+
+        return EvolutionResult.of(result.optimize(), resultPopulation, result.generation(), result.totalGenerations(),
+                durations, result.killCount(), result.invalidCount(), result.alterCount());
+    }
+
+    /**
+     * Selects and alters the offspring of the given generation from the population.
+     */
+    private Offspring<C> breed(ISeq<Phenotype<EnumGene<Integer>, C>> population, long generation) {
+        if(engine.offspringSize() <= 0) {
+            return new Offspring<>(ISeq.empty(), generation, 0, Duration.ZERO, Duration.ZERO);
+        }
+
+        long selectionStart = System.nanoTime();
+        ISeq<Phenotype<EnumGene<Integer>, C>> selected = engine.offspringSelector().select(population, engine.offspringSize(), engine.optimize());
+        Duration selection = Duration.ofNanos(System.nanoTime() - selectionStart);
+
+        long alterStart = System.nanoTime();
+        AltererResult<EnumGene<Integer>, C> altered = engine.alterer().alter(selected, generation);
+        Duration alter = Duration.ofNanos(System.nanoTime() - alterStart);
+
+        return new Offspring<>(altered.population(), generation, altered.alterations(), selection, alter);
+    }
+
+    /**
+     * Replaces the individuals violating the constraint by their repairs and the individuals exceeding the maximal
+     * age by new individuals, as the engine does.
+     */
+    private Filtered<C> filter(Seq<Phenotype<EnumGene<Integer>, C>> population, long generation) {
+        MSeq<Phenotype<EnumGene<Integer>, C>> filtered = MSeq.of(population);
+        int killCount = 0;
+        int invalidCount = 0;
+
+        for(int i = 0; i < filtered.size(); i++) {
+            Phenotype<EnumGene<Integer>, C> individual = filtered.get(i);
+            if(!engine.constraint().test(individual)) {
+                filtered.set(i, engine.constraint().repair(individual, generation));
+                invalidCount++;
+            } else if(individual.age(generation) > engine.maximalPhenotypeAge()) {
+                filtered.set(i, Phenotype.of(engine.genotypeFactory().newInstance(), generation));
+                killCount++;
+            }
+        }
+
+        return new Filtered<>(filtered.toISeq(), killCount, invalidCount);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Offspring<C extends Comparable<? super C>>(ISeq<Phenotype<EnumGene<Integer>, C>> population, long generation,
+                                                              int alterations, Duration selection, Duration alter) { }
+
+    private record Filtered<C extends Comparable<? super C>>(ISeq<Phenotype<EnumGene<Integer>, C>> population,
+                                                             int killCount, int invalidCount) { }
+}
@@ -0,0 +1,22 @@
+package optimizer.optimization.jenetics;
+
+import io.jenetics.Chromosome;
+
+/**
+ * Mutator that reports the positions it changes, so that the {@link MutationTracker} can register a mutated genotype
+ * for incremental scoring without comparing it with its parent position by position.
+ */
+public interface PositionReportingMutator {
+    /**
+     * Returns and forgets the positions changed by the mutation that created the chromosome.
+     * @param chromosome a chromosome of a mutated genotype
+     * @return the changed positions, possibly with unchanged or repeated positions, or null if the chromosome was not
+     * created by this mutator
+     */
+    int[] takeMutatedPositions(Chromosome<?> chromosome);
+
+    /**
+     * Forgets the positions that have not been taken, e.g., of chromosomes whose mutation changed nothing.
+     */
+    void clearMutatedPositions();
+}
@@ -0,0 +1,51 @@
+package optimizer.optimization.jenetics;
+
+/**
+ * Plain Java fitness kernel, used when the Vector API is not available.
+ */
+final class ScalarFitnessKernel implements FitnessKernel {
+    private final int flightCount;
+    private final int slotCount;
+
+    ScalarFitnessKernel(int flightCount, int slotCount) {
+        this.flightCount = flightCount;
+        this.slotCount = slotCount;
+    }
+
+    @Override
+    public void sum(int[] matrix, int[][] permutations, int count, int[] sums) {
+        for(int i = 0; i < count; i++) {
+            int[] permutation = permutations[i];
+            int sum = 0;
+
+            for(int f = 0, row = 0; f < flightCount; f++, row += slotCount) {
+                sum += matrix[row + permutation[f]];
+            }
+
+            sums[i] = sum;
+        }
+    }
+
+    @Override
+    public void sumInterleaved(int[] interleavedMatrix, int[][] permutations, int count, int[] sums, int[] secondSums) {
+        for(int i = 0; i < count; i++) {
+            int[] permutation = permutations[i];
+            int sum = 0;
+            int secondSum = 0;
+
+            for(int f = 0, row = 0; f < flightCount; f++, row += slotCount) {
+                int index = (row + permutation[f]) << 1;
+                sum += interleavedMatrix[index];
+                secondSum += interleavedMatrix[index + 1];
+            }
+
+            sums[i] = sum;
+            secondSums[i] = secondSum;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "scalar";
+    }
+}
@@ -1,24 +1,104 @@
 package optimizer.optimization.jenetics;
 
 import optimizer.domain.Flight;
+import optimizer.domain.ProblemInstance;
 import optimizer.domain.Slot;
+import io.jenetics.Chromosome;
 import io.jenetics.EnumGene;
+import io.jenetics.Genotype;
 import io.jenetics.engine.Codecs;
 import io.jenetics.engine.InvertibleCodec;
 import io.jenetics.engine.Problem;
 import io.jenetics.util.ISeq;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 public abstract class SlotAllocationProblem<C extends Comparable<? super C>, F extends Flight> implements Problem<Map<F, Slot>, EnumGene<Integer>, C> {
 
+    private final ProblemInstance instance;
     private final ISeq<F> flights;
     private final ISeq<Slot> availableSlots;
-    protected int fitnessFunctionApplications = 0;
+    // row-major weights per objective; only used if the instance does not store its weights interleaved
+    private final int[][] objectiveMatrices;
+    // both weights per cell if both are known, see ProblemInstance#interleavedWeightMatrix(); the second weights are
+    // ignored by single-objective problems
+    private final int[] interleavedMatrix;
+    private final FitnessKernel kernel;
+    // counters may be incremented concurrently when the population is evaluated in parallel
+    protected final LongAdder fitnessFunctionApplications;
+    protected final LongAdder incrementalFitnessApplications;
 
-    public SlotAllocationProblem(ISeq<F> flights, ISeq<Slot> availableSlots) {
-        this.flights = flights;
-        this.availableSlots = availableSlots;
+    /**
+     * Fingerprints and actual scores of the genotypes evaluated in the current and in the previous generation,
+     * by identity.
+     */
+    private volatile Map<Genotype<EnumGene<Integer>>, Scored> scores = newIdentityMap();
+    private volatile Map<Genotype<EnumGene<Integer>>, Scored> previousScores = newIdentityMap();
+
+    /**
+     * Actual scores of assignments by fingerprint, across generations.
+     */
+    private FitnessCache fitnessCache = new FitnessCache(FitnessCache.DEFAULT_CAPACITY);
+
+    /**
+     * Genotypes created by a mutation in the current generation, with the parent and the changed positions.
+     */
+    private volatile Map<Genotype<EnumGene<Integer>>, Mutation> mutations = newIdentityMap();
+
+    /**
+     * @param instance the compiled problem instance
+     * @param objectiveCount the number of objectives; the first objective uses the weights, the second
+     *                       objective the second weights of the instance
+     */
+    @SuppressWarnings("unchecked")
+    public SlotAllocationProblem(ProblemInstance instance, int objectiveCount) {
+        this.instance = instance;
+        this.flights = (ISeq<F>) ISeq.of(instance.getFlights());
+        this.availableSlots = ISeq.of(instance.getSlots());
+        this.objectiveMatrices = objectiveCount > 1 ?
+                new int[][] { instance.weightMatrix(), instance.secondWeightMatrix() } :
+                new int[][] { instance.weightMatrix() };
+        this.interleavedMatrix = instance.interleavedWeightMatrix();
+        this.kernel = FitnessKernel.of(instance.getFlightCount(), instance.getSlotCount());
+        this.fitnessFunctionApplications = new LongAdder();
+        this.incrementalFitnessApplications = new LongAdder();
+    }
+
+    /**
+     * Creates a problem that shares the instance, the fitness kernel, the fitness cache and the counters of the given
+     * problem, but tracks the scores and mutations of its own generations, for an engine evolving concurrently with
+     * the engine of the given problem, e.g., another island of an {@link IslandModel}.
+     * @param problem the problem to share
+     */
+    protected SlotAllocationProblem(SlotAllocationProblem<C, F> problem) {
+        this.instance = problem.instance;
+        this.flights = problem.flights;
+        this.availableSlots = problem.availableSlots;
+        this.objectiveMatrices = problem.objectiveMatrices;
+        this.interleavedMatrix = problem.interleavedMatrix;
+        this.kernel = problem.kernel;
+        this.fitnessFunctionApplications = problem.fitnessFunctionApplications;
+        this.incrementalFitnessApplications = problem.incrementalFitnessApplications;
+        this.fitnessCache = problem.fitnessCache;
+    }
+
+    /**
+     * @return a problem for an engine evolving concurrently with the engine of this problem, see
+     * {@link #SlotAllocationProblem(SlotAllocationProblem)}
+     */
+    public abstract SlotAllocationProblem<C, F> forIsland();
+
+    private static <K, V> Map<K, V> newIdentityMap() {
+        return Collections.synchronizedMap(new IdentityHashMap<>());
+    }
+
+    public ProblemInstance getInstance() {
+        return instance;
     }
 
     public ISeq<F> getFlights() {
@@ -34,8 +114,382 @@ public abstract class SlotAllocationProblem<C extends Comparable<? super C>, F e
         return Codecs.ofMapping(flights, availableSlots);
     }
 
+    /**
+     * Reads the slot assignment directly from the allele indices of the genotype without decoding it to a map.
+     * Flight f (session order) is assigned to slot {@code permutation[f]} (session order).
+     * @param genotype the genotype to read
+     * @param buffer array of at least the number of flights to be filled, or null to allocate a new one
+     * @return the filled buffer
+     */
+    public int[] permutation(Genotype<EnumGene<Integer>> genotype, int[] buffer) {
+        int flightCount = instance.getFlightCount();
+        int[] permutation = buffer != null && buffer.length >= flightCount ? buffer : new int[flightCount];
+
+        Chromosome<EnumGene<Integer>> chromosome = genotype.chromosome();
+        for(int f = 0; f < flightCount; f++) {
+            permutation[f] = chromosome.get(f).alleleIndex();
+        }
+
+        return permutation;
+    }
+
+    /**
+     * Counts the assignments encoded in the genotype that violate the scheduled time of the flight. Uses the
+     * earliest feasible slot of each flight, i.e., a single integer comparison per flight.
+     * @param genotype the genotype to check
+     * @return the number of invalid assignments
+     */
+    public int countInvalidAssignments(Genotype<EnumGene<Integer>> genotype) {
+        Chromosome<EnumGene<Integer>> chromosome = genotype.chromosome();
+        int invalidAssignments = 0;
+
+        for(int f = 0; f < instance.getFlightCount(); f++) {
+            if(!instance.isFeasible(f, chromosome.get(f).alleleIndex())) {
+                invalidAssignments++;
+            }
+        }
+
+        return invalidAssignments;
+    }
+
+    /**
+     * @return true if no assignment encoded in the genotype violates the scheduled time of the flight
+     */
+    public boolean isValid(Genotype<EnumGene<Integer>> genotype) {
+        Chromosome<EnumGene<Integer>> chromosome = genotype.chromosome();
+
+        for(int f = 0; f < instance.getFlightCount(); f++) {
+            if(!instance.isFeasible(f, chromosome.get(f).alleleIndex())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Computes the weight sum of each objective for the assignment encoded in the genotype. Genotypes that have
+     * been scored in the current or the previous generation are not scored again, and neither are assignments
+     * found in the fitness cache. A genotype created by a mutation of an already scored genotype is scored
+     * incrementally from its parent's score and the positions changed by the mutation; all other genotypes, e.g.,
+     * the results of a crossover, are scored from scratch.
+     * @param genotype the genotype to score
+     * @return the actual (unobfuscated) score of each objective
+     */
+    protected int[] score(Genotype<EnumGene<Integer>> genotype) {
+        Scored scored = scoreWithoutFullEvaluation(genotype);
+
+        if(scored.score == null) {
+            scored = new Scored(scored.fingerprint, fullScore(genotype.chromosome()));
+            fitnessCache.put(scored.fingerprint, scored.score);
+            scores.put(genotype, scored);
+        }
+
+        return scored.score;
+    }
+
+    /**
+     * Scores a batch of genotypes like {@link #score(Genotype)}, but the genotypes that have to be scored from
+     * scratch are collected and scored in a single call of the fitness kernel, which uses the Vector API if
+     * available.
+     * @param genotypes the genotypes to score
+     * @return the actual (unobfuscated) score of each objective for each genotype, in input order
+     */
+    protected int[][] score(List<Genotype<EnumGene<Integer>>> genotypes) {
+        int[][] result = new int[genotypes.size()][];
+        int[][] permutations = new int[genotypes.size()][];
+        long[] fingerprints = new long[genotypes.size()];
+        int[] pending = new int[genotypes.size()];
+        int count = 0;
+
+        for(int i = 0; i < genotypes.size(); i++) {
+            Scored scored = scoreWithoutFullEvaluation(genotypes.get(i));
+
+            if(scored.score != null) {
+                result[i] = scored.score;
+            } else {
+                permutations[count] = permutation(genotypes.get(i), null);
+                fingerprints[count] = scored.fingerprint;
+                pending[count++] = i;
+            }
+        }
+
+        int[][] sums = fullScores(permutations, count);
+        for(int k = 0; k < count; k++) {
+            int[] score = new int[objectiveMatrices.length];
+            for(int o = 0; o < score.length; o++) {
+                score[o] = sums[o][k];
+            }
+
+            fitnessCache.put(fingerprints[k], score);
+            scores.put(genotypes.get(pending[k]), new Scored(fingerprints[k], score));
+            result[pending[k]] = score;
+        }
+
+        return result;
+    }
+
+    /**
+     * Scores the genotype if this is possible without a full evaluation, i.e., if the genotype has already been
+     * scored, if its assignment is cached, or if it is a mutation of a scored genotype. Otherwise, only the
+     * fingerprint of the genotype is computed and the score of the result is null.
+     */
+    private Scored scoreWithoutFullEvaluation(Genotype<EnumGene<Integer>> genotype) {
+        Scored scored = lookupScore(genotype);
+
+        // genotypes scored in this or the previous generation are found by identity; they are not cache lookups
+        if(scored != null) {
+            return scored;
+        }
+
+        Chromosome<EnumGene<Integer>> chromosome = genotype.chromosome();
+        Mutation mutation = mutations.get(genotype);
+        Scored parent = mutation != null ? lookupScore(mutation.parent) : null;
+
+        long fingerprint = parent != null ?
+                deltaFingerprint(parent.fingerprint, mutation, chromosome) :
+                PermutationFingerprint.of(chromosome, instance.getFlightCount());
+
+        int[] score = fitnessCache.get(fingerprint);
+        if(score == null && parent != null) {
+            score = deltaScore(parent.score, mutation, chromosome);
+            incrementalFitnessApplications.increment();
+            fitnessCache.put(fingerprint, score);
+        }
+
+        scored = new Scored(fingerprint, score);
+        if(score != null) {
+            scores.put(genotype, scored);
+        }
+
+        return scored;
+    }
+
+    private Scored lookupScore(Genotype<EnumGene<Integer>> genotype) {
+        Scored scored = scores.get(genotype);
+        return scored != null ? scored : previousScores.get(genotype);
+    }
+
+    private long deltaFingerprint(long parentFingerprint, Mutation mutation, Chromosome<EnumGene<Integer>> chromosome) {
+        Chromosome<EnumGene<Integer>> parent = mutation.parent.chromosome();
+        long fingerprint = parentFingerprint;
+
+        for(int f : mutation.positions) {
+            fingerprint = PermutationFingerprint.update(fingerprint, f, parent.get(f).alleleIndex(), chromosome.get(f).alleleIndex());
+        }
+
+        return fingerprint;
+    }
+
+    /**
+     * Sums the weights of the assignment from the row-major weight matrices of the problem instance, or from the
+     * interleaved matrix in a single pass over both objectives. Missing weights are summed up like any other weight,
+     * as with the map-based fitness.
+     */
+    private int[] fullScore(Chromosome<EnumGene<Integer>> chromosome) {
+        int flightCount = instance.getFlightCount();
+        int slotCount = instance.getSlotCount();
+        int[] score = new int[objectiveMatrices.length];
+
+        if(interleavedMatrix != null) {
+            for(int f = 0, row = 0; f < flightCount; f++, row += slotCount) {
+                int index = (row + chromosome.get(f).alleleIndex()) << 1;
+                score[0] += interleavedMatrix[index];
+                if(score.length > 1) {
+                    score[1] += interleavedMatrix[index + 1];
+                }
+            }
+            return score;
+        }
+
+        for(int o = 0; o < objectiveMatrices.length; o++) {
+            if(objectiveMatrices[o] == null) {
+                score[o] = flightCount * ProblemInstance.MISSING_WEIGHT;
+            }
+        }
+
+        for(int f = 0, row = 0; f < flightCount; f++, row += slotCount) {
+            int index = row + chromosome.get(f).alleleIndex();
+            for(int o = 0; o < objectiveMatrices.length; o++) {
+                if(objectiveMatrices[o] != null) {
+                    score[o] += objectiveMatrices[o][index];
+                }
+            }
+        }
+
+        return score;
+    }
+
+    /**
+     * Sums the weights of the first count permutations for each objective using the fitness kernel; both
+     * objectives are summed up in a single pass over the interleaved matrix.
+     * @return the sums indexed by objective and permutation
+     */
+    private int[][] fullScores(int[][] permutations, int count) {
+        int[][] sums = new int[objectiveMatrices.length][count];
+
+        if(interleavedMatrix != null) {
+            kernel.sumInterleaved(interleavedMatrix, permutations, count, sums[0], sums.length > 1 ? sums[1] : new int[count]);
+        } else {
+            for(int o = 0; o < objectiveMatrices.length; o++) {
+                if(objectiveMatrices[o] != null) {
+                    kernel.sum(objectiveMatrices[o], permutations, count, sums[o]);
+                } else {
+                    Arrays.fill(sums[o], instance.getFlightCount() * ProblemInstance.MISSING_WEIGHT);
+                }
+            }
+        }
+
+        return sums;
+    }
+
+    private int[] deltaScore(int[] parentScore, Mutation mutation, Chromosome<EnumGene<Integer>> chromosome) {
+        Chromosome<EnumGene<Integer>> parent = mutation.parent.chromosome();
+        int slotCount = instance.getSlotCount();
+        int[] score = parentScore.clone();
+
+        if(interleavedMatrix != null) {
+            for(int f : mutation.positions) {
+                int row = f * slotCount;
+                int newIndex = (row + chromosome.get(f).alleleIndex()) << 1;
+                int oldIndex = (row + parent.get(f).alleleIndex()) << 1;
+                score[0] += interleavedMatrix[newIndex] - interleavedMatrix[oldIndex];
+                if(score.length > 1) {
+                    score[1] += interleavedMatrix[newIndex + 1] - interleavedMatrix[oldIndex + 1];
+                }
+            }
+            return score;
+        }
+
+        for(int f : mutation.positions) {
+            int row = f * slotCount;
+            int newIndex = row + chromosome.get(f).alleleIndex();
+            int oldIndex = row + parent.get(f).alleleIndex();
+            for(int o = 0; o < objectiveMatrices.length; o++) {
+                if(objectiveMatrices[o] != null) {
+                    score[o] += objectiveMatrices[o][newIndex] - objectiveMatrices[o][oldIndex];
+                }
+            }
+        }
+
+        return score;
+    }
+
+    /**
+     * Registers a genotype created by mutating another genotype so that it can be scored incrementally. Only the
+     * positions holding flights are considered; if the mutation changed more than half of them, the genotype is
+     * not registered as a full evaluation is cheaper.
+     * @param parent the genotype before the mutation
+     * @param child the genotype after the mutation
+     */
+    public void registerMutation(Genotype<EnumGene<Integer>> parent, Genotype<EnumGene<Integer>> child) {
+        Chromosome<EnumGene<Integer>> p = parent.chromosome();
+        Chromosome<EnumGene<Integer>> c = child.chromosome();
+        int flightCount = instance.getFlightCount();
+        int limit = flightCount / 2;
+
+        int changed = 0;
+        for(int f = 0; f < flightCount && changed <= limit; f++) {
+            if(p.get(f).alleleIndex() != c.get(f).alleleIndex()) changed++;
+        }
+        if(changed > limit) return;
+
+        int[] positions = new int[changed];
+        for(int f = 0, i = 0; i < changed; f++) {
+            if(p.get(f).alleleIndex() != c.get(f).alleleIndex()) positions[i++] = f;
+        }
+
+        mutations.put(child, new Mutation(parent, positions));
+    }
+
+    /**
+     * Registers a genotype created by mutating another genotype at the given positions, as reported by a
+     * {@link PositionReportingMutator}, without comparing the genotypes. Positions not holding flights and repeated
+     * positions are ignored; unchanged positions do not affect the score. As with
+     * {@link #registerMutation(Genotype, Genotype)}, the genotype is not registered if more than half of the positions
+     * holding flights are reported.
+     * @param parent the genotype before the mutation
+     * @param child the genotype after the mutation
+     * @param positions the positions changed by the mutation
+     */
+    public void registerMutation(Genotype<EnumGene<Integer>> parent, Genotype<EnumGene<Integer>> child, int[] positions) {
+        int flightCount = instance.getFlightCount();
+        int[] sorted = positions.clone();
+        Arrays.sort(sorted);
+
+        int changed = 0;
+        for(int i = 0; i < sorted.length && sorted[i] < flightCount; i++) {
+            if(changed == 0 || sorted[i] != sorted[changed - 1]) {
+                sorted[changed++] = sorted[i];
+            }
+        }
+        if(changed > flightCount / 2) return;
+
+        mutations.put(child, new Mutation(parent, Arrays.copyOf(sorted, changed)));
+    }
+
+    /**
+     * Starts a new generation: scores of the generation before the previous one and the registered mutations
+     * are discarded, which bounds the retained scores to about two generations.
+     */
+    public void nextGeneration() {
+        previousScores = scores;
+        scores = newIdentityMap();
+        mutations = newIdentityMap();
+    }
+
+    /**
+     * Evaluates a batch of genotypes directly on the allele indices, see {@link #score(List)}.
+     * @param genotypes the genotypes to evaluate
+     * @return the fitness of each genotype, in input order
+     */
+    public List<C> fitness(List<Genotype<EnumGene<Integer>>> genotypes) {
+        fitnessFunctionApplications.add(genotypes.size());
+        return Arrays.stream(score(genotypes)).map(this::fitness).toList();
+    }
+
+    /**
+     * @return the fitness value for the actual score of each objective
+     */
+    protected abstract C fitness(int[] score);
+
+    public FitnessKernel getKernel() {
+        return kernel;
+    }
+
+    public FitnessCache getFitnessCache() {
+        return fitnessCache;
+    }
+
+    public void setFitnessCache(FitnessCache fitnessCache) {
+        this.fitnessCache = fitnessCache;
+    }
+
+    public int getIncrementalFitnessApplications() {
+        return incrementalFitnessApplications.intValue();
+    }
+
     public int getFitnessFunctionApplications() {
-        return fitnessFunctionApplications;
+        return fitnessFunctionApplications.intValue();
     }
 
+    private static class Scored {
+        private final long fingerprint;
+        private final int[] score;
+
+        private Scored(long fingerprint, int[] score) {
+            this.fingerprint = fingerprint;
+            this.score = score;
+        }
+    }
+
+    private static class Mutation {
+        private final Genotype<EnumGene<Integer>> parent;
+        private final int[] positions;
+
+        private Mutation(Genotype<EnumGene<Integer>> parent, int[] positions) {
+            this.parent = parent;
+            this.positions = positions;
+        }
+    }
 }
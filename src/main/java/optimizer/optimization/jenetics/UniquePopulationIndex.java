@@ -0,0 +1,240 @@
+package optimizer.optimization.jenetics;
+
+import io.jenetics.Chromosome;
+import io.jenetics.EnumGene;
+import io.jenetics.Genotype;
+import io.jenetics.Phenotype;
+import io.jenetics.engine.EvolutionInterceptor;
+import io.jenetics.engine.EvolutionResult;
+import io.jenetics.util.ISeq;
+import io.jenetics.util.MSeq;
+import io.jenetics.util.RandomRegistry;
+import io.jenetics.util.Seq;
+import optimizer.domain.ProblemInstance;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * Uniqueness index of the population, keyed by the {@link PermutationFingerprint} of the slot assignments. The
+ * fingerprints of the latest population are kept across generations by genotype identity, so that only the genotypes
+ * new to a generation, i.e., offspring and repaired individuals, are fingerprinted.
+ * <p>
+ * Instead of replacing duplicates by random permutations, a duplicate is repaired by swapping the slots of one of its
+ * flights and another flight or an unassigned slot, where swaps that would assign a flight to a slot before its
+ * scheduled time are skipped unless the flight already violated its scheduled time. Swaps accumulate until the
+ * assignment is unique or the maximal number of retries is reached; the fingerprint is updated in constant time
+ * per swap. Duplicates that cannot be repaired remain in the population.
+ */
+public final class UniquePopulationIndex {
+    /**
+     * Maximal number of swaps per duplicate if no maximal number of retries is configured.
+     */
+    public static final int DEFAULT_MAX_RETRIES = 10;
+
+    private final ProblemInstance instance;
+    private final int maxRetries;
+
+    /**
+     * The fingerprints of the genotypes of the latest population.
+     */
+    private Map<Genotype<EnumGene<Integer>>, Long> fingerprints = new IdentityHashMap<>();
+
+    private long repairedDuplicates;
+    private long unrepairedDuplicates;
+
+    /**
+     * @param instance the problem instance
+     * @param maxRetries maximal number of swaps per duplicate; the default if zero or less
+     */
+    public UniquePopulationIndex(ProblemInstance instance, int maxRetries) {
+        this.instance = instance;
+        this.maxRetries = maxRetries > 0 ? maxRetries : DEFAULT_MAX_RETRIES;
+    }
+
+    /**
+     * @return the number of individuals whose slot assignment equals the assignment of an earlier individual
+     */
+    public synchronized <C extends Comparable<? super C>> int countDuplicates(Seq<Phenotype<EnumGene<Integer>, C>> population) {
+        long[] keys = index(population);
+        FingerprintSet seen = new FingerprintSet(keys.length);
+
+        int duplicates = 0;
+        for(long key : keys) {
+            if(!seen.add(key)) {
+                duplicates++;
+            }
+        }
+        return duplicates;
+    }
+
+    /**
+     * @return an interceptor repairing the duplicates of the population of each generation
+     */
+    public <C extends Comparable<? super C>> EvolutionInterceptor<EnumGene<Integer>, C> interceptor() {
+        return EvolutionInterceptor.ofAfter(this::unique);
+    }
+
+    /**
+     * Repairs the duplicates of the population of the evolution result. Repaired individuals are not evaluated; as
+     * with the uniqueness interceptor of Jenetics, the engine evaluates them right after the interceptor, i.e., in the
+     * same generation, before the result is returned.
+     * @return the evolution result with a duplicate-free population if all duplicates could be repaired
+     */
+    public synchronized <C extends Comparable<? super C>> EvolutionResult<EnumGene<Integer>, C> unique(EvolutionResult<EnumGene<Integer>, C> result) {
+        ISeq<Phenotype<EnumGene<Integer>, C>> population = result.population();
+        long[] keys = index(population);
+        FingerprintSet seen = new FingerprintSet(keys.length);
+        MSeq<Phenotype<EnumGene<Integer>, C>> repaired = null;
+        RandomGenerator random = RandomRegistry.random();
+
+        for(int i = 0; i < keys.length; i++) {
+            if(seen.add(keys[i])) {
+                continue;
+            }
+
+            Genotype<EnumGene<Integer>> genotype = repair(population.get(i).genotype(), keys[i], seen, random);
+            if(genotype == null) {
+                unrepairedDuplicates++;
+                continue;
+            }
+
+            if(repaired == null) {
+                repaired = population.copy();
+            }
+            repaired.set(i, Phenotype.of(genotype, result.generation()));
+            repairedDuplicates++;
+        }
+
+        if(repaired == null) {
+            return result;
+        }
+
+        return EvolutionResult.of(result.optimize(), repaired.toISeq(), result.generation(), result.totalGenerations(),
+                result.durations(), result.killCount(), result.invalidCount(), result.alterCount());
+    }
+
+    /**
+     * Swaps slots of the duplicate until its assignment is not contained in the set, and adds the new assignment.
+     * @return the repaired genotype, or null if no unique assignment has been found
+     */
+    private Genotype<EnumGene<Integer>> repair(Genotype<EnumGene<Integer>> duplicate, long fingerprint,
+                                               FingerprintSet seen, RandomGenerator random) {
+        Chromosome<EnumGene<Integer>> chromosome = duplicate.chromosome();
+        int flightCount = instance.getFlightCount();
+        int length = chromosome.length();
+        if(flightCount == 0 || length < 2) {
+            return null;
+        }
+
+        MSeq<EnumGene<Integer>> genes = MSeq.of(chromosome);
+
+        for(int retry = 0; retry < maxRetries; retry++) {
+            // looking for a swap that respects the scheduled times takes at most one draw per position
+            for(int draw = 0; draw < length; draw++) {
+                int a = random.nextInt(flightCount);
+                int b = random.nextInt(length - 1);
+                if(b >= a) b++;
+
+                int slotA = genes.get(a).alleleIndex();
+                int slotB = genes.get(b).alleleIndex();
+                if(!isSwapFeasible(a, slotA, b, slotB, flightCount)) {
+                    continue;
+                }
+
+                genes.swap(a, b);
+                fingerprint = PermutationFingerprint.update(fingerprint, a, slotA, slotB);
+                if(b < flightCount) {
+                    fingerprint = PermutationFingerprint.update(fingerprint, b, slotB, slotA);
+                }
+                break;
+            }
+
+            if(seen.add(fingerprint)) {
+                Genotype<EnumGene<Integer>> genotype = Genotype.of(chromosome.newInstance(genes.toISeq()));
+                fingerprints.put(genotype, fingerprint);
+                return genotype;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @return true unless the swap assigns a flight to a slot before its scheduled time that it did not violate before
+     */
+    private boolean isSwapFeasible(int a, int slotA, int b, int slotB, int flightCount) {
+        if(!instance.isFeasible(a, slotB) && instance.isFeasible(a, slotA)) {
+            return false;
+        }
+        return b >= flightCount || instance.isFeasible(b, slotA) || !instance.isFeasible(b, slotB);
+    }
+
+    /**
+     * Looks up the fingerprints of the population, computing only those of genotypes not in the latest population,
+     * and makes the population the latest population.
+     */
+    private <C extends Comparable<? super C>> long[] index(Seq<Phenotype<EnumGene<Integer>, C>> population) {
+        Map<Genotype<EnumGene<Integer>>, Long> latest = new IdentityHashMap<>(2 * population.size());
+        long[] keys = new long[population.size()];
+
+        for(int i = 0; i < keys.length; i++) {
+            Genotype<EnumGene<Integer>> genotype = population.get(i).genotype();
+            Long key = fingerprints.get(genotype);
+            if(key == null) {
+                key = PermutationFingerprint.of(genotype.chromosome(), instance.getFlightCount());
+            }
+            latest.put(genotype, key);
+            keys[i] = key;
+        }
+
+        this.fingerprints = latest;
+        return keys;
+    }
+
+    public synchronized long getRepairedDuplicates() {
+        return repairedDuplicates;
+    }
+
+    public synchronized long getUnrepairedDuplicates() {
+        return unrepairedDuplicates;
+    }
+
+    /**
+     * Open-addressing set of fingerprints with linear probing; zero is tracked separately as it marks empty cells.
+     */
+    private static final class FingerprintSet {
+        private final long[] cells;
+        private final int mask;
+        private boolean containsZero;
+
+        private FingerprintSet(int expectedSize) {
+            int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 + 1)) << 1;
+            this.cells = new long[capacity];
+            this.mask = capacity - 1;
+        }
+
+        /**
+         * @return true if the fingerprint has not been contained in the set
+         */
+        private boolean add(long fingerprint) {
+            if(fingerprint == 0) {
+                boolean added = !containsZero;
+                containsZero = true;
+                return added;
+            }
+
+            // the fingerprints are well mixed, so their low bits are used directly
+            int cell = (int) fingerprint & mask;
+            while(cells[cell] != 0) {
+                if(cells[cell] == fingerprint) {
+                    return false;
+                }
+                cell = (cell + 1) & mask;
+            }
+            cells[cell] = fingerprint;
+            return true;
+        }
+    }
+}
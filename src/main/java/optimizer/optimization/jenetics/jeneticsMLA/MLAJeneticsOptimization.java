@@ -28,7 +28,7 @@ public class MLAJeneticsOptimization extends MOJeneticsOptimization {
     }
 
     @Override
-    protected MOBatchEvaluator createEvaluator(){
+    protected MOBatchEvaluator createEvaluator(MOSlotAllocationProblem problem){
         return BatchEvaluatorFactory.getMLAEvaluator(problem, this);
     }
 
@@ -59,6 +59,8 @@ public class MLAJeneticsOptimization extends MOJeneticsOptimization {
         this.getStatistics().setTimeFinished(LocalDateTime.now());
         this.getStatistics().setIterations((int) statistics.altered().count());
         this.getStatistics().setFitnessFunctionInvocations(problem.getFitnessFunctionApplications());
+        this.getStatistics().setFitnessCacheHits(problem.getFitnessCache().getHits());
+        this.getStatistics().setFitnessCacheMisses(problem.getFitnessCache().getMisses());
 
         double balanceRatio = Math.abs((double) this.statistics.getMaximumFitness()/this.statistics.getTheoreticalMaxFitness() -
                 (double) this.statistics.getMaximumFitnessTwo()/this.statistics.getTheoreticalMaxFitnessTwo());
@@ -67,6 +69,9 @@ public class MLAJeneticsOptimization extends MOJeneticsOptimization {
         logger.info("Fitness of best solution: " + this.getStatistics().getResultFitness());
         logger.info("Number of generations: " + this.getStatistics().getIterations());
         logger.info("Number of fitness function invocations: " + this.getStatistics().getFitnessFunctionInvocations());
+        logger.info("Number of incremental fitness function invocations: " + problem.getIncrementalFitnessApplications());
+        logger.info("Number of fitness cache hits: " + this.getStatistics().getFitnessCacheHits());
+        logger.info("Number of fitness cache misses: " + this.getStatistics().getFitnessCacheMisses());
     }
 
 
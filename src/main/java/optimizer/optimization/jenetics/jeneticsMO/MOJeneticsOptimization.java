@@ -5,11 +5,16 @@ import optimizer.domain.Slot;
 import optimizer.optimization.evaluation.BatchEvaluatorFactory;
 import optimizer.optimization.evaluation.MOBatchEvaluator;
 import optimizer.optimization.jenetics.JeneticsOptimization;
+import optimizer.optimization.jenetics.FitnessCache;
+import optimizer.optimization.jenetics.IslandModel;
+import optimizer.optimization.jenetics.MutationTracker;
+import optimizer.optimization.jenetics.UniquePopulationIndex;
 import optimizer.optimization.jenetics.jeneticsMLA.MLAJeneticsOptimization;
 import com.optimization.data.optimizer.service.dto.OptimizationResultDTO;
 import io.jenetics.*;
 import io.jenetics.engine.*;
 import io.jenetics.ext.moea.MOEA;
+import io.jenetics.ext.moea.NSGA2Selector;
 import io.jenetics.ext.moea.Vec;
 import io.jenetics.util.ISeq;
 import io.jenetics.util.IntRange;
@@ -19,7 +24,7 @@ import org.apache.logging.log4j.Logger;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class MOJeneticsOptimization extends JeneticsOptimization<Map<FlightMO, Slot>,
         MOSlotAllocationProblem,
@@ -32,10 +37,7 @@ public class MOJeneticsOptimization extends JeneticsOptimization<Map<FlightMO, S
     public MOJeneticsOptimization(FlightMO[] flights, Slot[] slots) {
         super(flights, slots);
         this.statistics = new MOJeneticsOptimizationStatistics();
-        this.problem = new MOSlotAllocationProblem(
-                ISeq.of(this.getFlights()),
-                ISeq.of(this.getSlots())
-        );
+        this.problem = new MOSlotAllocationProblem(this.getInstance());
         logger.info("Multi Objective slot allocation problem initialized");
     }
 
@@ -68,7 +70,7 @@ public class MOJeneticsOptimization extends JeneticsOptimization<Map<FlightMO, S
         InternConfig<Vec<int[]>> config = configurationWithoutMissingValues();
 
         if(this.statistics.getFitnessEvolution() != null)  {
-            this.statistics.getFitnessEvolution().clear();
+            this.statistics.setFitnessEvolution(newFitnessEvolutionTrace());
             logger.info("Cleared fitness evolution.");
         }
 
@@ -77,55 +79,72 @@ public class MOJeneticsOptimization extends JeneticsOptimization<Map<FlightMO, S
 
         logger.info("Build the genetic algorithm engine.");
 
-        MOBatchEvaluator evaluator = createEvaluator();
+        problem.setFitnessCache(new FitnessCache(config.fitnessCacheSize));
+        this.setClearFitnessCache(new FitnessCache(config.fitnessCacheSize));
+        this.setUniquePopulationIndex(new UniquePopulationIndex(this.getInstance(), this.getConfiguration().getDeduplicateMaxRetries()));
+        logger.info("Fitness kernel: " + problem.getKernel());
+
+        MOBatchEvaluator evaluator = createEvaluator(problem);
 
         evaluator.setSecondObfuscated(configuration.isSecondObfuscated());
 
-        Engine.Builder<EnumGene<Integer>, Vec<int[]>> builder = new Engine.Builder<>(evaluator, this.problem.codec().encoding());
+        // the evaluators of all islands, whose thread pools are shut down however the run ends
+        List<MOBatchEvaluator> evaluators = Collections.synchronizedList(new ArrayList<>(List.of(evaluator)));
+        try {
+            EvolutionStatistics<Vec<int[]>, ?> statistics = EvolutionStatistics.ofComparable();
 
-        builder = deduplicate(builder);
+            IslandModel<Vec<int[]>> islandModel = newIslandModel(NSGA2Selector.ofVec());
 
-        EvolutionStatistics<Vec<int[]>, ?> statistics = EvolutionStatistics.ofComparable();
+            final ISeq<Phenotype<EnumGene<Integer>, Vec<int[]>>> paretoFrontResult;
+            if(islandModel == null) {
+                Engine.Builder<EnumGene<Integer>, Vec<int[]>> builder = new Engine.Builder<>(evaluator, this.problem.codec().encoding());
 
-        EvolutionStream<EnumGene<Integer>, Vec<int[]>> stream = buildEvolutionStream(config, builder);
+                builder = deduplicate(builder);
 
-        this.getStatistics().setTimeStarted(LocalDateTime.now());
-        final ISeq<Phenotype<EnumGene<Integer>, Vec<int[]>>> paretoFrontResult = stream
-                    .peek(statistics)
-                    .collect(MOEA.toParetoSet(IntRange.of(1, 100)));
+                EvolutionStream<EnumGene<Integer>, Vec<int[]>> stream = buildEvolutionStream(config, builder, problem);
 
-        // TODO evaluate if a checking for valid solutions is required --> depends from the weight map
+                this.getStatistics().setTimeStarted(LocalDateTime.now());
+                paretoFrontResult = stream
+                        .peek(statistics)
+                        .collect(MOEA.toParetoSet(IntRange.of(1, 100)));
+            } else {
+                this.getStatistics().setTimeStarted(LocalDateTime.now());
+                paretoFrontResult = evolveIslands(islandModel, evaluator, evaluators, statistics);
+            }
 
-        Map<Map<FlightMO, Slot>, int[]> resultMap = getFitnessValues(paretoFrontResult, problem);
+            // TODO evaluate if a checking for valid solutions is required --> depends from the weight map
 
-        this.setParetoFront(resultMap);
+            Map<Map<FlightMO, Slot>, int[]> resultMap = getFitnessValues(paretoFrontResult, problem);
 
-        int[][] fitnessValues = resultMap.values().toArray(new int[0][]);
+            this.setParetoFront(resultMap);
 
-        Map.Entry<Map<FlightMO, Slot>, int[]> selectedPoint = selectPointOnParetoFront(resultMap, fitnessValues);
+            int[][] fitnessValues = resultMap.values().toArray(new int[0][]);
 
-        this.getStatistics().setSelectedPoint(selectedPoint.getValue());
+            Map.Entry<Map<FlightMO, Slot>, int[]> selectedPoint = selectPointOnParetoFront(resultMap, fitnessValues);
 
-        logParetoFront(fitnessValues, selectedPoint.getValue());
+            this.getStatistics().setSelectedPoint(selectedPoint.getValue());
 
-        logger.info("Statistics: \n" + statistics);
-        logger.info("Printing statistics from BatchEvaluator");
-        evaluator.printLogs();
+            logParetoFront(fitnessValues, selectedPoint.getValue());
 
-        setAndPrintStatistics(statistics, paretoFrontResult, problem, selectedPoint.getValue());
-        changeTheoreticalMaxValues(this.getStatistics().getEstimatedParetoFront(), selectedPoint.getValue());
+            logger.info("Statistics: \n" + statistics);
+            logger.info("Printing statistics from BatchEvaluator");
+            for(MOBatchEvaluator islandEvaluator : evaluators) {
+                islandEvaluator.printLogs();
+            }
 
-        List<Map<FlightMO, Slot>> resultRepresentation = convertParetoFront(paretoFrontResult, this.problem);
-        this.setResult(selectedPoint.getKey());
+            setAndPrintStatistics(statistics, paretoFrontResult, problem, selectedPoint.getValue());
+            changeTheoreticalMaxValues(this.getStatistics().getEstimatedParetoFront(), selectedPoint.getValue());
 
-        logger.info("Converting result population to the format required by the PE.");
-        Integer[][] resultListConverted = evaluator.convertPopulationToArray(ISeq.of(paretoFrontResult.stream()
-                .filter(distinctByAttribute(Phenotype::genotype))
-                .sorted(Comparator.comparingInt(p -> p.fitness().data()[0]))
-                .sorted(Comparator.reverseOrder())
-                .collect(Collectors.toList())));
+            List<Map<FlightMO, Slot>> resultRepresentation = convertParetoFront(paretoFrontResult, this.problem);
+            this.setResult(selectedPoint.getKey());
 
-        return selectedPoint.getKey();
+            return selectedPoint.getKey();
+        } finally {
+            synchronized(evaluators) {
+                evaluators.forEach(MOBatchEvaluator::shutdown);
+            }
+            shutdownPipelineExecutor();
+        }
     }
 
     protected void setAndPrintStatistics(EvolutionStatistics<Vec<int[]>,?> statistics,
@@ -140,6 +159,8 @@ public class MOJeneticsOptimization extends JeneticsOptimization<Map<FlightMO, S
 
         this.getStatistics().setIterations((int) statistics.altered().count());
         this.getStatistics().setFitnessFunctionInvocations(problem.getFitnessFunctionApplications());
+        this.getStatistics().setFitnessCacheHits(problem.getFitnessCache().getHits());
+        this.getStatistics().setFitnessCacheMisses(problem.getFitnessCache().getMisses());
         double balanceRatio = Math.abs((double)selectedPoint[0]/this.statistics.getTheoreticalMaxFitness() -
                 (double)selectedPoint[1]/this.statistics.getTheoreticalMaxFitnessTwo());
         this.statistics.setBalanceRatio(balanceRatio);
@@ -147,6 +168,9 @@ public class MOJeneticsOptimization extends JeneticsOptimization<Map<FlightMO, S
         logger.info("Fitness of best solution: " + this.getStatistics().getResultFitness());
         logger.info("Number of generations: " + this.getStatistics().getIterations());
         logger.info("Number of fitness function invocations: " + this.getStatistics().getFitnessFunctionInvocations());
+        logger.info("Number of incremental fitness function invocations: " + problem.getIncrementalFitnessApplications());
+        logger.info("Number of fitness cache hits: " + this.getStatistics().getFitnessCacheHits());
+        logger.info("Number of fitness cache misses: " + this.getStatistics().getFitnessCacheMisses());
 
     }
 
@@ -191,11 +215,59 @@ public class MOJeneticsOptimization extends JeneticsOptimization<Map<FlightMO, S
                 .toList();
     }
 
-    private EvolutionStream<EnumGene<Integer>,Vec<int[]>> buildEvolutionStream(InternConfig<Vec<int[]>> config, Engine.Builder<EnumGene<Integer>, Vec<int[]>> builder) {
+    /**
+     * Evolves the islands of the island model, each with its own population, evaluator and configuration, on their
+     * own threads, and merges the Pareto sets of the islands into one Pareto set. The first island uses the evaluator
+     * and the problem of the optimization; the other islands evaluate on problems sharing the fitness cache and the
+     * counters.
+     */
+    private ISeq<Phenotype<EnumGene<Integer>, Vec<int[]>>> evolveIslands(IslandModel<Vec<int[]>> islandModel,
+                                                                        MOBatchEvaluator evaluator,
+                                                                        List<MOBatchEvaluator> evaluators,
+                                                                        EvolutionStatistics<Vec<int[]>, ?> statistics) {
+        logger.info("Running {} islands with {} migration.", islandModel.getIslands(), islandModel.getTopology());
+
+        List<ISeq<Phenotype<EnumGene<Integer>, Vec<int[]>>>> paretoSets = islandModel.evolve(island -> {
+            InternConfig<Vec<int[]>> islandConfig = configurationWithoutMissingValues(islandConfiguration(island));
+            MOSlotAllocationProblem islandProblem = island == 0 ? problem : problem.forIsland();
+            MOBatchEvaluator islandEvaluator = evaluator;
+            if(island != 0) {
+                islandEvaluator = createEvaluator(islandProblem);
+                islandEvaluator.setSecondObfuscated(configuration.isSecondObfuscated());
+                islandEvaluator.setIsland(island);
+                evaluators.add(islandEvaluator);
+            }
+
+            // the island runs on its own thread, so that its operators draw from the island's random generator
+            Engine.Builder<EnumGene<Integer>, Vec<int[]>> builder = new Engine.Builder<>(islandEvaluator, islandProblem.codec().encoding())
+                    .executor(Runnable::run);
+
+            builder = deduplicate(builder, island, islandModel.interceptor(island));
+
+            return buildEvolutionStream(islandConfig, builder, islandProblem)
+                    .limit(result -> islandModel.isRunning())
+                    .peek(result -> {
+                        synchronized(statistics) {
+                            statistics.accept(result);
+                        }
+                    })
+                    .collect(MOEA.toParetoSet(IntRange.of(1, 100)));
+        });
+
+        // the Pareto set of the union of the Pareto sets of the islands
+        List<Phenotype<EnumGene<Integer>, Vec<int[]>>> union = new ArrayList<>();
+        paretoSets.forEach(paretoSet -> union.addAll(paretoSet.asList()));
+        return Stream.of(EvolutionResult.of(Optimize.MAXIMUM, ISeq.of(union), 1, EvolutionDurations.ZERO, 0, 0, 0))
+                .collect(MOEA.toParetoSet(IntRange.of(1, 100)));
+    }
+
+    private EvolutionStream<EnumGene<Integer>,Vec<int[]>> buildEvolutionStream(InternConfig<Vec<int[]>> config,
+                                                                               Engine.Builder<EnumGene<Integer>, Vec<int[]>> builder,
+                                                                               MOSlotAllocationProblem problem) {
         Engine<EnumGene<Integer>, Vec<int[]>> engine = builder
                 .optimize(Optimize.MAXIMUM)
                 .populationSize(config.populationSize)
-                .alterers(config.mutator, config.crossover)
+                .alterers(new MutationTracker<>(config.mutator, problem), config.crossover)
                 .offspringSelector(config.offspringSelector)
                 .survivorsSelector(config.survivorsSelector)
                 .maximalPhenotypeAge(config.maximalPhenotypeAge)
@@ -207,7 +279,7 @@ public class MOJeneticsOptimization extends JeneticsOptimization<Map<FlightMO, S
 
         logger.info("Running optimization using Jenetics framework as slot allocation problem ...");
 
-        EvolutionStream<EnumGene<Integer>, Vec<int[]>> stream = engine.stream(config.initialPopulation);
+        EvolutionStream<EnumGene<Integer>, Vec<int[]>> stream = evolutionStream(engine, config.initialPopulation);
 
         for(Predicate<? super EvolutionResult<EnumGene<Integer>, Vec<int[]>>> terminationCondition: config.terminationConditions) {
             stream = stream.limit(terminationCondition);
@@ -311,7 +383,7 @@ public class MOJeneticsOptimization extends JeneticsOptimization<Map<FlightMO, S
         return 0;
     }
 
-    protected MOBatchEvaluator createEvaluator() {
+    protected MOBatchEvaluator createEvaluator(MOSlotAllocationProblem problem) {
         return BatchEvaluatorFactory.getMOEvaluator(getFitnessMethod(), problem, this);
     }
 }
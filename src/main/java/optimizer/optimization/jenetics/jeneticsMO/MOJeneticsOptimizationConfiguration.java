@@ -7,13 +7,14 @@ import optimizer.optimization.jenetics.SlotAllocationProblem;
 import io.jenetics.*;
 import io.jenetics.engine.EvolutionResult;
 import io.jenetics.engine.Limits;
-import io.jenetics.ext.HPRMutator;
-import io.jenetics.ext.RSMutator;
 import io.jenetics.ext.moea.NSGA2Selector;
 import io.jenetics.ext.moea.UFTournamentSelector;
 import io.jenetics.ext.moea.Vec;
 import io.jenetics.util.ISeq;
 import optimizer.optimization.jenetics.jeneticsMO.jeneticsExtensions.ArbitraryMutator;
+import optimizer.optimization.jenetics.jeneticsMO.jeneticsExtensions.ReportingHPRMutator;
+import optimizer.optimization.jenetics.jeneticsMO.jeneticsExtensions.ReportingRSMutator;
+import optimizer.optimization.jenetics.jeneticsMO.jeneticsExtensions.ReportingSwapMutator;
 import optimizer.optimization.jenetics.jeneticsMO.jeneticsExtensions.SPEA2Selector;
 import optimizer.optimization.jenetics.jeneticsMO.jeneticsExtensions.ShiftMutator;
 import optimizer.optimization.jenetics.jeneticsMO.jeneticsExtensions.UniformOderBasedCrossover;
@@ -283,19 +284,19 @@ public class MOJeneticsOptimizationConfiguration extends JeneticsOptimizationCon
                 case "SWAP_MUTATOR":
                     if(alterProbability >= 0) {
                         logger.info("Use swap mutator with alter probability: " + alterProbability);
-                        mutator = new SwapMutator<>(alterProbability);
+                        mutator = new ReportingSwapMutator<>(alterProbability);
                     } else {
                         logger.info("Use swap mutator with default alter probability.");
-                        mutator = new SwapMutator<>();
+                        mutator = new ReportingSwapMutator<>();
                     }
                     break;
                 case "RS_MUTATOR":
                     if(alterProbability >= 0) {
                         logger.info("Use swap mutator with alter probability: " + alterProbability);
-                        mutator = new RSMutator<>(alterProbability);
+                        mutator = new ReportingRSMutator<>(alterProbability);
                     } else {
                         logger.info("Use swap mutator with default alter probability.");
-                        mutator = new RSMutator<>();
+                        mutator = new ReportingRSMutator<>();
                     }
                     break;
                 case "ARBITRARY_MUTATOR":
@@ -319,10 +320,10 @@ public class MOJeneticsOptimizationConfiguration extends JeneticsOptimizationCon
                 case "HYBRID_SWAP_REVERSE_SEQUENCE_MUTATOR":
                     if(alterProbability >= 0) {
                         logger.info("Use a hybrid between swap mutator and reverse sequence mutator with alter probability: " + alterProbability);
-                        mutator = new HPRMutator<>(alterProbability);
+                        mutator = new ReportingHPRMutator<>(alterProbability);
                     } else {
                         logger.info("Use a hybrid between swap mutator and reverse sequence mutator with default alter probability.");
-                        mutator = new HPRMutator<>();
+                        mutator = new ReportingHPRMutator<>();
                     }
                     break;
                 default:
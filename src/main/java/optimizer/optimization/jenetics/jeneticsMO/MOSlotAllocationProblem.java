@@ -1,9 +1,11 @@
 package optimizer.optimization.jenetics.jeneticsMO;
 
 import optimizer.domain.FlightMO;
+import optimizer.domain.ProblemInstance;
 import optimizer.domain.Slot;
 import optimizer.optimization.jenetics.SlotAllocationProblem;
 import io.jenetics.EnumGene;
+import io.jenetics.Genotype;
 import io.jenetics.engine.Codecs;
 import io.jenetics.engine.InvertibleCodec;
 import io.jenetics.ext.moea.Vec;
@@ -11,7 +13,6 @@ import io.jenetics.ext.moea.Vec;
 import java.util.Map;
 import java.util.function.Function;
 
-import io.jenetics.util.ISeq;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -20,33 +21,64 @@ public class MOSlotAllocationProblem extends SlotAllocationProblem<Vec<int[]>, F
 
     private static final Logger logger = LogManager.getLogger();
 
-    public MOSlotAllocationProblem(ISeq<FlightMO> flights,
-                                   ISeq<Slot> availableSlots) {
-        super(flights, availableSlots);
-        logger.debug("Compute weight map for each flight.");
-        Slot[] slotArray = availableSlots.toArray(Slot[]::new);
-        for(FlightMO f : flights) {
-            f.computeWeightMap(slotArray);
-            f.computeSecondWeightMap(slotArray);
-        }
+    public MOSlotAllocationProblem(ProblemInstance instance) {
+        super(instance, 2);
     }
 
+    private MOSlotAllocationProblem(MOSlotAllocationProblem problem) {
+        super(problem);
+    }
+
+    @Override
+    public MOSlotAllocationProblem forIsland() {
+        return new MOSlotAllocationProblem(this);
+    }
+
+    /**
+     * Evaluates both objectives of a decoded assignment in a single pass, reading both weights of each
+     * assignment from the interleaved weight matrix of the instance if available.
+     */
     @Override
     public Function<Map<FlightMO, Slot>, Vec<int[]>> fitness() {
         return slotAllocation -> {
-            fitnessFunctionApplications++;
-            int fitnessAirline = slotAllocation.entrySet().stream()
-                    .map(e -> e.getKey().getWeight(e.getValue()))
-                    .mapToInt(Integer::intValue)
-                    .sum();
-            int fitnessAirport = slotAllocation.entrySet().stream()
-                    .map(e -> e.getKey().getScondWeight(e.getValue()))
-                    .mapToInt(Integer::intValue)
-                    .sum();
+            fitnessFunctionApplications.increment();
+            ProblemInstance instance = getInstance();
+            int[] interleaved = instance.interleavedWeightMatrix();
+            int fitnessAirline = 0;
+            int fitnessAirport = 0;
+            for(Map.Entry<FlightMO, Slot> e : slotAllocation.entrySet()) {
+                int f = instance.indexOf(e.getKey());
+                int j = instance.indexOf(e.getValue());
+                if(interleaved != null) {
+                    int index = (f * instance.getSlotCount() + j) << 1;
+                    fitnessAirline += interleaved[index];
+                    fitnessAirport += interleaved[index + 1];
+                } else {
+                    fitnessAirline += instance.getWeight(f, j);
+                    fitnessAirport += instance.getSecondWeight(f, j);
+                }
+            }
             return Vec.of(fitnessAirline, fitnessAirport);
         };
     }
 
+    /**
+     * Evaluates both objectives in a single pass directly on the allele indices, i.e., without decoding the
+     * genotype to a map; mutated genotypes are evaluated incrementally from their parent's fitness. The fitness
+     * vector is created from the primitive scores without boxing.
+     */
+    @Override
+    public Vec<int[]> fitness(Genotype<EnumGene<Integer>> genotype) {
+        fitnessFunctionApplications.increment();
+
+        return fitness(score(genotype));
+    }
+
+    @Override
+    protected Vec<int[]> fitness(int[] score) {
+        return Vec.of(score[0], score[1]);
+    }
+
     @Override
     public InvertibleCodec<Map<FlightMO, Slot>, EnumGene<Integer>> codec() {
         return Codecs.ofMapping(this.getFlights(), this.getAvailableSlots());
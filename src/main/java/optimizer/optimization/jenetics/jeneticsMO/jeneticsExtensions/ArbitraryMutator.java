@@ -6,14 +6,19 @@ import io.jenetics.Mutator;
 import io.jenetics.MutatorResult;
 import io.jenetics.internal.math.Subset;
 import io.jenetics.util.MSeq;
+import optimizer.optimization.jenetics.MutatedPositions;
+import optimizer.optimization.jenetics.PositionReportingMutator;
 
 import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
 
 public class ArbitraryMutator<
         G extends Gene<?, G>,
         C extends Comparable<? super C>
         >
-        extends Mutator<G, C> {
+        extends Mutator<G, C> implements PositionReportingMutator {
+
+    private final MutatedPositions positions = new MutatedPositions();
 
     public ArbitraryMutator(final double probability) {
         super(probability);
@@ -36,13 +41,23 @@ public class ArbitraryMutator<
 
             genes.subSeq(points[0], points[1]).shuffle();
 
-            result = new MutatorResult<>(
-                    chromosome.newInstance(genes.toISeq()),
-                    points[1] - points[0]
+            result = positions.record(
+                    new MutatorResult<>(chromosome.newInstance(genes.toISeq()), points[1] - points[0]),
+                    IntStream.range(points[0], points[1]).toArray()
             );
         } else {
             result = new MutatorResult<>(chromosome, 0);
         }
         return result;
     }
+
+    @Override
+    public int[] takeMutatedPositions(Chromosome<?> chromosome) {
+        return positions.take(chromosome);
+    }
+
+    @Override
+    public void clearMutatedPositions() {
+        positions.clear();
+    }
 }
@@ -0,0 +1,78 @@
+package optimizer.optimization.jenetics.jeneticsMO.jeneticsExtensions;
+
+import io.jenetics.Chromosome;
+import io.jenetics.Gene;
+import io.jenetics.MutatorResult;
+import io.jenetics.ext.HPRMutator;
+import io.jenetics.internal.math.Probabilities;
+import io.jenetics.internal.math.Subset;
+import io.jenetics.util.MSeq;
+import optimizer.optimization.jenetics.MutatedPositions;
+import optimizer.optimization.jenetics.PositionReportingMutator;
+
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+/**
+ * {@link HPRMutator} that reports the range of the reversed sequence and the positions of the additionally swapped
+ * genes. Draws the same random numbers as the hybrid mutator, i.e., the mutated chromosomes are the same for the
+ * same random generator.
+ */
+public class ReportingHPRMutator<
+        G extends Gene<?, G>,
+        C extends Comparable<? super C>
+        >
+        extends HPRMutator<G, C> implements PositionReportingMutator {
+
+    private final MutatedPositions positions = new MutatedPositions();
+
+    public ReportingHPRMutator(final double probability) {
+        super(probability);
+    }
+
+    public ReportingHPRMutator() {
+        this(DEFAULT_ALTER_PROBABILITY);
+    }
+
+    @Override
+    protected MutatorResult<Chromosome<G>> mutate(
+            final Chromosome<G> chromosome,
+            final double p,
+            final RandomGenerator random
+    ) {
+        if(chromosome.length() <= 1) {
+            return new MutatorResult<>(chromosome, 0);
+        }
+
+        final int P = Probabilities.toInt(p);
+        final int[] points = Subset.next(chromosome.length(), 2, random);
+        final MSeq<G> genes = MSeq.of(chromosome);
+        final IntStream.Builder swapped = IntStream.builder();
+
+        int mutations = (points[1] - points[0] + 1) / 2;
+        for(int i = points[0], j = points[1]; i < j; i++, j--) {
+            genes.swap(i, j);
+            if(random.nextInt() < P) {
+                int k = random.nextInt(chromosome.length());
+                genes.swap(i, k);
+                swapped.add(k);
+                mutations++;
+            }
+        }
+
+        return positions.record(
+                new MutatorResult<>(chromosome.newInstance(genes.toISeq()), mutations),
+                IntStream.concat(IntStream.rangeClosed(points[0], points[1]), swapped.build()).toArray()
+        );
+    }
+
+    @Override
+    public int[] takeMutatedPositions(Chromosome<?> chromosome) {
+        return positions.take(chromosome);
+    }
+
+    @Override
+    public void clearMutatedPositions() {
+        positions.clear();
+    }
+}
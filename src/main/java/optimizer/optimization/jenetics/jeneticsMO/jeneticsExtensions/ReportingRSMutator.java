@@ -0,0 +1,64 @@
+package optimizer.optimization.jenetics.jeneticsMO.jeneticsExtensions;
+
+import io.jenetics.Chromosome;
+import io.jenetics.Gene;
+import io.jenetics.MutatorResult;
+import io.jenetics.ext.RSMutator;
+import io.jenetics.internal.math.Subset;
+import io.jenetics.util.MSeq;
+import optimizer.optimization.jenetics.MutatedPositions;
+import optimizer.optimization.jenetics.PositionReportingMutator;
+
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+/**
+ * {@link RSMutator} that reports the range of the reversed sequence. Draws the same random numbers as the reverse
+ * sequence mutator, i.e., the mutated chromosomes are the same for the same random generator.
+ */
+public class ReportingRSMutator<
+        G extends Gene<?, G>,
+        C extends Comparable<? super C>
+        >
+        extends RSMutator<G, C> implements PositionReportingMutator {
+
+    private final MutatedPositions positions = new MutatedPositions();
+
+    public ReportingRSMutator(final double probability) {
+        super(probability);
+    }
+
+    public ReportingRSMutator() {
+        this(DEFAULT_ALTER_PROBABILITY);
+    }
+
+    @Override
+    protected MutatorResult<Chromosome<G>> mutate(
+            final Chromosome<G> chromosome,
+            final double p,
+            final RandomGenerator random
+    ) {
+        if(chromosome.length() <= 1) {
+            return new MutatorResult<>(chromosome, 0);
+        }
+
+        final int[] points = Subset.next(chromosome.length() + 1, 2, random);
+        final MSeq<G> genes = MSeq.of(chromosome);
+        genes.subSeq(points[0], points[1]).reverse();
+
+        return positions.record(
+                new MutatorResult<>(chromosome.newInstance(genes.toISeq()), points[1] - points[0] - 1),
+                IntStream.range(points[0], points[1]).toArray()
+        );
+    }
+
+    @Override
+    public int[] takeMutatedPositions(Chromosome<?> chromosome) {
+        return positions.take(chromosome);
+    }
+
+    @Override
+    public void clearMutatedPositions() {
+        positions.clear();
+    }
+}
@@ -0,0 +1,70 @@
+package optimizer.optimization.jenetics.jeneticsMO.jeneticsExtensions;
+
+import io.jenetics.Chromosome;
+import io.jenetics.Gene;
+import io.jenetics.MutatorResult;
+import io.jenetics.SwapMutator;
+import io.jenetics.internal.math.Randoms;
+import io.jenetics.util.MSeq;
+import optimizer.optimization.jenetics.MutatedPositions;
+import optimizer.optimization.jenetics.PositionReportingMutator;
+
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+/**
+ * {@link SwapMutator} that reports the positions of the swapped genes. Draws the same random numbers as the swap
+ * mutator, i.e., the mutated chromosomes are the same for the same random generator.
+ */
+public class ReportingSwapMutator<
+        G extends Gene<?, G>,
+        C extends Comparable<? super C>
+        >
+        extends SwapMutator<G, C> implements PositionReportingMutator {
+
+    private final MutatedPositions positions = new MutatedPositions();
+
+    public ReportingSwapMutator(final double probability) {
+        super(probability);
+    }
+
+    public ReportingSwapMutator() {
+        this(DEFAULT_ALTER_PROBABILITY);
+    }
+
+    @Override
+    protected MutatorResult<Chromosome<G>> mutate(
+            final Chromosome<G> chromosome,
+            final double p,
+            final RandomGenerator random
+    ) {
+        if(chromosome.length() <= 1) {
+            return new MutatorResult<>(chromosome, 0);
+        }
+
+        final MSeq<G> genes = MSeq.of(chromosome);
+        final IntStream.Builder swapped = IntStream.builder();
+        final int mutations = (int) Randoms.indexes(random, genes.length(), p)
+                .peek(i -> {
+                    int j = random.nextInt(genes.length());
+                    genes.swap(i, j);
+                    swapped.add(i).add(j);
+                })
+                .count();
+
+        return positions.record(
+                new MutatorResult<>(chromosome.newInstance(genes.toISeq()), mutations),
+                swapped.build().toArray()
+        );
+    }
+
+    @Override
+    public int[] takeMutatedPositions(Chromosome<?> chromosome) {
+        return positions.take(chromosome);
+    }
+
+    @Override
+    public void clearMutatedPositions() {
+        positions.clear();
+    }
+}
@@ -0,0 +1,80 @@
+package optimizer.optimization.jenetics.jeneticsSO;
+
+import optimizer.domain.Flight;
+import optimizer.domain.Slot;
+import io.jenetics.EnumGene;
+import io.jenetics.Genotype;
+import io.jenetics.Phenotype;
+import io.jenetics.util.ISeq;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Snapshot of the results of an optimization run, holding the immutable genotypes and their fitness values. The
+ * genotypes are only decoded into assignments of flights to slots when the results are requested, and the decoded
+ * assignments are kept for subsequent requests, so that taking a snapshot in every improving generation is cheap.
+ */
+public final class ResultSnapshot {
+    private final ISeq<Genotype<EnumGene<Integer>>> genotypes;
+    private final int[] fitness;
+
+    private volatile List<Map<Flight, Slot>> decoded;
+
+    private ResultSnapshot(ISeq<Genotype<EnumGene<Integer>>> genotypes, int[] fitness) {
+        this.genotypes = genotypes;
+        this.fitness = fitness;
+    }
+
+    /**
+     * @param phenotypes the result individuals in the order of the results
+     * @return a snapshot of the genotypes and the fitness values of the individuals
+     */
+    public static ResultSnapshot of(List<Phenotype<EnumGene<Integer>, Integer>> phenotypes) {
+        Genotype<EnumGene<Integer>>[] genotypes = newArray(phenotypes.size());
+        int[] fitness = new int[phenotypes.size()];
+
+        for(int i = 0; i < genotypes.length; i++) {
+            genotypes[i] = phenotypes.get(i).genotype();
+            fitness[i] = phenotypes.get(i).fitness();
+        }
+
+        return new ResultSnapshot(ISeq.of(genotypes), fitness);
+    }
+
+    public int size() {
+        return genotypes.size();
+    }
+
+    public Genotype<EnumGene<Integer>> getGenotype(int i) {
+        return genotypes.get(i);
+    }
+
+    /**
+     * @return the fitness of the i-th result when the snapshot has been taken; an estimation in privacy-preserving mode
+     */
+    public int getFitness(int i) {
+        return fitness[i];
+    }
+
+    /**
+     * Decodes the genotypes on the first request; concurrent first requests may decode twice, but always yield equal
+     * assignments.
+     * @param decoder the decoder of the slot allocation problem
+     * @return the assignments of flights to slots in the order of the results
+     */
+    public List<Map<Flight, Slot>> decode(Function<? super Genotype<EnumGene<Integer>>, Map<Flight, Slot>> decoder) {
+        List<Map<Flight, Slot>> assignments = decoded;
+        if(assignments == null) {
+            assignments = genotypes.stream().<Map<Flight, Slot>>map(decoder).toList();
+            decoded = assignments;
+        }
+        return assignments;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Genotype<EnumGene<Integer>>[] newArray(int length) {
+        return (Genotype<EnumGene<Integer>>[]) new Genotype[length];
+    }
+}
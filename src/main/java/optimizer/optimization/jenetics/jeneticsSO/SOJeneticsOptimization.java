@@ -5,12 +5,17 @@ import optimizer.domain.Flight;
 import optimizer.domain.Slot;
 import optimizer.optimization.FitnessMethod;
 import optimizer.optimization.jenetics.JeneticsOptimization;
+import optimizer.optimization.jenetics.FitnessCache;
+import optimizer.optimization.jenetics.IslandModel;
+import optimizer.optimization.jenetics.MutationTracker;
+import optimizer.optimization.jenetics.UniquePopulationIndex;
 import optimizer.optimization.OptimizationMode;
 import optimizer.optimization.evaluation.SOBatchEvaluator;
 import optimizer.optimization.evaluation.BatchEvaluatorFactory;
 import io.jenetics.EnumGene;
 import io.jenetics.Optimize;
 import io.jenetics.Phenotype;
+import io.jenetics.TruncationSelector;
 import io.jenetics.engine.*;
 import io.jenetics.util.ISeq;
 import io.jenetics.util.Seq;
@@ -33,17 +38,17 @@ public class SOJeneticsOptimization extends JeneticsOptimization<Map<Flight, Slo
     private static final Logger logger = LogManager.getLogger();
 
     private int fitnessPrecision = Integer.MIN_VALUE;
-    private List<Map<Flight, Slot>> results;
+    /**
+     * The results, set whenever the best fitness improves and at the end of the run; decoded on request.
+     */
+    private volatile ResultSnapshot results;
 
     private List<Integer> fitnessValuesResults = null;
 
     public SOJeneticsOptimization(Flight[] flights, Slot[] slots) {
         super(flights, slots);
         this.statistics = new SOJeneticsOptimizationStatistics();
-        this.problem = new SOSlotAllocationProblem(
-                ISeq.of(this.getFlights()),
-                ISeq.of(this.getSlots())
-        );
+        this.problem = new SOSlotAllocationProblem(this.getInstance());
         logger.info("Slot allocation problem initialized.");
     }
 
@@ -54,7 +59,8 @@ public class SOJeneticsOptimization extends JeneticsOptimization<Map<Flight, Slo
 
     @Override
     public OptimizationResultDTO[] getResultDTO(int noOfSolutions) {
-        Map<Flight, Slot>[] resultMaps = this.getResults().toArray(Map[]::new);
+        List<Map<Flight, Slot>> results = this.getResults();
+        Map<Flight, Slot>[] resultMaps = results != null ? results.toArray(Map[]::new) : null;
         List<OptimizationResultDTO> resultsDTOs = new LinkedList<>();
 
         if(resultMaps != null) {
@@ -65,7 +71,7 @@ public class SOJeneticsOptimization extends JeneticsOptimization<Map<Flight, Slo
                 logger.info("Checking if result " + i + " is invalid ...");
                 int invalidCount = 0;
                 for (Flight f : resultMap.keySet()) {
-                    if (f.getScheduledTime() != null && f.getScheduledTime().isAfter(resultMap.get(f).getTime())) {
+                    if (!this.getInstance().isFeasible(f, resultMap.get(f))) {
                         invalidCount++;
                         logger.info("Flight " + f.getFlightId() + " with scheduled time " + f.getScheduledTime() +" at Slot " + resultMap.get(f).getTime());
                     }
@@ -102,7 +108,7 @@ public class SOJeneticsOptimization extends JeneticsOptimization<Map<Flight, Slo
         InternConfig<Integer> config = configurationWithoutMissingValues();
 
         if(this.statistics.getFitnessEvolution() != null)  {
-            this.statistics.getFitnessEvolution().clear();
+            this.statistics.setFitnessEvolution(newFitnessEvolutionTrace());
             logger.info("Cleared fitness evolution.");
         }
 
@@ -111,124 +117,140 @@ public class SOJeneticsOptimization extends JeneticsOptimization<Map<Flight, Slo
 
         logger.info("Build the genetic algorithm engine.");
 
-        SOBatchEvaluator evaluator = createEvaluator();
+        problem.setFitnessCache(new FitnessCache(config.fitnessCacheSize));
+        this.setClearFitnessCache(new FitnessCache(config.fitnessCacheSize));
+        this.setUniquePopulationIndex(new UniquePopulationIndex(this.getInstance(), this.getConfiguration().getDeduplicateMaxRetries()));
+        logger.info("Fitness kernel: " + problem.getKernel());
 
-        Engine.Builder<EnumGene<Integer>, Integer> builder = new Engine.Builder<>(evaluator, problem.codec().encoding());
+        SOBatchEvaluator evaluator = createEvaluator(problem);
 
-        builder = deduplicate(builder);
+        // the evaluators of all islands, whose thread pools are shut down however the run ends
+        List<SOBatchEvaluator> evaluators = Collections.synchronizedList(new ArrayList<>(List.of(evaluator)));
+        try {
+            EvolutionStatistics<Integer, ?> statistics = EvolutionStatistics.ofNumber();
 
-        EvolutionStatistics<Integer, ?> statistics = EvolutionStatistics.ofNumber();
+            IslandModel<Integer> islandModel = newIslandModel(new TruncationSelector<EnumGene<Integer>, Integer>());
 
-        EvolutionStream<EnumGene<Integer>, Integer> stream = buildEvolutionStream(config, builder);
+            EvolutionResult<EnumGene<Integer>, Integer> result;
+            if(islandModel == null) {
+                Engine.Builder<EnumGene<Integer>, Integer> builder = new Engine.Builder<>(evaluator, problem.codec().encoding());
 
-        this.getStatistics().setTimeStarted(LocalDateTime.now()); // set the begin time in the statistics
+                builder = deduplicate(builder);
 
-        EvolutionResult<EnumGene<Integer>, Integer> result = stream
-                .peek(statistics)
-                .collect(EvolutionResult.toBestEvolutionResult());
+                EvolutionStream<EnumGene<Integer>, Integer> stream = buildEvolutionStream(config, builder, problem);
 
-        logResult(result);
+                this.getStatistics().setTimeStarted(LocalDateTime.now()); // set the begin time in the statistics
 
-        result = removeInvalidSolutions(result);
+                result = stream
+                        .peek(statistics)
+                        .collect(EvolutionResult.toBestEvolutionResult());
+            } else {
+                this.getStatistics().setTimeStarted(LocalDateTime.now()); // set the begin time in the statistics
 
-        if(result.bestFitness() > 0) { // for invalid solutions, the devalued fitness will be returned
-            if (this.getMode() == OptimizationMode.NON_PRIVACY_PRESERVING ||
-                    this.getMode() == OptimizationMode.DEMONSTRATION ||
-                    this.getMode() == OptimizationMode.BENCHMARKING) {
-                List<Phenotype<EnumGene<Integer>, Integer>> evaluatedResultGeneration = result.population()
-                        .stream()
-                        .map(phenotype -> phenotype.withFitness(problem.fitness(phenotype.genotype())))
-                        .sorted(Comparator.comparingInt(Phenotype::fitness))
-                        .sorted(Comparator.reverseOrder())
-                        .collect(Collectors.toList());
+                result = evolveIslands(islandModel, evaluator, evaluators, statistics);
+            }
 
-                result = setEvaluatedResult(result, evaluatedResultGeneration);
+            logResult(result);
 
-                logger.info("Setting fitness values of distinct, evaluated population.");
-                var distinctIndividualFitnessValues = result.population()
-                        .stream()
-                        .map(Phenotype::genotype)
-                        .distinct()
-                        .map(problem::fitness)
-                        .sorted(Comparator.reverseOrder())
-                        .collect(Collectors.toList());
+            result = removeInvalidSolutions(result);
 
-                this.setFitnessValuesResults(distinctIndividualFitnessValues);
-            } else{
-                if(getFitnessMethod() != FitnessMethod.ACTUAL_VALUES){
-                    logger.debug("Running in privacy-preserving mode. Evaluating the last generation with actual values.");
-                    var seq = Seq.of(result.population());
-                    Integer[] fitnessValues = this.getPrivacyEngineService().computeActualFitnessValues(this, evaluator.convertPopulationToArray(seq));
-
-                    EvolutionResult<EnumGene<Integer>, Integer> finalResult = result;
-                    List<Phenotype<EnumGene<Integer>, Integer>> evaluatedResultGeneration = IntStream
-                            .range(0, fitnessValues.length)
-                            .mapToObj(i -> finalResult.population().get(i).withFitness(fitnessValues[i]))
+            if(result.bestFitness() > 0) { // for invalid solutions, the devalued fitness will be returned
+                if (this.getMode() == OptimizationMode.NON_PRIVACY_PRESERVING ||
+                        this.getMode() == OptimizationMode.DEMONSTRATION ||
+                        this.getMode() == OptimizationMode.BENCHMARKING) {
+                    List<Phenotype<EnumGene<Integer>, Integer>> evaluatedResultGeneration = result.population()
+                            .stream()
+                            .map(phenotype -> phenotype.withFitness(problem.fitness(phenotype.genotype())))
+                            .sorted(Comparator.comparingInt(Phenotype::fitness))
+                            .sorted(Comparator.reverseOrder())
                             .collect(Collectors.toList());
 
                     result = setEvaluatedResult(result, evaluatedResultGeneration);
+
+                    logger.info("Setting fitness values of distinct, evaluated population.");
+                    var distinctIndividualFitnessValues = result.population()
+                            .stream()
+                            .map(Phenotype::genotype)
+                            .distinct()
+                            .map(problem::fitness)
+                            .sorted(Comparator.reverseOrder())
+                            .collect(Collectors.toList());
+
+                    this.setFitnessValuesResults(distinctIndividualFitnessValues);
+                } else{
+                    if(getFitnessMethod() != FitnessMethod.ACTUAL_VALUES){
+                        logger.debug("Running in privacy-preserving mode. Evaluating the last generation with actual values.");
+                        var seq = Seq.of(result.population());
+                        Integer[] fitnessValues = evaluator.computeActualFitnessValues(seq);
+
+                        EvolutionResult<EnumGene<Integer>, Integer> finalResult = result;
+                        List<Phenotype<EnumGene<Integer>, Integer>> evaluatedResultGeneration = IntStream
+                                .range(0, fitnessValues.length)
+                                .mapToObj(i -> finalResult.population().get(i).withFitness(fitnessValues[i]))
+                                .collect(Collectors.toList());
+
+                        result = setEvaluatedResult(result, evaluatedResultGeneration);
+                    }
+                    logger.info("Setting fitness values of distinct, evaluated population.");
+                    var fitnessValueResults = result.population()
+                            .stream()
+                            .filter(distinctByAttribute(Phenotype::genotype))
+                            .map(Phenotype::fitness)
+                            .sorted(Comparator.reverseOrder())
+                            .toList();
+
+                    this.setFitnessValuesResults(fitnessValueResults);
                 }
-                logger.info("Setting fitness values of distinct, evaluated population.");
-                var fitnessValueResults = result.population()
-                        .stream()
-                        .filter(distinctByAttribute(Phenotype::genotype))
-                        .map(Phenotype::fitness)
-                        .sorted(Comparator.reverseOrder())
-                        .toList();
-
-                this.setFitnessValuesResults(fitnessValueResults);
+            } else{
+                logger.info("No actual fitness values will be calculated, as the result contains no valid solutions");
             }
-        } else{
-            logger.info("No actual fitness values will be calculated, as the result contains no valid solutions");
-        }
 
-        Map<Flight, Slot> resultMap = problem.decode(result.bestPhenotype().genotype());
+            Map<Flight, Slot> resultMap = problem.decode(result.bestPhenotype().genotype());
 
-        if(logger.isDebugEnabled()) {
-            logger.debug("Checking if solution is valid ...");
+            if(logger.isDebugEnabled()) {
+                logger.debug("Checking if solution is valid ...");
 
-            int invalidCount = 0;
-            for (Flight f : resultMap.keySet()) {
-                if (f.getScheduledTime() != null && f.getScheduledTime().isAfter(resultMap.get(f).getTime())) {
-                    invalidCount++;
-                    logger.debug("Flight " + f.getFlightId() + " with scheduled time " + f.getScheduledTime() +" at Slot " + resultMap.get(f).getTime());
-                }
+                int invalidCount = 0;
+                for (Flight f : resultMap.keySet()) {
+                    if (!this.getInstance().isFeasible(f, resultMap.get(f))) {
+                        invalidCount++;
+                        logger.debug("Flight " + f.getFlightId() + " with scheduled time " + f.getScheduledTime() +" at Slot " + resultMap.get(f).getTime());
+                    }
 
-                if(invalidCount > 0) {
-                    logger.debug("Solution is invalid. Number of invalid assignments: " + invalidCount);
-                } else {
-                    logger.debug("Solution is valid.");
+                    if(invalidCount > 0) {
+                        logger.debug("Solution is invalid. Number of invalid assignments: " + invalidCount);
+                    } else {
+                        logger.debug("Solution is valid.");
+                    }
                 }
             }
-        }
 
-        logger.info("Statistics: \n" + statistics);
-        logger.info("Printing statistics from BatchEvaluator");
-        evaluator.printLogs();
-
-        setAndPrintStatistics(statistics, result, problem);
-
-        // set the results
-        List<Map<Flight, Slot>> resultList =
-                result.population().stream()
-                        .sorted(Comparator.comparingInt(Phenotype::fitness))
-                        .sorted(Comparator.reverseOrder())
-                        .map(Phenotype::genotype)
-                        .distinct()
-                        .map(problem::decode)
-                        .toList();
-
-        logger.info("Saving {} distinct results.", resultList.size());
-        this.setResults(resultList);
-
-        logger.info("Converting result population to the format required by the PE.");
-        Integer[][] resultListConverted = evaluator.convertPopulationToArray(ISeq.of(result.population().stream()
-                .filter(distinctByAttribute(Phenotype::genotype))
-                .sorted(Comparator.comparingInt(Phenotype::fitness))
-                .sorted(Comparator.reverseOrder())
-                .collect(Collectors.toList())));
-
-        return resultMap;
+            logger.info("Statistics: \n" + statistics);
+            logger.info("Printing statistics from BatchEvaluator");
+            for(SOBatchEvaluator islandEvaluator : evaluators) {
+                islandEvaluator.printLogs();
+            }
+
+            setAndPrintStatistics(statistics, result, problem);
+
+            // set the results
+            ResultSnapshot resultSnapshot = ResultSnapshot.of(
+                    result.population().stream()
+                            .sorted(Comparator.comparingInt(Phenotype::fitness))
+                            .sorted(Comparator.reverseOrder())
+                            .filter(distinctByAttribute(Phenotype::genotype))
+                            .toList());
+
+            logger.info("Saving {} distinct results.", resultSnapshot.size());
+            this.setResults(resultSnapshot);
+
+            return resultMap;
+        } finally {
+            synchronized(evaluators) {
+                evaluators.forEach(SOBatchEvaluator::shutdown);
+            }
+            shutdownPipelineExecutor();
+        }
     }
 
     @Override
@@ -236,11 +258,52 @@ public class SOJeneticsOptimization extends JeneticsOptimization<Map<Flight, Slo
         return null;
     }
 
-    private EvolutionStream<EnumGene<Integer>, Integer> buildEvolutionStream(InternConfig<Integer> config, Engine.Builder<EnumGene<Integer>, Integer> builder) {
+    /**
+     * Evolves the islands of the island model, each with its own population, evaluator and configuration, on their
+     * own threads, and merges their final populations into one result. The first island uses the evaluator and the
+     * problem of the optimization; the other islands evaluate on problems sharing the fitness cache and the counters.
+     */
+    private EvolutionResult<EnumGene<Integer>, Integer> evolveIslands(IslandModel<Integer> islandModel,
+                                                                      SOBatchEvaluator evaluator,
+                                                                      List<SOBatchEvaluator> evaluators,
+                                                                      EvolutionStatistics<Integer, ?> statistics) {
+        logger.info("Running {} islands with {} migration.", islandModel.getIslands(), islandModel.getTopology());
+
+        List<EvolutionResult<EnumGene<Integer>, Integer>> results = islandModel.evolve(island -> {
+            InternConfig<Integer> islandConfig = configurationWithoutMissingValues(islandConfiguration(island));
+            SOSlotAllocationProblem islandProblem = island == 0 ? problem : problem.forIsland();
+            SOBatchEvaluator islandEvaluator = island == 0 ? evaluator : createEvaluator(islandProblem);
+            if(island != 0) {
+                islandEvaluator.setIsland(island);
+                evaluators.add(islandEvaluator);
+            }
+
+            // the island runs on its own thread, so that its operators draw from the island's random generator
+            Engine.Builder<EnumGene<Integer>, Integer> builder = new Engine.Builder<>(islandEvaluator, islandProblem.codec().encoding())
+                    .executor(Runnable::run);
+
+            builder = deduplicate(builder, island, islandModel.interceptor(island));
+
+            return buildEvolutionStream(islandConfig, builder, islandProblem)
+                    .limit(result -> islandModel.isRunning())
+                    .peek(result -> {
+                        synchronized(statistics) {
+                            statistics.accept(result);
+                        }
+                    })
+                    .collect(EvolutionResult.toBestEvolutionResult());
+        });
+
+        return IslandModel.merge(results);
+    }
+
+    private EvolutionStream<EnumGene<Integer>, Integer> buildEvolutionStream(InternConfig<Integer> config,
+                                                                             Engine.Builder<EnumGene<Integer>, Integer> builder,
+                                                                             SOSlotAllocationProblem problem) {
         Engine<EnumGene<Integer>, Integer> engine = builder
                 .optimize(Optimize.MAXIMUM)
                 .populationSize(config.populationSize)
-                .alterers(config.mutator, config.crossover)
+                .alterers(new MutationTracker<>(config.mutator, problem), config.crossover)
                 .offspringSelector(config.offspringSelector)
                 .survivorsSelector(config.survivorsSelector)
                 .maximalPhenotypeAge(config.maximalPhenotypeAge)
@@ -252,7 +315,7 @@ public class SOJeneticsOptimization extends JeneticsOptimization<Map<Flight, Slo
 
         logger.info("Running optimization using Jenetics framework as slot allocation problem ...");
 
-        EvolutionStream<EnumGene<Integer>, Integer> stream = engine.stream(config.initialPopulation);
+        EvolutionStream<EnumGene<Integer>, Integer> stream = evolutionStream(engine, config.initialPopulation);
 
         for(Predicate<? super EvolutionResult<EnumGene<Integer>, Integer>> terminationCondition: config.terminationConditions) {
             stream = stream.limit(terminationCondition);
@@ -280,12 +343,9 @@ public class SOJeneticsOptimization extends JeneticsOptimization<Map<Flight, Slo
         List<Phenotype<EnumGene<Integer>, Integer>> validSolutions = result.population()
                 .stream()
                 .filter(phenotype -> {
-                    Map<Flight, Slot> decodedGenotype = problem.decode(phenotype.genotype());
-                    for(Map.Entry<Flight, Slot> entry : decodedGenotype.entrySet()){
-                        if(entry.getKey().getScheduledTime() != null && entry.getKey().getScheduledTime().isAfter(entry.getValue().getTime())){
-                            invalidPhenotypeCount.getAndIncrement();
-                            return false;
-                        }
+                    if(!problem.isValid(phenotype.genotype())){
+                        invalidPhenotypeCount.getAndIncrement();
+                        return false;
                     }
                     return true;
                 })
@@ -360,11 +420,19 @@ public class SOJeneticsOptimization extends JeneticsOptimization<Map<Flight, Slo
         this.fitnessValuesResults = fitnessValuesResults;
     }
 
+    /**
+     * @return the results decoded into assignments of flights to slots, or null if there are no results yet
+     */
     public List<Map<Flight, Slot>> getResults() {
+        ResultSnapshot snapshot = this.results;
+        return snapshot != null ? snapshot.decode(problem::decode) : null;
+    }
+
+    public ResultSnapshot getResultSnapshot() {
         return results;
     }
 
-    public void setResults(List<Map<Flight, Slot>> results) {
+    public void setResults(ResultSnapshot results) {
         this.results = results;
     }
 
@@ -376,6 +444,8 @@ public class SOJeneticsOptimization extends JeneticsOptimization<Map<Flight, Slo
         this.getStatistics().setResultFitness(result.bestPhenotype().fitness());
         this.getStatistics().setIterations((int) statistics.altered().count());
         this.getStatistics().setFitnessFunctionInvocations(problem.getFitnessFunctionApplications());
+        this.getStatistics().setFitnessCacheHits(problem.getFitnessCache().getHits());
+        this.getStatistics().setFitnessCacheMisses(problem.getFitnessCache().getMisses());
         this.getStatistics().setSolutionGeneration(resultFitness);
         if(resultFitness > this.statistics.getMaximumFitness()) {
             this.statistics.setMaximumFitness(resultFitness);
@@ -384,6 +454,9 @@ public class SOJeneticsOptimization extends JeneticsOptimization<Map<Flight, Slo
         logger.info("Fitness of best solution: " + this.getStatistics().getResultFitness());
         logger.info("Number of generations: " + this.getStatistics().getIterations());
         logger.info("Number of fitness function invocations: " + this.getStatistics().getFitnessFunctionInvocations());
+        logger.info("Number of incremental fitness function invocations: " + problem.getIncrementalFitnessApplications());
+        logger.info("Number of fitness cache hits: " + this.getStatistics().getFitnessCacheHits());
+        logger.info("Number of fitness cache misses: " + this.getStatistics().getFitnessCacheMisses());
         logger.info("Generation of best solution: " + this.getStatistics().getSolutionGeneration());
     }
 
@@ -402,7 +475,7 @@ public class SOJeneticsOptimization extends JeneticsOptimization<Map<Flight, Slo
         );
     }
 
-    protected SOBatchEvaluator createEvaluator() {
+    protected SOBatchEvaluator createEvaluator(SOSlotAllocationProblem problem) {
         return BatchEvaluatorFactory.getSOEvaluator(getFitnessMethod(), problem, this);
     }
 }
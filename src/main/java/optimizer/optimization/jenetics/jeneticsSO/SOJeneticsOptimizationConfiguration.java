@@ -4,11 +4,12 @@ import optimizer.domain.Flight;
 import optimizer.domain.Slot;
 import optimizer.optimization.jenetics.SlotAllocationProblem;
 import optimizer.optimization.jenetics.JeneticsOptimizationConfiguration;
+import optimizer.optimization.jenetics.jeneticsMO.jeneticsExtensions.ReportingHPRMutator;
+import optimizer.optimization.jenetics.jeneticsMO.jeneticsExtensions.ReportingRSMutator;
+import optimizer.optimization.jenetics.jeneticsMO.jeneticsExtensions.ReportingSwapMutator;
 import io.jenetics.*;
 import io.jenetics.engine.EvolutionResult;
 import io.jenetics.engine.Limits;
-import io.jenetics.ext.HPRMutator;
-import io.jenetics.ext.RSMutator;
 import io.jenetics.util.ISeq;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -280,28 +281,28 @@ public class SOJeneticsOptimizationConfiguration extends JeneticsOptimizationCon
                 case "SWAP_MUTATOR":
                     if(alterProbability >= 0) {
                         logger.info("Use swap mutator with alter probability: " + alterProbability);
-                        mutator = new SwapMutator<>(alterProbability);
+                        mutator = new ReportingSwapMutator<>(alterProbability);
                     } else {
                         logger.info("Use swap mutator with default alter probability.");
-                        mutator = new SwapMutator<>();
+                        mutator = new ReportingSwapMutator<>();
                     }
                     break;
                 case "REVERSE_SEQUENCE_MUTATOR":
                     if(alterProbability >= 0) {
                         logger.info("Use reverse sequence mutator with alter probability: " + alterProbability);
-                        mutator = new RSMutator<>(alterProbability);
+                        mutator = new ReportingRSMutator<>(alterProbability);
                     } else {
                         logger.info("Use reverse sequence mutator with default alter probability.");
-                        mutator = new RSMutator<>();
+                        mutator = new ReportingRSMutator<>();
                     }
                     break;
                 case "HYBRID_SWAP_REVERSE_SEQUENCE_MUTATOR":
                     if(alterProbability >= 0) {
                         logger.info("Use a hybrid between swap mutator and reverse sequence mutator with alter probability: " + alterProbability);
-                        mutator = new HPRMutator<>(alterProbability);
+                        mutator = new ReportingHPRMutator<>(alterProbability);
                     } else {
                         logger.info("Use a hybrid between swap mutator and reverse sequence mutator with default alter probability.");
-                        mutator = new HPRMutator<>();
+                        mutator = new ReportingHPRMutator<>();
                     }
                     break;
                 default:
@@ -1,12 +1,13 @@
 package optimizer.optimization.jenetics.jeneticsSO;
 
 import optimizer.domain.Flight;
+import optimizer.domain.ProblemInstance;
 import optimizer.domain.Slot;
 import optimizer.optimization.jenetics.SlotAllocationProblem;
 import io.jenetics.EnumGene;
+import io.jenetics.Genotype;
 import io.jenetics.engine.Constraint;
 import io.jenetics.engine.RetryConstraint;
-import io.jenetics.util.ISeq;
 
 import java.util.Map;
 import java.util.Optional;
@@ -18,49 +19,49 @@ import org.apache.logging.log4j.Logger;
 public class SOSlotAllocationProblem extends SlotAllocationProblem<Integer, Flight> {
 	private static final Logger logger = LogManager.getLogger();
 
-	public SOSlotAllocationProblem(ISeq<Flight> flights, ISeq<Slot> availableSlots) {
-		super(flights, availableSlots);
+	public SOSlotAllocationProblem(ProblemInstance instance) {
+		super(instance, 1);
+	}
+
+	private SOSlotAllocationProblem(SOSlotAllocationProblem problem) {
+		super(problem);
+	}
 
-		logger.debug("Compute weight map for each flight.");
-		Slot[] slotArray = availableSlots.toArray(Slot[]::new);
-		for(Flight f : flights) {
-			try {
-				f.computeWeightMap(slotArray);
-			} catch (Exception e) {
-				e.getMessage();
-			}
-		}
+	@Override
+	public SOSlotAllocationProblem forIsland() {
+		return new SOSlotAllocationProblem(this);
 	}
 	
     @Override
     public Function<Map<Flight, Slot>, Integer> fitness() {
         return slotAllocation -> {
-			fitnessFunctionApplications++;
+			fitnessFunctionApplications.increment();
 
-			return slotAllocation.keySet().stream()
-					.map(f -> f.getWeight(slotAllocation.get(f)))
-					.mapToInt(Integer::intValue)
+			ProblemInstance instance = getInstance();
+			return slotAllocation.entrySet().stream()
+					.mapToInt(e -> instance.getWeight(instance.indexOf(e.getKey()), instance.indexOf(e.getValue())))
 					.sum();
 		};
     }
     
+    /**
+     * Evaluates the genotype directly on the allele indices, i.e., without decoding it to a map; mutated
+     * genotypes are evaluated incrementally from their parent's fitness.
+     */
     @Override
-    public Optional<Constraint<EnumGene<Integer>, Integer>> constraint() {
-		return Optional.of(
-				RetryConstraint.of(
-						codec(),
-						flightSlotMap -> {
-							for(Map.Entry<Flight, Slot> e : flightSlotMap.entrySet()) {
-								if(e.getKey().getScheduledTime() != null &&
-										e.getKey().getScheduledTime().isAfter(e.getValue().getTime())) {
-									return false;
-								}
-							}
+    public Integer fitness(Genotype<EnumGene<Integer>> genotype) {
+		fitnessFunctionApplications.increment();
+		return fitness(score(genotype));
+    }
 
-							return true;
-						}
-				)
-		);
+    @Override
+    protected Integer fitness(int[] score) {
+		return score[0];
+    }
+
+    @Override
+    public Optional<Constraint<EnumGene<Integer>, Integer>> constraint() {
+		return Optional.of(RetryConstraint.of(phenotype -> isValid(phenotype.genotype())));
     }
 
 }
@@ -4,7 +4,9 @@ import com.optimization.data.optimizer.service.dto.OptimizationDTO;
 import com.optimization.data.optimizer.service.dto.OptimizationResultDTO;
 import com.optimization.data.optimizer.service.dto.OptimizationStatisticsDTO;
 import com.optimization.data.optimizer.service.dto.OptimizationStatusEnum;
+import optimizer.optimization.jenetics.FitnessEvolutionTrace;
 import optimizer.service.OptimizationService;
+import optimizer.service.client.PrivacyEngineClientInterceptor;
 import io.swagger.annotations.*;
 
 import org.apache.logging.log4j.LogManager;
@@ -13,8 +15,14 @@ import org.apache.logging.log4j.Logger;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.Future;
 
@@ -28,9 +36,11 @@ public class OptimizationEndpoint {
     private static final Logger logger = LogManager.getLogger();
 
     private final OptimizationService optimizationService;
+    private final PrivacyEngineClientInterceptor privacyEngineClient;
 
-    public OptimizationEndpoint(OptimizationService optimizationService) {
+    public OptimizationEndpoint(OptimizationService optimizationService, PrivacyEngineClientInterceptor privacyEngineClient) {
         this.optimizationService = optimizationService;
+        this.privacyEngineClient = privacyEngineClient;
     }
 
     @ApiOperation(
@@ -266,6 +276,29 @@ public class OptimizationEndpoint {
         return response;
     }
 
+    @ApiOperation(value = "Stream the fitness evolution of a specific optimization as CSV, with one line per traced fitness value.")
+    @GetMapping(path = "/optimizations/{optId}/stats/fitnessEvolution", produces = "text/csv")
+    @ApiResponses(
+            value = {
+                    @ApiResponse(code = 200, message = "OK"),
+                    @ApiResponse(code = 404, message = "Not Found; optimization does not exist or does not trace its fitness evolution")
+            }
+    )
+    public ResponseEntity<StreamingResponseBody> getFitnessEvolution(@PathVariable @ApiParam(value = "the optimization's identifier") UUID optId) {
+        FitnessEvolutionTrace fitnessEvolution = optimizationService.getFitnessEvolutionTrace(optId);
+
+        if (fitnessEvolution == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+            fitnessEvolution.writeCsv(writer);
+        };
+
+        return new ResponseEntity<>(body, HttpStatus.OK);
+    }
+
     @ApiOperation(value = "Get the description of a specific optimization.", response = OptimizationDTO.class)
     @GetMapping(path = "/optimizations/{optId}", produces = "application/json")
     @ApiResponses(
@@ -289,4 +322,19 @@ public class OptimizationEndpoint {
 
         return response;
     }
+
+    @ApiOperation(value = "Get the latencies per Privacy Engine endpoint and the circuit breaker state per Privacy Engine host.")
+    @GetMapping(path = "/privacyEngine/stats", produces = "application/json")
+    @ApiResponses(
+            value = {
+                    @ApiResponse(code = 200, message = "OK")
+            }
+    )
+    public ResponseEntity<Map<String, Object>> getPrivacyEngineStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("latencies", privacyEngineClient.getLatencies());
+        statistics.put("circuitBreakers", privacyEngineClient.getCircuitBreakerStates());
+
+        return new ResponseEntity<>(statistics, HttpStatus.OK);
+    }
 }
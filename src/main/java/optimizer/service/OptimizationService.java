@@ -11,6 +11,7 @@ import optimizer.optimization.fitnessEstimation.FitnessEstimator;
 import optimizer.optimization.hungarian.HungarianOptimization;
 import optimizer.optimization.hungarian.MOHungarianOptimization;
 import optimizer.optimization.hungarian.ParetoFrontEstimator;
+import optimizer.optimization.jenetics.FitnessEvolutionTrace;
 import optimizer.optimization.jenetics.JeneticsOptimization;
 import optimizer.optimization.jenetics.jeneticsMLA.MLAJeneticsOptimizationFactory;
 import optimizer.optimization.jenetics.jeneticsMLA.MLAJeneticsOptimization;
@@ -228,6 +229,15 @@ public class OptimizationService {
 		return optimizationDto;
 	}
 
+	/**
+	 * Returns the optimization with the specified identifier.
+	 * @param optId the identifier of the optimization
+	 * @return the optimization with the specified identifier, if it exists; null otherwise.
+	 */
+	public JeneticsOptimization getJeneticsOptimization(UUID optId) {
+		return optimizations.get(optId);
+	}
+
 	/**
 	 * Get the current statistics for an optimization. Statistics are updated constantly during the optimization run.
 	 * @param optId the optimization id
@@ -313,46 +323,64 @@ public class OptimizationService {
 		stats.setInitialFitness(optimization.getStatistics().getInitialFitness());
 	}
 
+	/**
+	 * The step DTOs carry no island; for an island model, the steps of a generation follow each other in the order of
+	 * the islands, one per island unless the generation was not traced on all islands yet.
+	 */
 	private FitnessEvolutionStepDTO[] getSOEvolution(SOJeneticsOptimization optimization) {
-		return optimization.getStatistics().getFitnessEvolution().stream()
-				.map(fitnessEvolutionStep -> {
-					FitnessEvolutionStepDTO<Double> newStep = new FitnessEvolutionStepDTO<>();
+		List<FitnessEvolutionStepDTO<Double>> steps = new ArrayList<>(optimization.getStatistics().getFitnessEvolution().size());
+
+		optimization.getStatistics().getFitnessEvolution().forEach((generation, island, estimated, evaluated) -> {
+			FitnessEvolutionStepDTO<Double> newStep = new FitnessEvolutionStepDTO<>();
+
+			newStep.setGeneration(generation);
 
-					newStep.setGeneration(fitnessEvolutionStep.getGeneration());
+			if(estimated != null) newStep.setEstimatedPopulation(estimated.toBoxedArray());
 
-					if(fitnessEvolutionStep.getEstimatedPopulation() != null) newStep.setEstimatedPopulation(
-							Arrays.stream(fitnessEvolutionStep.getEstimatedPopulation()).toArray(Double[]::new)
-					);
+			if(evaluated != null) newStep.setEvaluatedPopulation(evaluated.toBoxedArray());
 
-					if(fitnessEvolutionStep.getEvaluatedPopulation() != null) newStep.setEvaluatedPopulation(
-							Arrays.stream(fitnessEvolutionStep.getEvaluatedPopulation()).toArray(Double[]::new)
-					);
+			steps.add(newStep);
+		});
 
-					return newStep;
-				}).toArray(FitnessEvolutionStepDTO[]::new);
+		return steps.toArray(FitnessEvolutionStepDTO[]::new);
 	}
 
 	private FitnessEvolutionStepDTO[] getMOEvolution(MOJeneticsOptimization optimization) {
-		return optimization.getStatistics().getFitnessEvolution().stream()
-				.map(fitnessEvolutionStep -> {
-					FitnessEvolutionStepDTO<double[]> newStep = new FitnessEvolutionStepDTO<>();
+		List<FitnessEvolutionStepDTO<double[]>> steps = new ArrayList<>(optimization.getStatistics().getFitnessEvolution().size());
 
-					newStep.setGeneration(fitnessEvolutionStep.getGeneration());
+		optimization.getStatistics().getFitnessEvolution().forEach((generation, island, estimated, evaluated) -> {
+			FitnessEvolutionStepDTO<double[]> newStep = new FitnessEvolutionStepDTO<>();
 
-					if(fitnessEvolutionStep.getEstimatedPopulation() != null) {
-						newStep.setEstimatedPopulation(
-								Arrays.stream(fitnessEvolutionStep.getEstimatedPopulation()).toArray(double[][]::new)
-						);
-					}
+			newStep.setGeneration(generation);
 
-					if(fitnessEvolutionStep.getEvaluatedPopulation() != null) {
-						newStep.setEvaluatedPopulation(
-								Arrays.stream(fitnessEvolutionStep.getEvaluatedPopulation()).toArray(double[][]::new)
-						);
-					}
+			if(estimated != null) {
+				newStep.setEstimatedPopulation(estimated.toVectors());
+			}
+
+			if(evaluated != null) {
+				newStep.setEvaluatedPopulation(evaluated.toVectors());
+			}
+
+			steps.add(newStep);
+		});
+
+		return steps.toArray(FitnessEvolutionStepDTO[]::new);
+	}
+
+	/**
+	 * Returns the fitness evolution trace of an optimization for a streaming export, without converting it to DTOs.
+	 * @param optId the optimization identifier
+	 * @return the fitness evolution trace, or null if the optimization does not exist or does not trace its fitness
+	 * evolution
+	 */
+	public FitnessEvolutionTrace getFitnessEvolutionTrace(UUID optId) {
+		JeneticsOptimization optimization = this.optimizations.get(optId);
+		if(optimization == null || !optimization.isTraceFitnessEvolution()) {
+			logger.info("Optimization with id " + optId + " not found or not tracing its fitness evolution.");
+			return null;
+		}
 
-					return newStep;
-				}).toArray(FitnessEvolutionStepDTO[]::new);
+		return optimization.getStatistics().getFitnessEvolution();
 	}
 
 	/**
@@ -464,7 +492,7 @@ public class OptimizationService {
 					optimizationDto.getOptimizationMode() == OptimizationModeEnum.DEMONSTRATION) {
 				logger.info("Get theoretical maximum fitness by running the Hungarian algorithm before the actual optimization.");
 
-				double theoreticalMaximumFitness = applyHungarian(new HungarianOptimization(flights, slots));
+				double theoreticalMaximumFitness = applyHungarian(new HungarianOptimization(newOptimization.getInstance()));
 
 				newOptimization.getStatistics().setTheoreticalMaxFitness((int)theoreticalMaximumFitness);
 				newOptimization.getConfiguration().setParameter("theoreticalMaximumFitness", theoreticalMaximumFitness);
@@ -506,9 +534,9 @@ public class OptimizationService {
 
 			if(optimizationDto.getOptimizationMode() == OptimizationModeEnum.BENCHMARKING ||
 					optimizationDto.getOptimizationMode() == OptimizationModeEnum.DEMONSTRATION) {
-				setTwoTheoreticalFitness(flights, slots, newOptimization);
+				setTwoTheoreticalFitness(newOptimization);
 
-				ParetoFrontEstimator paretoFrontEstimator = new ParetoFrontEstimator(flights, slots);
+				ParetoFrontEstimator paretoFrontEstimator = new ParetoFrontEstimator(newOptimization.getInstance());
 				double[][] estimatedParetoFront = paretoFrontEstimator.calculateParetoFront();
 				newOptimization.getStatistics().setEstimatedParetoFront(estimatedParetoFront);
 				newOptimization.getConfiguration().setParameter("estimatedParetoFront", estimatedParetoFront);
@@ -551,9 +579,9 @@ public class OptimizationService {
 
 			if(optimizationDto.getOptimizationMode() == OptimizationModeEnum.BENCHMARKING ||
 					optimizationDto.getOptimizationMode() == OptimizationModeEnum.DEMONSTRATION) {
-				setTwoTheoreticalFitness(flights, slots, newOptimization);
+				setTwoTheoreticalFitness(newOptimization);
 
-				ParetoFrontEstimator paretoFrontEstimator = new ParetoFrontEstimator(flights, slots);
+				ParetoFrontEstimator paretoFrontEstimator = new ParetoFrontEstimator(newOptimization.getInstance());
 				double[][] estimatedParetoFront = paretoFrontEstimator.calculateParetoFront();
 				newOptimization.getStatistics().setEstimatedParetoFront(estimatedParetoFront);
 				newOptimization.getConfiguration().setParameter("estimatedParetoFront", estimatedParetoFront);
@@ -633,15 +661,15 @@ public class OptimizationService {
 		}
 		return factory;
 	}
-	private void setTwoTheoreticalFitness(FlightMO[] flights, Slot[] slots, MOJeneticsOptimization newOptimization) {
+	private void setTwoTheoreticalFitness(MOJeneticsOptimization newOptimization) {
 		logger.info("Get theoretical maximum fitness for the two optimization targets by running the Hungarian algorithm before the actual optimization.");
 
-		double theoreticalMaximumFitness = applyHungarian(new HungarianOptimization(flights, slots));
+		double theoreticalMaximumFitness = applyHungarian(new HungarianOptimization(newOptimization.getInstance()));
 
 		newOptimization.getStatistics().setTheoreticalMaxFitness((int) theoreticalMaximumFitness);
 		newOptimization.getConfiguration().setParameter("theoreticalMaximumFitnessFirst", theoreticalMaximumFitness);
 
-		double secondTheoreticalMaximumFitness = applyHungarian(new MOHungarianOptimization(flights, slots));
+		double secondTheoreticalMaximumFitness = applyHungarian(new MOHungarianOptimization(newOptimization.getInstance()));
 
 		newOptimization.getStatistics().setTheoreticalMaxFitnessTwo((int)secondTheoreticalMaximumFitness);
 		newOptimization.getConfiguration().setParameter("theoreticalMaximumFitnessSecond", secondTheoreticalMaximumFitness);
@@ -656,7 +684,7 @@ public class OptimizationService {
 		newOptimization.setTraceFitnessEvolution(optimizationDto.isTraceFitnessEvolution());
 
 		if(optimizationDto.isTraceFitnessEvolution()) {
-			newOptimization.getStatistics().setFitnessEvolution(new LinkedList<>());
+			newOptimization.getStatistics().setFitnessEvolution(FitnessEvolutionTrace.ofEveryGeneration());
 		}
 
 		// set the creation time in the optimization's statistics
@@ -747,7 +775,7 @@ public class OptimizationService {
 	private double applyHungarian(HungarianOptimization optimization) {
 		var optimalSolution = optimization.run();
 		logger.info("Checking if optimal solution produced by Hungarian is valid.");
-		var invalidMappings = optimalSolution.entrySet().stream().filter(e -> e.getKey().getScheduledTime() != null && e.getValue().getTime().isBefore(e.getKey().getScheduledTime())).count();
+		var invalidMappings = optimalSolution.entrySet().stream().filter(e -> !optimization.getInstance().isFeasible(e.getKey(), e.getValue())).count();
 		logger.info("Solution contains {} assignments where the scheduled time of the flight is available and after the assigned slots' time.", invalidMappings);
 
 		logger.info("Optimal flight sequence according to Hungarian: {}", Arrays.toString(optimalSolution.keySet()
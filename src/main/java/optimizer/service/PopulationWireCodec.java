@@ -0,0 +1,214 @@
+package optimizer.service;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Binary encodings of populations exchanged with the Privacy Engine. A population consists of one row per
+ * individual holding, for each flight, the index of its assigned slot. All numbers are little-endian.
+ * <p>
+ * INT32: {@code int32 rows, int32 columns}, followed by {@code rows * columns} int32 values in row-major order.
+ * <p>
+ * PACKED: {@code int32 rows, int32 columns, int8 bits per value, int8 flags}, followed by an int64 fingerprint of
+ * the base population if the delta flag (bit 0) is set, followed by a bit stream filled from the least significant
+ * bit of each byte. Without delta, the bit stream holds {@code rows * columns} values of {@code bits per value} bits.
+ * With delta, each row starts with a mask of {@code columns} bits marking the values that differ from the same row
+ * of the base population, followed by the changed values only.
+ * <p>
+ * Encoding and decoding are implemented here for both sides, so that a stand-in Privacy Engine can use the same
+ * code as the client.
+ */
+public final class PopulationWireCodec {
+    private static final int FLAG_DELTA = 1;
+
+    private PopulationWireCodec() { }
+
+    public static byte[] encodeInt32(int[][] population) {
+        int columns = columns(population);
+        ByteBuffer buffer = ByteBuffer.allocate(8 + 4 * population.length * columns).order(ByteOrder.LITTLE_ENDIAN);
+
+        buffer.putInt(population.length).putInt(columns);
+        for(int[] row : population) {
+            for(int c = 0; c < columns; c++) {
+                buffer.putInt(row[c]);
+            }
+        }
+
+        return buffer.array();
+    }
+
+    public static int[][] decodeInt32(byte[] body) {
+        ByteBuffer buffer = ByteBuffer.wrap(body).order(ByteOrder.LITTLE_ENDIAN);
+        int[][] population = new int[buffer.getInt()][buffer.getInt()];
+
+        for(int[] row : population) {
+            for(int c = 0; c < row.length; c++) {
+                row[c] = buffer.getInt();
+            }
+        }
+
+        return population;
+    }
+
+    /**
+     * Encodes the population bit-packed, delta-encoded against the base population if given. The values must be
+     * non-negative and smaller than the number of columns, as with slot indices.
+     * @param population the population to encode
+     * @param base the population previously sent, or null; ignored if its dimensions differ
+     * @return the encoded population
+     */
+    public static byte[] encodePacked(int[][] population, int[][] base) {
+        int columns = columns(population);
+        int bits = bitsPerValue(columns);
+        boolean delta = base != null && base.length == population.length && columns(base) == columns;
+
+        BitWriter writer = new BitWriter(population.length * (long) columns * bits + (delta ? population.length * (long) columns : 0));
+        for(int r = 0; r < population.length; r++) {
+            int[] row = population[r];
+            if(delta) {
+                for(int c = 0; c < columns; c++) {
+                    writer.write(row[c] != base[r][c] ? 1 : 0, 1);
+                }
+                for(int c = 0; c < columns; c++) {
+                    if(row[c] != base[r][c]) writer.write(row[c], bits);
+                }
+            } else {
+                for(int c = 0; c < columns; c++) {
+                    writer.write(row[c], bits);
+                }
+            }
+        }
+
+        byte[] stream = writer.toByteArray();
+        ByteBuffer buffer = ByteBuffer.allocate(10 + (delta ? 8 : 0) + stream.length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(population.length).putInt(columns).put((byte) bits).put((byte) (delta ? FLAG_DELTA : 0));
+        if(delta) {
+            buffer.putLong(fingerprint(base));
+        }
+        buffer.put(stream);
+
+        return buffer.array();
+    }
+
+    /**
+     * Decodes a bit-packed population.
+     * @param body the encoded population
+     * @param base the population the sender used as base for delta encoding, or null if unknown
+     * @return the decoded population
+     * @throws IllegalArgumentException if the population is delta-encoded and the base is unknown or differs from
+     * the base of the sender
+     */
+    public static int[][] decodePacked(byte[] body, int[][] base) {
+        ByteBuffer buffer = ByteBuffer.wrap(body).order(ByteOrder.LITTLE_ENDIAN);
+        int rows = buffer.getInt();
+        int columns = buffer.getInt();
+        int bits = buffer.get();
+        boolean delta = (buffer.get() & FLAG_DELTA) != 0;
+
+        if(delta && (base == null || base.length != rows || buffer.getLong() != fingerprint(base))) {
+            throw new IllegalArgumentException("Unknown base population for delta-encoded population.");
+        }
+
+        BitReader reader = new BitReader(body, buffer.position());
+        int[][] population = new int[rows][columns];
+        for(int r = 0; r < rows; r++) {
+            if(delta) {
+                boolean[] changed = new boolean[columns];
+                for(int c = 0; c < columns; c++) {
+                    changed[c] = reader.read(1) != 0;
+                }
+                for(int c = 0; c < columns; c++) {
+                    population[r][c] = changed[c] ? reader.read(bits) : base[r][c];
+                }
+            } else {
+                for(int c = 0; c < columns; c++) {
+                    population[r][c] = reader.read(bits);
+                }
+            }
+        }
+
+        return population;
+    }
+
+    /**
+     * @return a 64-bit FNV-1a hash of the dimensions and values of the population
+     */
+    public static long fingerprint(int[][] population) {
+        long hash = 0xcbf29ce484222325L;
+
+        hash = (hash ^ population.length) * 0x100000001b3L;
+        for(int[] row : population) {
+            hash = (hash ^ row.length) * 0x100000001b3L;
+            for(int value : row) {
+                hash = (hash ^ value) * 0x100000001b3L;
+            }
+        }
+
+        return hash;
+    }
+
+    /**
+     * @return the number of bits needed for values from 0 to columns - 1, at least 1
+     */
+    static int bitsPerValue(int columns) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(columns - 1));
+    }
+
+    private static int columns(int[][] population) {
+        return population.length > 0 ? population[0].length : 0;
+    }
+
+    private static class BitWriter {
+        private final byte[] bytes;
+        private int position = 0;
+        private long pending = 0;
+        private int pendingBits = 0;
+
+        private BitWriter(long capacityBits) {
+            this.bytes = new byte[(int) ((capacityBits + 7) / 8)];
+        }
+
+        private void write(int value, int bits) {
+            pending |= (value & ((1L << bits) - 1)) << pendingBits;
+            pendingBits += bits;
+            while(pendingBits >= 8) {
+                bytes[position++] = (byte) pending;
+                pending >>>= 8;
+                pendingBits -= 8;
+            }
+        }
+
+        private byte[] toByteArray() {
+            if(pendingBits > 0) {
+                bytes[position++] = (byte) pending;
+                pending = 0;
+                pendingBits = 0;
+            }
+            return position == bytes.length ? bytes : Arrays.copyOf(bytes, position);
+        }
+    }
+
+    private static class BitReader {
+        private final byte[] bytes;
+        private int position;
+        private long pending = 0;
+        private int pendingBits = 0;
+
+        private BitReader(byte[] bytes, int offset) {
+            this.bytes = bytes;
+            this.position = offset;
+        }
+
+        private int read(int bits) {
+            while(pendingBits < bits) {
+                pending |= (bytes[position++] & 0xFFL) << pendingBits;
+                pendingBits += 8;
+            }
+            int value = (int) (pending & ((1L << bits) - 1));
+            pending >>>= bits;
+            pendingBits -= bits;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package optimizer.service;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Formats for sending populations to the Privacy Engine. The binary formats are negotiated: if the Privacy Engine
+ * rejects the content type, the optimization falls back to JSON.
+ */
+public enum PopulationWireFormat {
+    /**
+     * JSON array of arrays, understood by every Privacy Engine.
+     */
+    JSON(MediaType.APPLICATION_JSON),
+    /**
+     * Little-endian int32 values, see {@link PopulationWireCodec#encodeInt32(int[][])}.
+     */
+    INT32(MediaType.valueOf("application/x-population-int32")),
+    /**
+     * Bit-packed values with the minimal number of bits per gene, see
+     * {@link PopulationWireCodec#encodePacked(int[][], int[][])}.
+     */
+    PACKED(MediaType.valueOf("application/x-population-packed")),
+    /**
+     * Bit-packed values, where each individual only contains the genes that changed with respect to the individual
+     * at the same position of the population previously sent by the optimization.
+     */
+    PACKED_DELTA(MediaType.valueOf("application/x-population-packed"));
+
+    private final MediaType mediaType;
+
+    PopulationWireFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+}
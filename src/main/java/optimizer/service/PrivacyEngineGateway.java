@@ -0,0 +1,332 @@
+package optimizer.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import optimizer.service.client.PrivacyEngineClientProperties;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent JSON requests of different optimizations to the same Privacy Engine function into a single
+ * call of the function's batch variant, {@code <endpoint>/batch/<function>}. A request to a function without requests
+ * in flight is sent right away. While requests to the function are in flight, further requests are collected; the
+ * batch is sent when the requests in flight have completed, when the coalescing window closes, or when the batch is
+ * full, whichever comes first.
+ * <p>
+ * The batch request is a JSON array of {@code {"optimizationId": ..., "population": [[...], ...]}}; the response is a
+ * JSON array holding, in the same order, {@code {"status": ..., "body": ...}}, where the body is the response of the
+ * function for the population. If the Privacy Engine does not provide the batch variant (404, 405, 415 or 501), the
+ * requests to the function are sent individually from then on.
+ */
+@Component
+public class PrivacyEngineGateway {
+    private static final Logger logger = LogManager.getLogger();
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final long windowNanos;
+    private final int maxBatchSize;
+
+    private final Map<String, Batch> pending = new HashMap<>();
+    /**
+     * Number of requests, individual or batches, in flight per function; guarded by {@link #pending}.
+     */
+    private final Map<String, Integer> inFlight = new HashMap<>();
+    /**
+     * URLs of functions whose batch variant is not provided by the Privacy Engine.
+     */
+    private final Set<String> unsupported = ConcurrentHashMap.newKeySet();
+
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService sender;
+
+    public PrivacyEngineGateway(RestTemplate privacyEngineRestTemplate, ObjectMapper objectMapper,
+                                PrivacyEngineClientProperties properties) {
+        this.restTemplate = privacyEngineRestTemplate;
+        this.objectMapper = objectMapper;
+        this.windowNanos = properties.getCoalescingWindow().toNanos();
+        this.maxBatchSize = properties.getMaxBatchSize();
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "PrivacyEngineGateway::scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sender = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "PrivacyEngineGateway::sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return true if requests to the function may be coalesced
+     */
+    public boolean isEnabled(String url) {
+        return windowNanos > 0 && maxBatchSize > 1 && !unsupported.contains(url);
+    }
+
+    /**
+     * Sends the population right away if no request to the function is in flight, and otherwise as part of a batch
+     * of concurrent requests to the same function, and waits for its response.
+     * @param url the URL of the function
+     * @param optimizationId the identifier of the requesting optimization
+     * @param input the population
+     * @param responseType the type of the response body
+     * @param individually sends the population on its own; used if nothing is in flight, if no other request joined
+     *                     the batch, or if the Privacy Engine does not provide the batch variant of the function
+     * @return the response of the Privacy Engine
+     */
+    public <R> ResponseEntity<R> exchange(String url, UUID optimizationId, int[][] input, Class<R> responseType,
+                                          Supplier<ResponseEntity<R>> individually) {
+        CompletableFuture<JsonNode> response = new CompletableFuture<>();
+        boolean alone = false;
+        Batch full = null;
+
+        synchronized (pending) {
+            Batch batch = pending.get(url);
+            if(batch == null && inFlight.getOrDefault(url, 0) == 0) {
+                // nothing to coalesce with; waiting for the window would only delay the request
+                inFlight.merge(url, 1, Integer::sum);
+                alone = true;
+            } else {
+                if(batch == null) {
+                    Batch newBatch = new Batch(url);
+                    pending.put(url, newBatch);
+                    scheduler.schedule(() -> send(newBatch), windowNanos, TimeUnit.NANOSECONDS);
+                    batch = newBatch;
+                }
+
+                batch.items.add(new BatchItem(optimizationId.toString(), input));
+                batch.responses.add(response);
+
+                if(batch.items.size() >= maxBatchSize) {
+                    // removed right away, so that no further requests join the full batch
+                    pending.remove(url);
+                    inFlight.merge(url, 1, Integer::sum);
+                    full = batch;
+                }
+            }
+        }
+
+        if(alone) {
+            return sendIndividually(url, individually);
+        }
+
+        if(full != null) {
+            dispatch(full);
+        }
+
+        JsonNode item;
+        try {
+            item = response.join();
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+
+        if(item == null) {
+            synchronized (pending) {
+                inFlight.merge(url, 1, Integer::sum);
+            }
+            return sendIndividually(url, individually);
+        }
+
+        int status = item.path("status").asInt(HttpStatus.OK.value());
+        if(status >= 400) {
+            String message = item.path("body").toString();
+            throw status >= 500 ?
+                    HttpServerErrorException.create(HttpStatus.valueOf(status), message, null, null, null) :
+                    HttpClientErrorException.create(HttpStatus.valueOf(status), message, null, null, null);
+        }
+
+        return new ResponseEntity<>(objectMapper.convertValue(item.get("body"), responseType), HttpStatus.valueOf(status));
+    }
+
+    /**
+     * @return the number of requests to the function waiting in the pending batch
+     */
+    int pendingRequests(String url) {
+        synchronized (pending) {
+            Batch batch = pending.get(url);
+            return batch != null ? batch.items.size() : 0;
+        }
+    }
+
+    /**
+     * Sends a request on its own, counted as in flight by the caller.
+     */
+    private <R> ResponseEntity<R> sendIndividually(String url, Supplier<ResponseEntity<R>> individually) {
+        try {
+            return individually.get();
+        } finally {
+            completed(url);
+        }
+    }
+
+    /**
+     * Sends the batch when the window closes, unless it has already been sent.
+     */
+    private void send(Batch batch) {
+        synchronized (pending) {
+            if(pending.get(batch.url) != batch) {
+                return;
+            }
+            pending.remove(batch.url);
+            inFlight.merge(batch.url, 1, Integer::sum);
+        }
+
+        dispatch(batch);
+    }
+
+    /**
+     * Counts a request to the function as completed; once no request is in flight any more, the batch collected in
+     * the meantime is sent without waiting for the window to close.
+     */
+    private void completed(String url) {
+        Batch batch = null;
+        synchronized (pending) {
+            if(inFlight.merge(url, -1, Integer::sum) <= 0) {
+                inFlight.remove(url);
+                batch = pending.remove(url);
+                if(batch != null) {
+                    inFlight.merge(url, 1, Integer::sum);
+                }
+            }
+        }
+
+        if(batch != null) {
+            dispatch(batch);
+        }
+    }
+
+    /**
+     * Sends a batch no longer pending, counted as in flight by the caller.
+     */
+    private void dispatch(Batch batch) {
+        if(batch.items.size() == 1) {
+            // nothing to coalesce; the request is sent individually without further delay
+            batch.responses.get(0).complete(null);
+            completed(batch.url);
+            return;
+        }
+
+        sender.execute(() -> {
+            try {
+                logger.debug("Sending " + batch.items.size() + " coalesced requests to " + batchUrl(batch.url));
+                RequestEntity<List<BatchItem>> request =
+                        RequestEntity.put(batchUrl(batch.url))
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .accept(MediaType.APPLICATION_JSON)
+                                .body(batch.items);
+                JsonNode responses = this.restTemplate.exchange(request, JsonNode.class).getBody();
+
+                if(responses == null || !responses.isArray() || responses.size() != batch.items.size()) {
+                    throw new IllegalStateException("Privacy Engine returned a malformed batch response.");
+                }
+                for(int i = 0; i < batch.responses.size(); i++) {
+                    batch.responses.get(i).complete(responses.get(i));
+                }
+            } catch (HttpStatusCodeException e) {
+                if(isUnsupported(e.getStatusCode())) {
+                    logger.warn("Privacy Engine does not support coalesced requests to " + batch.url + "; sending them individually.");
+                    unsupported.add(batch.url);
+                    batch.responses.forEach(response -> response.complete(null));
+                } else {
+                    batch.responses.forEach(response -> response.completeExceptionally(e));
+                }
+            } catch (RuntimeException e) {
+                batch.responses.forEach(response -> response.completeExceptionally(e));
+            } finally {
+                completed(batch.url);
+            }
+        });
+    }
+
+    private static boolean isUnsupported(HttpStatus status) {
+        return status == HttpStatus.NOT_FOUND || status == HttpStatus.METHOD_NOT_ALLOWED
+                || status == HttpStatus.UNSUPPORTED_MEDIA_TYPE || status == HttpStatus.NOT_IMPLEMENTED;
+    }
+
+    /**
+     * @return the URL of the batch variant of the function, e.g., {@code <endpoint>/batch/computePopulationOrder}
+     */
+    static String batchUrl(String url) {
+        int function = url.lastIndexOf('/');
+        return url.substring(0, function) + "/batch" + url.substring(function);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        sender.shutdown();
+    }
+
+    private static class Batch {
+        private final String url;
+        private final List<BatchItem> items = new ArrayList<>();
+        private final List<CompletableFuture<JsonNode>> responses = new ArrayList<>();
+
+        private Batch(String url) {
+            this.url = url;
+        }
+    }
+
+    /**
+     * A population of a batch request.
+     */
+    public static class BatchItem {
+        private String optimizationId;
+        private int[][] population;
+
+        public BatchItem() { }
+
+        public BatchItem(String optimizationId, int[][] population) {
+            this.optimizationId = optimizationId;
+            this.population = population;
+        }
+
+        public String getOptimizationId() {
+            return optimizationId;
+        }
+
+        public void setOptimizationId(String optimizationId) {
+            this.optimizationId = optimizationId;
+        }
+
+        public int[][] getPopulation() {
+            return population;
+        }
+
+        public void setPopulation(int[][] population) {
+            this.population = population;
+        }
+    }
+}
@@ -6,21 +6,43 @@ import com.optimization.data.privacyEngine.dto.PopulationOrderDTO;
 import optimizer.optimization.jenetics.JeneticsOptimization;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.MediaType;
 import org.springframework.http.RequestEntity;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
 @Service
 public class PrivacyEngineService {
 	private static final Logger logger = LogManager.getLogger();
 
+	/**
+	 * Header identifying the optimization, required by the Privacy Engine to resolve delta-encoded populations.
+	 */
+	public static final String OPTIMIZATION_ID_HEADER = "X-Optimization-Id";
+
 	private final RestTemplate restTemplate;
+	private final PrivacyEngineGateway gateway;
+
+	/**
+	 * Wire state per optimization; entries are dropped together with the optimization.
+	 */
+	private final Map<JeneticsOptimization, WireState> wireStates = Collections.synchronizedMap(new WeakHashMap<>());
 	
-	public PrivacyEngineService(RestTemplateBuilder restTemplateBuilder) {
-        this.restTemplate = restTemplateBuilder.build();
+	/**
+	 * @param privacyEngineRestTemplate the pooled client configured by the
+	 * {@link optimizer.service.client.PrivacyEngineClientConfiguration}
+	 * @param gateway coalesces the JSON requests of concurrent optimizations
+	 */
+	public PrivacyEngineService(RestTemplate privacyEngineRestTemplate, PrivacyEngineGateway gateway) {
+        this.restTemplate = privacyEngineRestTemplate;
+        this.gateway = gateway;
     }
 
 	/**
@@ -31,20 +53,15 @@ public class PrivacyEngineService {
 	 * @param input the populations to be ranked
 	 * @return the ranked population and the maximum fitness value
 	 */
-	public PopulationOrderDTO computePopulationOrder(JeneticsOptimization optimization, Integer[][] input) {
+	public PopulationOrderDTO computePopulationOrder(JeneticsOptimization optimization, int[][] input) {
 		String url =  optimization.getPrivacyEngineEndpoint() + "/computePopulationOrder";
 
-		RequestEntity<Integer[][]> request =
-			RequestEntity.put(url)
-						 .accept(MediaType.APPLICATION_JSON)
-						 .body(input);
-
 		logger.debug("Requesting computation of population order from Privacy Engine at URL: " + url);
-		ResponseEntity<PopulationOrderDTO> response = this.restTemplate.exchange(request, PopulationOrderDTO.class);
+		ResponseEntity<PopulationOrderDTO> response = this.exchange(optimization, url, input, PopulationOrderDTO.class);
 		return response.getBody();
 	}
 
-    public FitnessQuantilesDTO computeFitnessQuantiles(JeneticsOptimization optimization, Integer[][] input) {
+    public FitnessQuantilesDTO computeFitnessQuantiles(JeneticsOptimization optimization, int[][] input) {
 
 		return null;
 
@@ -57,16 +74,11 @@ public class PrivacyEngineService {
 	 * @param input the population in the format required by the PE
 	 * @return the DTO containing the top-individuals and additional information if available
 	 */
-	public AboveIndividualsDTO computeIndividualsAbove(JeneticsOptimization optimization, Integer[][] input) {
+	public AboveIndividualsDTO computeIndividualsAbove(JeneticsOptimization optimization, int[][] input) {
 		String url =  optimization.getPrivacyEngineEndpoint() + "/computeClassification";
 
-		RequestEntity<Integer[][]> request =
-				RequestEntity.put(url)
-						.accept(MediaType.APPLICATION_JSON)
-						.body(input);
-
 		logger.debug("Requesting computation of top individuals from Privacy Engine at URL: " + url);
-		ResponseEntity<AboveIndividualsDTO> response = this.restTemplate.exchange(request, AboveIndividualsDTO.class);
+		ResponseEntity<AboveIndividualsDTO> response = this.exchange(optimization, url, input, AboveIndividualsDTO.class);
 		return response.getBody();
 	}
 
@@ -77,15 +89,132 @@ public class PrivacyEngineService {
 	 * @param input the population in the format required by the PE
 	 * @return fitness values for all individuals
 	 */
-    public Integer[] computeActualFitnessValues(JeneticsOptimization optimization, Integer[][] input) {
+    public Integer[] computeActualFitnessValues(JeneticsOptimization optimization, int[][] input) {
 		String url =  optimization.getPrivacyEngineEndpoint() + "/computeFitnessClear";
-		RequestEntity<Integer[][]> request =
+		logger.debug("Requesting computation of actual fitness values for all individuals from Privacy Engine at URL: " + url);
+		ResponseEntity<Integer[]> response = this.exchange(optimization, url, input, Integer[].class);
+		return response.getBody();
+    }
+
+	/**
+	 * Sends the population in the wire format configured for the optimization. If the Privacy Engine does not
+	 * support the binary format (415 Unsupported Media Type), the optimization falls back to JSON for the rest of
+	 * the run; if it cannot resolve a delta-encoded population (409 Conflict), the population is resent in full.
+	 * The responses are always JSON. JSON requests are coalesced with concurrent requests of other optimizations by
+	 * the {@link PrivacyEngineGateway}.
+	 * @param optimization the optimization
+	 * @param url the URL of the endpoint
+	 * @param input the population in the format required by the PE
+	 * @param responseType the type of the response body
+	 * @return the response of the Privacy Engine
+	 */
+	private <R> ResponseEntity<R> exchange(JeneticsOptimization optimization, String url, int[][] input, Class<R> responseType) {
+		WireState state = wireStates.computeIfAbsent(optimization, o -> new WireState(wireFormat(o)));
+
+		PopulationWireFormat format = state.format;
+		ResponseEntity<R> response = null;
+		if(format == PopulationWireFormat.PACKED_DELTA) {
+			// the base of the next delta depends on the order of the requests, so they are sent one at a time
+			synchronized (state) {
+				format = state.format;
+				if(format == PopulationWireFormat.PACKED_DELTA) {
+					response = exchangeBinaryOrFallBack(optimization, url, input, responseType, state, format);
+				}
+			}
+		} else if(format != PopulationWireFormat.JSON) {
+			response = exchangeBinaryOrFallBack(optimization, url, input, responseType, state, format);
+		}
+
+		if(response != null) {
+			return response;
+		}
+
+		if(gateway.isEnabled(url)) {
+			return gateway.exchange(url, optimization.getOptId(), input, responseType,
+					() -> exchangeJson(optimization, url, input, responseType));
+		}
+		return exchangeJson(optimization, url, input, responseType);
+	}
+
+	/**
+	 * Sends the population as JSON on its own.
+	 */
+	private <R> ResponseEntity<R> exchangeJson(JeneticsOptimization optimization, String url, int[][] input, Class<R> responseType) {
+		RequestEntity<int[][]> request =
 				RequestEntity.put(url)
 						.accept(MediaType.APPLICATION_JSON)
+						.header(OPTIMIZATION_ID_HEADER, String.valueOf(optimization.getOptId()))
 						.body(input);
+		return this.restTemplate.exchange(request, responseType);
+	}
 
-		logger.debug("Requesting computation of actual fitness values for all individuals from Privacy Engine at URL: " + url);
-		ResponseEntity<Integer[]> response = this.restTemplate.exchange(request, Integer[].class);
-		return response.getBody();
-    }
+	/**
+	 * @return the wire format configured for the optimization; PACKED instead of PACKED_DELTA for an island model, as
+	 * the Privacy Engine resolves a delta against the population last sent for the optimization, whereas the islands
+	 * send their populations concurrently
+	 */
+	private static PopulationWireFormat wireFormat(JeneticsOptimization optimization) {
+		PopulationWireFormat format = optimization.getConfiguration().getPrivacyEngineWireFormat();
+		if(format == PopulationWireFormat.PACKED_DELTA && optimization.getConfiguration().getIslands() > 1) {
+			logger.info("Island model with " + optimization.getConfiguration().getIslands() + " islands: sending populations in wire format " + PopulationWireFormat.PACKED + " instead of " + format + ".");
+			return PopulationWireFormat.PACKED;
+		}
+		return format;
+	}
+
+	/**
+	 * @return the response of the Privacy Engine, or null if it does not support the binary format
+	 */
+	private <R> ResponseEntity<R> exchangeBinaryOrFallBack(JeneticsOptimization optimization, String url, int[][] input,
+														   Class<R> responseType, WireState state, PopulationWireFormat format) {
+		try {
+			return exchangeBinary(optimization, url, input, responseType, state, format);
+		} catch (HttpClientErrorException e) {
+			if(e.getStatusCode() == HttpStatus.CONFLICT && format == PopulationWireFormat.PACKED_DELTA) {
+				logger.debug("Privacy Engine could not resolve the delta-encoded population; resending it in full.");
+				state.previous = null;
+				return exchangeBinary(optimization, url, input, responseType, state, format);
+			} else if(e.getStatusCode() == HttpStatus.UNSUPPORTED_MEDIA_TYPE) {
+				logger.warn("Privacy Engine does not support wire format " + format + "; falling back to JSON.");
+				state.format = PopulationWireFormat.JSON;
+				return null;
+			} else {
+				throw e;
+			}
+		}
+	}
+
+	private <R> ResponseEntity<R> exchangeBinary(JeneticsOptimization optimization, String url, int[][] input,
+												 Class<R> responseType, WireState state, PopulationWireFormat format) {
+		byte[] body = switch (format) {
+			case INT32 -> PopulationWireCodec.encodeInt32(input);
+			case PACKED -> PopulationWireCodec.encodePacked(input, null);
+			default -> PopulationWireCodec.encodePacked(input, state.previous);
+		};
+
+		RequestEntity<byte[]> request =
+				RequestEntity.put(url)
+						.contentType(format.getMediaType())
+						.accept(MediaType.APPLICATION_JSON)
+						.header(OPTIMIZATION_ID_HEADER, String.valueOf(optimization.getOptId()))
+						.body(body);
+		ResponseEntity<R> response = this.restTemplate.exchange(request, responseType);
+
+		if(format == PopulationWireFormat.PACKED_DELTA) {
+			// each encoding is a new array, so it can be kept as the base of the next delta
+			state.previous = input;
+		}
+
+		return response;
+	}
+
+	private static class WireState {
+		private volatile PopulationWireFormat format;
+		// population last sent in the PACKED_DELTA format, i.e., the base of the next delta
+		private int[][] previous;
+
+		private WireState(PopulationWireFormat format) {
+			this.format = format;
+		}
+	}
 }
@@ -0,0 +1,62 @@
+package optimizer.service.client;
+
+/**
+ * Circuit breaker for a Privacy Engine host. After a number of consecutive failures, the circuit opens and requests
+ * are rejected without contacting the host. Once the open duration has elapsed, a single probe request is let
+ * through, whose outcome closes or re-opens the circuit.
+ */
+public class CircuitBreaker {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long openedAt;
+    private boolean probing = false;
+
+    public CircuitBreaker(int failureThreshold, long openNanos) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openNanos;
+    }
+
+    /**
+     * @return true if a request may be sent; a request that is let through must report its outcome
+     */
+    public synchronized boolean allowRequest() {
+        if(state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+            probing = false;
+        }
+
+        if(state == State.HALF_OPEN) {
+            if(probing) {
+                return false;
+            }
+            probing = true;
+            return true;
+        }
+
+        return state == State.CLOSED;
+    }
+
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probing = false;
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if(state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            probing = false;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,12 @@
+package optimizer.service.client;
+
+import java.io.IOException;
+
+/**
+ * Thrown instead of sending a request to a Privacy Engine host whose circuit breaker is open.
+ */
+public class CircuitBreakerOpenException extends IOException {
+    public CircuitBreakerOpenException(String host) {
+        super("Circuit breaker for Privacy Engine at " + host + " is open.");
+    }
+}
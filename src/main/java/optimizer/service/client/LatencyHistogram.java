@@ -0,0 +1,111 @@
+package optimizer.service.client;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with logarithmic buckets: bucket i counts the latencies below 2^i microseconds that
+ * are not counted by bucket i - 1, the last bucket counts everything above. Percentiles are reported as the upper
+ * bound of the bucket they fall into, i.e., with an error of at most a factor of two.
+ */
+public class LatencyHistogram {
+    /**
+     * 2^27 microseconds are a bit more than two minutes.
+     */
+    private static final int BUCKETS = 28;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalMicros = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Long::max, 0);
+
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+
+        counts.incrementAndGet(bucket);
+        totalMicros.add(micros);
+        maxMicros.accumulate(micros);
+    }
+
+    public Snapshot snapshot() {
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for(int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+
+        return new Snapshot(
+                count,
+                count > 0 ? totalMicros.sum() / 1000.0 / count : 0,
+                percentile(snapshot, count, 0.5),
+                percentile(snapshot, count, 0.9),
+                percentile(snapshot, count, 0.99),
+                maxMicros.get() / 1000.0
+        );
+    }
+
+    private double percentile(long[] snapshot, long count, double percentile) {
+        long rank = (long) Math.ceil(percentile * count);
+        long seen = 0;
+        for(int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if(seen >= rank && seen > 0) {
+                return Math.min(1L << i, maxMicros.get()) / 1000.0;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Number of requests and their latencies in milliseconds.
+     */
+    public static class Snapshot {
+        private final long count;
+        private final double mean;
+        private final double p50;
+        private final double p90;
+        private final double p99;
+        private final double max;
+
+        private Snapshot(long count, double mean, double p50, double p90, double p99, double max) {
+            this.count = count;
+            this.mean = mean;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public double getP50() {
+            return p50;
+        }
+
+        public double getP90() {
+            return p90;
+        }
+
+        public double getP99() {
+            return p99;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d, mean=%.1fms, p50=%.1fms, p90=%.1fms, p99=%.1fms, max=%.1fms",
+                    count, mean, p50, p90, p99, max);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package optimizer.service.client;
+
+import optimizer.service.simulator.SimulatedPrivacyEngine;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configures the HTTP client used to invoke the Privacy Engine: a bounded pool of keep-alive connections per host,
+ * timeouts and transparent decompression of responses; retries, circuit breaking, request compression and latency
+ * histograms are added by the {@link PrivacyEngineClientInterceptor}.
+ */
+@Configuration
+public class PrivacyEngineClientConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient privacyEngineHttpClient(PrivacyEngineClientProperties properties) {
+        long keepAlive = properties.getKeepAlive().toMillis();
+
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(properties.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(properties.getMaxConnectionsPerEndpoint());
+        // re-check connections idle for a while, as the Privacy Engine may have closed them in the meantime
+        connectionManager.setValidateAfterInactivity(2000);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout((int) properties.getConnectTimeout().toMillis())
+                .setSocketTimeout((int) properties.getReadTimeout().toMillis())
+                .setConnectionRequestTimeout((int) properties.getConnectionRequestTimeout().toMillis())
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy((response, context) -> {
+                    long announced = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return announced > 0 ? Math.min(announced, keepAlive) : keepAlive;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(keepAlive, TimeUnit.MILLISECONDS)
+                // retries are done by the interceptor, which also informs the circuit breaker
+                .disableAutomaticRetries()
+                .build();
+    }
+
+    @Bean
+    public RestTemplate privacyEngineRestTemplate(RestTemplateBuilder restTemplateBuilder,
+                                                  CloseableHttpClient privacyEngineHttpClient,
+                                                  PrivacyEngineClientInterceptor interceptor,
+                                                  ObjectProvider<SimulatedPrivacyEngine> simulator) {
+        // if enabled, the simulator answers in place of the connection, so everything else behaves as in production
+        ClientHttpRequestFactory simulatedPrivacyEngine = simulator.getIfAvailable();
+        return restTemplateBuilder
+                .requestFactory(() -> simulatedPrivacyEngine != null ? simulatedPrivacyEngine :
+                        new HttpComponentsClientHttpRequestFactory(privacyEngineHttpClient))
+                .additionalInterceptors(interceptor)
+                .build();
+    }
+}
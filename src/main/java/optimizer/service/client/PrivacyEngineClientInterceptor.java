@@ -0,0 +1,184 @@
+package optimizer.service.client;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.support.HttpRequestWrapper;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Adds request compression, retries with jittered exponential backoff, a circuit breaker per Privacy Engine host and
+ * latency histograms per Privacy Engine endpoint to the requests of the Privacy Engine client. Must be the last
+ * interceptor of the client, as retries re-execute the request.
+ */
+@Component
+public class PrivacyEngineClientInterceptor implements ClientHttpRequestInterceptor {
+    private static final Logger logger = LogManager.getLogger();
+
+    private final PrivacyEngineClientProperties properties;
+
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    /**
+     * Hosts that rejected a compressed request body (415 Unsupported Media Type).
+     */
+    private final Set<String> uncompressedHosts = ConcurrentHashMap.newKeySet();
+
+    public PrivacyEngineClientInterceptor(PrivacyEngineClientProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        String host = host(request.getURI());
+        CircuitBreaker circuitBreaker = circuitBreakers.computeIfAbsent(host, h -> new CircuitBreaker(
+                properties.getCircuitBreakerFailureThreshold(), properties.getCircuitBreakerOpenDuration().toNanos()));
+        LatencyHistogram latency = latencies.computeIfAbsent(host + request.getURI().getPath(), e -> new LatencyHistogram());
+
+        boolean compress = properties.isRequestCompression() && body.length >= properties.getCompressionThreshold()
+                && !uncompressedHosts.contains(host);
+        HttpRequest compressedRequest = compress ? compressed(request) : request;
+        byte[] compressedBody = compress ? gzip(body) : body;
+
+        for(int attempt = 1; ; attempt++) {
+            if(!circuitBreaker.allowRequest()) {
+                throw new CircuitBreakerOpenException(host);
+            }
+
+            ClientHttpResponse response;
+            int status;
+            long start = System.nanoTime();
+            try {
+                response = execution.execute(compressedRequest, compressedBody);
+                status = response.getRawStatusCode();
+            } catch (IOException e) {
+                latency.record(System.nanoTime() - start);
+                circuitBreaker.onFailure();
+                if(attempt >= properties.getMaxAttempts()) {
+                    throw e;
+                }
+                logger.warn("Request to Privacy Engine at " + request.getURI() + " failed (attempt " + attempt + "): " + e.getMessage());
+                backOff(attempt);
+                continue;
+            } catch (RuntimeException | Error e) {
+                // not retried, but the outcome must be reported, as the probe of a half-open circuit would never end
+                latency.record(System.nanoTime() - start);
+                circuitBreaker.onFailure();
+                throw e;
+            }
+            latency.record(System.nanoTime() - start);
+
+            if(compress && status == HttpStatus.UNSUPPORTED_MEDIA_TYPE.value()) {
+                // the host is reachable, but may not support compressed bodies, so the request is resent uncompressed
+                circuitBreaker.onSuccess();
+                response.close();
+                logger.warn("Privacy Engine at " + host + " rejected a compressed request; sending requests uncompressed.");
+                uncompressedHosts.add(host);
+                compress = false;
+                compressedRequest = request;
+                compressedBody = body;
+                attempt--;
+                continue;
+            }
+
+            if(status >= 500 || status == HttpStatus.TOO_MANY_REQUESTS.value()) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+
+            if(!isRetryable(status) || attempt >= properties.getMaxAttempts()) {
+                return response;
+            }
+            response.close();
+            logger.warn("Privacy Engine at " + request.getURI() + " responded with " + status + " (attempt " + attempt + ").");
+            backOff(attempt);
+        }
+    }
+
+    /**
+     * @return the latencies per Privacy Engine endpoint
+     */
+    public Map<String, LatencyHistogram.Snapshot> getLatencies() {
+        Map<String, LatencyHistogram.Snapshot> snapshots = new TreeMap<>();
+        latencies.forEach((endpoint, latency) -> snapshots.put(endpoint, latency.snapshot()));
+        return snapshots;
+    }
+
+    /**
+     * @return the state of the circuit breaker per Privacy Engine host
+     */
+    public Map<String, CircuitBreaker.State> getCircuitBreakerStates() {
+        Map<String, CircuitBreaker.State> states = new TreeMap<>();
+        circuitBreakers.forEach((host, circuitBreaker) -> states.put(host, circuitBreaker.getState()));
+        return states;
+    }
+
+    /**
+     * Overloaded, unavailable or timed-out upstream; other errors are not resolved by repeating the request.
+     */
+    private static boolean isRetryable(int status) {
+        return status == HttpStatus.TOO_MANY_REQUESTS.value()
+                || status == HttpStatus.BAD_GATEWAY.value()
+                || status == HttpStatus.SERVICE_UNAVAILABLE.value()
+                || status == HttpStatus.GATEWAY_TIMEOUT.value();
+    }
+
+    /**
+     * Sleeps for a random time of up to the exponential backoff of the attempt ("full jitter"), so that concurrent
+     * optimizations do not retry in lockstep.
+     */
+    private void backOff(int attempt) throws IOException {
+        long cap = properties.getMaxBackoff().toMillis();
+        long backoff = Math.min(cap, properties.getInitialBackoff().toMillis() << Math.min(attempt - 1, 20));
+
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(backoff + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while backing off from the Privacy Engine.");
+        }
+    }
+
+    private static HttpRequest compressed(HttpRequest request) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(request.getHeaders());
+        headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        headers.remove(HttpHeaders.CONTENT_LENGTH);
+
+        return new HttpRequestWrapper(request) {
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+        try(GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static String host(URI uri) {
+        return uri.getScheme() + "://" + uri.getHost() + (uri.getPort() >= 0 ? ":" + uri.getPort() : "");
+    }
+}
@@ -0,0 +1,192 @@
+package optimizer.service.client;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings of the HTTP client used to invoke the Privacy Engine, bound from the {@code privacy-engine.client.*}
+ * properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "privacy-engine.client")
+public class PrivacyEngineClientProperties {
+    /**
+     * Maximal number of open connections per Privacy Engine host.
+     */
+    private int maxConnectionsPerEndpoint = 20;
+    /**
+     * Maximal number of open connections over all Privacy Engine hosts.
+     */
+    private int maxConnections = 100;
+    /**
+     * Maximal time an idle connection is kept alive, unless the Privacy Engine announces a shorter time.
+     */
+    private Duration keepAlive = Duration.ofSeconds(30);
+    private Duration connectTimeout = Duration.ofSeconds(5);
+    /**
+     * Maximal time without data while waiting for a response; evaluating large populations takes a while.
+     */
+    private Duration readTimeout = Duration.ofMinutes(5);
+    /**
+     * Maximal time to wait for a free connection of the pool.
+     */
+    private Duration connectionRequestTimeout = Duration.ofSeconds(30);
+    /**
+     * If true, request bodies of at least {@link #compressionThreshold} bytes are sent gzip-compressed; only for
+     * Privacy Engines accepting {@code Content-Encoding: gzip}, as others may reject the body as malformed rather
+     * than as unsupported. Responses are always accepted compressed.
+     */
+    private boolean requestCompression = false;
+    private int compressionThreshold = 1024;
+    /**
+     * Maximal number of attempts per request, including the first one.
+     */
+    private int maxAttempts = 3;
+    /**
+     * Base and cap of the exponential backoff between attempts; the actual delay is drawn uniformly up to the
+     * backoff of the attempt.
+     */
+    private Duration initialBackoff = Duration.ofMillis(200);
+    private Duration maxBackoff = Duration.ofSeconds(5);
+    /**
+     * Number of consecutive failed attempts (errors, 5xx and 429 responses) after which requests to the Privacy
+     * Engine host are rejected.
+     */
+    private int circuitBreakerFailureThreshold = 5;
+    /**
+     * Time the circuit stays open before a single probe request is let through.
+     */
+    private Duration circuitBreakerOpenDuration = Duration.ofSeconds(30);
+    /**
+     * Maximal time concurrent JSON requests of different optimizations to the same Privacy Engine function are
+     * collected while another request to the function is in flight before they are sent as a single batch; a request
+     * without requests in flight is sent right away. Zero disables coalescing.
+     */
+    private Duration coalescingWindow = Duration.ofMillis(3);
+    /**
+     * Maximal number of requests per batch; a full batch is sent without waiting for the end of the window.
+     */
+    private int maxBatchSize = 32;
+
+    public int getMaxConnectionsPerEndpoint() {
+        return maxConnectionsPerEndpoint;
+    }
+
+    public void setMaxConnectionsPerEndpoint(int maxConnectionsPerEndpoint) {
+        this.maxConnectionsPerEndpoint = maxConnectionsPerEndpoint;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public Duration getKeepAlive() {
+        return keepAlive;
+    }
+
+    public void setKeepAlive(Duration keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getReadTimeout() {
+        return readTimeout;
+    }
+
+    public void setReadTimeout(Duration readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    public Duration getConnectionRequestTimeout() {
+        return connectionRequestTimeout;
+    }
+
+    public void setConnectionRequestTimeout(Duration connectionRequestTimeout) {
+        this.connectionRequestTimeout = connectionRequestTimeout;
+    }
+
+    public boolean isRequestCompression() {
+        return requestCompression;
+    }
+
+    public void setRequestCompression(boolean requestCompression) {
+        this.requestCompression = requestCompression;
+    }
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public Duration getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    public void setInitialBackoff(Duration initialBackoff) {
+        this.initialBackoff = initialBackoff;
+    }
+
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    public void setMaxBackoff(Duration maxBackoff) {
+        this.maxBackoff = maxBackoff;
+    }
+
+    public int getCircuitBreakerFailureThreshold() {
+        return circuitBreakerFailureThreshold;
+    }
+
+    public void setCircuitBreakerFailureThreshold(int circuitBreakerFailureThreshold) {
+        this.circuitBreakerFailureThreshold = circuitBreakerFailureThreshold;
+    }
+
+    public Duration getCircuitBreakerOpenDuration() {
+        return circuitBreakerOpenDuration;
+    }
+
+    public void setCircuitBreakerOpenDuration(Duration circuitBreakerOpenDuration) {
+        this.circuitBreakerOpenDuration = circuitBreakerOpenDuration;
+    }
+
+    public Duration getCoalescingWindow() {
+        return coalescingWindow;
+    }
+
+    public void setCoalescingWindow(Duration coalescingWindow) {
+        this.coalescingWindow = coalescingWindow;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+}
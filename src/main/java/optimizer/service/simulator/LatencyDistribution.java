@@ -0,0 +1,72 @@
+package optimizer.service.simulator;
+
+import java.util.Random;
+
+/**
+ * Distribution of the latency of the simulated Privacy Engine.
+ */
+public interface LatencyDistribution {
+    enum Type { FIXED, LOGNORMAL, HISTOGRAM }
+
+    /**
+     * @return a latency in nanoseconds
+     */
+    long sample(Random random);
+
+    static LatencyDistribution of(PrivacyEngineSimulatorProperties properties) {
+        return switch (properties.getLatency()) {
+            case FIXED -> fixed(properties.getFixedLatency().toNanos());
+            case LOGNORMAL -> logNormal(properties.getLognormalMedian().toNanos(), properties.getLognormalSigma());
+            case HISTOGRAM -> histogram(properties.getLatencyHistogram());
+        };
+    }
+
+    static LatencyDistribution fixed(long nanos) {
+        return random -> nanos;
+    }
+
+    /**
+     * @param median the median latency in nanoseconds
+     * @param sigma the standard deviation of the logarithm of the latency
+     */
+    static LatencyDistribution logNormal(long median, double sigma) {
+        double mu = Math.log(median);
+        return random -> (long) Math.exp(mu + sigma * random.nextGaussian());
+    }
+
+    /**
+     * @param buckets comma-separated {@code <upper bound in ms>=<count>} pairs with ascending upper bounds; the lower
+     * bound of a bucket is the upper bound of the previous bucket
+     */
+    static LatencyDistribution histogram(String buckets) {
+        String[] pairs = buckets.split(",");
+        long[] upperBounds = new long[pairs.length];
+        long[] cumulativeCounts = new long[pairs.length];
+
+        long total = 0;
+        for(int i = 0; i < pairs.length; i++) {
+            String[] pair = pairs[i].trim().split("=");
+            if(pair.length != 2) {
+                throw new IllegalArgumentException("Invalid latency histogram bucket: " + pairs[i]);
+            }
+            upperBounds[i] = (long) (Double.parseDouble(pair[0].trim()) * 1_000_000);
+            total += Long.parseLong(pair[1].trim());
+            cumulativeCounts[i] = total;
+        }
+
+        if(total <= 0) {
+            throw new IllegalArgumentException("Latency histogram is empty: " + buckets);
+        }
+
+        long count = total;
+        return random -> {
+            long value = (long) (random.nextDouble() * count);
+            int bucket = 0;
+            while(cumulativeCounts[bucket] <= value) {
+                bucket++;
+            }
+            long lower = bucket > 0 ? upperBounds[bucket - 1] : 0;
+            return lower + (long) (random.nextDouble() * (upperBounds[bucket] - lower));
+        };
+    }
+}
@@ -0,0 +1,120 @@
+package optimizer.service.simulator;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings of the in-process Privacy Engine simulator, bound from the {@code privacy-engine.simulator.*} properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "privacy-engine.simulator")
+public class PrivacyEngineSimulatorProperties {
+    /**
+     * If true, requests to the Privacy Engine are answered by the simulator instead of being sent over the network.
+     */
+    private boolean enabled = false;
+    /**
+     * Distribution of the latency added to each request (or batch of requests).
+     */
+    private LatencyDistribution.Type latency = LatencyDistribution.Type.FIXED;
+    /**
+     * Latency of the FIXED distribution.
+     */
+    private Duration fixedLatency = Duration.ofMillis(20);
+    /**
+     * Median and shape of the LOGNORMAL distribution.
+     */
+    private Duration lognormalMedian = Duration.ofMillis(20);
+    private double lognormalSigma = 0.5;
+    /**
+     * Buckets of the HISTOGRAM distribution as comma-separated {@code <upper bound in ms>=<count>} pairs, e.g., as
+     * exported from the latency statistics of a real Privacy Engine; latencies are drawn uniformly within a bucket.
+     */
+    private String latencyHistogram = "10=20,20=50,50=25,200=5";
+    /**
+     * Additional latency per evaluated individual, modelling the computation time of the Privacy Engine.
+     */
+    private Duration latencyPerIndividual = Duration.ZERO;
+    /**
+     * Maximal number of requests processed concurrently; further requests wait for a free slot.
+     */
+    private int maxConcurrency = 4;
+    /**
+     * Seed of the latency sampling; 0 for a random seed.
+     */
+    private long seed = 0;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public LatencyDistribution.Type getLatency() {
+        return latency;
+    }
+
+    public void setLatency(LatencyDistribution.Type latency) {
+        this.latency = latency;
+    }
+
+    public Duration getFixedLatency() {
+        return fixedLatency;
+    }
+
+    public void setFixedLatency(Duration fixedLatency) {
+        this.fixedLatency = fixedLatency;
+    }
+
+    public Duration getLognormalMedian() {
+        return lognormalMedian;
+    }
+
+    public void setLognormalMedian(Duration lognormalMedian) {
+        this.lognormalMedian = lognormalMedian;
+    }
+
+    public double getLognormalSigma() {
+        return lognormalSigma;
+    }
+
+    public void setLognormalSigma(double lognormalSigma) {
+        this.lognormalSigma = lognormalSigma;
+    }
+
+    public String getLatencyHistogram() {
+        return latencyHistogram;
+    }
+
+    public void setLatencyHistogram(String latencyHistogram) {
+        this.latencyHistogram = latencyHistogram;
+    }
+
+    public Duration getLatencyPerIndividual() {
+        return latencyPerIndividual;
+    }
+
+    public void setLatencyPerIndividual(Duration latencyPerIndividual) {
+        this.latencyPerIndividual = latencyPerIndividual;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+}
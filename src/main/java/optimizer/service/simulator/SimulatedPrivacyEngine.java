@@ -0,0 +1,351 @@
+package optimizer.service.simulator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.optimization.data.privacyEngine.dto.AboveIndividualsDTO;
+import com.optimization.data.privacyEngine.dto.PopulationOrderDTO;
+import optimizer.domain.ProblemInstance;
+import optimizer.optimization.jenetics.JeneticsOptimization;
+import optimizer.service.OptimizationService;
+import optimizer.service.PopulationWireCodec;
+import optimizer.service.PopulationWireFormat;
+import optimizer.service.PrivacyEngineService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * In-process Privacy Engine for benchmarking the privacy-preserving mode without a Privacy Engine. It takes the
+ * place of the HTTP connection of the Privacy Engine client, so that wire formats, request coalescing, retries and
+ * latency statistics are exercised as with a real Privacy Engine, and answers the requests from the weights
+ * submitted with the optimization, after a latency drawn from the configured distribution. At most
+ * {@code maxConcurrency} requests are processed at a time.
+ * <p>
+ * Supported functions are {@code computeFitnessClear}, {@code computePopulationOrder} and
+ * {@code computeClassification}, each also in the batch variant of the {@link optimizer.service.PrivacyEngineGateway}.
+ * A population position is interpreted as the time rank of the slot; this is exact if every slot is assigned.
+ */
+@Component
+@ConditionalOnProperty(prefix = "privacy-engine.simulator", name = "enabled", havingValue = "true")
+public class SimulatedPrivacyEngine implements ClientHttpRequestFactory {
+    private static final Logger logger = LogManager.getLogger();
+
+    /**
+     * Share of the population classified as above the threshold if the optimization does not specify a precision.
+     */
+    private static final int DEFAULT_CLASSIFICATION_PERCENTAGE = 25;
+
+    private final ObjectProvider<OptimizationService> optimizationService;
+    private final ObjectMapper objectMapper;
+    private final LatencyDistribution latency;
+    private final long latencyPerIndividual;
+    private final Semaphore permits;
+    private final Random random;
+
+    /**
+     * Per optimization, the population last received in a packed format, i.e., the base of the next delta.
+     */
+    private final Map<UUID, int[][]> bases = new ConcurrentHashMap<>();
+    /**
+     * Per optimization, the best fitness classified so far.
+     */
+    private final Map<UUID, Integer> maxima = new ConcurrentHashMap<>();
+
+    public SimulatedPrivacyEngine(ObjectProvider<OptimizationService> optimizationService, ObjectMapper objectMapper,
+                                  PrivacyEngineSimulatorProperties properties) {
+        this.optimizationService = optimizationService;
+        this.objectMapper = objectMapper;
+        this.latency = LatencyDistribution.of(properties);
+        this.latencyPerIndividual = properties.getLatencyPerIndividual().toNanos();
+        this.permits = new Semaphore(Math.max(1, properties.getMaxConcurrency()), true);
+        this.random = properties.getSeed() != 0 ? new Random(properties.getSeed()) : new Random();
+
+        logger.info("Privacy Engine requests are answered by the simulator; latency: " + properties.getLatency()
+                + ", concurrency: " + properties.getMaxConcurrency() + ".");
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+        return new SimulatedRequest(uri, httpMethod);
+    }
+
+    private SimulatedResponse handle(URI uri, HttpHeaders headers, byte[] body) throws IOException {
+        String path = uri.getPath();
+        int separator = path.lastIndexOf('/');
+        String function = path.substring(separator + 1);
+        boolean batch = path.substring(0, separator).endsWith("/batch");
+
+        if("gzip".equalsIgnoreCase(headers.getFirst(HttpHeaders.CONTENT_ENCODING))) {
+            try(InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                body = gzip.readAllBytes();
+            }
+        }
+
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the simulated Privacy Engine.");
+        }
+
+        long start = System.nanoTime();
+        try {
+            Object response;
+            int individuals = 0;
+
+            if(batch) {
+                List<Map<String, Object>> responses = new ArrayList<>();
+                for(JsonNode item : objectMapper.readTree(body)) {
+                    int[][] population = objectMapper.convertValue(item.get("population"), int[][].class);
+                    individuals += population.length;
+
+                    Map<String, Object> itemResponse = new LinkedHashMap<>();
+                    try {
+                        UUID optId = UUID.fromString(item.path("optimizationId").asText());
+                        itemResponse.put("body", evaluate(function, optId, population));
+                        itemResponse.put("status", HttpStatus.OK.value());
+                    } catch (SimulatorException e) {
+                        itemResponse.put("body", e.getMessage());
+                        itemResponse.put("status", e.status.value());
+                    }
+                    responses.add(itemResponse);
+                }
+                response = responses;
+            } else {
+                UUID optId = optimizationId(headers);
+                int[][] population = decode(headers.getContentType(), body, optId);
+                individuals = population.length;
+                response = evaluate(function, optId, population);
+            }
+
+            sleepUntil(start + latency.sample(random) + individuals * latencyPerIndividual);
+            return new SimulatedResponse(HttpStatus.OK, MediaType.APPLICATION_JSON, objectMapper.writeValueAsBytes(response));
+        } catch (SimulatorException e) {
+            return new SimulatedResponse(e.status, MediaType.TEXT_PLAIN, e.getMessage().getBytes(StandardCharsets.UTF_8));
+        } finally {
+            permits.release();
+        }
+    }
+
+    private int[][] decode(MediaType contentType, byte[] body, UUID optId) throws IOException {
+        if(contentType == null || contentType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+            return objectMapper.readValue(body, int[][].class);
+        } else if(contentType.equalsTypeAndSubtype(PopulationWireFormat.INT32.getMediaType())) {
+            return PopulationWireCodec.decodeInt32(body);
+        } else if(contentType.equalsTypeAndSubtype(PopulationWireFormat.PACKED.getMediaType())) {
+            int[][] population;
+            try {
+                population = PopulationWireCodec.decodePacked(body, optId != null ? bases.get(optId) : null);
+            } catch (IllegalArgumentException e) {
+                throw new SimulatorException(HttpStatus.CONFLICT, e.getMessage());
+            }
+            if(optId != null) {
+                bases.put(optId, population);
+            }
+            return population;
+        }
+
+        throw new SimulatorException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "Unsupported content type " + contentType + ".");
+    }
+
+    private Object evaluate(String function, UUID optId, int[][] population) {
+        ProblemInstance instance = instance(optId);
+
+        int[] fitness = new int[population.length];
+        for(int i = 0; i < population.length; i++) {
+            for(int f = 0; f < population[i].length; f++) {
+                fitness[i] += instance.getWeight(f, instance.getSlotByTime(population[i][f]));
+            }
+        }
+
+        return switch (function) {
+            case "computeFitnessClear" -> Arrays.stream(fitness).boxed().toArray(Integer[]::new);
+            case "computePopulationOrder" -> {
+                Integer[] order = descending(fitness);
+                yield new PopulationOrderDTO(Arrays.stream(order).mapToInt(Integer::intValue).toArray(),
+                        order.length > 0 ? fitness[order[0]] : 0);
+            }
+            case "computeClassification" -> classify(optId, fitness);
+            default -> throw new SimulatorException(HttpStatus.NOT_FOUND, "Unknown function " + function + ".");
+        };
+    }
+
+    /**
+     * Classifies the best individuals as above the threshold, where the share of the population is given by the
+     * fitness precision of the optimization, as with the relative threshold of the non-privacy-preserving mode.
+     */
+    private AboveIndividualsDTO classify(UUID optId, int[] fitness) {
+        Integer[] order = descending(fitness);
+        if(order.length == 0) {
+            return new AboveIndividualsDTO(new Integer[0], null, false);
+        }
+
+        int precision = optimization(optId).getFitnessPrecision();
+        int percentage = precision > 0 && precision <= 100 ? precision : DEFAULT_CLASSIFICATION_PERCENTAGE;
+        int above = Math.max(1, (int) Math.ceil(order.length * percentage / 100.0));
+
+        int maximum = fitness[order[0]];
+        Integer previous = maxima.get(optId);
+        maxima.merge(optId, maximum, Math::max);
+        boolean best = previous == null || maximum > previous;
+
+        return new AboveIndividualsDTO(Arrays.copyOf(order, above), order[0], best);
+    }
+
+    private static Integer[] descending(int[] fitness) {
+        Integer[] order = new Integer[fitness.length];
+        for(int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(fitness[b], fitness[a]));
+        return order;
+    }
+
+    private JeneticsOptimization optimization(UUID optId) {
+        JeneticsOptimization optimization = optId != null ? optimizationService.getObject().getJeneticsOptimization(optId) : null;
+        if(optimization == null) {
+            throw new SimulatorException(HttpStatus.NOT_FOUND, "Unknown optimization " + optId + ".");
+        }
+        return optimization;
+    }
+
+    private ProblemInstance instance(UUID optId) {
+        ProblemInstance instance = optimization(optId).getInstance();
+        if(!instance.hasWeights()) {
+            throw new SimulatorException(HttpStatus.BAD_REQUEST, "Optimization " + optId + " has no weights to simulate the Privacy Engine.");
+        }
+        return instance;
+    }
+
+    private static UUID optimizationId(HttpHeaders headers) {
+        String optId = headers.getFirst(PrivacyEngineService.OPTIMIZATION_ID_HEADER);
+        try {
+            return optId != null ? UUID.fromString(optId) : null;
+        } catch (IllegalArgumentException e) {
+            throw new SimulatorException(HttpStatus.BAD_REQUEST, "Invalid optimization id " + optId + ".");
+        }
+    }
+
+    private static void sleepUntil(long deadline) throws InterruptedIOException {
+        long remaining;
+        while((remaining = deadline - System.nanoTime()) > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while simulating Privacy Engine latency.");
+            }
+        }
+    }
+
+    private static class SimulatorException extends RuntimeException {
+        private final HttpStatus status;
+
+        private SimulatorException(HttpStatus status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private class SimulatedRequest extends AbstractClientHttpRequest {
+        private final URI uri;
+        private final HttpMethod method;
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        private SimulatedRequest(URI uri, HttpMethod method) {
+            this.uri = uri;
+            this.method = method;
+        }
+
+        @Override
+        public String getMethodValue() {
+            return method.name();
+        }
+
+        @Override
+        public URI getURI() {
+            return uri;
+        }
+
+        @Override
+        protected OutputStream getBodyInternal(HttpHeaders headers) {
+            return body;
+        }
+
+        @Override
+        protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+            return handle(uri, headers, body.toByteArray());
+        }
+    }
+
+    private static class SimulatedResponse implements ClientHttpResponse {
+        private final HttpStatus status;
+        private final HttpHeaders headers = new HttpHeaders();
+        private final byte[] body;
+
+        private SimulatedResponse(HttpStatus status, MediaType contentType, byte[] body) {
+            this.status = status;
+            this.body = body;
+            headers.setContentType(contentType);
+            headers.setContentLength(body.length);
+        }
+
+        @Override
+        public HttpStatus getStatusCode() {
+            return status;
+        }
+
+        @Override
+        public int getRawStatusCode() {
+            return status.value();
+        }
+
+        @Override
+        public String getStatusText() {
+            return status.getReasonPhrase();
+        }
+
+        @Override
+        public void close() { }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
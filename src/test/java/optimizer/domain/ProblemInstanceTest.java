@@ -0,0 +1,102 @@
+package optimizer.domain;
+
+import io.jenetics.EnumGene;
+import io.jenetics.Genotype;
+import io.jenetics.util.RandomRegistry;
+import optimizer.optimization.jenetics.jeneticsSO.SOSlotAllocationProblem;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProblemInstanceTest {
+    private static final LocalDateTime START = LocalDateTime.of(2021, 1, 1, 8, 0);
+
+    private final Random random = new Random(42);
+
+    @Test
+    void storesBothWeightsOnlyInterleaved() {
+        Flight[] flights = new Flight[5];
+        for(int f = 0; f < flights.length; f++) {
+            flights[f] = new FlightMO("F" + f, START, random.ints(7, 0, 100).toArray(), random.ints(7, 0, 100).toArray());
+        }
+        Slot[] slots = shuffledSlots(7);
+        ProblemInstance instance = ProblemInstance.of(flights, slots);
+
+        assertNull(instance.weightMatrix());
+        assertNull(instance.secondWeightMatrix());
+        assertNotNull(instance.interleavedWeightMatrix());
+        assertTrue(instance.hasWeights());
+        assertTrue(instance.hasSecondWeights());
+
+        for(int f = 0; f < flights.length; f++) {
+            for(int j = 0; j < slots.length; j++) {
+                int rank = instance.getSlotRank(j);
+                assertEquals(flights[f].getWeights()[rank], instance.getWeight(f, j));
+                assertEquals(((FlightMO) flights[f]).getSecondWeights()[rank], instance.getSecondWeight(f, j));
+            }
+        }
+    }
+
+    @Test
+    void storesSingleWeightsRowMajor() {
+        Flight[] flights = new Flight[5];
+        for(int f = 0; f < flights.length; f++) {
+            // weights of the last slot are missing
+            flights[f] = new Flight("F" + f, START, random.ints(6, 0, 100).toArray());
+        }
+        Slot[] slots = shuffledSlots(7);
+        ProblemInstance instance = ProblemInstance.of(flights, slots);
+
+        assertNotNull(instance.weightMatrix());
+        assertNull(instance.interleavedWeightMatrix());
+        assertTrue(instance.hasWeights());
+        assertFalse(instance.hasSecondWeights());
+
+        for(int f = 0; f < flights.length; f++) {
+            for(int j = 0; j < slots.length; j++) {
+                int rank = instance.getSlotRank(j);
+                int expected = rank < 6 ? flights[f].getWeights()[rank] : ProblemInstance.MISSING_WEIGHT;
+                assertEquals(expected, instance.getWeight(f, j));
+                assertEquals(ProblemInstance.MISSING_WEIGHT, instance.getSecondWeight(f, j));
+            }
+        }
+    }
+
+    @Test
+    void singleObjectiveProblemReadsTheFirstOfTheInterleavedWeights() {
+        Flight[] flights = new Flight[8];
+        for(int f = 0; f < flights.length; f++) {
+            flights[f] = new FlightMO("F" + f, START, random.ints(10, 0, 100).toArray(), random.ints(10, 0, 100).toArray());
+        }
+        ProblemInstance instance = ProblemInstance.of(flights, shuffledSlots(10));
+        SOSlotAllocationProblem problem = new SOSlotAllocationProblem(instance);
+
+        List<Genotype<EnumGene<Integer>>> genotypes = RandomRegistry.with(new Random(3), r ->
+                problem.codec().encoding().instances().limit(20).collect(Collectors.toList()));
+        List<Integer> fitness = problem.fitness(genotypes);
+
+        for(int i = 0; i < genotypes.size(); i++) {
+            assertEquals(problem.fitness().apply(problem.codec().decode(genotypes.get(i))), fitness.get(i));
+        }
+    }
+
+    /**
+     * @return slots whose session order differs from their time order
+     */
+    private Slot[] shuffledSlots(int slotCount) {
+        Slot[] slots = new Slot[slotCount];
+        for(int j = 0; j < slotCount; j++) {
+            slots[j] = new Slot(START.plusMinutes((j * 3L) % slotCount));
+        }
+        return slots;
+    }
+}
@@ -0,0 +1,202 @@
+package optimizer.optimization.evaluation;
+
+import io.jenetics.EnumGene;
+import io.jenetics.Genotype;
+import io.jenetics.PermutationChromosome;
+import io.jenetics.Phenotype;
+import io.jenetics.util.ISeq;
+import io.jenetics.util.IntRange;
+import io.jenetics.util.RandomRegistry;
+import io.jenetics.util.Seq;
+import optimizer.domain.Flight;
+import optimizer.domain.Slot;
+import optimizer.optimization.jenetics.JeneticsOptimization;
+import optimizer.optimization.jenetics.jeneticsSO.SOJeneticsOptimization;
+import optimizer.optimization.jenetics.jeneticsSO.SOJeneticsOptimizationConfiguration;
+import optimizer.optimization.jenetics.jeneticsSO.SOSlotAllocationProblem;
+import optimizer.service.PrivacyEngineService;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchEvaluatorTest {
+    private static final int FLIGHTS = 30;
+    private static final int SLOTS = 40;
+
+    @Test
+    void parallelEvaluationEqualsSequentialEvaluation() {
+        Random random = new Random(5);
+        SOJeneticsOptimization optimization = optimization(random);
+        List<Phenotype<EnumGene<Integer>, Integer>> population = population(random, 101);
+
+        List<Phenotype<EnumGene<Integer>, Integer>> sequential = evaluate(optimization, population, false, 0);
+        List<Phenotype<EnumGene<Integer>, Integer>> dedicatedPool = evaluate(optimization, population, true, 4);
+        List<Phenotype<EnumGene<Integer>, Integer>> commonPool = evaluate(optimization, population, true, 0);
+
+        SOSlotAllocationProblem problem = new SOSlotAllocationProblem(optimization.getInstance());
+        for(int i = 0; i < population.size(); i++) {
+            assertSame(population.get(i).genotype(), sequential.get(i).genotype());
+            assertEquals(problem.fitness(population.get(i).genotype()), sequential.get(i).fitness());
+        }
+        assertEquals(sequential, dedicatedPool);
+        assertEquals(sequential, commonPool);
+    }
+
+    @Test
+    void actualFitnessValuesAreRequestedOncePerUncachedGenotype() {
+        Random random = new Random(7);
+        SOJeneticsOptimization optimization = optimization(random);
+        optimization.setConfiguration(optimization.getDefaultConfiguration());
+        List<int[][]> requests = new ArrayList<>();
+        optimization.setPrivacyEngineService(privacyEngine(requests, BatchEvaluatorTest::fitness));
+        SOBatchEvaluatorActualValues evaluator = new SOBatchEvaluatorActualValues(
+                new SOSlotAllocationProblem(optimization.getInstance()), optimization);
+        PopulationEncoder encoder = new PopulationEncoder(optimization.getInstance());
+
+        // ten distinct genotypes, each of them three times, as equal but not identical individuals
+        List<Phenotype<EnumGene<Integer>, Integer>> distinct = population(random, 10);
+        ISeq<Phenotype<EnumGene<Integer>, Integer>> population = ISeq.of(IntStream.range(0, 30)
+                .mapToObj(i -> Phenotype.<EnumGene<Integer>, Integer>of(Genotype.of(distinct.get(i % 10).genotype().chromosome()), 1))
+                .toList());
+
+        // cache misses: the distinct genotypes are sent, their values are expanded back onto the population
+        assertArrayEquals(expectedFitness(encoder, population), evaluator.computeActualFitnessValues(population));
+        assertEquals(1, requests.size());
+        assertEquals(10, requests.get(0).length);
+
+        // cache hits: nothing is sent
+        assertArrayEquals(expectedFitness(encoder, population), evaluator.computeActualFitnessValues(population));
+        assertEquals(1, requests.size());
+
+        // only the uncached genotypes of a mixed population are sent, in the order of the population
+        List<Phenotype<EnumGene<Integer>, Integer>> uncached = population(random, 4);
+        ISeq<Phenotype<EnumGene<Integer>, Integer>> mixed = ISeq.of(uncached.get(0), population.get(3), uncached.get(1),
+                uncached.get(0), population.get(12), uncached.get(2), uncached.get(3), uncached.get(1));
+        assertArrayEquals(expectedFitness(encoder, mixed), evaluator.computeActualFitnessValues(mixed));
+        assertEquals(2, requests.size());
+        assertArrayEquals(encoder.encode(ISeq.of(uncached)), requests.get(1));
+    }
+
+    @Test
+    void actualFitnessValuesOfTheWrongLengthAreRejected() {
+        Random random = new Random(11);
+        SOJeneticsOptimization optimization = optimization(random);
+        optimization.setConfiguration(optimization.getDefaultConfiguration());
+        List<int[][]> requests = new ArrayList<>();
+        optimization.setPrivacyEngineService(privacyEngine(requests,
+                input -> Arrays.copyOf(BatchEvaluatorTest.fitness(input), input.length - 1)));
+        SOBatchEvaluatorActualValues evaluator = new SOBatchEvaluatorActualValues(
+                new SOSlotAllocationProblem(optimization.getInstance()), optimization);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> evaluator.computeActualFitnessValues(ISeq.of(population(random, 5))));
+        assertEquals("Privacy Engine returned 4 fitness values for 5 individuals.", e.getMessage());
+    }
+
+    @Test
+    void missingActualFitnessValuesAreRejectedAndNotCached() {
+        Random random = new Random(13);
+        SOJeneticsOptimization optimization = optimization(random);
+        optimization.setConfiguration(optimization.getDefaultConfiguration());
+        List<int[][]> requests = new ArrayList<>();
+        optimization.setPrivacyEngineService(privacyEngine(requests, input -> {
+            Integer[] fitness = BatchEvaluatorTest.fitness(input);
+            fitness[2] = null;
+            return fitness;
+        }));
+        SOBatchEvaluatorActualValues evaluator = new SOBatchEvaluatorActualValues(
+                new SOSlotAllocationProblem(optimization.getInstance()), optimization);
+        ISeq<Phenotype<EnumGene<Integer>, Integer>> population = ISeq.of(population(random, 5));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> evaluator.computeActualFitnessValues(population));
+        assertEquals("Privacy Engine returned no fitness value for individual 2 of 5.", e.getMessage());
+
+        // none of the values of the rejected response have been cached
+        assertThrows(IllegalStateException.class, () -> evaluator.computeActualFitnessValues(population));
+        assertEquals(2, requests.size());
+        assertTrue(requests.stream().allMatch(input -> input.length == 5));
+    }
+
+    /**
+     * @return a Privacy Engine recording the populations it is sent and answering them with the given function
+     */
+    private static PrivacyEngineService privacyEngine(List<int[][]> requests, Function<int[][], Integer[]> computeFitness) {
+        return new PrivacyEngineService(new RestTemplate(), null) {
+            @Override
+            public Integer[] computeActualFitnessValues(JeneticsOptimization optimization, int[][] input) {
+                requests.add(input);
+                return computeFitness.apply(input);
+            }
+        };
+    }
+
+    /**
+     * Stand-in for the fitness computed by the Privacy Engine, which differs between the encoded individuals.
+     */
+    private static Integer[] fitness(int[][] input) {
+        Integer[] fitness = new Integer[input.length];
+        for(int i = 0; i < input.length; i++) {
+            int value = 0;
+            for(int f = 0; f < input[i].length; f++) {
+                value = 31 * value + input[i][f];
+            }
+            fitness[i] = value;
+        }
+        return fitness;
+    }
+
+    private static Integer[] expectedFitness(PopulationEncoder encoder, Seq<Phenotype<EnumGene<Integer>, Integer>> population) {
+        return fitness(encoder.encode(population));
+    }
+
+    private static List<Phenotype<EnumGene<Integer>, Integer>> evaluate(SOJeneticsOptimization optimization,
+                                                                       List<Phenotype<EnumGene<Integer>, Integer>> population,
+                                                                       boolean parallel, int threads) {
+        SOJeneticsOptimizationConfiguration configuration = optimization.getDefaultConfiguration();
+        configuration.setParallelEvaluation(parallel);
+        configuration.setEvaluationThreads(threads);
+        optimization.setConfiguration(configuration);
+
+        SOBatchEvaluatorActualValues evaluator = new SOBatchEvaluatorActualValues(
+                new SOSlotAllocationProblem(optimization.getInstance()), optimization);
+        try {
+            return evaluator.evaluateActualFitness(population);
+        } finally {
+            evaluator.shutdown();
+        }
+    }
+
+    private static SOJeneticsOptimization optimization(Random random) {
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 8, 0);
+        Flight[] flights = new Flight[FLIGHTS];
+        for(int f = 0; f < FLIGHTS; f++) {
+            flights[f] = new Flight("F" + f, start.plusMinutes(random.nextInt(SLOTS)), random.ints(SLOTS, 0, 1000).toArray());
+        }
+        Slot[] slots = new Slot[SLOTS];
+        for(int j = 0; j < SLOTS; j++) {
+            slots[j] = new Slot(start.plusMinutes(j));
+        }
+        return new SOJeneticsOptimization(flights, slots);
+    }
+
+    private static List<Phenotype<EnumGene<Integer>, Integer>> population(Random random, int size) {
+        ISeq<Integer> alleles = ISeq.of(IntRange.of(0, SLOTS).stream().boxed().toList());
+        return RandomRegistry.with(random, r -> IntStream.range(0, size)
+                .mapToObj(i -> Phenotype.<EnumGene<Integer>, Integer>of(Genotype.of(PermutationChromosome.of(alleles)), 1))
+                .toList());
+    }
+}
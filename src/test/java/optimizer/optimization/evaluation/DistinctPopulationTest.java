@@ -0,0 +1,79 @@
+package optimizer.optimization.evaluation;
+
+import io.jenetics.EnumGene;
+import io.jenetics.Genotype;
+import io.jenetics.PermutationChromosome;
+import io.jenetics.Phenotype;
+import io.jenetics.util.ISeq;
+import io.jenetics.util.IntRange;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class DistinctPopulationTest {
+    private static final ISeq<Integer> ALLELES = ISeq.of(IntRange.of(0, 4).stream().boxed().toList());
+
+    // genotypes a, b, a, c, b, a as separate instances
+    private final ISeq<Phenotype<EnumGene<Integer>, Integer>> population = ISeq.of(
+            phenotype(0, 1, 2, 3),
+            phenotype(1, 0, 2, 3),
+            phenotype(0, 1, 2, 3),
+            phenotype(3, 2, 1, 0),
+            phenotype(1, 0, 2, 3),
+            phenotype(0, 1, 2, 3));
+
+    @Test
+    void numbersDistinctGenotypesByFirstOccurrence() {
+        DistinctPopulation<Integer> distinct = DistinctPopulation.of(population);
+
+        assertEquals(3, distinct.size());
+        assertEquals(3, distinct.duplicates());
+        assertSame(population.get(0), distinct.distinct().get(0));
+        assertSame(population.get(1), distinct.distinct().get(1));
+        assertSame(population.get(3), distinct.distinct().get(2));
+        assertEquals(0, distinct.representative(0));
+        assertEquals(1, distinct.representative(1));
+        assertEquals(3, distinct.representative(2));
+    }
+
+    @Test
+    void expandIndicesPlacesCopiesAfterEachOther() {
+        DistinctPopulation<Integer> distinct = DistinctPopulation.of(population);
+
+        // an order c, a, b of the distinct genotypes
+        assertArrayEquals(new int[] { 3, 0, 2, 5, 1, 4 }, distinct.expandIndices(new int[] { 2, 0, 1 }));
+        // a classification of b only
+        assertArrayEquals(new int[] { 1, 4 }, distinct.expandIndices(new int[] { 1 }));
+    }
+
+    @Test
+    void expandValuesAssignsTheValueOfTheGenotypeToEachCopy() {
+        DistinctPopulation<Integer> distinct = DistinctPopulation.of(population);
+
+        assertArrayEquals(new int[] { 10, 20, 10, 30, 20, 10 }, distinct.expandValues(new int[] { 10, 20, 30 }));
+        assertArrayEquals(new Integer[] { 10, 20, 10, 30, 20, 10 }, distinct.expandValues(new Integer[] { 10, 20, 30 }));
+    }
+
+    @Test
+    void populationWithoutDuplicatesIsPassedThrough() {
+        ISeq<Phenotype<EnumGene<Integer>, Integer>> unique = ISeq.of(population.get(0), population.get(1), population.get(3));
+        DistinctPopulation<Integer> distinct = DistinctPopulation.of(unique);
+        int[] order = { 2, 0, 1 };
+
+        assertEquals(0, distinct.duplicates());
+        assertSame(unique, distinct.distinct());
+        assertSame(order, distinct.expandIndices(order));
+        assertEquals(Arrays.toString(order), Arrays.toString(distinct.expandValues(order)));
+    }
+
+    private static Phenotype<EnumGene<Integer>, Integer> phenotype(int... alleleIndices) {
+        ISeq<EnumGene<Integer>> genes = ISeq.of(Arrays.stream(alleleIndices)
+                .mapToObj(i -> EnumGene.of(i, ALLELES))
+                .toList());
+        return Phenotype.of(Genotype.of(new PermutationChromosome<>(genes)), 1);
+    }
+}
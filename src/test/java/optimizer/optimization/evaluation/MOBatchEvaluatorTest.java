@@ -0,0 +1,107 @@
+package optimizer.optimization.evaluation;
+
+import io.jenetics.EnumGene;
+import io.jenetics.Genotype;
+import io.jenetics.PermutationChromosome;
+import io.jenetics.Phenotype;
+import io.jenetics.ext.moea.Vec;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * Compares the sweep of {@link MOBatchEvaluator#nonDominated} with the pairwise comparison of all fitness vectors it
+ * replaced, for the Pareto front statistics (strictly) and the fitness evolution trace (not strictly).
+ */
+class MOBatchEvaluatorTest {
+    private static final Genotype<EnumGene<Integer>> GENOTYPE = Genotype.of(PermutationChromosome.ofInteger(4));
+
+    @Test
+    void equalVectorsAreReportedOnce() {
+        assertNonDominatedLikePairwise(new int[][] { { 3, 3 }, { 3, 3 }, { 3, 3 } });
+        assertArrayEquals(new int[][] { { 3, 3 } }, MOBatchEvaluator.nonDominated(population(new int[][] { { 3, 3 }, { 3, 3 } }), true));
+    }
+
+    @Test
+    void tiesOnTheFirstObjective() {
+        int[][] vectors = { { 5, 1 }, { 5, 4 }, { 2, 9 }, { 5, 4 }, { 2, 3 } };
+        assertNonDominatedLikePairwise(vectors);
+
+        // (5, 1) is only dominated by (5, 4) if the first objective may be equal
+        assertArrayEquals(new int[][] { { 5, 1 }, { 5, 4 }, { 2, 9 } }, MOBatchEvaluator.nonDominated(population(vectors), true));
+        assertArrayEquals(new int[][] { { 5, 4 }, { 2, 9 } }, MOBatchEvaluator.nonDominated(population(vectors), false));
+    }
+
+    @Test
+    void tiesOnTheSecondObjective() {
+        int[][] vectors = { { 1, 7 }, { 4, 7 }, { 6, 2 }, { 3, 7 }, { 6, 0 } };
+        assertNonDominatedLikePairwise(vectors);
+
+        assertArrayEquals(new int[][] { { 1, 7 }, { 4, 7 }, { 6, 2 }, { 3, 7 }, { 6, 0 } },
+                MOBatchEvaluator.nonDominated(population(vectors), true));
+        assertArrayEquals(new int[][] { { 4, 7 }, { 6, 2 } }, MOBatchEvaluator.nonDominated(population(vectors), false));
+    }
+
+    @Test
+    void extremeAndEmptyPopulations() {
+        assertNonDominatedLikePairwise(new int[0][]);
+        assertNonDominatedLikePairwise(new int[][] { { Integer.MIN_VALUE, Integer.MIN_VALUE } });
+        assertNonDominatedLikePairwise(new int[][] { { Integer.MIN_VALUE, 0 }, { 0, Integer.MIN_VALUE }, { Integer.MIN_VALUE, Integer.MIN_VALUE } });
+        assertNonDominatedLikePairwise(new int[][] { { Integer.MAX_VALUE, Integer.MIN_VALUE }, { Integer.MAX_VALUE, Integer.MAX_VALUE }, { -1, Integer.MAX_VALUE } });
+    }
+
+    @Test
+    void randomPopulationsWithManyTies() {
+        Random random = new Random(19);
+        for(int trial = 0; trial < 500; trial++) {
+            int size = 1 + random.nextInt(40);
+            int range = 1 + random.nextInt(6);
+            int[][] vectors = new int[size][];
+            for(int i = 0; i < size; i++) {
+                vectors[i] = new int[] { random.nextInt(range) - range / 2, random.nextInt(range) - range / 2 };
+            }
+            assertNonDominatedLikePairwise(vectors);
+        }
+    }
+
+    private static void assertNonDominatedLikePairwise(int[][] vectors) {
+        List<Phenotype<EnumGene<Integer>, Vec<int[]>>> population = population(vectors);
+
+        assertArrayEquals(pairwise(vectors, true), MOBatchEvaluator.nonDominated(population, true), Arrays.deepToString(vectors));
+        assertArrayEquals(pairwise(vectors, false), MOBatchEvaluator.nonDominated(population, false), Arrays.deepToString(vectors));
+    }
+
+    /**
+     * The comparison of each fitness vector with all other vectors, followed by the removal of duplicates.
+     */
+    private static int[][] pairwise(int[][] vectors, boolean strictly) {
+        List<int[]> front = new ArrayList<>();
+        for(int[] vector : vectors) {
+            boolean dominated = false;
+            for(int[] other : vectors) {
+                if(strictly ?
+                        other[0] > vector[0] && other[1] > vector[1] :
+                        (other[0] > vector[0] && other[1] >= vector[1]) || (other[0] >= vector[0] && other[1] > vector[1])) {
+                    dominated = true;
+                }
+            }
+            if(!dominated && front.stream().noneMatch(v -> Arrays.equals(v, vector))) {
+                front.add(vector);
+            }
+        }
+        return front.toArray(int[][]::new);
+    }
+
+    private static List<Phenotype<EnumGene<Integer>, Vec<int[]>>> population(int[][] vectors) {
+        List<Phenotype<EnumGene<Integer>, Vec<int[]>>> population = new ArrayList<>();
+        for(int[] vector : vectors) {
+            population.add(Phenotype.of(GENOTYPE, 1, Vec.of(vector[0], vector[1])));
+        }
+        return population;
+    }
+}
@@ -0,0 +1,113 @@
+package optimizer.optimization.evaluation;
+
+import io.jenetics.EnumGene;
+import io.jenetics.Phenotype;
+import io.jenetics.util.ISeq;
+import io.jenetics.util.RandomRegistry;
+import optimizer.domain.Flight;
+import optimizer.domain.ProblemInstance;
+import optimizer.domain.Slot;
+import optimizer.optimization.jenetics.jeneticsSO.SOSlotAllocationProblem;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+/**
+ * Compares the encoder with the previous conversion, which decoded each individual, sorted the assigned slots by time
+ * and looked up the index of the slot of each flight.
+ */
+class PopulationEncoderTest {
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 8, 0);
+
+    @Test
+    void encodesLikeTheDecodingConversionWithUnassignedSlots() {
+        assertEncodesLikeTheDecodingConversion(20, 35);
+    }
+
+    @Test
+    void encodesLikeTheDecodingConversionWithoutUnassignedSlots() {
+        assertEncodesLikeTheDecodingConversion(20, 20);
+    }
+
+    @Test
+    void encodersCanBeSharedBetweenThreads() throws Exception {
+        SOSlotAllocationProblem problem = new SOSlotAllocationProblem(instance(15, 25));
+        PopulationEncoder encoder = new PopulationEncoder(problem.getInstance());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<ISeq<Phenotype<EnumGene<Integer>, Integer>>> populations = new ArrayList<>();
+            List<CompletableFuture<int[][]>> encodings = new ArrayList<>();
+            for(int i = 0; i < 16; i++) {
+                ISeq<Phenotype<EnumGene<Integer>, Integer>> population = population(problem, 200, i);
+                populations.add(population);
+                encodings.add(CompletableFuture.supplyAsync(() -> encoder.encode(population), executor));
+            }
+
+            for(int i = 0; i < populations.size(); i++) {
+                assertArrayEquals(convert(problem, populations.get(i)), encodings.get(i).get());
+            }
+            assertNotSame(encodings.get(0).get(), encodings.get(1).get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void assertEncodesLikeTheDecodingConversion(int flightCount, int slotCount) {
+        SOSlotAllocationProblem problem = new SOSlotAllocationProblem(instance(flightCount, slotCount));
+        PopulationEncoder encoder = new PopulationEncoder(problem.getInstance());
+
+        // populations of different sizes, encoded one after the other
+        for(int size : new int[] { 50, 10, 80 }) {
+            ISeq<Phenotype<EnumGene<Integer>, Integer>> population = population(problem, size, size);
+            assertArrayEquals(convert(problem, population), encoder.encode(population));
+        }
+    }
+
+    /**
+     * The conversion before the encoder.
+     */
+    private static int[][] convert(SOSlotAllocationProblem problem, ISeq<Phenotype<EnumGene<Integer>, Integer>> population) {
+        return population.stream()
+                .map(phenotype -> problem.decode(phenotype.genotype()))
+                .map(map -> {
+                    List<Slot> orderedSlots = map.entrySet().stream().sorted(Entry.comparingByValue()).map(Map.Entry::getValue).toList();
+                    return problem.getFlights().stream().mapToInt(flight -> orderedSlots.indexOf(map.get(flight))).toArray();
+                })
+                .toArray(int[][]::new);
+    }
+
+    private static ISeq<Phenotype<EnumGene<Integer>, Integer>> population(SOSlotAllocationProblem problem, int size, long seed) {
+        return RandomRegistry.with(new Random(seed), r -> problem.codec().encoding().instances()
+                .limit(size)
+                .map(genotype -> Phenotype.<EnumGene<Integer>, Integer>of(genotype, 1))
+                .collect(ISeq.toISeq()));
+    }
+
+    /**
+     * @return an instance whose slots are not given in time order
+     */
+    private static ProblemInstance instance(int flightCount, int slotCount) {
+        Random random = new Random(flightCount * 31L + slotCount);
+        Flight[] flights = new Flight[flightCount];
+        for(int f = 0; f < flightCount; f++) {
+            flights[f] = new Flight("F" + f, START, random.ints(slotCount, 0, 100).toArray());
+        }
+        Slot[] slots = new Slot[slotCount];
+        for(int j = 0; j < slotCount; j++) {
+            slots[j] = new Slot(START.plusMinutes(random.nextInt(1000) * 1000L + j));
+        }
+        return ProblemInstance.of(flights, slots);
+    }
+}
@@ -0,0 +1,164 @@
+package optimizer.optimization.evaluation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PopulationRankingTest {
+
+    @Test
+    void ranksAreThePositionsOfTheFirstOccurrences() {
+        List<String> ordered = List.of("c", "a", "c", "b", "a", "c");
+
+        int[] expected = ordered.stream().mapToInt(ordered::indexOf).toArray();
+
+        assertArrayEquals(expected, PopulationRanking.ranks(ordered));
+    }
+
+    @Test
+    void orderAscendingEqualsStableSort() {
+        Random random = new Random(9);
+        for(int run = 0; run < 200; run++) {
+            int[] keys = keys(random, 1 + random.nextInt(300));
+
+            int[] expected = IntStream.range(0, keys.length).boxed()
+                    .sorted(Comparator.comparingInt(i -> keys[i]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+
+            assertArrayEquals(expected, PopulationRanking.orderAscending(keys));
+        }
+    }
+
+    @Test
+    void orderDescendingEqualsStableSort() {
+        Random random = new Random(19);
+        for(int run = 0; run < 200; run++) {
+            int[] keys = keys(random, 1 + random.nextInt(300));
+
+            int[] expected = IntStream.range(0, keys.length).boxed()
+                    .sorted(Comparator.comparingInt((Integer i) -> keys[i]).reversed())
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+
+            assertArrayEquals(expected, PopulationRanking.orderDescending(keys));
+        }
+    }
+
+    @Test
+    void orderDescendingPacksExtremeKeys() {
+        int[] keys = { 0, Integer.MIN_VALUE, Integer.MAX_VALUE, -10_000_000, Integer.MAX_VALUE, Integer.MIN_VALUE };
+
+        assertArrayEquals(new int[] { 2, 4, 0, 3, 1, 5 }, PopulationRanking.orderDescending(keys));
+    }
+
+    @Test
+    void fitnessRangeQuantilesAreMonotoneWindowsFromTheMaximum() {
+        Random random = new Random(23);
+        for(int run = 0; run < 200; run++) {
+            int[] fitness = keys(random, 1 + random.nextInt(300));
+            int precision = 1 + random.nextInt(20);
+
+            int[] quantiles = PopulationRanking.fitnessRangeQuantiles(fitness, precision);
+
+            int max = Arrays.stream(fitness).max().getAsInt();
+            for(int i = 0; i < fitness.length; i++) {
+                assertTrue(quantiles[i] >= 0 && quantiles[i] < precision);
+                if(fitness[i] == max) {
+                    assertEquals(0, quantiles[i]);
+                }
+                for(int j = 0; j < fitness.length; j++) {
+                    if(fitness[i] > fitness[j]) {
+                        assertTrue(quantiles[i] <= quantiles[j]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void fitnessRangeQuantilesOfEqualFitness() {
+        assertArrayEquals(new int[] { 0, 0, 0 }, PopulationRanking.fitnessRangeQuantiles(new int[] { 7, 7, 7 }, 10));
+    }
+
+    @Test
+    void orderByQuantileEqualsStableSort() {
+        Random random = new Random(230);
+        for(int run = 0; run < 200; run++) {
+            int[] quantiles = new int[1 + random.nextInt(300)];
+            for(int i = 0; i < quantiles.length; i++) {
+                quantiles[i] = random.nextInt(1 + random.nextInt(20));
+            }
+
+            int[] expected = IntStream.range(0, quantiles.length).boxed()
+                    .sorted(Comparator.comparingInt(i -> quantiles[i]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+
+            assertArrayEquals(expected, PopulationRanking.orderByQuantile(quantiles));
+        }
+    }
+
+    @Test
+    void selectEqualsSortedValue() {
+        Random random = new Random(24);
+        for(int run = 0; run < 500; run++) {
+            int[] values = keys(random, 1 + random.nextInt(300));
+            int k = random.nextInt(values.length);
+
+            int[] sorted = values.clone();
+            Arrays.sort(sorted);
+
+            assertEquals(sorted[k], PopulationRanking.select(values, k));
+        }
+    }
+
+    @Test
+    void selectOnEqualValues() {
+        int[] values = new int[1000];
+        Arrays.fill(values, 3);
+
+        assertEquals(3, PopulationRanking.select(values, 500));
+    }
+
+    @Test
+    void repeatRaisedFirstEqualsStableSortOfRepeatedEntries() {
+        Random random = new Random(240);
+        for(int run = 0; run < 500; run++) {
+            int count = 1 + random.nextInt(30);
+            int size = count + random.nextInt(60);
+            BitSet raised = new BitSet();
+            for(int i = 0; i < count; i++) {
+                if(random.nextInt(3) == 0) raised.set(i);
+            }
+
+            // pad the indices cyclically, then sort them stably with the raised indices first
+            int[] expected = IntStream.range(0, size).map(i -> i % count).boxed()
+                    .sorted(Comparator.comparingInt(i -> raised.get(i) ? 0 : 1))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+
+            assertArrayEquals(expected, PopulationRanking.repeatRaisedFirst(raised, count, size));
+        }
+    }
+
+    /**
+     * @return random keys with many ties, including devalued (negative) keys
+     */
+    static int[] keys(Random random, int size) {
+        int[] keys = new int[size];
+        for(int i = 0; i < size; i++) {
+            keys[i] = random.nextInt(4) == 0 ? -10_000_000 * random.nextInt(3) : random.nextInt(50);
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,110 @@
+package optimizer.optimization.fitnessEstimation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the estimators, which rescale cached normalized shapes, with the distributions the estimators computed
+ * per generation before.
+ */
+class FitnessEstimatorTest {
+    private static final int SAMPLES = 100_000;
+
+    @Test
+    void linearEqualsDistribution() {
+        assertEqualsReference(new LinearFitnessEstimator(), FitnessEstimatorTest::linear);
+    }
+
+    @Test
+    void logarithmicEqualsDistribution() {
+        assertEqualsReference(new LogarithmicFitnessEstimator(), FitnessEstimatorTest::logarithmic);
+    }
+
+    @Test
+    void sigmoidEqualsDistribution() {
+        assertEqualsReference(new SigmoidFitnessEstimator(), FitnessEstimatorTest::sigmoid);
+    }
+
+    @Test
+    void logarithmicEstimateOfASingleSolutionIsTheMaximum() {
+        assertEquals(42.0, new LogarithmicFitnessEstimator().estimateFitness(0, 1, 42.0, 7.0));
+    }
+
+    @Test
+    void distributionEqualsEstimatePerRank() {
+        FitnessEstimator estimator = new SigmoidFitnessEstimator();
+        double[] distribution = estimator.estimateFitnessDistribution(50, 1000.0, 10.0);
+
+        double[] estimates = new double[50];
+        for(int rank = 0; rank < estimates.length; rank++) {
+            estimates[rank] = estimator.estimateFitness(rank, 50, 1000.0, 10.0);
+        }
+
+        assertArrayEquals(distribution, estimates);
+    }
+
+    private static void assertEqualsReference(FitnessEstimator estimator, Reference reference) {
+        Random random = new Random(22);
+        for(int sample = 0; sample < SAMPLES; sample++) {
+            // few distinct population sizes, so that the shape cache is used as during an optimization
+            int populationSize = 2 + random.nextInt(100);
+            int rank = random.nextInt(populationSize);
+            double minFitness = random.nextInt(3) == 0 ? 0 : random.nextInt(100_000);
+            double maxFitness = minFitness + 1 + random.nextInt(1_000_000);
+
+            double expected = reference.distribution(populationSize, maxFitness, minFitness)[rank];
+            double actual = estimator.estimateFitness(rank, populationSize, maxFitness, minFitness);
+
+            if(!Double.isFinite(expected)) {
+                // the previous logarithmic distribution overflowed in e^c for a minimum far above the fitness range
+                assertTrue(actual >= minFitness && actual <= maxFitness);
+                continue;
+            }
+            assertEquals(expected, actual, 1e-12 * maxFitness,
+                    "size " + populationSize + ", rank " + rank + ", max " + maxFitness + ", min " + minFitness);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Reference {
+        double[] distribution(int populationSize, double maxFitness, double minFitness);
+    }
+
+    private static double[] linear(int populationSize, double maxFitness, double minFitness) {
+        double delta = (maxFitness - minFitness) / populationSize;
+
+        double[] fitnessValues = new double[populationSize];
+        for(int i = 0; i < populationSize; i++) {
+            fitnessValues[i] = maxFitness - (i * delta);
+        }
+        return fitnessValues;
+    }
+
+    private static double[] logarithmic(int populationSize, double maxFitness, double minFitness) {
+        double a = (minFitness - maxFitness) / (Math.log(1 / (double) populationSize));
+        double c = (0 - (minFitness * Math.log(populationSize))) / (minFitness - maxFitness);
+        double b = Math.pow(Math.E, c);
+
+        double[] fitnessValues = new double[populationSize];
+        for(int i = 0; i < populationSize; i++) {
+            fitnessValues[populationSize - 1 - i] = a * Math.log(b * (i + 1));
+        }
+        return fitnessValues;
+    }
+
+    private static double[] sigmoid(int populationSize, double maxFitness, double minFitness) {
+        double difference = maxFitness - minFitness;
+
+        double[] fitnessValues = new double[populationSize];
+        for(int i = 0; i < populationSize; i++) {
+            double x = ((i + 1.0) * (6.0 / populationSize)) - 3.0;
+            fitnessValues[populationSize - 1 - i] = ((1.0 / 0.948683298) * (x / Math.sqrt(1 + x * x)) * (difference / 2.0)) + minFitness + (difference / 2.0);
+        }
+        return fitnessValues;
+    }
+}
@@ -0,0 +1,49 @@
+package optimizer.optimization.jenetics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class FitnessCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsedEntry() {
+        FitnessCache cache = new FitnessCache(2);
+        cache.put(1, new int[] { 10 });
+        cache.put(2, new int[] { 20 });
+
+        // accessing 1 makes 2 the least recently used entry
+        assertArrayEquals(new int[] { 10 }, cache.get(1));
+        cache.put(3, new int[] { 30 });
+
+        assertNull(cache.get(2));
+        assertArrayEquals(new int[] { 10 }, cache.get(1));
+        assertArrayEquals(new int[] { 30 }, cache.get(3));
+    }
+
+    @Test
+    void countsHitsAndMisses() {
+        FitnessCache cache = new FitnessCache(10);
+        cache.put(1, new int[] { 10, 11 });
+
+        cache.get(1);
+        cache.get(1);
+        cache.get(2);
+
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void disabledCacheStoresNothingAndHasNoHits() {
+        FitnessCache cache = new FitnessCache(0);
+        cache.put(1, new int[] { 10 });
+
+        assertFalse(cache.isEnabled());
+        assertNull(cache.get(1));
+        assertEquals(0, cache.getHits());
+    }
+}
@@ -0,0 +1,162 @@
+package optimizer.optimization.jenetics;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FitnessEvolutionTraceTest {
+
+    @Test
+    void samplesEveryIntervalthGenerationStartingWithTheFirst() {
+        FitnessEvolutionTrace trace = new FitnessEvolutionTrace(3, FitnessEvolutionTrace.Sampling.POPULATION);
+
+        assertTrue(trace.isSampled(1));
+        assertFalse(trace.isSampled(2));
+        assertFalse(trace.isSampled(3));
+        assertTrue(trace.isSampled(4));
+        assertTrue(trace.isSampled(7));
+
+        // an interval of one or less traces every generation
+        FitnessEvolutionTrace everyGeneration = new FitnessEvolutionTrace(0, FitnessEvolutionTrace.Sampling.POPULATION);
+        assertEquals(1, everyGeneration.getInterval());
+        assertTrue(everyGeneration.isSampled(2));
+    }
+
+    @Test
+    void defaultsToTheSummaryOfEveryGeneration() {
+        FitnessEvolutionTrace trace = FitnessEvolutionTrace.ofEveryGeneration();
+        trace.append(step(1, 0, null, new Double[] { 4.0, 0.0, 2.0, 1.0, 3.0 }));
+
+        List<double[][]> evaluated = new ArrayList<>();
+        trace.forEach((generation, island, estimated, evaluatedColumn) -> evaluated.add(evaluatedColumn.toVectors()));
+
+        assertEquals(1, trace.getInterval());
+        // minimum, quartiles and maximum
+        assertArrayEquals(new double[][] { { 0.0 }, { 1.0 }, { 2.0 }, { 3.0 }, { 4.0 } }, evaluated.get(0));
+    }
+
+    @Test
+    void ordersStepsByGenerationAndIslandAndKeepsTheirColumns() {
+        FitnessEvolutionTrace trace = new FitnessEvolutionTrace(1, FitnessEvolutionTrace.Sampling.POPULATION);
+        trace.append(step(2, 1, new Double[] { 21.0 }, new Double[] { 22.0, 23.0 }));
+        trace.append(step(1, 1, null, new Double[] { 11.0 }));
+        trace.append(step(2, 0, new Double[] { 1.0, 2.0 }, null));
+        trace.append(step(1, 0, new Double[] { 3.0 }, new Double[] { 4.0 }));
+
+        List<String> visited = new ArrayList<>();
+        trace.forEach((generation, island, estimated, evaluated) -> visited.add(generation + "/" + island + ": "
+                + (estimated != null ? List.of(estimated.toBoxedArray()) : null) + " "
+                + (evaluated != null ? List.of(evaluated.toBoxedArray()) : null)));
+
+        assertEquals(List.of(
+                "1/0: [3.0] [4.0]",
+                "1/1: null [11.0]",
+                "2/0: [1.0, 2.0] null",
+                "2/1: [21.0] [22.0, 23.0]"), visited);
+        assertEquals(4, trace.size());
+        assertEquals(1, trace.getDimension());
+    }
+
+    @Test
+    void doublesTheIntervalOnceTheCapIsReached() {
+        // each step stores four values: two estimated and two evaluated
+        FitnessEvolutionTrace trace = new FitnessEvolutionTrace(1, FitnessEvolutionTrace.Sampling.POPULATION, 16);
+        for(int generation = 1; generation <= 4; generation++) {
+            trace.append(step(generation, 0, values(generation), values(generation)));
+        }
+        assertEquals(1, trace.getInterval());
+        assertEquals(List.of(1, 2, 3, 4), generations(trace));
+
+        // the fifth step exceeds the cap: generations 2 and 4 are dropped
+        trace.append(step(5, 0, values(5), values(5)));
+        assertEquals(2, trace.getInterval());
+        assertEquals(List.of(1, 3, 5), generations(trace));
+        assertFalse(trace.isSampled(6));
+
+        // steps of generations that are no longer sampled are ignored
+        trace.append(step(6, 0, values(6), values(6)));
+        trace.append(step(7, 0, values(7), values(7)));
+        assertEquals(List.of(1, 3, 5, 7), generations(trace));
+
+        // the retained steps keep their values after compaction
+        List<Double> evaluated = new ArrayList<>();
+        trace.forEach((generation, island, estimatedColumn, evaluatedColumn) -> evaluated.addAll(List.of(evaluatedColumn.toBoxedArray())));
+        assertEquals(List.of(10.0, 11.0, 30.0, 31.0, 50.0, 51.0, 70.0, 71.0), evaluated);
+
+        trace.append(step(9, 0, values(9), values(9)));
+        assertEquals(4, trace.getInterval());
+        assertEquals(List.of(1, 5, 9), generations(trace));
+        assertFalse(trace.isTruncated());
+
+        trace.clear();
+        assertEquals(1, trace.getInterval());
+        assertEquals(0, trace.size());
+    }
+
+    @Test
+    void dropsFurtherStepsIfDownsamplingCannotMakeRoom() {
+        FitnessEvolutionTrace trace = new FitnessEvolutionTrace(1, FitnessEvolutionTrace.Sampling.POPULATION, 4);
+        // steps without a generation cannot be downsampled
+        trace.append(step(0, 0, null, values(1)));
+        trace.append(step(0, 1, null, values(2)));
+        trace.append(step(0, 2, null, values(3)));
+
+        assertTrue(trace.isTruncated());
+        assertEquals(2, trace.size());
+        assertEquals(1, trace.getInterval());
+    }
+
+    @Test
+    void writesOneCsvLinePerFitnessVector() throws IOException {
+        FitnessEvolutionTrace trace = new FitnessEvolutionTrace(1, FitnessEvolutionTrace.Sampling.POPULATION);
+        FitnessEvolutionStep<double[]> step = new FitnessEvolutionStep<>();
+        step.setGeneration(1);
+        step.setIsland(2);
+        step.setEstimatedPopulation(new double[][] { { 1.0, 2.0 } });
+        step.setEvaluatedPopulation(new double[][] { { 3.0, 4.0 }, { 5.0, 6.0 } });
+        trace.append(step);
+
+        StringWriter writer = new StringWriter();
+        trace.writeCsv(writer);
+
+        assertEquals("generation,island,population,index,fitness1,fitness2\n" +
+                "1,2,estimated,0,1.0,2.0\n" +
+                "1,2,evaluated,0,3.0,4.0\n" +
+                "1,2,evaluated,1,5.0,6.0\n", writer.toString());
+    }
+
+    @Test
+    void writesOnlyTheHeaderOfAnEmptyTrace() throws IOException {
+        StringWriter writer = new StringWriter();
+        FitnessEvolutionTrace.ofEveryGeneration().writeCsv(writer);
+
+        assertEquals("generation,island,population,index,fitness1\n", writer.toString());
+    }
+
+    private static FitnessEvolutionStep<Double> step(int generation, int island, Double[] estimated, Double[] evaluated) {
+        FitnessEvolutionStep<Double> step = new FitnessEvolutionStep<>();
+        step.setGeneration(generation);
+        step.setIsland(island);
+        step.setEstimatedPopulation(estimated);
+        step.setEvaluatedPopulation(evaluated);
+        return step;
+    }
+
+    private static Double[] values(int generation) {
+        return new Double[] { 10.0 * generation, 10.0 * generation + 1 };
+    }
+
+    private static List<Integer> generations(FitnessEvolutionTrace trace) {
+        List<Integer> generations = new ArrayList<>();
+        trace.forEach((generation, island, estimated, evaluated) -> generations.add(generation));
+        return generations;
+    }
+}
@@ -0,0 +1,159 @@
+package optimizer.optimization.jenetics;
+
+import io.jenetics.EnumGene;
+import io.jenetics.Genotype;
+import io.jenetics.Optimize;
+import io.jenetics.Phenotype;
+import io.jenetics.TruncationSelector;
+import io.jenetics.engine.EvolutionDurations;
+import io.jenetics.engine.EvolutionResult;
+import io.jenetics.util.ISeq;
+import optimizer.domain.ProblemInstance;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IslandModelTest {
+    private static final ProblemInstance INSTANCE = UniquePopulationIndexTest.instance(6, 6, false);
+
+    @Test
+    void immigrantsReplaceTheWorstIndividuals() {
+        IslandModel<Integer> model = model(2, 2);
+        // island 0 holds the fitness values 10 to 15, island 1 the values 0 to 5
+        EvolutionResult<EnumGene<Integer>, Integer> source = result(population(0, 10), 2);
+        EvolutionResult<EnumGene<Integer>, Integer> target = result(population(6, 0), 2);
+
+        assertSame(source, model.migrate(0, source));
+        ISeq<Phenotype<EnumGene<Integer>, Integer>> migrated = model.migrate(1, target).population();
+
+        assertEquals(6, migrated.size());
+        Set<Integer> survivors = migrated.stream().filter(Phenotype::isEvaluated).map(Phenotype::fitness).collect(Collectors.toSet());
+        assertEquals(Set.of(2, 3, 4, 5), survivors);
+
+        List<Genotype<EnumGene<Integer>>> immigrants = migrated.stream().filter(p -> !p.isEvaluated()).map(Phenotype::genotype).toList();
+        List<Genotype<EnumGene<Integer>>> best = source.population().stream().filter(p -> p.fitness() >= 14).map(Phenotype::genotype).toList();
+        assertEquals(2, immigrants.size());
+        assertTrue(immigrants.containsAll(best));
+        assertTrue(migrated.stream().filter(p -> !p.isEvaluated()).allMatch(p -> p.generation() == 2));
+
+        assertEquals(2, model.getMigrations());
+        assertEquals(2, model.getImmigrants());
+    }
+
+    @Test
+    void migratesOnlyEveryInterval() {
+        IslandModel<Integer> model = new IslandModel<>(2, IslandModel.Topology.RING, 3, 2, new TruncationSelector<EnumGene<Integer>, Integer>());
+        EvolutionResult<EnumGene<Integer>, Integer> source = result(population(0, 10), 2);
+        EvolutionResult<EnumGene<Integer>, Integer> target = result(population(6, 0), 2);
+
+        assertSame(source, model.migrate(0, source));
+        assertSame(target, model.migrate(1, target));
+        assertEquals(0, model.getMigrations());
+    }
+
+    @Test
+    void immigrantsReplaceAtMostHalfOfThePopulation() {
+        IslandModel<Integer> model = new IslandModel<>(3, IslandModel.Topology.FULL, 1, 5, new TruncationSelector<EnumGene<Integer>, Integer>());
+        model.migrate(0, result(population(0, 10), 1));
+        model.migrate(1, result(population(12, 20), 1));
+        ISeq<Phenotype<EnumGene<Integer>, Integer>> migrated = model.migrate(2, result(population(6, 0), 1)).population();
+
+        assertEquals(6, migrated.size());
+        assertEquals(3, migrated.stream().filter(p -> !p.isEvaluated()).count());
+        // island 1 has received three of the five emigrants of island 0, too
+        assertEquals(6, model.getImmigrants());
+    }
+
+    @Test
+    void topologyTargets() {
+        Random random = new Random(42);
+
+        assertArrayEquals(new int[] { 1 }, IslandModel.Topology.RING.targets(0, 3, random));
+        assertArrayEquals(new int[] { 0 }, IslandModel.Topology.RING.targets(2, 3, random));
+        assertArrayEquals(new int[] { 0, 1, 3 }, IslandModel.Topology.FULL.targets(2, 4, random));
+
+        boolean[] drawn = new boolean[4];
+        for(int i = 0; i < 1000; i++) {
+            int[] targets = IslandModel.Topology.RANDOM.targets(1, 4, random);
+            assertEquals(1, targets.length);
+            assertNotEquals(1, targets[0]);
+            drawn[targets[0]] = true;
+        }
+        assertArrayEquals(new boolean[] { true, false, true, true }, drawn);
+    }
+
+    @Test
+    void mergeConcatenatesThePopulations() {
+        EvolutionResult<EnumGene<Integer>, Integer> first = EvolutionResult.of(Optimize.MAXIMUM, population(0, 10), 7, 7,
+                EvolutionDurations.ZERO, 1, 2, 3);
+        EvolutionResult<EnumGene<Integer>, Integer> second = EvolutionResult.of(Optimize.MAXIMUM, population(6, 0), 9, 9,
+                EvolutionDurations.ZERO, 4, 5, 6);
+
+        EvolutionResult<EnumGene<Integer>, Integer> merged = IslandModel.merge(List.of(first, second));
+
+        assertEquals(first.population().append(second.population()), merged.population());
+        assertEquals(9, merged.generation());
+        assertEquals(16, merged.totalGenerations());
+        assertEquals(5, merged.killCount());
+        assertEquals(7, merged.invalidCount());
+        assertEquals(9, merged.alterCount());
+        assertEquals(15, merged.bestFitness());
+    }
+
+    @Test
+    void failingIslandStopsAllIslands() {
+        IslandModel<Integer> model = model(1, 2);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> model.evolve(island -> {
+            if(island == 0) {
+                throw new IllegalStateException("island failed");
+            }
+            while(model.isRunning()) {
+                Thread.onSpinWait();
+            }
+            return island;
+        }));
+
+        assertEquals("island failed", e.getMessage());
+        assertFalse(model.isRunning());
+    }
+
+    private static IslandModel<Integer> model(int migrationInterval, int migrants) {
+        return new IslandModel<>(2, IslandModel.Topology.RING, migrationInterval, migrants, new TruncationSelector<EnumGene<Integer>, Integer>());
+    }
+
+    /**
+     * @param rotation the rotation of the slots of the first individual, so that different populations hold different genotypes
+     * @param fitness the fitness of the first individual, increasing by one per individual
+     * @return six distinct individuals
+     */
+    private static ISeq<Phenotype<EnumGene<Integer>, Integer>> population(int rotation, int fitness) {
+        return ISeq.of(IntStream.range(0, 6)
+                .mapToObj(i -> {
+                    int[] slots = IntStream.range(0, 6).map(j -> (j + rotation + i) % 6).toArray();
+                    if(rotation + i >= 6) {
+                        // further rotations would repeat genotypes, so their first two slots are swapped
+                        slots = IntStream.range(0, 6).map(j -> j < 2 ? (1 - j + rotation + i) % 6 : (j + rotation + i) % 6).toArray();
+                    }
+                    return UniquePopulationIndexTest.phenotype(INSTANCE, slots).withFitness(fitness + i);
+                })
+                .toList());
+    }
+
+    private static EvolutionResult<EnumGene<Integer>, Integer> result(ISeq<Phenotype<EnumGene<Integer>, Integer>> population, long generation) {
+        return EvolutionResult.of(Optimize.MAXIMUM, population, generation, EvolutionDurations.ZERO, 0, 0, 0);
+    }
+}
@@ -0,0 +1,144 @@
+package optimizer.optimization.jenetics;
+
+import io.jenetics.Alterer;
+import io.jenetics.EnumGene;
+import io.jenetics.Genotype;
+import io.jenetics.PartiallyMatchedCrossover;
+import io.jenetics.Phenotype;
+import io.jenetics.SwapMutator;
+import io.jenetics.ext.HPRMutator;
+import io.jenetics.ext.RSMutator;
+import io.jenetics.ext.moea.Vec;
+import io.jenetics.util.ISeq;
+import io.jenetics.util.RandomRegistry;
+import optimizer.domain.FlightMO;
+import optimizer.domain.ProblemInstance;
+import optimizer.domain.Slot;
+import optimizer.optimization.jenetics.jeneticsMO.MOSlotAllocationProblem;
+import optimizer.optimization.jenetics.jeneticsMO.jeneticsExtensions.ArbitraryMutator;
+import optimizer.optimization.jenetics.jeneticsMO.jeneticsExtensions.ReportingHPRMutator;
+import optimizer.optimization.jenetics.jeneticsMO.jeneticsExtensions.ReportingRSMutator;
+import optimizer.optimization.jenetics.jeneticsMO.jeneticsExtensions.ReportingSwapMutator;
+import optimizer.optimization.jenetics.jeneticsMO.jeneticsExtensions.ShiftMutator;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Scores the individuals altered through the {@link MutationTracker} incrementally and compares the scores with a
+ * full evaluation of the same genotypes by a problem without registered mutations.
+ */
+class MutationTrackerTest {
+    private static final LocalDateTime START = LocalDateTime.of(2021, 1, 1, 8, 0);
+    private static final int POPULATION_SIZE = 40;
+
+    private final ProblemInstance instance = instance(12, 16, new Random(42));
+
+    @Test
+    void swapMutatorReportsItsPositions() {
+        assertIncrementalScoresEqualFullScores(new ReportingSwapMutator<>(0.1), true);
+    }
+
+    @Test
+    void reverseSequenceMutatorReportsItsPositions() {
+        assertIncrementalScoresEqualFullScores(new ReportingRSMutator<>(0.5), true);
+    }
+
+    @Test
+    void hybridMutatorReportsItsPositions() {
+        assertIncrementalScoresEqualFullScores(new ReportingHPRMutator<>(0.5), true);
+    }
+
+    @Test
+    void arbitraryMutatorReportsItsPositions() {
+        assertIncrementalScoresEqualFullScores(new ArbitraryMutator<>(0.5), true);
+    }
+
+    @Test
+    void shiftMutatorReportsItsPositions() {
+        assertIncrementalScoresEqualFullScores(new ShiftMutator<>(0.5), true);
+    }
+
+    @Test
+    void mutatorWithoutReportedPositionsIsComparedWithTheParent() {
+        assertIncrementalScoresEqualFullScores(new SwapMutator<>(0.1), true);
+    }
+
+    @Test
+    void crossoverIsComparedWithTheParent() {
+        assertIncrementalScoresEqualFullScores(new PartiallyMatchedCrossover<>(0.5), false);
+    }
+
+    @Test
+    void reportingMutatorsMutateLikeTheMutatorsTheyExtend() {
+        assertSameMutations(new ReportingSwapMutator<>(0.1), new SwapMutator<>(0.1));
+        assertSameMutations(new ReportingRSMutator<>(0.5), new RSMutator<>(0.5));
+        assertSameMutations(new ReportingHPRMutator<>(0.5), new HPRMutator<>(0.5));
+    }
+
+    private void assertIncrementalScoresEqualFullScores(Alterer<EnumGene<Integer>, Vec<int[]>> alterer, boolean incremental) {
+        MOSlotAllocationProblem problem = new MOSlotAllocationProblem(instance);
+        ISeq<Phenotype<EnumGene<Integer>, Vec<int[]>>> parents = population(problem);
+        problem.fitness(genotypes(parents));
+
+        MutationTracker<Vec<int[]>> tracker = new MutationTracker<>(alterer, problem);
+        ISeq<Phenotype<EnumGene<Integer>, Vec<int[]>>> children =
+                RandomRegistry.with(new Random(7), random -> tracker.alter(parents, 2)).population();
+        assertNotEquals(genotypes(parents), genotypes(children));
+
+        List<Vec<int[]>> scores = problem.fitness(genotypes(children));
+        List<Vec<int[]>> fullScores = new MOSlotAllocationProblem(instance).fitness(genotypes(children));
+
+        for(int i = 0; i < POPULATION_SIZE; i++) {
+            assertArrayEquals(fullScores.get(i).data(), scores.get(i).data(), "individual " + i);
+        }
+        if(incremental) {
+            assertTrue(problem.getIncrementalFitnessApplications() > 0);
+        }
+    }
+
+    private void assertSameMutations(Alterer<EnumGene<Integer>, Vec<int[]>> reporting, Alterer<EnumGene<Integer>, Vec<int[]>> mutator) {
+        ISeq<Phenotype<EnumGene<Integer>, Vec<int[]>>> population = population(new MOSlotAllocationProblem(instance));
+
+        ISeq<Phenotype<EnumGene<Integer>, Vec<int[]>>> reported =
+                RandomRegistry.with(new Random(7), random -> reporting.alter(population, 2)).population();
+        ISeq<Phenotype<EnumGene<Integer>, Vec<int[]>>> mutated =
+                RandomRegistry.with(new Random(7), random -> mutator.alter(population, 2)).population();
+
+        assertEquals(genotypes(mutated), genotypes(reported));
+    }
+
+    private static ISeq<Phenotype<EnumGene<Integer>, Vec<int[]>>> population(MOSlotAllocationProblem problem) {
+        return RandomRegistry.with(new Random(3), random -> problem.codec().encoding().instances()
+                .limit(POPULATION_SIZE)
+                .map(genotype -> Phenotype.<EnumGene<Integer>, Vec<int[]>>of(genotype, 1))
+                .collect(ISeq.toISeq()));
+    }
+
+    private static List<Genotype<EnumGene<Integer>>> genotypes(ISeq<Phenotype<EnumGene<Integer>, Vec<int[]>>> population) {
+        return population.map(Phenotype::genotype).asList();
+    }
+
+    /**
+     * @return an instance with random weights for both objectives
+     */
+    static ProblemInstance instance(int flightCount, int slotCount, Random random) {
+        FlightMO[] flights = new FlightMO[flightCount];
+        for(int f = 0; f < flightCount; f++) {
+            flights[f] = new FlightMO("F" + f, START.plusMinutes(f), random.ints(slotCount, 0, 100).toArray(),
+                    random.ints(slotCount, 0, 100).toArray());
+        }
+        Slot[] slots = new Slot[slotCount];
+        for(int j = 0; j < slotCount; j++) {
+            slots[j] = new Slot(START.plusMinutes(j));
+        }
+        return ProblemInstance.of(flights, slots);
+    }
+}
@@ -0,0 +1,79 @@
+package optimizer.optimization.jenetics;
+
+import io.jenetics.EnumGene;
+import io.jenetics.PermutationChromosome;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class PermutationFingerprintTest {
+
+    @Test
+    void updatesEqualFullRecomputation() {
+        Random random = new Random(42);
+        int slots = 50;
+        int flights = 30;
+        int[] permutation = shuffled(slots, random);
+        long fingerprint = PermutationFingerprint.of(permutation, flights);
+
+        for(int swap = 0; swap < 10_000; swap++) {
+            int a = random.nextInt(flights);
+            int b = random.nextInt(slots);
+            int slotA = permutation[a];
+            int slotB = permutation[b];
+            permutation[a] = slotB;
+            permutation[b] = slotA;
+
+            fingerprint = PermutationFingerprint.update(fingerprint, a, slotA, slotB);
+            if(b < flights) {
+                fingerprint = PermutationFingerprint.update(fingerprint, b, slotB, slotA);
+            }
+
+            assertEquals(PermutationFingerprint.of(permutation, flights), fingerprint);
+        }
+    }
+
+    @Test
+    void chromosomeAndPermutationAgree() {
+        PermutationChromosome<Integer> chromosome = PermutationChromosome.ofInteger(20);
+        int[] permutation = chromosome.stream().mapToInt(EnumGene::alleleIndex).toArray();
+
+        assertEquals(PermutationFingerprint.of(permutation, 12), PermutationFingerprint.of(chromosome, 12));
+    }
+
+    @Test
+    void ignoresPositionsOfUnassignedSlots() {
+        int[] permutation = { 3, 1, 0, 2, 4 };
+        int[] reordered = { 3, 1, 0, 4, 2 };
+
+        assertEquals(PermutationFingerprint.of(permutation, 3), PermutationFingerprint.of(reordered, 3));
+        assertNotEquals(PermutationFingerprint.of(permutation, 4), PermutationFingerprint.of(reordered, 4));
+    }
+
+    @Test
+    void updateIsItsOwnInverse() {
+        long fingerprint = PermutationFingerprint.of(new int[] { 2, 0, 1 }, 3);
+
+        long updated = PermutationFingerprint.update(fingerprint, 1, 0, 7);
+
+        assertNotEquals(fingerprint, updated);
+        assertEquals(fingerprint, PermutationFingerprint.update(updated, 1, 7, 0));
+    }
+
+    private static int[] shuffled(int size, Random random) {
+        int[] permutation = new int[size];
+        for(int i = 0; i < size; i++) {
+            permutation[i] = i;
+        }
+        for(int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = permutation[i];
+            permutation[i] = permutation[j];
+            permutation[j] = swap;
+        }
+        return permutation;
+    }
+}
@@ -0,0 +1,139 @@
+package optimizer.optimization.jenetics;
+
+import io.jenetics.Alterer;
+import io.jenetics.AltererResult;
+import io.jenetics.EnumGene;
+import io.jenetics.PartiallyMatchedCrossover;
+import io.jenetics.Phenotype;
+import io.jenetics.SwapMutator;
+import io.jenetics.engine.Codecs;
+import io.jenetics.engine.Engine;
+import io.jenetics.engine.EvolutionResult;
+import io.jenetics.engine.Evaluator;
+import io.jenetics.engine.EvolutionStream;
+import io.jenetics.util.ISeq;
+import io.jenetics.util.Seq;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PipelinedEvolutionTest {
+    private static final int GENERATIONS = 6;
+    private static final int POPULATION_SIZE = 20;
+
+    /**
+     * Alterations of each generation, counted down when the offspring of the generation have been bred.
+     */
+    private final Map<Long, CountDownLatch> bred = new ConcurrentHashMap<>();
+
+    @Test
+    void breedsTheNextGenerationDuringTheEvaluation() {
+        // the evaluation of a generation only returns once the offspring of the next generation have been bred
+        Map<Long, Boolean> overlapped = new ConcurrentHashMap<>();
+        Thread caller = Thread.currentThread();
+        Evaluator<EnumGene<Integer>, Integer> evaluator = population -> {
+            if(Thread.currentThread() == caller) {
+                // the initial population, evaluated before anything is bred
+                return evaluate(population);
+            }
+            long generation = population.stream().mapToLong(Phenotype::generation).max().orElse(0);
+            try {
+                overlapped.put(generation, latch(generation + 1).await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return evaluate(population);
+        };
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Engine<EnumGene<Integer>, Integer> engine = engine(evaluator);
+            PipelinedEvolution<Integer> evolution = new PipelinedEvolution<>(engine, executor);
+
+            List<EvolutionResult<EnumGene<Integer>, Integer>> results = EvolutionStream
+                    .ofEvolution(() -> PipelinedEvolution.start(engine, ISeq.empty()), evolution)
+                    .limit(GENERATIONS)
+                    .collect(Collectors.toList());
+
+            assertEquals(GENERATIONS, results.size());
+            for(int i = 0; i < GENERATIONS; i++) {
+                EvolutionResult<EnumGene<Integer>, Integer> result = results.get(i);
+                assertEquals(i + 1, result.generation());
+                assertEquals(POPULATION_SIZE, result.population().size());
+                assertTrue(result.population().forAll(Phenotype::isEvaluated));
+                assertTrue(result.population().forAll(individual -> individual.fitness() == fitness(individual)));
+                // the bred generations evaluated on the executor waited for the breeding of the next one
+                assertTrue(overlapped.get((long) i + 1), "generation " + (i + 1) + " was not overlapped");
+            }
+            assertEquals(GENERATIONS - 1, evolution.getSpeculativeGenerations());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void rethrowsTheFailureOfTheEvaluation() {
+        Evaluator<EnumGene<Integer>, Integer> evaluator = population -> {
+            if(population.stream().anyMatch(individual -> individual.generation() > 1)) {
+                throw new IllegalStateException("Privacy Engine unavailable");
+            }
+            return evaluate(population);
+        };
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Engine<EnumGene<Integer>, Integer> engine = engine(evaluator);
+            IllegalStateException exception = assertThrows(IllegalStateException.class, () ->
+                    PipelinedEvolution.stream(engine, executor, ISeq.empty()).limit(GENERATIONS).collect(Collectors.toList()));
+            assertEquals("Privacy Engine unavailable", exception.getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Engine<EnumGene<Integer>, Integer> engine(Evaluator<EnumGene<Integer>, Integer> evaluator) {
+        Alterer<EnumGene<Integer>, Integer> alterer = Alterer.<EnumGene<Integer>, Integer>of(
+                new SwapMutator<>(0.2), new PartiallyMatchedCrossover<>(0.5));
+        Alterer<EnumGene<Integer>, Integer> recording = (population, generation) -> {
+            AltererResult<EnumGene<Integer>, Integer> result = alterer.alter(population, generation);
+            latch(generation).countDown();
+            return result;
+        };
+
+        return new Engine.Builder<>(evaluator, Codecs.ofPermutation(10).encoding())
+                .populationSize(POPULATION_SIZE)
+                .alterers(recording)
+                .build();
+    }
+
+    private CountDownLatch latch(long generation) {
+        return bred.computeIfAbsent(generation, g -> new CountDownLatch(1));
+    }
+
+    private static ISeq<Phenotype<EnumGene<Integer>, Integer>> evaluate(Seq<Phenotype<EnumGene<Integer>, Integer>> population) {
+        return population.stream()
+                .map(individual -> individual.isEvaluated() ? individual : individual.withFitness(fitness(individual)))
+                .collect(ISeq.toISeq());
+    }
+
+    /**
+     * Number of genes in their natural position.
+     */
+    private static int fitness(Phenotype<EnumGene<Integer>, Integer> individual) {
+        return (int) IntStream.range(0, individual.genotype().chromosome().length())
+                .filter(i -> individual.genotype().chromosome().get(i).allele() == i)
+                .count();
+    }
+}
@@ -0,0 +1,145 @@
+package optimizer.optimization.jenetics;
+
+import io.jenetics.EnumGene;
+import io.jenetics.Genotype;
+import io.jenetics.Optimize;
+import io.jenetics.PermutationChromosome;
+import io.jenetics.Phenotype;
+import io.jenetics.engine.EvolutionDurations;
+import io.jenetics.engine.EvolutionResult;
+import io.jenetics.util.ISeq;
+import io.jenetics.util.IntRange;
+import optimizer.domain.Flight;
+import optimizer.domain.ProblemInstance;
+import optimizer.domain.Slot;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UniquePopulationIndexTest {
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 8, 0);
+
+    @Test
+    void countsEqualAssignmentsAsDuplicates() {
+        ProblemInstance instance = instance(3, 5, false);
+        UniquePopulationIndex index = new UniquePopulationIndex(instance, 0);
+
+        ISeq<Phenotype<EnumGene<Integer>, Integer>> population = ISeq.of(
+                phenotype(instance, 0, 1, 2, 3, 4),
+                phenotype(instance, 0, 1, 2, 3, 4),
+                // differs only in the order of the unassigned slots
+                phenotype(instance, 0, 1, 2, 4, 3),
+                phenotype(instance, 1, 0, 2, 3, 4));
+
+        assertEquals(2, index.countDuplicates(population));
+    }
+
+    @Test
+    void repairsAllDuplicates() {
+        ProblemInstance instance = instance(10, 12, false);
+        UniquePopulationIndex index = new UniquePopulationIndex(instance, 0);
+        ISeq<Phenotype<EnumGene<Integer>, Integer>> population = copies(phenotype(instance, IntStream.range(0, 12).toArray()), 20);
+
+        ISeq<Phenotype<EnumGene<Integer>, Integer>> repaired = index.unique(result(population)).population();
+
+        assertEquals(20, repaired.size());
+        assertEquals(20, fingerprints(repaired, instance).size());
+        assertSame(population.get(0), repaired.get(0));
+        assertTrue(repaired.stream().skip(1).noneMatch(Phenotype::isEvaluated));
+        assertEquals(19, index.getRepairedDuplicates());
+        assertEquals(0, index.getUnrepairedDuplicates());
+        assertEquals(0, index.countDuplicates(repaired));
+    }
+
+    @Test
+    void repairsKeepValidAssignmentsValid() {
+        // flight f is scheduled at slot f, so that each swap is only feasible in one direction
+        ProblemInstance instance = instance(8, 10, true);
+        UniquePopulationIndex index = new UniquePopulationIndex(instance, 0);
+        ISeq<Phenotype<EnumGene<Integer>, Integer>> population = copies(phenotype(instance, 2, 3, 4, 5, 6, 7, 8, 9, 0, 1), 15);
+
+        ISeq<Phenotype<EnumGene<Integer>, Integer>> repaired = index.unique(result(population)).population();
+
+        for(Phenotype<EnumGene<Integer>, Integer> phenotype : repaired) {
+            for(int f = 0; f < instance.getFlightCount(); f++) {
+                assertTrue(instance.isFeasible(f, phenotype.genotype().chromosome().get(f).alleleIndex()));
+            }
+        }
+        assertEquals(index.getRepairedDuplicates() + 1, fingerprints(repaired, instance).size());
+    }
+
+    @Test
+    void keepsDuplicatesThatCannotBeRepaired() {
+        ProblemInstance instance = instance(1, 1, false);
+        UniquePopulationIndex index = new UniquePopulationIndex(instance, 0);
+        ISeq<Phenotype<EnumGene<Integer>, Integer>> population = copies(phenotype(instance, 0), 3);
+        EvolutionResult<EnumGene<Integer>, Integer> result = result(population);
+
+        assertSame(result, index.unique(result));
+        assertEquals(2, index.getUnrepairedDuplicates());
+    }
+
+    @Test
+    void populationWithoutDuplicatesIsKept() {
+        ProblemInstance instance = instance(3, 3, false);
+        UniquePopulationIndex index = new UniquePopulationIndex(instance, 0);
+        EvolutionResult<EnumGene<Integer>, Integer> result = result(ISeq.of(
+                phenotype(instance, 0, 1, 2),
+                phenotype(instance, 1, 2, 0),
+                phenotype(instance, 2, 0, 1)));
+
+        assertSame(result, index.unique(result));
+        assertFalse(index.getRepairedDuplicates() > 0);
+    }
+
+    /**
+     * @param scheduled if true, flight f is scheduled at the time of slot f; otherwise all flights are scheduled
+     *                  before the first slot
+     */
+    static ProblemInstance instance(int flightCount, int slotCount, boolean scheduled) {
+        Flight[] flights = new Flight[flightCount];
+        for(int f = 0; f < flightCount; f++) {
+            flights[f] = new Flight("F" + f, scheduled ? START.plusMinutes(f) : START.minusMinutes(1), null);
+        }
+        Slot[] slots = new Slot[slotCount];
+        for(int j = 0; j < slotCount; j++) {
+            slots[j] = new Slot(START.plusMinutes(j));
+        }
+        return ProblemInstance.of(flights, slots);
+    }
+
+    static Phenotype<EnumGene<Integer>, Integer> phenotype(ProblemInstance instance, int... slots) {
+        ISeq<Integer> alleles = ISeq.of(IntRange.of(0, instance.getSlotCount()).stream().boxed().toList());
+        ISeq<EnumGene<Integer>> genes = ISeq.of(Arrays.stream(slots).mapToObj(j -> EnumGene.of(j, alleles)).toList());
+        return Phenotype.of(Genotype.of(new PermutationChromosome<>(genes)), 1, 0);
+    }
+
+    /**
+     * @return copies of the phenotype with distinct, but equal genotypes
+     */
+    private static ISeq<Phenotype<EnumGene<Integer>, Integer>> copies(Phenotype<EnumGene<Integer>, Integer> phenotype, int count) {
+        return ISeq.of(IntStream.range(0, count)
+                .mapToObj(i -> Phenotype.of(Genotype.of(phenotype.genotype().chromosome().newInstance(
+                        ISeq.of(phenotype.genotype().chromosome()))), 1, 0))
+                .toList());
+    }
+
+    private static EvolutionResult<EnumGene<Integer>, Integer> result(ISeq<Phenotype<EnumGene<Integer>, Integer>> population) {
+        return EvolutionResult.of(Optimize.MAXIMUM, population, 1, EvolutionDurations.ZERO, 0, 0, 0);
+    }
+
+    private static Set<Long> fingerprints(ISeq<Phenotype<EnumGene<Integer>, Integer>> population, ProblemInstance instance) {
+        Set<Long> fingerprints = new HashSet<>();
+        population.forEach(p -> fingerprints.add(PermutationFingerprint.of(p.genotype().chromosome(), instance.getFlightCount())));
+        return fingerprints;
+    }
+}
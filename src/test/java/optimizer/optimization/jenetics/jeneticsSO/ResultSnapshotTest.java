@@ -0,0 +1,106 @@
+package optimizer.optimization.jenetics.jeneticsSO;
+
+import io.jenetics.EnumGene;
+import io.jenetics.Genotype;
+import io.jenetics.Phenotype;
+import io.jenetics.util.RandomRegistry;
+import optimizer.domain.Flight;
+import optimizer.domain.Slot;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ResultSnapshotTest {
+    private static final int FLIGHTS = 12;
+    private static final int SLOTS = 15;
+
+    private final SOJeneticsOptimization optimization = optimization(new Random(20));
+    private final SOSlotAllocationProblem problem = new SOSlotAllocationProblem(optimization.getInstance());
+
+    @Test
+    void lazyDecodingEqualsEagerDecoding() {
+        List<Phenotype<EnumGene<Integer>, Integer>> results = results(25);
+        ResultSnapshot snapshot = ResultSnapshot.of(results);
+
+        // the results as they were decoded when the snapshot was taken
+        List<Map<Flight, Slot>> eager = results.stream().map(result -> problem.decode(result.genotype())).toList();
+
+        assertEquals(results.size(), snapshot.size());
+        for(int i = 0; i < results.size(); i++) {
+            assertSame(results.get(i).genotype(), snapshot.getGenotype(i));
+            assertEquals(results.get(i).fitness(), snapshot.getFitness(i));
+        }
+        assertEquals(eager, snapshot.decode(problem::decode));
+    }
+
+    @Test
+    void decodesEachSnapshotOnlyOnce() {
+        ResultSnapshot snapshot = ResultSnapshot.of(results(25));
+        AtomicInteger decodings = new AtomicInteger();
+        Function<Genotype<EnumGene<Integer>>, Map<Flight, Slot>> decoder = genotype -> {
+            decodings.incrementAndGet();
+            return problem.decode(genotype);
+        };
+
+        List<Map<Flight, Slot>> first = snapshot.decode(decoder);
+        assertEquals(25, decodings.get());
+
+        assertSame(first, snapshot.decode(decoder));
+        assertSame(first, snapshot.decode(decoder));
+        assertEquals(25, decodings.get());
+    }
+
+    @Test
+    void resultsOfTheOptimizationAreDecodedOncePerSnapshot() {
+        assertNull(optimization.getResults());
+
+        ResultSnapshot snapshot = ResultSnapshot.of(results(10));
+        optimization.setResults(snapshot);
+        List<Map<Flight, Slot>> results = optimization.getResults();
+
+        assertSame(results, optimization.getResults());
+        // the snapshot keeps the assignments decoded for the optimization
+        AtomicInteger decodings = new AtomicInteger();
+        assertSame(results, snapshot.decode(genotype -> {
+            decodings.incrementAndGet();
+            return problem.decode(genotype);
+        }));
+        assertEquals(0, decodings.get());
+
+        // a new snapshot is decoded on its first request
+        optimization.setResults(ResultSnapshot.of(results(10)));
+        List<Map<Flight, Slot>> next = optimization.getResults();
+        assertEquals(10, next.size());
+        assertSame(next, optimization.getResults());
+    }
+
+    private List<Phenotype<EnumGene<Integer>, Integer>> results(int size) {
+        return RandomRegistry.with(new Random(size), r -> problem.codec().encoding().instances()
+                .limit(size)
+                .map(genotype -> Phenotype.of(genotype, 1, problem.fitness(genotype)))
+                .collect(Collectors.toList()));
+    }
+
+    private static SOJeneticsOptimization optimization(Random random) {
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 8, 0);
+        Flight[] flights = new Flight[FLIGHTS];
+        for(int f = 0; f < FLIGHTS; f++) {
+            flights[f] = new Flight("F" + f, start, random.ints(SLOTS, 0, 100).toArray());
+        }
+        Slot[] slots = new Slot[SLOTS];
+        for(int j = 0; j < SLOTS; j++) {
+            slots[j] = new Slot(start.plusMinutes(j));
+        }
+        return new SOJeneticsOptimization(flights, slots);
+    }
+}
@@ -0,0 +1,120 @@
+package optimizer.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PopulationWireCodecTest {
+
+    @Test
+    void int32RoundTrip() {
+        int[][] population = population(new Random(1), 20, 37);
+
+        assertArrayEquals(population, PopulationWireCodec.decodeInt32(PopulationWireCodec.encodeInt32(population)));
+    }
+
+    @Test
+    void packedRoundTripForAllColumnCounts() {
+        Random random = new Random(2);
+        for(int columns = 1; columns <= 130; columns++) {
+            int[][] population = population(random, 7, columns);
+
+            byte[] body = PopulationWireCodec.encodePacked(population, null);
+
+            assertArrayEquals(population, PopulationWireCodec.decodePacked(body, null), "columns: " + columns);
+        }
+    }
+
+    @Test
+    void packedIsSmallerThanInt32() {
+        int[][] population = population(new Random(3), 100, 200);
+
+        assertTrue(PopulationWireCodec.encodePacked(population, null).length < PopulationWireCodec.encodeInt32(population).length / 3);
+    }
+
+    @Test
+    void deltaRoundTripAgainstBase() {
+        Random random = new Random(4);
+        int[][] base = population(random, 50, 60);
+        int[][] population = mutate(base, random, 3);
+
+        byte[] delta = PopulationWireCodec.encodePacked(population, base);
+
+        assertArrayEquals(population, PopulationWireCodec.decodePacked(delta, base));
+        assertTrue(delta.length < PopulationWireCodec.encodePacked(population, null).length);
+    }
+
+    @Test
+    void deltaRejectsUnknownBase() {
+        Random random = new Random(5);
+        int[][] base = population(random, 10, 20);
+        int[][] population = mutate(base, random, 2);
+        byte[] delta = PopulationWireCodec.encodePacked(population, base);
+
+        assertThrows(IllegalArgumentException.class, () -> PopulationWireCodec.decodePacked(delta, null));
+        assertThrows(IllegalArgumentException.class, () -> PopulationWireCodec.decodePacked(delta, population(random, 10, 20)));
+    }
+
+    @Test
+    void deltaFallsBackToFullEncodingForDifferentDimensions() {
+        Random random = new Random(6);
+        int[][] base = population(random, 10, 20);
+        int[][] population = population(random, 12, 20);
+
+        byte[] body = PopulationWireCodec.encodePacked(population, base);
+
+        assertArrayEquals(population, PopulationWireCodec.decodePacked(body, null));
+    }
+
+    @Test
+    void bitsPerValue() {
+        assertEquals(1, PopulationWireCodec.bitsPerValue(1));
+        assertEquals(1, PopulationWireCodec.bitsPerValue(2));
+        assertEquals(2, PopulationWireCodec.bitsPerValue(3));
+        assertEquals(8, PopulationWireCodec.bitsPerValue(256));
+        assertEquals(9, PopulationWireCodec.bitsPerValue(257));
+    }
+
+    /**
+     * @return rows of random permutations of the column indices
+     */
+    private static int[][] population(Random random, int rows, int columns) {
+        int[][] population = new int[rows][columns];
+        for(int[] row : population) {
+            for(int c = 0; c < columns; c++) {
+                row[c] = c;
+            }
+            for(int c = columns - 1; c > 0; c--) {
+                int j = random.nextInt(c + 1);
+                int swap = row[c];
+                row[c] = row[j];
+                row[j] = swap;
+            }
+        }
+        return population;
+    }
+
+    /**
+     * @return a copy of the population with the given number of swaps per row
+     */
+    private static int[][] mutate(int[][] population, Random random, int swaps) {
+        int[][] mutated = new int[population.length][];
+        for(int r = 0; r < population.length; r++) {
+            int[] row = population[r].clone();
+            for(int s = 0; s < swaps; s++) {
+                int a = random.nextInt(row.length);
+                int b = random.nextInt(row.length);
+                int swap = row[a];
+                row[a] = row[b];
+                row[b] = swap;
+            }
+            mutated[r] = row;
+        }
+        return mutated;
+    }
+}
@@ -0,0 +1,296 @@
+package optimizer.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import optimizer.service.client.PrivacyEngineClientProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the gateway against a local stand-in Privacy Engine, whose computeFitnessClear function returns the sum of the
+ * values of each individual; a negative population is rejected with 400 Bad Request. The stand-in can hold the first
+ * individual request, so that the requests following it are coalesced.
+ */
+class PrivacyEngineGatewayTest {
+    private static final String FUNCTION = "/computeFitnessClear";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger batchCalls = new AtomicInteger();
+    private final AtomicInteger individualCalls = new AtomicInteger();
+    private final AtomicInteger batchedItems = new AtomicInteger();
+
+    /**
+     * Released to answer the first individual request; null if it is answered right away.
+     */
+    private volatile CountDownLatch release = null;
+    private final CountDownLatch received = new CountDownLatch(1);
+    private final AtomicBoolean held = new AtomicBoolean();
+
+    private HttpServer server;
+    private PrivacyEngineGateway gateway;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext(FUNCTION, this::handleIndividual);
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        if(gateway != null) {
+            gateway.shutdown();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    void loneRequestIsSentRightAway() {
+        server.createContext("/batch" + FUNCTION, this::handleBatch);
+        gateway = gateway(Duration.ofMinutes(1), 8);
+
+        long start = System.nanoTime();
+        assertArrayEquals(new Integer[] { 1 }, exchange(new int[][] { { 1 } }).getBody());
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(30)) < 0);
+        assertEquals(0, batchCalls.get());
+        assertEquals(1, individualCalls.get());
+        assertTrue(gateway.isEnabled(url()));
+    }
+
+    @Test
+    void fullBatchesAreSentWithoutWaitingForTheWindow() throws Exception {
+        server.createContext("/batch" + FUNCTION, this::handleBatch);
+        gateway = gateway(Duration.ofMinutes(1), 8);
+
+        CompletableFuture<ResponseEntity<Integer[]>> first = holdFirstRequest();
+        List<Integer[]> results = exchangeConcurrently(32);
+
+        for(int i = 0; i < results.size(); i++) {
+            assertArrayEquals(new Integer[] { i, 2 * i }, results.get(i));
+        }
+        assertEquals(4, batchCalls.get());
+        assertEquals(32, batchedItems.get());
+
+        release.countDown();
+        assertArrayEquals(new Integer[] { 0 }, first.get().getBody());
+        assertEquals(1, individualCalls.get());
+    }
+
+    @Test
+    void batchIsSentWhenTheWindowCloses() throws Exception {
+        server.createContext("/batch" + FUNCTION, this::handleBatch);
+        gateway = gateway(Duration.ofMillis(200), 100);
+
+        CompletableFuture<ResponseEntity<Integer[]>> first = holdFirstRequest();
+        // sent by the window while the first request is still held
+        List<Integer[]> results = exchangeConcurrently(3);
+
+        for(int i = 0; i < results.size(); i++) {
+            assertArrayEquals(new Integer[] { i, 2 * i }, results.get(i));
+        }
+        assertEquals(1, batchCalls.get());
+        assertEquals(3, batchedItems.get());
+
+        release.countDown();
+        first.get();
+    }
+
+    @Test
+    void batchIsSentOnceTheRequestsInFlightHaveCompleted() throws Exception {
+        server.createContext("/batch" + FUNCTION, this::handleBatch);
+        gateway = gateway(Duration.ofMinutes(1), 100);
+
+        CompletableFuture<ResponseEntity<Integer[]>> first = holdFirstRequest();
+        CompletableFuture<List<Integer[]>> results = CompletableFuture.supplyAsync(() -> {
+            try {
+                return exchangeConcurrently(3);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while(gateway.pendingRequests(url()) < 3) {
+            Thread.sleep(1);
+        }
+        assertEquals(0, batchCalls.get());
+
+        release.countDown();
+        first.get();
+        List<Integer[]> coalesced = results.get(30, TimeUnit.SECONDS);
+
+        for(int i = 0; i < coalesced.size(); i++) {
+            assertArrayEquals(new Integer[] { i, 2 * i }, coalesced.get(i));
+        }
+        assertEquals(1, batchCalls.get());
+        assertEquals(3, batchedItems.get());
+    }
+
+    @Test
+    void errorOfAnItemIsRaisedForItsCallerOnly() throws Exception {
+        server.createContext("/batch" + FUNCTION, this::handleBatch);
+        gateway = gateway(Duration.ofMinutes(1), 2);
+
+        CompletableFuture<ResponseEntity<Integer[]>> first = holdFirstRequest();
+        CompletableFuture<ResponseEntity<Integer[]>> rejected = CompletableFuture.supplyAsync(
+                () -> exchange(new int[][] { { -1 } }));
+        ResponseEntity<Integer[]> accepted = exchange(new int[][] { { 1, 2 } });
+
+        assertArrayEquals(new Integer[] { 3 }, accepted.getBody());
+        Exception e = assertThrows(Exception.class, rejected::join);
+        assertTrue(e.getCause() instanceof HttpClientErrorException.BadRequest);
+        assertEquals(1, batchCalls.get());
+
+        release.countDown();
+        first.get();
+    }
+
+    @Test
+    void fallsBackToIndividualRequestsWithoutBatchVariant() throws Exception {
+        server.createContext("/batch", exchange -> respond(exchange, HttpStatus.NOT_FOUND.value(), objectMapper.createObjectNode()));
+        gateway = gateway(Duration.ofMinutes(1), 4);
+
+        CompletableFuture<ResponseEntity<Integer[]>> first = holdFirstRequest();
+        List<Integer[]> results = exchangeConcurrently(8);
+
+        for(int i = 0; i < results.size(); i++) {
+            assertArrayEquals(new Integer[] { i, 2 * i }, results.get(i));
+        }
+        assertFalse(gateway.isEnabled(url()));
+
+        release.countDown();
+        first.get();
+        assertEquals(9, individualCalls.get());
+    }
+
+    private PrivacyEngineGateway gateway(Duration coalescingWindow, int maxBatchSize) {
+        PrivacyEngineClientProperties properties = new PrivacyEngineClientProperties();
+        properties.setCoalescingWindow(coalescingWindow);
+        properties.setMaxBatchSize(maxBatchSize);
+        return new PrivacyEngineGateway(new RestTemplate(), objectMapper, properties);
+    }
+
+    /**
+     * Sends the population {@code [[0]]} and lets the stand-in hold it until {@link #release} is counted down, so
+     * that the following requests to the function are coalesced.
+     * @return the response to the held request
+     */
+    private CompletableFuture<ResponseEntity<Integer[]>> holdFirstRequest() throws InterruptedException {
+        release = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<Integer[]>> first = CompletableFuture.supplyAsync(() -> exchange(new int[][] { { 0 } }));
+        assertTrue(received.await(30, TimeUnit.SECONDS));
+        return first;
+    }
+
+    /**
+     * Sends the population through the gateway, or individually, as the {@link PrivacyEngineService} does.
+     */
+    private ResponseEntity<Integer[]> exchange(int[][] population) {
+        String url = url();
+        return gateway.exchange(url, UUID.randomUUID(), population, Integer[].class,
+                () -> new RestTemplate().exchange(RequestEntity.put(URI.create(url)).body(population), Integer[].class));
+    }
+
+    /**
+     * Lets each caller i send the population {@code [[i], [i, i]]} through the gateway.
+     * @return the response of each caller
+     */
+    private List<Integer[]> exchangeConcurrently(int callers) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<CompletableFuture<Integer[]>> responses = new ArrayList<>();
+            for(int i = 0; i < callers; i++) {
+                int[][] population = { { i }, { i, i } };
+                responses.add(CompletableFuture.supplyAsync(() -> exchange(population).getBody(), executor));
+            }
+
+            List<Integer[]> results = new ArrayList<>();
+            for(CompletableFuture<Integer[]> response : responses) {
+                results.add(response.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private String url() {
+        return "http://localhost:" + server.getAddress().getPort() + FUNCTION;
+    }
+
+    private void handleIndividual(HttpExchange exchange) throws IOException {
+        individualCalls.incrementAndGet();
+        int[][] population = objectMapper.readValue(exchange.getRequestBody(), int[][].class);
+        if(release != null && held.compareAndSet(false, true)) {
+            received.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        respond(exchange, HttpStatus.OK.value(), objectMapper.valueToTree(fitness(population)));
+    }
+
+    private void handleBatch(HttpExchange exchange) throws IOException {
+        batchCalls.incrementAndGet();
+        ArrayNode responses = objectMapper.createArrayNode();
+        for(JsonNode item : objectMapper.readTree(exchange.getRequestBody())) {
+            int[][] population = objectMapper.treeToValue(item.get("population"), int[][].class);
+            batchedItems.incrementAndGet();
+            boolean valid = population[0][0] >= 0;
+            responses.addObject()
+                    .put("status", valid ? HttpStatus.OK.value() : HttpStatus.BAD_REQUEST.value())
+                    .set("body", valid ? objectMapper.valueToTree(fitness(population)) : objectMapper.createObjectNode());
+        }
+        respond(exchange, HttpStatus.OK.value(), responses);
+    }
+
+    private static int[] fitness(int[][] population) {
+        int[] fitness = new int[population.length];
+        for(int i = 0; i < population.length; i++) {
+            for(int value : population[i]) {
+                fitness[i] += value;
+            }
+        }
+        return fitness;
+    }
+
+    private void respond(HttpExchange exchange, int status, JsonNode body) throws IOException {
+        byte[] response = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, response.length);
+        exchange.getResponseBody().write(response);
+        exchange.close();
+    }
+}
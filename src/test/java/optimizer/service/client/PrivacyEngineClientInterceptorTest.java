@@ -0,0 +1,222 @@
+package optimizer.service.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the Privacy Engine client against a local stand-in Privacy Engine, whose handler answers with the given
+ * statuses in turn and echoes the (decompressed) request body.
+ */
+class PrivacyEngineClientInterceptorTest {
+    private HttpServer server;
+    private final List<Integer> statuses = new CopyOnWriteArrayList<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final List<String> contentEncodings = new CopyOnWriteArrayList<>();
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+    private PrivacyEngineClientProperties properties;
+    private CloseableHttpClient httpClient;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/computeFitnessClear", this::handle);
+        server.start();
+
+        properties = new PrivacyEngineClientProperties();
+        properties.setInitialBackoff(Duration.ofMillis(1));
+        properties.setMaxBackoff(Duration.ofMillis(5));
+    }
+
+    @AfterEach
+    void stopServer() throws IOException {
+        if(httpClient != null) {
+            httpClient.close();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    void retriesUnavailablePrivacyEngineOnTheSameConnection() {
+        statuses.addAll(List.of(503, 503, 200));
+        properties.setMaxAttempts(3);
+
+        assertArrayEquals(new Integer[] { 1, 2 }, send(client(), "[1,2]"));
+        assertEquals(3, requests.get());
+        assertEquals(1, clientPorts.size());
+    }
+
+    @Test
+    void doesNotRetryInternalServerError() {
+        statuses.addAll(List.of(500, 200));
+        properties.setMaxAttempts(3);
+
+        assertThrows(HttpServerErrorException.InternalServerError.class, () -> send(client(), "[1,2]"));
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void compressesLargeRequestBodies() {
+        properties.setRequestCompression(true);
+        properties.setCompressionThreshold(16);
+        RestTemplate client = client();
+
+        assertArrayEquals(new Integer[] { 1 }, send(client, "[1]"));
+        String large = "[1,2,3,4,5,6,7,8,9,10,11,12,13,14,15]";
+        assertArrayEquals(new Integer[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15 }, send(client, large));
+
+        assertEquals(List.of("none", "gzip"), contentEncodings);
+    }
+
+    @Test
+    void sendsUncompressedOnceCompressionIsRejected() {
+        statuses.addAll(List.of(415, 200, 200));
+        properties.setRequestCompression(true);
+        properties.setCompressionThreshold(1);
+        RestTemplate client = client();
+
+        assertArrayEquals(new Integer[] { 1 }, send(client, "[1]"));
+        assertArrayEquals(new Integer[] { 2 }, send(client, "[2]"));
+
+        assertEquals(List.of("gzip", "none", "none"), contentEncodings);
+    }
+
+    @Test
+    void repeatedFailuresOpenTheCircuitBreaker() {
+        statuses.addAll(List.of(500, 500, 500));
+        properties.setMaxAttempts(1);
+        properties.setCircuitBreakerFailureThreshold(2);
+        PrivacyEngineClientInterceptor interceptor = new PrivacyEngineClientInterceptor(properties);
+        RestTemplate client = client(interceptor);
+
+        assertThrows(HttpServerErrorException.class, () -> send(client, "[1]"));
+        assertThrows(HttpServerErrorException.class, () -> send(client, "[1]"));
+        ResourceAccessException e = assertThrows(ResourceAccessException.class, () -> send(client, "[1]"));
+
+        assertTrue(e.getCause() instanceof CircuitBreakerOpenException);
+        assertEquals(2, requests.get());
+        assertEquals(Map.of(host(), CircuitBreaker.State.OPEN), interceptor.getCircuitBreakerStates());
+        assertEquals(2, interceptor.getLatencies().get(host() + "/computeFitnessClear").getCount());
+    }
+
+    @Test
+    void halfOpenCircuitBreakerClosesAfterSuccessfulProbe() throws InterruptedException {
+        statuses.addAll(List.of(500, 200));
+        properties.setMaxAttempts(1);
+        properties.setCircuitBreakerFailureThreshold(1);
+        properties.setCircuitBreakerOpenDuration(Duration.ofMillis(20));
+        PrivacyEngineClientInterceptor interceptor = new PrivacyEngineClientInterceptor(properties);
+        RestTemplate client = client(interceptor);
+
+        assertThrows(HttpServerErrorException.class, () -> send(client, "[1]"));
+        assertThrows(ResourceAccessException.class, () -> send(client, "[1]"));
+        Thread.sleep(40);
+
+        assertArrayEquals(new Integer[] { 1 }, send(client, "[1]"));
+        assertEquals(CircuitBreaker.State.CLOSED, interceptor.getCircuitBreakerStates().get(host()));
+    }
+
+    @Test
+    void probeFailingWithAnUncheckedExceptionReopensTheCircuitBreaker() throws InterruptedException {
+        statuses.addAll(List.of(500, 200));
+        properties.setMaxAttempts(1);
+        properties.setCircuitBreakerFailureThreshold(1);
+        properties.setCircuitBreakerOpenDuration(Duration.ofMillis(20));
+        PrivacyEngineClientInterceptor interceptor = new PrivacyEngineClientInterceptor(properties);
+        RestTemplate client = client(interceptor);
+        // fails the request between the interceptor and the connection while set
+        AtomicBoolean failing = new AtomicBoolean();
+        client.getInterceptors().add((request, body, execution) -> {
+            if(failing.get()) {
+                throw new IllegalStateException("request failed");
+            }
+            return execution.execute(request, body);
+        });
+
+        assertThrows(HttpServerErrorException.class, () -> send(client, "[1]"));
+        Thread.sleep(40);
+
+        failing.set(true);
+        assertThrows(IllegalStateException.class, () -> send(client, "[1]"));
+        assertEquals(CircuitBreaker.State.OPEN, interceptor.getCircuitBreakerStates().get(host()));
+        Thread.sleep(40);
+
+        // the next probe is let through
+        failing.set(false);
+        assertArrayEquals(new Integer[] { 1 }, send(client, "[1]"));
+        assertEquals(CircuitBreaker.State.CLOSED, interceptor.getCircuitBreakerStates().get(host()));
+        assertEquals(2, requests.get());
+    }
+
+    private RestTemplate client() {
+        return client(new PrivacyEngineClientInterceptor(properties));
+    }
+
+    private RestTemplate client(PrivacyEngineClientInterceptor interceptor) {
+        httpClient = new PrivacyEngineClientConfiguration().privacyEngineHttpClient(properties);
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        restTemplate.getInterceptors().add(interceptor);
+        return restTemplate;
+    }
+
+    private Integer[] send(RestTemplate client, String body) {
+        RequestEntity<String> request = RequestEntity.put(URI.create(host() + "/computeFitnessClear"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .body(body);
+        return client.exchange(request, Integer[].class).getBody();
+    }
+
+    private String host() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+
+        String encoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+        contentEncodings.add(encoding != null ? encoding : "none");
+        byte[] body;
+        try(InputStream in = "gzip".equals(encoding) ? new GZIPInputStream(exchange.getRequestBody()) : exchange.getRequestBody()) {
+            body = in.readAllBytes();
+        }
+
+        int status = statuses.isEmpty() ? 200 : statuses.remove(0);
+        byte[] response = status == 200 ? body : ("{\"status\":" + status + "}").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, response.length);
+        exchange.getResponseBody().write(response);
+        exchange.close();
+    }
+}
@@ -0,0 +1,240 @@
+package optimizer.service.simulator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jenetics.EnumGene;
+import io.jenetics.Phenotype;
+import io.jenetics.util.ISeq;
+import io.jenetics.util.RandomRegistry;
+import optimizer.domain.Flight;
+import optimizer.domain.Slot;
+import optimizer.optimization.evaluation.PopulationEncoder;
+import optimizer.optimization.jenetics.JeneticsOptimization;
+import optimizer.optimization.jenetics.jeneticsSO.SOJeneticsOptimization;
+import optimizer.optimization.jenetics.jeneticsSO.SOJeneticsOptimizationConfiguration;
+import optimizer.optimization.jenetics.jeneticsSO.SOSlotAllocationProblem;
+import optimizer.service.OptimizationService;
+import optimizer.service.PopulationWireFormat;
+import optimizer.service.PrivacyEngineGateway;
+import optimizer.service.PrivacyEngineService;
+import optimizer.service.client.PrivacyEngineClientInterceptor;
+import optimizer.service.client.PrivacyEngineClientProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sends populations through the Privacy Engine client to the simulator and compares its answers with the fitness of
+ * the individuals computed locally by the slot allocation problem.
+ */
+class SimulatedPrivacyEngineTest {
+    private static final int FLIGHTS = 20;
+    private static final int POPULATION_SIZE = 30;
+
+    private final Random random = new Random(42);
+    private final SOJeneticsOptimization optimization = optimization();
+    private final SOSlotAllocationProblem problem = new SOSlotAllocationProblem(optimization.getInstance());
+    private final PopulationEncoder encoder = new PopulationEncoder(optimization.getInstance());
+
+    /**
+     * Paths of the requests received by the simulator.
+     */
+    private final List<String> paths = new CopyOnWriteArrayList<>();
+
+    @Test
+    void answersJsonPopulations() {
+        assertRanksLikeTheLocalFitness(privacyEngine(PopulationWireFormat.JSON, Duration.ZERO, false));
+    }
+
+    @Test
+    void answersInt32Populations() {
+        assertRanksLikeTheLocalFitness(privacyEngine(PopulationWireFormat.INT32, Duration.ZERO, false));
+    }
+
+    @Test
+    void answersPackedPopulations() {
+        assertRanksLikeTheLocalFitness(privacyEngine(PopulationWireFormat.PACKED, Duration.ZERO, false));
+    }
+
+    @Test
+    void answersDeltaEncodedPopulations() {
+        // each population after the first is sent as a delta against the previous one
+        assertRanksLikeTheLocalFitness(privacyEngine(PopulationWireFormat.PACKED_DELTA, Duration.ZERO, false));
+    }
+
+    @Test
+    void answersCompressedPopulations() {
+        assertRanksLikeTheLocalFitness(privacyEngine(PopulationWireFormat.JSON, Duration.ZERO, true));
+        assertRanksLikeTheLocalFitness(privacyEngine(PopulationWireFormat.PACKED_DELTA, Duration.ZERO, true));
+    }
+
+    @Test
+    void answersBatchedPopulations() throws Exception {
+        // the first request is in flight for the fixed latency, so the following requests are coalesced
+        PrivacyEngineService privacyEngine = privacyEngine(PopulationWireFormat.JSON, Duration.ofMillis(300), false);
+        List<ISeq<Phenotype<EnumGene<Integer>, Integer>>> populations = new ArrayList<>();
+        for(int i = 0; i < 6; i++) {
+            populations.add(population());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(populations.size());
+        try {
+            List<CompletableFuture<Integer[]>> responses = new ArrayList<>();
+            for(ISeq<Phenotype<EnumGene<Integer>, Integer>> population : populations) {
+                responses.add(CompletableFuture.supplyAsync(() ->
+                        privacyEngine.computeActualFitnessValues(optimization, encoder.encode(population)), executor));
+                Thread.sleep(20);
+            }
+
+            for(int i = 0; i < populations.size(); i++) {
+                assertArrayEquals(localFitness(populations.get(i)), responses.get(i).get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(paths.contains("/batch/computeFitnessClear"), paths.toString());
+    }
+
+    @Test
+    void answersAfterTheFixedLatency() {
+        PrivacyEngineService privacyEngine = privacyEngine(PopulationWireFormat.JSON, Duration.ofMillis(200), false);
+        ISeq<Phenotype<EnumGene<Integer>, Integer>> population = population();
+
+        long start = System.nanoTime();
+        Integer[] fitness = privacyEngine.computeActualFitnessValues(optimization, encoder.encode(population));
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertArrayEquals(localFitness(population), fitness);
+        assertTrue(elapsed.compareTo(Duration.ofMillis(200)) >= 0, elapsed.toString());
+    }
+
+    private void assertRanksLikeTheLocalFitness(PrivacyEngineService privacyEngine) {
+        for(int generation = 0; generation < 3; generation++) {
+            ISeq<Phenotype<EnumGene<Integer>, Integer>> population = population();
+            Integer[] localFitness = localFitness(population);
+
+            assertArrayEquals(localFitness, privacyEngine.computeActualFitnessValues(optimization, encoder.encode(population)));
+
+            int[] order = privacyEngine.computePopulationOrder(optimization, encoder.encode(population)).getOrder();
+            assertArrayEquals(IntStream.range(0, POPULATION_SIZE).toArray(), Arrays.stream(order).sorted().toArray());
+            assertArrayEquals(Arrays.stream(localFitness).sorted(Comparator.reverseOrder()).toArray(),
+                    Arrays.stream(order).mapToObj(i -> localFitness[i]).toArray());
+        }
+    }
+
+    /**
+     * @return the Privacy Engine service of the optimization, answered by a new simulator
+     */
+    private PrivacyEngineService privacyEngine(PopulationWireFormat format, Duration latency, boolean compression) {
+        SOJeneticsOptimizationConfiguration configuration = optimization.getDefaultConfiguration();
+        configuration.setPrivacyEngineWireFormat(format.name());
+        optimization.setConfiguration(configuration);
+
+        OptimizationService optimizationService = new OptimizationService(null) {
+            @Override
+            public JeneticsOptimization getJeneticsOptimization(UUID optId) {
+                return optimization.getOptId().equals(optId) ? optimization : null;
+            }
+        };
+
+        PrivacyEngineSimulatorProperties simulatorProperties = new PrivacyEngineSimulatorProperties();
+        simulatorProperties.setLatency(LatencyDistribution.Type.FIXED);
+        simulatorProperties.setFixedLatency(latency);
+        simulatorProperties.setMaxConcurrency(8);
+        simulatorProperties.setSeed(1);
+        ObjectMapper objectMapper = new ObjectMapper();
+        SimulatedPrivacyEngine simulator = new SimulatedPrivacyEngine(
+                provider(optimizationService),
+                objectMapper, simulatorProperties);
+
+        PrivacyEngineClientProperties clientProperties = new PrivacyEngineClientProperties();
+        clientProperties.setRequestCompression(compression);
+        clientProperties.setCompressionThreshold(1);
+        clientProperties.setCoalescingWindow(Duration.ofMillis(50));
+
+        ClientHttpRequestFactory recording = (uri, method) -> {
+            paths.add(uri.getPath());
+            return simulator.createRequest(uri, method);
+        };
+        RestTemplate restTemplate = new RestTemplate(recording);
+        restTemplate.getInterceptors().add(new PrivacyEngineClientInterceptor(clientProperties));
+
+        return new PrivacyEngineService(restTemplate, new PrivacyEngineGateway(restTemplate, objectMapper, clientProperties));
+    }
+
+    private static <T> ObjectProvider<T> provider(T object) {
+        return new ObjectProvider<>() {
+            @Override
+            public T getObject() {
+                return object;
+            }
+
+            @Override
+            public T getObject(Object... args) {
+                return object;
+            }
+
+            @Override
+            public T getIfAvailable() {
+                return object;
+            }
+
+            @Override
+            public T getIfUnique() {
+                return object;
+            }
+        };
+    }
+
+    private ISeq<Phenotype<EnumGene<Integer>, Integer>> population() {
+        return RandomRegistry.with(random, r -> problem.codec().encoding().instances()
+                .limit(POPULATION_SIZE)
+                .map(genotype -> Phenotype.<EnumGene<Integer>, Integer>of(genotype, 1))
+                .collect(ISeq.toISeq()));
+    }
+
+    private Integer[] localFitness(ISeq<Phenotype<EnumGene<Integer>, Integer>> population) {
+        return population.stream()
+                .map(Phenotype::genotype)
+                .map(problem::fitness)
+                .toArray(Integer[]::new);
+    }
+
+    /**
+     * @return an optimization whose slots are all assigned, so that the simulator reads the positions exactly
+     */
+    private SOJeneticsOptimization optimization() {
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 8, 0);
+        Flight[] flights = new Flight[FLIGHTS];
+        for(int f = 0; f < FLIGHTS; f++) {
+            flights[f] = new Flight("F" + f, start, random.ints(FLIGHTS, 0, 1000).toArray());
+        }
+        Slot[] slots = new Slot[FLIGHTS];
+        for(int j = 0; j < FLIGHTS; j++) {
+            // session order differs from time order
+            slots[j] = new Slot(start.plusMinutes((7L * j) % FLIGHTS));
+        }
+
+        SOJeneticsOptimization optimization = new SOJeneticsOptimization(flights, slots);
+        optimization.setOptId(UUID.randomUUID());
+        optimization.setPrivacyEngineEndpoint("http://privacy-engine");
+        return optimization;
+    }
+}
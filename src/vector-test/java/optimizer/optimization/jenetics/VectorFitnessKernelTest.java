@@ -0,0 +1,90 @@
+package optimizer.optimization.jenetics;
+
+import jdk.incubator.vector.IntVector;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the vectorized kernel with the scalar kernel on random permutations. Run with {@code mvn -Pvector test}.
+ */
+class VectorFitnessKernelTest {
+    private static final int LANES = IntVector.SPECIES_PREFERRED.length();
+    private static final int PERMUTATIONS = 50;
+
+    private final Random random = new Random(42);
+
+    @Test
+    void isUsedIfTheVectorModuleIsPresent() {
+        assertTrue(FitnessKernel.of(10, 10) instanceof VectorFitnessKernel);
+    }
+
+    @Test
+    void sumsLikeTheScalarKernel() {
+        // flight counts below, at and above multiples of the lane count, i.e., with and without tail lanes
+        for(int flightCount = 1; flightCount <= 3 * LANES + 1; flightCount++) {
+            int slotCount = flightCount + random.nextInt(5);
+            int[] matrix = weights(flightCount * slotCount);
+            int[][] permutations = permutations(flightCount, slotCount);
+
+            int[] sums = new int[PERMUTATIONS];
+            int[] expected = new int[PERMUTATIONS];
+            new VectorFitnessKernel(flightCount, slotCount).sum(matrix, permutations, PERMUTATIONS, sums);
+            new ScalarFitnessKernel(flightCount, slotCount).sum(matrix, permutations, PERMUTATIONS, expected);
+
+            assertArrayEquals(expected, sums, flightCount + " flights");
+        }
+    }
+
+    @Test
+    void sumsInterleavedLikeTheScalarKernel() {
+        for(int flightCount = 1; flightCount <= 3 * LANES + 1; flightCount++) {
+            int slotCount = flightCount + random.nextInt(5);
+            int[] interleavedMatrix = weights(2 * flightCount * slotCount);
+            int[][] permutations = permutations(flightCount, slotCount);
+
+            int[] sums = new int[PERMUTATIONS];
+            int[] secondSums = new int[PERMUTATIONS];
+            int[] expected = new int[PERMUTATIONS];
+            int[] secondExpected = new int[PERMUTATIONS];
+            new VectorFitnessKernel(flightCount, slotCount)
+                    .sumInterleaved(interleavedMatrix, permutations, PERMUTATIONS, sums, secondSums);
+            new ScalarFitnessKernel(flightCount, slotCount)
+                    .sumInterleaved(interleavedMatrix, permutations, PERMUTATIONS, expected, secondExpected);
+
+            assertArrayEquals(expected, sums, flightCount + " flights");
+            assertArrayEquals(secondExpected, secondSums, flightCount + " flights");
+        }
+    }
+
+    /**
+     * @return random weights, including large ones so that the sums overflow
+     */
+    private int[] weights(int size) {
+        int[] weights = new int[size];
+        for(int i = 0; i < size; i++) {
+            weights[i] = random.nextBoolean() ? random.nextInt() : random.nextInt(100);
+        }
+        return weights;
+    }
+
+    /**
+     * @return permutations of the slots, of which the first flightCount positions are assigned
+     */
+    private int[][] permutations(int flightCount, int slotCount) {
+        int[][] permutations = new int[PERMUTATIONS][];
+        for(int i = 0; i < PERMUTATIONS; i++) {
+            int[] permutation = new int[slotCount];
+            for(int j = 0; j < slotCount; j++) {
+                int k = random.nextInt(j + 1);
+                permutation[j] = permutation[k];
+                permutation[k] = j;
+            }
+            permutations[i] = permutation;
+        }
+        return permutations;
+    }
+}
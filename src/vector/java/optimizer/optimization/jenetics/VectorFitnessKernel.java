@@ -0,0 +1,94 @@
+package optimizer.optimization.jenetics;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Fitness kernel using the Vector API: the matrix indices of a lane of flights are computed by adding the
+ * precomputed row offsets to the permutation, and the weights are gathered and accumulated lane-wise. The
+ * remaining flights that do not fill a lane are summed up in scalar code. For the interleaved matrix, the indices
+ * are doubled and both weights are gathered with the same index vector, offset by one for the second weight.
+ * <p>
+ * This class is only compiled with the vector profile and must only be loaded if the jdk.incubator.vector module is
+ * present, see {@link FitnessKernel#of}.
+ */
+final class VectorFitnessKernel implements FitnessKernel {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    private final int flightCount;
+    private final int loopBound;
+    private final int[] rowOffsets;
+
+    VectorFitnessKernel(int flightCount, int slotCount) {
+        this.flightCount = flightCount;
+        this.loopBound = SPECIES.loopBound(flightCount);
+        this.rowOffsets = new int[flightCount];
+
+        for(int f = 0; f < flightCount; f++) {
+            rowOffsets[f] = f * slotCount;
+        }
+    }
+
+    @Override
+    public void sum(int[] matrix, int[][] permutations, int count, int[] sums) {
+        int[] indices = new int[SPECIES.length()];
+
+        for(int i = 0; i < count; i++) {
+            int[] permutation = permutations[i];
+            IntVector acc = IntVector.zero(SPECIES);
+
+            int f = 0;
+            for(; f < loopBound; f += SPECIES.length()) {
+                IntVector.fromArray(SPECIES, permutation, f)
+                        .add(IntVector.fromArray(SPECIES, rowOffsets, f))
+                        .intoArray(indices, 0);
+                acc = acc.add(IntVector.fromArray(SPECIES, matrix, 0, indices, 0));
+            }
+
+            int sum = acc.reduceLanes(VectorOperators.ADD);
+            for(; f < flightCount; f++) {
+                sum += matrix[rowOffsets[f] + permutation[f]];
+            }
+
+            sums[i] = sum;
+        }
+    }
+
+    @Override
+    public void sumInterleaved(int[] interleavedMatrix, int[][] permutations, int count, int[] sums, int[] secondSums) {
+        int[] indices = new int[SPECIES.length()];
+
+        for(int i = 0; i < count; i++) {
+            int[] permutation = permutations[i];
+            IntVector acc = IntVector.zero(SPECIES);
+            IntVector secondAcc = IntVector.zero(SPECIES);
+
+            int f = 0;
+            for(; f < loopBound; f += SPECIES.length()) {
+                IntVector.fromArray(SPECIES, permutation, f)
+                        .add(IntVector.fromArray(SPECIES, rowOffsets, f))
+                        .lanewise(VectorOperators.LSHL, 1)
+                        .intoArray(indices, 0);
+                acc = acc.add(IntVector.fromArray(SPECIES, interleavedMatrix, 0, indices, 0));
+                secondAcc = secondAcc.add(IntVector.fromArray(SPECIES, interleavedMatrix, 1, indices, 0));
+            }
+
+            int sum = acc.reduceLanes(VectorOperators.ADD);
+            int secondSum = secondAcc.reduceLanes(VectorOperators.ADD);
+            for(; f < flightCount; f++) {
+                int index = (rowOffsets[f] + permutation[f]) << 1;
+                sum += interleavedMatrix[index];
+                secondSum += interleavedMatrix[index + 1];
+            }
+
+            sums[i] = sum;
+            secondSums[i] = secondSum;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "vector (" + SPECIES + ")";
+    }
+}